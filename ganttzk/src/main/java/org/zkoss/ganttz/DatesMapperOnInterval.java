@@ -24,6 +24,8 @@ package org.zkoss.ganttz;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.lang3.math.Fraction;
 import org.joda.time.DateTime;
@@ -38,6 +40,13 @@ public class DatesMapperOnInterval implements IDatesMapper {
     private long millisecondsPerPixel;
     private Fraction pixelsPerDay;
 
+    /**
+     * The positions of the days already asked. The mapper is kept by the
+     * {@link org.zkoss.ganttz.timetracker.TimeTracker} for each zoom level, so
+     * they are reused when the zoom level is visited again.
+     */
+    private final Map<LocalDate, Integer> pixelsByDate = new HashMap<>();
+
     public DatesMapperOnInterval(int horizontalSize, Interval interval) {
         this.horizontalSize = horizontalSize;
         this.interval = interval;
@@ -53,7 +62,14 @@ public class DatesMapperOnInterval implements IDatesMapper {
 
     @Override
     public int toPixels(LocalDate date) {
-        return toPixels(getProportion(date));
+        Integer result = pixelsByDate.get(date);
+
+        if ( result == null ) {
+            result = toPixels(getProportion(date));
+            pixelsByDate.put(date, result);
+        }
+
+        return result;
     }
 
     private Fraction getProportion(LocalDate date) {
@@ -164,9 +164,21 @@ public class DependencyComponent extends XulElement implements AfterCompose {
     }
 
     public void redrawDependency() {
+        if ( getParent() instanceof DependencyList ) {
+            smartUpdate("originBox", getOriginBox());
+            smartUpdate("destinationBox", getDestinationBox());
+        }
         response("redrawDependency" + getId(), new AuInvoke(this, "draw"));
     }
 
+    private String getOriginBox() {
+        return ((DependencyList) getParent()).boxOf(source.getTask());
+    }
+
+    private String getDestinationBox() {
+        return ((DependencyList) getParent()).boxOf(destination.getTask());
+    }
+
     public boolean contains(Task task) {
         Task sourceTask = getSource().getTask();
         Task destinationTask = getDestination().getTask();
@@ -203,6 +215,11 @@ public class DependencyComponent extends XulElement implements AfterCompose {
         render(renderer, "_idTaskOrig", getIdTaskOrig());
         render(renderer, "_idTaskEnd", getIdTaskEnd());
         render(renderer, "_dependencyType", getDependencyType());
+
+        if ( getParent() instanceof DependencyList ) {
+            render(renderer, "_originBox", getOriginBox());
+            render(renderer, "_destinationBox", getDestinationBox());
+        }
     }
 
     public boolean hasLimitingTasks() {
@@ -25,11 +25,23 @@ import static org.zkoss.ganttz.i18n.I18nHelper._;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.zkoss.ganttz.data.Dependency;
 import org.zkoss.ganttz.data.DependencyType;
+import org.zkoss.ganttz.data.GanttDate;
 import org.zkoss.ganttz.data.Task;
+import org.zkoss.ganttz.data.constraint.Constraint;
+import org.zkoss.ganttz.data.constraint.Constraint.IConstraintViolationListener;
 import org.zkoss.ganttz.timetracker.TimeTracker;
 import org.zkoss.ganttz.timetracker.TimeTrackerComponent;
 import org.zkoss.ganttz.timetracker.zoom.IZoomLevelChangedListener;
@@ -37,19 +49,44 @@ import org.zkoss.ganttz.timetracker.zoom.ZoomLevel;
 import org.zkoss.ganttz.util.ComponentsFinder;
 import org.zkoss.ganttz.util.MenuBuilder;
 import org.zkoss.ganttz.util.MenuBuilder.ItemAction;
+import org.zkoss.ganttz.util.WeakReferencedListeners.Mode;
+import org.zkoss.zk.au.AuRequest;
+import org.zkoss.zk.au.out.AuInvoke;
 import org.zkoss.zk.ui.Component;
+import org.zkoss.zk.ui.Execution;
+import org.zkoss.zk.ui.Executions;
 import org.zkoss.zk.ui.event.Event;
+import org.zkoss.zk.ui.event.Events;
 import org.zkoss.zk.ui.ext.AfterCompose;
+import org.zkoss.zk.ui.sys.ContentRenderer;
 import org.zkoss.zul.Menupopup;
 import org.zkoss.zul.Messagebox;
 import org.zkoss.zul.impl.XulElement;
 
 /**
+ * Component to show the dependencies between the tasks.
+ *
+ * When there are many dependencies they are drawn in bulk: instead of a
+ * {@link DependencyComponent} for each one, they are sent to the client as
+ * compact records and drawn on a single canvas. Afterwards only the records of
+ * the dependencies whose tasks change are sent again.
+ *
  * @author Francisco Javier Moran Rúa <jmoran@igalia.com>
  * @author Lorenzo Tilve Álvaro <ltilve@igalia.com>
  */
 public class DependencyList extends XulElement implements AfterCompose {
 
+    /**
+     * From this number of dependencies they are drawn in bulk.
+     */
+    private static final int DRAWING_IN_BULK_THRESHOLD = 500;
+
+    private static final String ON_DRAW_PENDING = "onDrawPendingDependencies";
+
+    private static final int VIOLATED = 1;
+
+    private static final int CRITICAL = 2;
+
     private final class ChangeTypeAction implements ItemAction<DependencyComponent> {
 
         private final DependencyType type;
@@ -60,7 +97,7 @@ public class DependencyList extends XulElement implements AfterCompose {
 
         @Override
         public void onEvent(final DependencyComponent chosen, Event event) {
-            boolean canBeAdded = context.changeType(chosen.getDependency(), type);
+            boolean canBeAdded = context.changeType(dependencyOf(chosen), type);
 
             if ( !canBeAdded ) {
                 warnUser(_("The specified dependency is not allowed"));
@@ -97,6 +134,17 @@ public class DependencyList extends XulElement implements AfterCompose {
             }
         }
 
+        void update() {
+            boolean mustBeVisible = dependencyMustBeVisible();
+            if ( mustBeVisible != isDependencyNowVisible() ) {
+                toggleDependencyExistence(mustBeVisible);
+
+                if ( mustBeVisible ) {
+                    dependencyComponent.redrawDependency();
+                }
+            }
+        }
+
         void toggleDependencyExistence(boolean visible) {
             if ( visible ) {
                 appendChild(dependencyComponent);
@@ -111,11 +159,120 @@ public class DependencyList extends XulElement implements AfterCompose {
             return dependencyComponent.getParent() != null;
         }
 
+        /**
+         * Both tasks must be shown and some of the rows the dependency goes
+         * through rendered. The ends whose rows aren't rendered are drawn from
+         * their {@link DependencyList#boxOf(Task) boxes}.
+         */
         boolean dependencyMustBeVisible() {
-            return source.isVisible() && destination.isVisible();
+            return source.isVisible()
+                    && destination.isVisible()
+                    && getGanttPanel().getTaskList().isRowSpanRendered(source, destination);
         }
     }
 
+    /**
+     * A dependency drawn in bulk. It's sent to the client as the record
+     * <code>[id, sourceRow, sourceStart, sourceEnd, destinationRow,
+     * destinationStart, destinationEnd, type, flags]</code>, with the
+     * positions in pixels.
+     */
+    private final class DrawnDependency {
+
+        private final int id;
+
+        private final Dependency dependency;
+
+        private final boolean limiting;
+
+        private boolean violated = false;
+
+        /**
+         * Kept here because the violation listeners are weakly referenced.
+         */
+        private final IConstraintViolationListener<GanttDate> violationListener;
+
+        private DrawnDependency(int id, DependencyComponent dependencyComponent) {
+            this.id = id;
+            this.dependency = dependencyComponent.getDependency();
+            this.limiting = dependencyComponent.hasLimitingTasks();
+
+            violationListener = Constraint.onlyOnZKExecution(new IConstraintViolationListener<GanttDate>() {
+
+                @Override
+                public void constraintViolated(Constraint<GanttDate> constraint, GanttDate value) {
+                    violated = true;
+                    toDraw(DrawnDependency.this);
+                }
+
+                @Override
+                public void constraintSatisfied(Constraint<GanttDate> constraint, GanttDate value) {
+                    violated = false;
+                    toDraw(DrawnDependency.this);
+                }
+            });
+
+            dependency.addConstraintViolationListener(violationListener, Mode.RECEIVE_PENDING);
+        }
+
+        Task getSource() {
+            return dependency.getSource();
+        }
+
+        Task getDestination() {
+            return dependency.getDestination();
+        }
+
+        boolean contains(Task task) {
+            return task.equals(getSource()) || task.equals(getDestination());
+        }
+
+        boolean hasSameSourceAndDestination(Dependency other) {
+            return getSource().equals(other.getSource()) && getDestination().equals(other.getDestination());
+        }
+
+        /**
+         * @return <code>null</code> if some of the tasks is not shown
+         */
+        int[] asRecord() {
+            TaskList taskList = getGanttPanel().getTaskList();
+            int sourceRow = taskList.rowOf(getSource());
+            int destinationRow = taskList.rowOf(getDestination());
+
+            if ( sourceRow < 0 || destinationRow < 0 ) {
+                return null;
+            }
+
+            IDatesMapper mapper = taskList.getMapper();
+            int flags = (violated ? VIOLATED : 0)
+                    | (getSource().isInCriticalPath() && getDestination().isInCriticalPath() ? CRITICAL : 0);
+
+            return new int[] {
+                    id,
+                    sourceRow,
+                    getSource().getBeginDate().toPixels(mapper),
+                    getSource().getEndDate().toPixels(mapper),
+                    destinationRow,
+                    getDestination().getBeginDate().toPixels(mapper),
+                    getDestination().getEndDate().toPixels(mapper),
+                    dependency.getType().ordinal(),
+                    flags };
+        }
+    }
+
+    /**
+     * @return the row of the task and the left and width of its bar in pixels
+     *         as <code>"row,left,width"</code>, so the client can draw a
+     *         dependency on it even if its row isn't rendered
+     */
+    String boxOf(Task task) {
+        TaskList taskList = getGanttPanel().getTaskList();
+        IDatesMapper mapper = taskList.getMapper();
+        int left = task.getBeginDate().toPixels(mapper);
+
+        return taskList.rowOf(task) + "," + left + "," + (task.getEndDate().toPixels(mapper) - left);
+    }
+
     private transient IZoomLevelChangedListener listener;
 
     private final FunctionalityExposedForExtensions<?> context;
@@ -124,6 +281,30 @@ public class DependencyList extends XulElement implements AfterCompose {
 
     private Menupopup limitingContextMenu;
 
+    private Map<DependencyComponent, DependencyVisibilityToggler> visibilityTogglers = new LinkedHashMap<>();
+
+    private boolean drawingInBulk = false;
+
+    private int lastDrawnId = 0;
+
+    private Map<Integer, DrawnDependency> drawnDependencies = new LinkedHashMap<>();
+
+    private Map<Task, List<DrawnDependency>> drawnDependenciesByTask = new HashMap<>();
+
+    /**
+     * Listeners on the dates and critical path of the tasks of the dependencies
+     * drawn in bulk, one for each task.
+     */
+    private Map<Task, PropertyChangeListener> taskListeners = new HashMap<>();
+
+    private Set<DrawnDependency> pendingToDraw = new LinkedHashSet<>();
+
+    private Set<Integer> pendingToRemove = new LinkedHashSet<>();
+
+    private Execution pendingExecution;
+
+    private DrawnDependency chosenInBulk;
+
     public DependencyList(FunctionalityExposedForExtensions<?> context) {
         this.context = context;
     }
@@ -134,6 +315,11 @@ public class DependencyList extends XulElement implements AfterCompose {
     }
 
     void addDependencyComponent(final DependencyComponent dependencyComponent) {
+        if ( drawingInBulk ) {
+            addDrawnDependency(dependencyComponent);
+            return;
+        }
+
         TaskComponent source = dependencyComponent.getSource();
         TaskComponent destination = dependencyComponent.getDestination();
 
@@ -143,6 +329,7 @@ public class DependencyList extends XulElement implements AfterCompose {
         source.getTask().addVisibilityPropertiesChangeListener(visibilityToggler);
         destination.getTask().addVisibilityPropertiesChangeListener(visibilityToggler);
         dependencyComponent.setVisibilityChangeListener(visibilityToggler);
+        visibilityTogglers.put(dependencyComponent, visibilityToggler);
 
         boolean dependencyMustBeVisible = visibilityToggler.dependencyMustBeVisible();
         visibilityToggler.toggleDependencyExistence(dependencyMustBeVisible);
@@ -163,6 +350,9 @@ public class DependencyList extends XulElement implements AfterCompose {
     }
 
     void setDependencyComponents(List<DependencyComponent> dependencyComponents) {
+        drawingInBulk = dependencyComponents.size() >= DRAWING_IN_BULK_THRESHOLD
+                && !getGanttPanel().getPlanner().isRenderingAllRows();
+
         for (DependencyComponent dependencyComponent : dependencyComponents) {
             addDependencyComponent(dependencyComponent);
         }
@@ -179,6 +369,10 @@ public class DependencyList extends XulElement implements AfterCompose {
                     if ( !isInPage() ) {
                         return;
                     }
+                    if ( drawingInBulk ) {
+                        redrawDependencies();
+                        return;
+                    }
                     for (DependencyComponent dependencyComponent : getDependencyComponents()) {
                         dependencyComponent.zoomChanged();
                     }
@@ -186,6 +380,7 @@ public class DependencyList extends XulElement implements AfterCompose {
             };
 
             getTimeTracker().addZoomListener(listener);
+            addEventListener(ON_DRAW_PENDING, event -> drawPending());
         }
 
         addContextMenu();
@@ -212,7 +407,7 @@ public class DependencyList extends XulElement implements AfterCompose {
                     MenuBuilder.on(getPage(), getDependencyComponents()).item(
                             _("Erase"),
                             "/common/img/ico_borrar.png",
-                            (chosen, event) -> context.removeDependency(chosen.getDependency()));
+                            (chosen, event) -> context.removeDependency(dependencyOf(chosen)));
 
             limitingContextMenu = contextMenuBuilder.create();
         }
@@ -227,7 +422,7 @@ public class DependencyList extends XulElement implements AfterCompose {
                     MenuBuilder.on(getPage(), getDependencyComponents()).item(
                             _("Erase"),
                             "/common/img/ico_borrar.png",
-                            ((chosen, event) -> context.removeDependency(chosen.getDependency())));
+                            ((chosen, event) -> context.removeDependency(dependencyOf(chosen))));
 
             contextMenuBuilder.item(_("Set End-Start"), null, new ChangeTypeAction(DependencyType.END_START));
 
@@ -242,14 +437,48 @@ public class DependencyList extends XulElement implements AfterCompose {
         return contextMenu;
     }
 
+    /**
+     * The dependencies drawn in bulk have no component, their menus are opened
+     * after choosing them with {@link #openContextMenu(int, int, int)}.
+     */
+    private Dependency dependencyOf(DependencyComponent chosen) {
+        return drawingInBulk ? chosenInBulk.dependency : chosen.getDependency();
+    }
+
     private TimeTrackerComponent getTimeTrackerComponent() {
         return getGanttPanel().getTimeTrackerComponent();
     }
 
+    /**
+     * Shows the dependencies whose tasks are now rendered and hides the ones
+     * with some task no longer rendered.
+     */
+    void renderedRowsChanged() {
+        if ( drawingInBulk ) {
+            return;
+        }
+        for (DependencyVisibilityToggler each : visibilityTogglers.values()) {
+            each.update();
+        }
+    }
+
     void redrawDependencies() {
+        if ( drawingInBulk ) {
+            drawAll();
+            return;
+        }
         redrawDependencyComponents(getDependencyComponents());
     }
 
+    /**
+     * The dependencies drawn in bulk don't depend on the rows rendered.
+     */
+    void viewportChanged() {
+        if ( !drawingInBulk ) {
+            redrawDependencies();
+        }
+    }
+
     private void redrawDependencyComponents(List<DependencyComponent> dependencyComponents) {
         for (DependencyComponent dependencyComponent : dependencyComponents) {
             dependencyComponent.redrawDependency();
@@ -257,7 +486,12 @@ public class DependencyList extends XulElement implements AfterCompose {
     }
 
     void taskRemoved(Task task) {
-        for (DependencyComponent dependencyComponent : DependencyList.this.getDependencyComponents()) {
+        for (DrawnDependency each : new ArrayList<>(drawnDependencies.values())) {
+            if ( each.contains(task) ) {
+                removeDrawnDependency(each);
+            }
+        }
+        for (DependencyComponent dependencyComponent : new ArrayList<>(visibilityTogglers.keySet())) {
             if ( dependencyComponent.contains(task) ) {
                 removeDependencyComponent(dependencyComponent);
             }
@@ -265,7 +499,12 @@ public class DependencyList extends XulElement implements AfterCompose {
     }
 
     public void remove(Dependency dependency) {
-        for (DependencyComponent dependencyComponent : DependencyList.this.getDependencyComponents()) {
+        for (DrawnDependency each : new ArrayList<>(drawnDependencies.values())) {
+            if ( each.hasSameSourceAndDestination(dependency) ) {
+                removeDrawnDependency(each);
+            }
+        }
+        for (DependencyComponent dependencyComponent : new ArrayList<>(visibilityTogglers.keySet())) {
             if ( dependencyComponent.hasSameSourceAndDestination(dependency) ) {
                 removeDependencyComponent(dependencyComponent);
             }
@@ -285,6 +524,163 @@ public class DependencyList extends XulElement implements AfterCompose {
         dependencyComponent.removeChangeListeners();
 
         // Remove the dependency itself
+        visibilityTogglers.remove(dependencyComponent);
         this.removeChild(dependencyComponent);
     }
+
+    private void addDrawnDependency(DependencyComponent dependencyComponent) {
+        DrawnDependency drawn = new DrawnDependency(++lastDrawnId, dependencyComponent);
+        drawnDependencies.put(drawn.id, drawn);
+        addTo(drawn.getSource(), drawn);
+        addTo(drawn.getDestination(), drawn);
+        toDraw(drawn);
+    }
+
+    private void addTo(final Task task, DrawnDependency drawn) {
+        List<DrawnDependency> ofTask = drawnDependenciesByTask.get(task);
+
+        if ( ofTask == null ) {
+            ofTask = new ArrayList<>();
+            drawnDependenciesByTask.put(task, ofTask);
+
+            PropertyChangeListener taskListener = evt -> toDraw(drawnDependenciesByTask.get(task));
+            task.addFundamentalPropertiesChangeListener(taskListener);
+            task.addCriticalPathPropertyChangeListener(taskListener);
+            taskListeners.put(task, taskListener);
+        }
+        ofTask.add(drawn);
+    }
+
+    private void removeDrawnDependency(DrawnDependency drawn) {
+        drawnDependencies.remove(drawn.id);
+        removeFrom(drawn.getSource(), drawn);
+        removeFrom(drawn.getDestination(), drawn);
+        pendingToDraw.remove(drawn);
+        pendingToRemove.add(drawn.id);
+        scheduleDrawPending();
+    }
+
+    private void removeFrom(Task task, DrawnDependency drawn) {
+        List<DrawnDependency> ofTask = drawnDependenciesByTask.get(task);
+
+        if ( ofTask == null ) {
+            return;
+        }
+
+        ofTask.remove(drawn);
+
+        if ( ofTask.isEmpty() ) {
+            drawnDependenciesByTask.remove(task);
+            PropertyChangeListener taskListener = taskListeners.remove(task);
+            task.removePropertyChangeListener(taskListener);
+            task.removeCriticalPathPropertyChangeListener(taskListener);
+        }
+    }
+
+    private void toDraw(DrawnDependency drawn) {
+        toDraw(Collections.singletonList(drawn));
+    }
+
+    private void toDraw(Collection<DrawnDependency> drawn) {
+        if ( drawn == null || drawn.isEmpty() ) {
+            return;
+        }
+        pendingToDraw.addAll(drawn);
+        scheduleDrawPending();
+    }
+
+    /**
+     * The pending dependencies are sent together once the current event is
+     * processed, so a task moving many others sends them only once.
+     */
+    private void scheduleDrawPending() {
+        Execution current = Executions.getCurrent();
+
+        if ( current == null || !isInPage() || current == pendingExecution ) {
+            return;
+        }
+
+        pendingExecution = current;
+        Events.postEvent(ON_DRAW_PENDING, this, null);
+    }
+
+    private void drawPending() {
+        List<int[]> records = new ArrayList<>();
+        Set<Integer> removed = new LinkedHashSet<>(pendingToRemove);
+
+        for (DrawnDependency each : pendingToDraw) {
+            int[] record = each.asRecord();
+
+            if ( record != null ) {
+                records.add(record);
+            } else {
+                removed.add(each.id);
+            }
+        }
+        pendingToDraw.clear();
+        pendingToRemove.clear();
+        pendingExecution = null;
+
+        if ( !records.isEmpty() || !removed.isEmpty() ) {
+            response(new AuInvoke(this, "updateDependencies", records, new ArrayList<>(removed)));
+        }
+    }
+
+    private void drawAll() {
+        if ( !isInPage() ) {
+            return;
+        }
+
+        List<int[]> records = new ArrayList<>();
+        for (DrawnDependency each : drawnDependencies.values()) {
+            int[] record = each.asRecord();
+
+            if ( record != null ) {
+                records.add(record);
+            }
+        }
+        response("drawDependencies", new AuInvoke(this, "drawDependencies", records));
+    }
+
+    private void openContextMenu(int id, int x, int y) {
+        DrawnDependency chosen = drawnDependencies.get(id);
+
+        if ( chosen == null ) {
+            return;
+        }
+
+        chosenInBulk = chosen;
+        Menupopup menu = chosen.limiting ? getLimitingContextMenu() : getContextMenu();
+        menu.open(x, y);
+    }
+
+    @Override
+    public void service(AuRequest request, boolean everError) {
+        String command = request.getCommand();
+
+        if ( "onRequestDependencies".equals(command) ) {
+            drawAll();
+
+            return;
+        }
+
+        if ( "onDependencyContextMenu".equals(command) ) {
+            Map<String, Object> data = request.getData();
+            openContextMenu(
+                    ((Number) data.get("id")).intValue(),
+                    ((Number) data.get("x")).intValue(),
+                    ((Number) data.get("y")).intValue());
+
+            return;
+        }
+        super.service(request, everError);
+    }
+
+    @Override
+    protected void renderProperties(ContentRenderer renderer) throws IOException {
+        super.renderProperties(renderer);
+
+        render(renderer, "drawingInBulk", drawingInBulk);
+    }
+
 }
@@ -280,9 +280,8 @@ public class FunctionalityExposedForExtensions<T> implements IContext<T> {
             this.diagramGraph.childrenAddedTo(parent);
         }
 
-        for (Dependency dependency : DomainDependency.toDependencies(mapper, totalDependencies)) {
-            this.diagramGraph.addWithoutEnforcingConstraints(dependency);
-        }
+        this.diagramGraph.addDependenciesWithoutEnforcingConstraints(
+                DomainDependency.toDependencies(mapper, totalDependencies));
 
         this.diagramGraph.enforceAllRestrictions();
         this.planner.addTasks(position, tasksCreated);
@@ -84,6 +84,12 @@ public class LeftPane extends HtmlMacroComponent {
         leftTasksTree.addTasks(position, newTasks);
     }
 
+    void renderedRowsChanged() {
+        if ( leftTasksTree != null ) {
+            leftTasksTree.renderedRowsChanged();
+        }
+    }
+
     public void setPredicate(FilterAndParentExpandedPredicates predicate) {
         this.predicate = predicate;
         leftTasksTree.setPredicate(predicate);
@@ -27,8 +27,10 @@ import java.util.Collections;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.zkoss.ganttz.LeftTasksTreeRow.ILeftTasksTreeNavigator;
@@ -43,8 +45,10 @@ import org.zkoss.zk.ui.Executions;
 import org.zkoss.zk.ui.HtmlMacroComponent;
 import org.zkoss.zk.ui.event.OpenEvent;
 import org.zkoss.zul.Tree;
+import org.zkoss.zul.Treecell;
 import org.zkoss.zul.Treeitem;
 import org.zkoss.zul.TreeitemRenderer;
+import org.zkoss.zul.Treerow;
 
 /**
  * Tree element to display tasks structure in the planning Gantt.
@@ -74,6 +78,14 @@ public class LeftTasksTree extends HtmlMacroComponent {
 
     private final List<Task> visibleTasks = new ArrayList<>();
 
+    private final Map<Task, Treeitem> treeitemByTask = new HashMap<>();
+
+    /**
+     * The tasks whose row is a placeholder, not being rendered in the task
+     * list.
+     */
+    private final Set<Task> placeholderTasks = new HashSet<>();
+
     private Planner planner;
 
     public LeftTasksTree(IDisabilityConfiguration disabilityConfiguration,
@@ -128,28 +140,12 @@ public class LeftTasksTree extends HtmlMacroComponent {
 
             }
 
-            LeftTasksTreeRow leftTasksTreeRow =
-                    LeftTasksTreeRow.create(disabilityConfiguration, task, new TreeNavigator(task), planner);
-
             if ( task.isContainer() ) {
                 expandWhenOpened((TaskContainer) task, treeitem);
             }
 
-            /* Clear existing Treerows */
-            if ( !treeitem.getChildren().isEmpty() ) {
-                treeitem.getChildren().clear();
-            }
-
-            Component row = disabilityConfiguration.isTreeEditable()
-                    ? Executions
-                    .getCurrent()
-                    .createComponents("~./ganttz/zul/leftTasksTreeRow.zul", treeitem, null)
-                    : Executions
-                    .getCurrent()
-                    .createComponents("~./ganttz/zul/leftTasksTreeRowLabels.zul", treeitem, null);
-
-            leftTasksTreeRow.doAfterCompose(row);
-            detailsForBeans.put(task, leftTasksTreeRow);
+            treeitemByTask.put(task, treeitem);
+            renderRow(treeitem, task, planner.getTaskList().isRowRendered(task));
             deferredFiller.isBeingRendered(task, treeitem);
         }
 
@@ -161,6 +157,83 @@ public class LeftTasksTree extends HtmlMacroComponent {
         }
     }
 
+    /**
+     * Only the rows rendered in the task list get their components, the rest
+     * get a placeholder row of the same height showing just the name.
+     */
+    private void renderRow(Treeitem treeitem, Task task, boolean withComponents) throws Exception {
+        /* Clear existing Treerows */
+        if ( !treeitem.getChildren().isEmpty() ) {
+            treeitem.getChildren().clear();
+        }
+        detailsForBeans.remove(task);
+
+        if ( !withComponents ) {
+            treeitem.appendChild(createPlaceholderRow(task));
+            placeholderTasks.add(task);
+
+            return;
+        }
+        placeholderTasks.remove(task);
+
+        LeftTasksTreeRow leftTasksTreeRow =
+                LeftTasksTreeRow.create(disabilityConfiguration, task, new TreeNavigator(task), planner);
+
+        Component row = disabilityConfiguration.isTreeEditable()
+                ? Executions
+                .getCurrent()
+                .createComponents("~./ganttz/zul/leftTasksTreeRow.zul", treeitem, null)
+                : Executions
+                .getCurrent()
+                .createComponents("~./ganttz/zul/leftTasksTreeRowLabels.zul", treeitem, null);
+
+        leftTasksTreeRow.doAfterCompose(row);
+        detailsForBeans.put(task, leftTasksTreeRow);
+    }
+
+    private static Treerow createPlaceholderRow(Task task) {
+        Treerow result = new Treerow();
+        result.setSclass("taskdetail-grid");
+        result.appendChild(new Treecell(task.getName()));
+
+        for (int i = 0; i < 3; i++) {
+            result.appendChild(new Treecell());
+        }
+
+        return result;
+    }
+
+    /**
+     * Gives their components to the rows now rendered in the task list and
+     * turns the ones no longer rendered into placeholders.
+     */
+    void renderedRowsChanged() {
+        TaskList taskList = planner.getTaskList();
+        Iterator<Entry<Task, Treeitem>> iterator = treeitemByTask.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Entry<Task, Treeitem> each = iterator.next();
+            Task task = each.getKey();
+            Treeitem treeitem = each.getValue();
+
+            if ( treeitem.getTree() == null ) {
+                iterator.remove();
+                placeholderTasks.remove(task);
+                detailsForBeans.remove(task);
+            } else if ( taskList.isRowRendered(task) == placeholderTasks.contains(task) ) {
+                renderRowOrFail(treeitem, task, taskList.isRowRendered(task));
+            }
+        }
+    }
+
+    private void renderRowOrFail(Treeitem treeitem, Task task, boolean withComponents) {
+        try {
+            renderRow(treeitem, task, withComponents);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private TaskBeanRenderer getTaskBeanRenderer() {
         return new TaskBeanRenderer();
     }
@@ -188,6 +261,14 @@ public class LeftTasksTree extends HtmlMacroComponent {
             focusRequested.add(task);
         }
 
+        public void remove(Task task) {
+            LeftTasksTreeRow removed = map.remove(task);
+
+            if ( removed != null ) {
+                removed.removeTaskListener();
+            }
+        }
+
         public LeftTasksTreeRow get(Task taskbean) {
             return map.get(taskbean);
         }
@@ -223,7 +304,16 @@ public class LeftTasksTree extends HtmlMacroComponent {
             return getDetailFor(tasksTreeModel.getChild(parent, position));
         }
 
+        /**
+         * A placeholder row gets its components when moving to it.
+         */
         private LeftTasksTreeRow getDetailFor(Task child) {
+            Treeitem treeitem = treeitemByTask.get(child);
+
+            if ( placeholderTasks.contains(child) && treeitem != null ) {
+                renderRowOrFail(treeitem, child, true);
+            }
+
             return detailsForBeans.get(child);
         }
 
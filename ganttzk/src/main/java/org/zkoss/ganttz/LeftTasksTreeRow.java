@@ -78,6 +78,8 @@ public class LeftTasksTreeRow extends GenericForwardComposer {
 
     private final Task task;
 
+    private PropertyChangeListener taskListener;
+
     private Label nameLabel;
 
     private Textbox nameBox;
@@ -365,13 +367,24 @@ public class LeftTasksTreeRow extends GenericForwardComposer {
         findComponents((Treerow) component);
         registerTextboxesListeners();
         updateComponents();
-        task.addFundamentalPropertiesChangeListener(new PropertyChangeListener() {
+        taskListener = new PropertyChangeListener() {
             @Override
             public void propertyChange(PropertyChangeEvent evt) {
                 updateComponents();
             }
-        });
+        };
+        task.addFundamentalPropertiesChangeListener(taskListener);
+
+    }
 
+    /**
+     * Called when the row is no longer shown, so the task doesn't keep it.
+     */
+    public void removeTaskListener() {
+        if ( taskListener != null ) {
+            task.removePropertyChangeListener(taskListener);
+            taskListener = null;
+        }
     }
 
     private void registerTextboxesListeners() {
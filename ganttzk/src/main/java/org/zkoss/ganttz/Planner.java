@@ -150,6 +150,8 @@ public class Planner extends HtmlMacroComponent  {
 
     private boolean containersExpandedByDefault = false;
 
+    private boolean renderingAllRows = false;
+
     private boolean shownAdvanceByDefault = false;
 
     private boolean shownReportedHoursByDefault = false;
@@ -181,6 +183,15 @@ public class Planner extends HtmlMacroComponent  {
         return values != null && toLowercaseSet(values).contains("all");
     }
 
+    /**
+     * All the rows are rendered when requested with <code>rows=all</code>,
+     * like when printing, instead of only the ones around the viewport.
+     */
+    public static boolean guessRenderingAllRows(Map<String, String[]> queryURLParameters) {
+        String[] values = queryURLParameters.get("rows");
+        return values != null && toLowercaseSet(values).contains("all");
+    }
+
     public static boolean guessShowAdvancesByDefault(Map<String, String[]> queryURLParameters) {
         String[] values = queryURLParameters.get("advances");
         return values != null && toLowercaseSet(values).contains("all");
@@ -742,6 +753,14 @@ public class Planner extends HtmlMacroComponent  {
         this.containersExpandedByDefault = containersExpandedByDefault;
     }
 
+    public boolean isRenderingAllRows() {
+        return renderingAllRows;
+    }
+
+    public void setRenderingAllRows(boolean renderingAllRows) {
+        this.renderingAllRows = renderingAllRows;
+    }
+
     public boolean areShownAdvancesByDefault() {
         return shownAdvanceByDefault;
     }
@@ -819,7 +838,24 @@ public class Planner extends HtmlMacroComponent  {
         leftPane.setPredicate(predicate);
         getTaskList().setPredicate(predicate);
         getDependencyList().redrawDependencies();
+        showTaskLabelsAndResourcesIfShowing();
+    }
+
+    /**
+     * The left pane only shows in full the rows rendered in the task list.
+     */
+    void renderedRowsChanged() {
+        if ( leftPane != null ) {
+            leftPane.renderedRowsChanged();
+        }
+    }
 
+    /**
+     * The labels and resources of the tasks rendered again, e.g. after
+     * filtering or scrolling the task list, are shown if they are being shown
+     * for the rest.
+     */
+    public void showTaskLabelsAndResourcesIfShowing() {
         if ( isShowingLabels ) {
             Clients.evalJavaScript("ganttz.TaskList.getInstance().showAllTaskLabels();");
         }
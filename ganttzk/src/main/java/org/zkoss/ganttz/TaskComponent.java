@@ -456,8 +456,42 @@ public class TaskComponent extends Div implements AfterCompose {
         super.setParent(parent);
     }
 
+    /**
+     * Only the coordinates depend on the zoom level, so the name, the class
+     * and the hidden marks and bars are not sent again.
+     */
     public final void zoomChanged() {
-        updateProperties();
+        if ( !isInPage() ) {
+            return;
+        }
+
+        int pixelsStart = this.task.getBeginDate().toPixels(getMapper());
+        setLeft(pixelsStart + "px");
+        setWidth((this.task.getEndDate().toPixels(getMapper()) - pixelsStart) + "px");
+
+        if ( task.getDeadline() != null ) {
+            moveDeadline();
+        }
+
+        if ( task.getConsolidatedline() != null ) {
+            moveConsolidatedline();
+        }
+
+        if ( task instanceof Milestone ) {
+            return;
+        }
+
+        if ( task.isShowingReportedHours() ) {
+            updateCompletionReportedHours();
+        }
+
+        if ( task.isShowingMoneyCostBar() ) {
+            updateCompletionMoneyCostBar();
+        }
+
+        if ( task.isShowingAdvances() ) {
+            updateCompletionAdvance();
+        }
     }
 
     public void updateProperties() {
@@ -485,32 +519,35 @@ public class TaskComponent extends Div implements AfterCompose {
     private void updateDeadline() {
         // Task mark is placed after midnight date of the deadline day
         if ( task.getDeadline() != null ) {
-
-            String position = (getMapper().toPixels(
-                    LocalDate.fromDateFields(task.getDeadline()).plusDays(1)) - HALF_DEADLINE_MARK) + "px";
-
-            response(null, new AuInvoke(this, "moveDeadline", position));
-
+            moveDeadline();
         } else {
             // Move deadline out of visible area
             response(null, new AuInvoke(this, "moveDeadline","-100px"));
         }
 
         if ( task.getConsolidatedline() != null ) {
-
-            int pixels = getMapper()
-                    .toPixels(LocalDate.fromDateFields(task.getConsolidatedline().toDayRoundedDate()))
-                    - CONSOLIDATED_MARK_HALF_WIDTH;
-
-            String position = pixels + "px";
-            response(null, new AuInvoke(this, "moveConsolidatedline", position));
-
+            moveConsolidatedline();
         } else {
             // Move consolidated line out of visible area
             response(null, new AuInvoke(this, "moveConsolidatedline", "-100px"));
         }
     }
 
+    private void moveDeadline() {
+        String position = (getMapper().toPixels(
+                LocalDate.fromDateFields(task.getDeadline()).plusDays(1)) - HALF_DEADLINE_MARK) + "px";
+
+        response(null, new AuInvoke(this, "moveDeadline", position));
+    }
+
+    private void moveConsolidatedline() {
+        int pixels = getMapper()
+                .toPixels(LocalDate.fromDateFields(task.getConsolidatedline().toDayRoundedDate()))
+                - CONSOLIDATED_MARK_HALF_WIDTH;
+
+        response(null, new AuInvoke(this, "moveConsolidatedline", pixels + "px"));
+    }
+
     public void updateCompletionIfPossible() {
         if ( task instanceof Milestone ) {
             return;
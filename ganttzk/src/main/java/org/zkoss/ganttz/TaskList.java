@@ -38,10 +38,15 @@ import org.zkoss.ganttz.timetracker.zoom.IZoomLevelChangedListener;
 import org.zkoss.ganttz.timetracker.zoom.ZoomLevel;
 import org.zkoss.ganttz.util.Interval;
 import org.zkoss.ganttz.util.MenuBuilder;
+import org.zkoss.ganttz.util.RowsWindow;
+import org.zkoss.zk.au.AuRequest;
+import org.zkoss.zk.ui.Component;
 import org.zkoss.zk.ui.ext.AfterCompose;
+import org.zkoss.zk.ui.sys.ContentRenderer;
 import org.zkoss.zul.Menupopup;
 import org.zkoss.zul.impl.XulElement;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ArrayList;
@@ -55,10 +60,25 @@ import java.util.Collections;
 /**
  * Component to show the list of task in the planner.
  *
+ * Only the rows around the viewport are rendered, the client notifies the
+ * scrolls with <code>onViewportChange</code> events. The space of the rows not
+ * rendered is kept by spacers above and below the rendered ones.
+ *
  * @author Javier Moran Rua <jmoran@igalia.com>
  */
 public class TaskList extends XulElement implements AfterCompose {
 
+    /**
+     * Rows rendered before knowing the size of the viewport.
+     */
+    private static final int INITIAL_ROWS_RENDERED = 100;
+
+    /**
+     * Rows rendered above and below the viewport, so short scrolls don't need
+     * new rows.
+     */
+    private static final int ROWS_BUFFER = 30;
+
     private transient IZoomLevelChangedListener zoomLevelChangedListener;
 
     private List<Task> currentTotalTasks;
@@ -75,6 +95,31 @@ public class TaskList extends XulElement implements AfterCompose {
 
     private Set<Task> visibleTasks = new HashSet<>();
 
+    /**
+     * The tasks accepted by the predicate, in the order they are shown.
+     */
+    private List<Task> shownTasks = new ArrayList<>();
+
+    /**
+     * The position of each task in {@link #shownTasks}, built when needed.
+     */
+    private Map<Task, Integer> rowByTask;
+
+    private int firstRendered = 0;
+
+    private int rowsRendered = INITIAL_ROWS_RENDERED;
+
+    private boolean renderingAllRows = false;
+
+    /**
+     * The rows of {@link #shownTasks} rendered now.
+     */
+    private RowsWindow renderedRows = RowsWindow.EMPTY;
+
+    private Set<TaskComponent> composedTaskComponents = new HashSet<>();
+
+    private String progressType;
+
     private Map<Task, TaskComponent> taskComponentByTask;
 
     private Map<TaskContainer, IExpandListener> autoRemovedListers = new WeakHashMap<>();
@@ -98,6 +143,7 @@ public class TaskList extends XulElement implements AfterCompose {
     }
 
     public void updateCompletion(String progressType) {
+        this.progressType = progressType;
         for (TaskComponent task: getTaskComponents()) {
             task.updateCompletion(progressType);
             task.updateCompletionReportedHours();
@@ -140,16 +186,25 @@ public class TaskList extends XulElement implements AfterCompose {
         return asDependencyComponents(Collections.singletonList(dependency)).get(0);
     }
 
-    private synchronized void addTaskComponent(
-            TaskRow beforeThis, final TaskComponent taskComponent, boolean relocate) {
-
+    /**
+     * The {@link TaskComponent TaskComponents} are kept when they stop being
+     * rendered, so when they are rendered again only their properties are
+     * updated.
+     */
+    private synchronized void addTaskComponent(Component beforeThis, final TaskComponent taskComponent) {
         insertBefore(taskComponent.getRow(), beforeThis);
-        addContextMenu(taskComponent);
-        addListenerForTaskComponentEditForm(taskComponent);
-        taskComponent.afterCompose();
 
-        if ( relocate ) {
-            getGanttPanel().adjustZoomColumnsHeight();
+        if ( composedTaskComponents.add(taskComponent) ) {
+            addContextMenu(taskComponent);
+            addListenerForTaskComponentEditForm(taskComponent);
+            taskComponent.afterCompose();
+        } else {
+            taskComponent.updateProperties();
+        }
+
+        if ( progressType != null ) {
+            taskComponent.updateCompletion(progressType);
+            taskComponent.updateTooltipText(progressType);
         }
     }
 
@@ -168,14 +223,52 @@ public class TaskList extends XulElement implements AfterCompose {
         reload(true);
     }
 
+    /**
+     * @return the {@link TaskComponent} of the task if it's rendered,
+     *         <code>null</code> otherwise
+     */
     public TaskComponent find(Task task) {
-        List<TaskComponent> taskComponents = getTaskComponents();
-        for (TaskComponent taskComponent : taskComponents) {
-            if ( taskComponent.getTask().equals(task) ) {
-                return taskComponent;
+        TaskComponent result = taskComponentByTask == null ? null : taskComponentByTask.get(task);
+
+        return result != null && isRendered(result) ? result : null;
+    }
+
+    boolean isRendered(TaskComponent taskComponent) {
+        return taskComponent.getRow().getParent() == this;
+    }
+
+    /**
+     * @return the row of the task among the shown ones, rendered or not, or
+     *         <code>-1</code> if it's not shown
+     */
+    int rowOf(Task task) {
+        if ( rowByTask == null ) {
+            rowByTask = new HashMap<>();
+            for (int i = 0; i < shownTasks.size(); i++) {
+                rowByTask.put(shownTasks.get(i), i);
             }
         }
-        return null;
+        Integer result = rowByTask.get(task);
+
+        return result != null ? result : -1;
+    }
+
+    /**
+     * @return if the row of the task is among the rendered ones
+     */
+    public boolean isRowRendered(Task task) {
+        return renderedRows.contains(rowOf(task));
+    }
+
+    /**
+     * @return if some of the rows between the ones of both tasks is rendered,
+     *         both tasks being shown
+     */
+    boolean isRowSpanRendered(Task oneTask, Task otherTask) {
+        int oneRow = rowOf(oneTask);
+        int otherRow = rowOf(otherTask);
+
+        return oneRow >= 0 && otherRow >= 0 && renderedRows.intersectsSpan(oneRow, otherRow);
     }
 
     private void addListenerForTaskComponentEditForm(final TaskComponent taskComponent) {
@@ -214,11 +307,12 @@ public class TaskList extends XulElement implements AfterCompose {
     }
 
     public int getTasksNumber() {
-        return getTaskComponents().size();
+        return shownTasks.size();
     }
 
     @Override
     public void afterCompose() {
+        renderingAllRows = getGanttPanel().getPlanner().isRenderingAllRows();
         publishOriginalTasksAsComponents();
         registerZoomLevelChangedListener();
         reload(false);
@@ -240,17 +334,22 @@ public class TaskList extends XulElement implements AfterCompose {
 
         List<TaskComponent> result = new ArrayList<>();
         for (Task task : newTasks) {
-            TaskComponent taskComponent = taskComponentByTask.get(task);
+            result.add(componentFor(task));
+        }
 
-            if ( taskComponent == null ) {
-                taskComponent = TaskComponent.asTaskComponent(task, disabilityConfiguration);
-                taskComponent.publishTaskComponents(taskComponentByTask);
-            }
+        return result;
+    }
 
-            if ( task.isContainer() ) {
-                addExpandListenerTo((TaskContainer) task);
-            }
-            result.add(taskComponent);
+    private TaskComponent componentFor(Task task) {
+        TaskComponent result = taskComponentByTask.get(task);
+
+        if ( result == null ) {
+            result = TaskComponent.asTaskComponent(task, disabilityConfiguration);
+            result.publishTaskComponents(taskComponentByTask);
+        }
+
+        if ( task.isContainer() ) {
+            addExpandListenerTo((TaskContainer) task);
         }
 
         return result;
@@ -328,13 +427,16 @@ public class TaskList extends XulElement implements AfterCompose {
 
     public void remove(Task task) {
         currentTotalTasks.remove(task);
-        for (TaskComponent taskComponent : getTaskComponents()) {
-            if ( taskComponent.getTask().equals(task) ) {
-                taskComponent.remove();
+        shownTasks.remove(task);
+        rowByTask = null;
+        visibleTasks.remove(task);
 
-                return;
-            }
+        TaskComponent taskComponent = taskComponentByTask.get(task);
+        if ( taskComponent != null ) {
+            taskComponent.remove();
+            composedTaskComponents.remove(taskComponent);
         }
+        renderRows();
     }
 
     public void addDependency(TaskComponent source, TaskComponent destination) {
@@ -346,57 +448,124 @@ public class TaskList extends XulElement implements AfterCompose {
     }
 
     private void reload(boolean relocate) {
-        ArrayList<Task> tasksPendingToAdd = new ArrayList<>();
-        reload(currentTotalTasks, tasksPendingToAdd, relocate);
-        addPendingTasks(tasksPendingToAdd, null, relocate);
+        List<Task> tasksToShow = new ArrayList<>();
+        collectTasksToShow(currentTotalTasks, tasksToShow);
+        Set<Task> toShow = new HashSet<>(tasksToShow);
+
+        for (Task each : new ArrayList<>(visibleTasks)) {
+            if ( !toShow.contains(each) ) {
+                visibleTasks.remove(each);
+                each.setVisible(false);
+            }
+        }
+
+        int previouslyShown = shownTasks.size();
+        shownTasks = tasksToShow;
+        rowByTask = null;
+        renderRows();
+
+        for (Task each : shownTasks) {
+            if ( visibleTasks.add(each) ) {
+                each.setVisible(true);
+            }
+        }
+
+        if ( relocate && previouslyShown != shownTasks.size() ) {
+            getGanttPanel().adjustZoomColumnsHeight();
+        }
         getGanttPanel().getDependencyList().redrawDependencies();
     }
 
-    private void reload(List<Task> tasks, List<Task> tasksPendingToAdd, boolean relocate) {
+    private void collectTasksToShow(List<Task> tasks, List<Task> result) {
         for (Task task : tasks) {
-            if ( visibleTasks.contains(task) ) {
-                addPendingTasks(tasksPendingToAdd, rowFor(task), relocate);
-            }
+            if ( predicate.accepts(task) ) {
+                result.add(task);
 
-            final boolean isShown = visibleTasks.contains(task);
-
-            if ( predicate.accepts(task) != isShown ) {
-                if ( isShown ) {
-                    makeDisappear(task);
-                } else {
-                    tasksPendingToAdd.add(task);
+                if ( task.isContainer() ) {
+                    addExpandListenerTo((TaskContainer) task);
                 }
             }
 
             if ( task instanceof TaskContainer ) {
-                reload(task.getTasks(), tasksPendingToAdd, relocate);
+                collectTasksToShow(task.getTasks(), result);
             }
         }
     }
 
-    private void makeDisappear(Task task) {
-        TaskComponent taskComponent = find(task);
-        removeChild(taskComponent.getRow());
-        visibleTasks.remove(task);
-        task.setVisible(false);
+    /**
+     * Makes the rendered rows match the window of {@link #shownTasks} starting
+     * at {@link #firstRendered}, reusing the rows already rendered.
+     */
+    private void renderRows() {
+        RowsWindow window = renderingAllRows
+                ? RowsWindow.create(0, shownTasks.size())
+                : RowsWindow.create(firstRendered, rowsRendered).fitTo(shownTasks.size());
+
+        firstRendered = window.getFirst();
+        renderedRows = window;
+
+        List<Task> toRender = shownTasks.subList(window.getFirst(), window.getEnd());
+        Set<Task> toRenderSet = new HashSet<>(toRender);
+
+        for (TaskComponent each : getTaskComponents()) {
+            if ( !toRenderSet.contains(each.getTask()) ) {
+                removeChild(each.getRow());
+            }
+        }
+
+        List<Component> rows = getChildren();
+        int position = 0;
+        for (Task each : toRender) {
+            TaskComponent taskComponent = componentFor(each);
+            Component current = position < rows.size() ? rows.get(position) : null;
+
+            if ( current != taskComponent.getRow() ) {
+                addTaskComponent(current, taskComponent);
+            }
+            position++;
+        }
+
+        smartUpdate("rowsBefore", window.getFirst());
+        smartUpdate("rowsAfter", shownTasks.size() - window.getEnd());
+        getGanttPanel().getDependencyList().renderedRowsChanged();
+        getGanttPanel().getPlanner().renderedRowsChanged();
     }
 
-    private TaskRow rowFor(Task task) {
-        TaskComponent taskComponent = find(task);
-        return taskComponent == null ? null : taskComponent.getRow();
+    @Override
+    public void service(AuRequest request, boolean everError) {
+        if ( "onViewportChange".equals(request.getCommand()) ) {
+            Map<String, Object> data = request.getData();
+            viewportChanged(((Number) data.get("first")).intValue(), ((Number) data.get("count")).intValue());
+
+            return;
+        }
+        super.service(request, everError);
     }
 
-    private void addPendingTasks(List<Task> tasksPendingToAdd, TaskRow insertBefore, boolean relocate) {
-        if ( tasksPendingToAdd.isEmpty() ) {
+    private void viewportChanged(int firstVisible, int visibleRows) {
+        if ( renderingAllRows ) {
             return;
         }
 
-        for (TaskComponent each : createAndPublishComponentsIfNeeded(tasksPendingToAdd)) {
-            addTaskComponent(insertBefore, each, relocate);
-            visibleTasks.add(each.getTask());
-            each.getTask().setVisible(true);
+        RowsWindow window = RowsWindow.around(firstVisible, visibleRows, ROWS_BUFFER, shownTasks.size());
+
+        if ( window.getFirst() == firstRendered && window.getCount() == rowsRendered ) {
+            return;
         }
-        tasksPendingToAdd.clear();
+
+        firstRendered = window.getFirst();
+        rowsRendered = window.getCount();
+        renderRows();
+        getGanttPanel().getDependencyList().viewportChanged();
+        getGanttPanel().getPlanner().showTaskLabelsAndResourcesIfShowing();
+    }
+
+    @Override
+    protected void renderProperties(ContentRenderer renderer) throws IOException {
+        super.renderProperties(renderer);
+
+        renderer.render("rowsBefore", firstRendered);
+        renderer.render("rowsAfter", Math.max(0, shownTasks.size() - firstRendered - getTaskComponents().size()));
     }
 
     public void setPredicate(FilterAndParentExpandedPredicates predicate) {
@@ -278,6 +278,12 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
     private List<V> topLevelTasks = new ArrayList<>();
 
+    /**
+     * The same tasks as {@link #topLevelTasks}, to check quickly if a task is
+     * a top level one.
+     */
+    private Set<V> topLevelTasksSet = new HashSet<>();
+
     private Map<V, V> fromChildToParent = new HashMap<>();
 
     private final List<Constraint<GanttDate>> globalStartConstraints;
@@ -403,16 +409,27 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
     public void addTopLevel(V task) {
         topLevelTasks.add(task);
+        topLevelTasksSet.add(task);
         addTask(task);
     }
 
+    /**
+     * Adds several top level tasks. The topological order is calculated again
+     * when needed instead of being updated after each task.
+     */
     public void addTopLevel(Collection<? extends V> tasks) {
+        topologicalSorter.recalculationNeeded();
         for (V task : tasks) {
             addTopLevel(task);
         }
     }
 
+    /**
+     * Adds several tasks. The topological order is calculated again when
+     * needed instead of being updated after each task.
+     */
     public void addTasks(Collection<? extends V> tasks) {
+        topologicalSorter.recalculationNeeded();
         for (V t : tasks) {
             addTask(t);
         }
@@ -483,7 +500,7 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
                 }
             }
 
-            return taskPointsByDepthCached = Collections.unmodifiableMap(result);
+            return taskPointsByDepthCached = result;
         }
 
         private <K, T> void initializeIfNeededForKey(Map<K, T> map, K key, T initialValue) {
@@ -501,10 +518,110 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
             return result;
         }
 
+        /**
+         * Returns the depths calculated from scratch, discarding the ones
+         * already calculated.
+         */
+        private Map<TaskPoint, Integer> recalculateTaskPointsByDepth() {
+            recalculationNeeded();
+            return taskPointsByDepth();
+        }
+
         public void recalculationNeeded() {
             taskPointsByDepthCached = null;
         }
 
+        /**
+         * Updates the depths already calculated, if any, after adding a task
+         * without dependencies.
+         */
+        public void taskAdded(V task) {
+            if ( taskPointsByDepthCached != null ) {
+                updateDepthsFrom(bothPointsOf(task));
+            }
+        }
+
+        /**
+         * Updates the depths already calculated, if any, after adding a
+         * dependency. Only the task points reachable from the destination of
+         * the dependency whose depth changes are visited.
+         */
+        public void dependencyAdded(D dependency) {
+            if ( taskPointsByDepthCached != null ) {
+                updateDepthsFrom(bothPointsOf(getDependencyDestination(dependency)));
+            }
+        }
+
+        private List<TaskPoint> bothPointsOf(V task) {
+            TaskPoint dominating = allPointsPotentiallyModified(task);
+            return asList(dominating, new TaskPoint(task, dominating.entryPoint.getOther()));
+        }
+
+        private void updateDepthsFrom(Collection<TaskPoint> initial) {
+            // There are two task points per task, so no depth can be bigger
+            // unless there is a loop; in that case everything is calculated again
+            int maxDepth = 2 * graph.vertexSet().size();
+            Queue<TaskPoint> pending = new LinkedList<>(initial);
+
+            while (!pending.isEmpty()) {
+                TaskPoint current = pending.poll();
+                Integer previousDepth = taskPointsByDepthCached.get(current);
+                Integer newDepth = calculateDepth(current);
+
+                if ( newDepth == null ? previousDepth == null : newDepth.equals(previousDepth) ) {
+                    continue;
+                }
+
+                if ( newDepth != null && newDepth > maxDepth ) {
+                    recalculationNeeded();
+                    return;
+                }
+
+                if ( newDepth == null ) {
+                    taskPointsByDepthCached.remove(current);
+                } else {
+                    taskPointsByDepthCached.put(current, newDepth);
+                }
+                pending.addAll(current.getImmediateSuccessors());
+            }
+        }
+
+        /**
+         * Calculates the depth {@link #taskPointsByDepth()} would assign to the
+         * task point from the depths of its predecessors. Initial task points
+         * have depth zero; the rest are one level deeper than their deepest
+         * predecessor and are only reached if all of them are reached.
+         *
+         * @return the depth or <code>null</code> if the task point is not reached
+         */
+        private Integer calculateDepth(TaskPoint taskPoint) {
+            if ( isInitial(taskPoint) ) {
+                return 0;
+            }
+
+            Set<TaskPoint> predecessors = taskPoint.getImmediatePredecessors();
+            if ( predecessors.isEmpty() ) {
+                return null;
+            }
+
+            int result = 0;
+            for (TaskPoint each : predecessors) {
+                Integer depth = taskPointsByDepthCached.get(each);
+                if ( depth == null || !each.getImmediateSuccessors().contains(taskPoint) ) {
+                    return null;
+                }
+                result = Math.max(result, depth + 1);
+            }
+
+            return result;
+        }
+
+        private boolean isInitial(TaskPoint taskPoint) {
+            return taskPoint.areAllPointsPotentiallyModified() &&
+                    !withoutVisibleIncomingDependencies(Collections.singletonList(taskPoint.task)).isEmpty() &&
+                    topLevelTasksSet.contains(taskPoint.task);
+        }
+
         public List<Recalculation> sort(Collection<? extends Recalculation> recalculationsToBeSorted) {
 
             List<Recalculation> result = new ArrayList<>(recalculationsToBeSorted);
@@ -560,7 +677,7 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
             V task = stack.remove(0);
             graph.addVertex(task);
-            topologicalSorter.recalculationNeeded();
+            topologicalSorter.taskAdded(task);
             adapter.registerDependenciesEnforcerHookOn(task, enforcer);
 
             if ( adapter.isContainer(task) ) {
@@ -1970,7 +2087,9 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
     public void remove(final V task) {
         Set<V> needingEnforcing = getOutgoingTasksFor(task);
         graph.removeVertex(task);
-        topLevelTasks.remove(task);
+        if ( topLevelTasksSet.remove(task) ) {
+            topLevelTasks.remove(task);
+        }
         fromChildToParent.remove(task);
 
         if ( adapter.isContainer(task) ) {
@@ -2030,16 +2149,51 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         V source = adapter.getSource(dependency);
         V destination = adapter.getDestination(dependency);
         graph.addEdge(source, destination, dependency);
-        topologicalSorter.recalculationNeeded();
+        topologicalSorter.dependencyAdded(dependency);
         if ( enforceRestrictions ) {
             enforceRestrictions(destination);
         }
     }
 
+    /**
+     * Adds several dependencies and then enforces the restrictions once for
+     * all their destinations.
+     */
+    public void addDependencies(Collection<? extends D> dependencies) {
+        addDependenciesWithoutEnforcingConstraints(dependencies);
+
+        Set<V> destinations = new LinkedHashSet<>();
+        for (D each : dependencies) {
+            if ( graph.containsEdge(each) ) {
+                destinations.add(adapter.getDestination(each));
+            }
+        }
+        enforcer.enforceRestrictionsOn(destinations);
+    }
+
+    /**
+     * Adds several dependencies. The topological order is calculated again
+     * when needed instead of being updated after each dependency.
+     */
+    public void addDependenciesWithoutEnforcingConstraints(Collection<? extends D> dependencies) {
+        topologicalSorter.recalculationNeeded();
+        for (D each : dependencies) {
+            add(each, false);
+        }
+    }
+
     public void enforceRestrictions(final V task) {
         enforcer.taskPositionModified(task);
     }
 
+    /**
+     * Enforces the restrictions from several tasks at once, so the tasks
+     * depending on more than one of them are recalculated only once.
+     */
+    public void enforceRestrictions(Collection<? extends V> tasks) {
+        enforcer.enforceRestrictionsOn(tasks);
+    }
+
     public DeferedNotifier manualNotificationOn(IAction action) {
         return enforcer.manualNotification(action);
     }
@@ -2067,6 +2221,31 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         return Collections.unmodifiableList(topLevelTasks);
     }
 
+    /**
+     * Returns a copy of the depth of each task point as it is kept while the
+     * graph changes. Only intended for testing.
+     */
+    Map<?, Integer> getTaskPointsByDepth() {
+        return new HashMap<>(topologicalSorter.taskPointsByDepth());
+    }
+
+    /**
+     * Returns a copy of the depth of each task point calculated from scratch.
+     * Only intended for testing.
+     */
+    Map<?, Integer> recalculateTaskPointsByDepth() {
+        return new HashMap<>(topologicalSorter.recalculateTaskPointsByDepth());
+    }
+
+    /**
+     * Returns the depth kept for the task point of <code>task</code> entered
+     * through <code>entryPoint</code>, or <code>null</code> if it's not
+     * reached. Only intended for testing.
+     */
+    Integer getDepth(V task, Point entryPoint) {
+        return topologicalSorter.taskPointsByDepth().get(new TaskPoint(task, entryPoint));
+    }
+
     public void childrenAddedTo(V task) {
         enforcer.enforceRestrictionsOn(task);
     }
@@ -295,6 +295,10 @@ public abstract class Task implements ITaskFundamentalProperties {
         this.visibilityProperties.removePropertyChangeListener(listener);
     }
 
+    public void removeCriticalPathPropertyChangeListener(PropertyChangeListener listener) {
+        this.criticalPathProperty.removePropertyChangeListener(listener);
+    }
+
     @Override
     public GanttDate getEndDate() {
         return fundamentalProperties.getEndDate();
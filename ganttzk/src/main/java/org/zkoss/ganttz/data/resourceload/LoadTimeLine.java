@@ -34,6 +34,16 @@ import org.zkoss.ganttz.util.Interval;
 
 public class LoadTimeLine {
 
+    /**
+     * Builds the children of a line the first time they're needed, so the
+     * lines that are never expanded don't compute them.
+     */
+    public interface IChildrenLoader {
+
+        List<LoadTimeLine> load();
+
+    }
+
     @SuppressWarnings("unchecked")
     private static final Comparator<GanttDate> nullSafeComparator = new NullComparator<>(false);
 
@@ -45,8 +55,9 @@ public class LoadTimeLine {
 
     private final String type;
 
-    private final List<LoadTimeLine> children;
+    private List<LoadTimeLine> children;
 
+    private IChildrenLoader childrenLoader;
 
     public LoadTimeLine(String conceptName,
                         List<LoadPeriod> loadPeriods,
@@ -88,6 +99,15 @@ public class LoadTimeLine {
 
     }
 
+    public LoadTimeLine(LoadTimeLine main, IChildrenLoader childrenLoader) {
+        this(main, Collections.<LoadTimeLine> emptyList());
+
+        Validate.notNull(childrenLoader);
+
+        this.children = null;
+        this.childrenLoader = childrenLoader;
+    }
+
     public static Comparator<LoadTimeLine> byStartAndEndDate() {
         return new Comparator<LoadTimeLine>() {
             @Override
@@ -187,16 +207,36 @@ public class LoadTimeLine {
     }
 
     public boolean hasChildren() {
-        return !children.isEmpty();
+        return !areChildrenLoaded() || !children.isEmpty();
+    }
+
+    public boolean areChildrenLoaded() {
+        return childrenLoader == null;
     }
 
+    /**
+     * If the children weren't built yet they are loaded now.
+     */
     public List<LoadTimeLine> getChildren() {
+        if ( !areChildrenLoaded() ) {
+            children = Collections.unmodifiableList(new ArrayList<>(childrenLoader.load()));
+            childrenLoader = null;
+        }
+
         return children;
     }
 
+    private List<LoadTimeLine> getLoadedChildren() {
+        return areChildrenLoaded() ? children : Collections.<LoadTimeLine> emptyList();
+    }
+
+    /**
+     * It doesn't load the children not built yet, the descendants of those
+     * lines aren't included.
+     */
     public List<LoadTimeLine> getAllChildren() {
         List<LoadTimeLine> result = new ArrayList<>();
-        for (LoadTimeLine child : children) {
+        for (LoadTimeLine child : getLoadedChildren()) {
             result.add(child);
             result.addAll(child.getAllChildren());
         }
@@ -207,7 +247,7 @@ public class LoadTimeLine {
     public GanttDate getStart() {
         GanttDate result = getStartPeriod();
 
-        for (LoadTimeLine loadTimeLine : getChildren()) {
+        for (LoadTimeLine loadTimeLine : getLoadedChildren()) {
             GanttDate start = loadTimeLine.getStart();
 
             if ( start != null ) {
@@ -221,7 +261,7 @@ public class LoadTimeLine {
     public GanttDate getEnd() {
         GanttDate result = getEndPeriod();
 
-        for (LoadTimeLine loadTimeLine : getChildren()) {
+        for (LoadTimeLine loadTimeLine : getLoadedChildren()) {
             GanttDate end = loadTimeLine.getEnd();
             if ( end != null ) {
                 result = result == null || result.compareTo(end) < 0 ? end : result;
@@ -24,6 +24,7 @@ package org.zkoss.ganttz.resourceload;
 import static org.zkoss.ganttz.i18n.I18nHelper._;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.HashSet;
 
@@ -192,6 +193,8 @@ public class ResourceLoadLeftPane extends HtmlMacroComponent {
 
                     if ( openEvent.isOpen() ) {
 
+                        loadChildrenIfNeeded(line);
+
                         onOpenEventQueue = new OnOpenEvent(item, line, openEvent);
 
                         /* If line was rendered than we need to call expand manually */
@@ -215,6 +218,22 @@ public class ResourceLoadLeftPane extends HtmlMacroComponent {
         };
     }
 
+    /**
+     * The children of the lines built lazily are added to the tree and the
+     * list the first time the line is expanded.
+     */
+    private void loadChildrenIfNeeded(LoadTimeLine line) {
+        if ( line.areChildrenLoaded() ) {
+            return;
+        }
+
+        List<LoadTimeLine> children = line.getChildren();
+        resourceLoadList.addComponentsForChildrenOf(line);
+        modelForTree.add(line, children, parent -> parent.areChildrenLoaded()
+                ? parent.getChildren()
+                : Collections.<LoadTimeLine> emptyList());
+    }
+
     private void collapse(LoadTimeLine line) {
         resourceLoadList.collapse(line);
     }
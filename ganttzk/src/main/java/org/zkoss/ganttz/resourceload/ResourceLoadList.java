@@ -26,13 +26,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.zkoss.ganttz.data.resourceload.LoadTimeLine;
 import org.zkoss.ganttz.timetracker.TimeTracker;
 import org.zkoss.ganttz.timetracker.zoom.IZoomLevelChangedListener;
 import org.zkoss.ganttz.timetracker.zoom.ZoomLevel;
 import org.zkoss.ganttz.util.MutableTreeModel;
+import org.zkoss.ganttz.util.WeakReferencedListeners;
 import org.zkoss.zk.au.out.AuInvoke;
 import org.zkoss.zk.ui.Component;
 import org.zkoss.zk.ui.util.Clients;
@@ -48,7 +48,19 @@ public class ResourceLoadList extends XulElement {
 
     private Map<LoadTimeLine, ResourceLoadComponent> fromTimeLineToComponent = new HashMap<>();
 
+    private final TimeTracker timeTracker;
+
+    private WeakReferencedListeners<ISeeScheduledOfListener> scheduleListeners = WeakReferencedListeners.create();
+
+    /**
+     * The components created later for the lines loaded when expanding also
+     * notify the listeners added before, so they are notified through this one.
+     */
+    private final ISeeScheduledOfListener notifyScheduleListeners =
+            taskLine -> scheduleListeners.fireEvent(listener -> listener.seeScheduleOf(taskLine));
+
     public ResourceLoadList(TimeTracker timeTracker, MutableTreeModel<LoadTimeLine> timelinesTree) {
+        this.timeTracker = timeTracker;
         IZoomLevelChangedListener zoomListener = adjustTimeTrackerSizeListener();
         timeTracker.addZoomListener(zoomListener);
         LoadTimeLine current = timelinesTree.getRoot();
@@ -79,9 +91,27 @@ public class ResourceLoadList extends XulElement {
 
     private void insertAsComponents(TimeTracker timetracker, List<LoadTimeLine> children) {
         for (LoadTimeLine loadTimeLine : children) {
-            ResourceLoadComponent component = ResourceLoadComponent.create(timetracker, loadTimeLine);
-            appendChild(component);
-            fromTimeLineToComponent.put(loadTimeLine, component);
+            appendChild(createComponentFor(timetracker, loadTimeLine));
+        }
+    }
+
+    private ResourceLoadComponent createComponentFor(TimeTracker timetracker, LoadTimeLine loadTimeLine) {
+        ResourceLoadComponent result = ResourceLoadComponent.create(timetracker, loadTimeLine);
+        result.addSeeScheduledOfListener(notifyScheduleListeners);
+        fromTimeLineToComponent.put(loadTimeLine, result);
+
+        return result;
+    }
+
+    /**
+     * Creates the components for the children of a line that have just been
+     * loaded. They are attached when the line is expanded.
+     */
+    public void addComponentsForChildrenOf(LoadTimeLine line) {
+        for (LoadTimeLine each : line.getAllChildren()) {
+            if ( !fromTimeLineToComponent.containsKey(each) ) {
+                createComponentFor(timeTracker, each);
+            }
         }
     }
 
@@ -138,8 +168,6 @@ public class ResourceLoadList extends XulElement {
     }
 
     public void addSeeScheduledOfListener(ISeeScheduledOfListener seeScheduledOfListener) {
-        for (Entry<LoadTimeLine, ResourceLoadComponent> entry : fromTimeLineToComponent.entrySet()) {
-            entry.getValue().addSeeScheduledOfListener(seeScheduledOfListener);
-        }
+        scheduleListeners.addListener(seeScheduledOfListener);
     }
 }
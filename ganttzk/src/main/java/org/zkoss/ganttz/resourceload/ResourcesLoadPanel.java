@@ -293,6 +293,7 @@ public class ResourcesLoadPanel extends HtmlMacroComponent {
 
     private MutableTreeModel<LoadTimeLine> createModelForTree() {
         MutableTreeModel<LoadTimeLine> result = MutableTreeModel.create(LoadTimeLine.class);
+        result.setPendingChildren(line -> !line.areChildrenLoaded());
 
         for (LoadTimeLine loadTimeLine : this.getGroupsToShow()) {
             result.addToRoot(loadTimeLine);
@@ -304,7 +305,7 @@ public class ResourcesLoadPanel extends HtmlMacroComponent {
 
 
     private MutableTreeModel<LoadTimeLine> addNodes(MutableTreeModel<LoadTimeLine> tree, LoadTimeLine parent) {
-        if ( !parent.getChildren().isEmpty() ) {
+        if ( parent.areChildrenLoaded() && !parent.getChildren().isEmpty() ) {
             tree.add(parent, parent.getChildren());
 
             for (LoadTimeLine loadTimeLine : parent.getChildren()) {
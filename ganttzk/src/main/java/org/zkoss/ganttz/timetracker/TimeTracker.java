@@ -25,6 +25,8 @@ import static org.zkoss.ganttz.i18n.I18nHelper._;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
 
 import org.apache.commons.lang3.Validate;
 import org.joda.time.LocalDate;
@@ -61,11 +63,17 @@ public class TimeTracker {
 
     private WeakReferencedListeners<IZoomLevelChangedListener> zoomListeners = WeakReferencedListeners.create();
 
+    /**
+     * Used when there is a filter, since it depends on its pagination interval.
+     */
     private IDatesMapper datesMapper = null;
 
-    private Collection<DetailItem> detailsFirstLevelCached = null;
-
-    private Collection<DetailItem> detailsSecondLevelCached = null;
+    /**
+     * What has been computed for each zoom level on the current interval. It's
+     * kept when the zoom level changes, so going back to a previous zoom level
+     * doesn't create its details and its mapper again.
+     */
+    private Map<ZoomLevel, ZoomLevelData> dataByZoomLevel = new EnumMap<>(ZoomLevel.class);
 
     private Interval interval;
 
@@ -79,7 +87,19 @@ public class TimeTracker {
 
     private IDetailItemFilter filter = null;
 
-    private Interval realIntervalCached;
+    private static class ZoomLevelData {
+
+        private Collection<DetailItem> detailsFirstLevel;
+
+        private Collection<DetailItem> detailsSecondLevel;
+
+        private Integer horizontalSize;
+
+        private Interval realInterval;
+
+        private IDatesMapper mapper;
+
+    }
 
     public TimeTracker(Interval interval, ZoomLevel zoomLevel, Component parent) {
         this(interval, zoomLevel, SeveralModifiers.empty(), SeveralModifiers.empty(), parent);
@@ -134,12 +154,25 @@ public class TimeTracker {
         zoomListeners.addListener(listener);
     }
 
+    private ZoomLevelData getZoomLevelData() {
+        ZoomLevelData result = dataByZoomLevel.get(detailLevel);
+
+        if ( result == null ) {
+            result = new ZoomLevelData();
+            dataByZoomLevel.put(detailLevel, result);
+        }
+
+        return result;
+    }
+
     public Collection<DetailItem> getDetailsFirstLevel() {
-        if ( detailsFirstLevelCached == null ) {
-            detailsFirstLevelCached = getTimeTrackerState().getFirstLevelDetails(interval);
+        ZoomLevelData data = getZoomLevelData();
+
+        if ( data.detailsFirstLevel == null ) {
+            data.detailsFirstLevel = getTimeTrackerState().getFirstLevelDetails(interval);
         }
 
-        return filterFirstLevel(detailsFirstLevelCached);
+        return filterFirstLevel(data.detailsFirstLevel);
     }
 
     private Collection<DetailItem> filterFirstLevel(Collection<DetailItem> firstLevelDetails) {
@@ -147,11 +180,13 @@ public class TimeTracker {
     }
 
     public Collection<DetailItem> getDetailsSecondLevel() {
-        if ( detailsSecondLevelCached == null ) {
-            detailsSecondLevelCached = getTimeTrackerState().getSecondLevelDetails(interval);
+        ZoomLevelData data = getZoomLevelData();
+
+        if ( data.detailsSecondLevel == null ) {
+            data.detailsSecondLevel = getTimeTrackerState().getSecondLevelDetails(interval);
         }
 
-        return filterSecondLevel(detailsSecondLevelCached);
+        return filterSecondLevel(data.detailsSecondLevel);
     }
 
     private Collection<DetailItem> filterSecondLevel(Collection<DetailItem> secondLevelDetails) {
@@ -159,11 +194,13 @@ public class TimeTracker {
     }
 
     public Interval getRealInterval() {
-        if ( realIntervalCached == null ) {
-            realIntervalCached = getTimeTrackerState().getRealIntervalFor(interval);
+        ZoomLevelData data = getZoomLevelData();
+
+        if ( data.realInterval == null ) {
+            data.realInterval = getTimeTrackerState().getRealIntervalFor(interval);
         }
 
-        return realIntervalCached;
+        return data.realInterval;
     }
 
     public TimeTrackerState getTimeTrackerState() {
@@ -181,35 +218,60 @@ public class TimeTracker {
     }
 
     public int getHorizontalSize() {
-        int horizontalSize = 0;
-        for (DetailItem detailItem : getDetailsSecondLevel()) {
-            horizontalSize += detailItem.getSize();
+        if ( filter != null ) {
+            return sumSizes(getDetailsSecondLevel());
+        }
+
+        ZoomLevelData data = getZoomLevelData();
+
+        if ( data.horizontalSize == null ) {
+            data.horizontalSize = sumSizes(getDetailsSecondLevel());
         }
 
-        return horizontalSize;
+        return data.horizontalSize;
+    }
+
+    private static int sumSizes(Collection<DetailItem> detailItems) {
+        int result = 0;
+        for (DetailItem detailItem : detailItems) {
+            result += detailItem.getSize();
+        }
+
+        return result;
     }
 
     private void clearDetailLevelDependantData() {
         datesMapper = null;
-        detailsFirstLevelCached = detailsSecondLevelCached = null;
-        realIntervalCached = null;
+    }
+
+    private void clearIntervalDependantData() {
+        datesMapper = null;
+        dataByZoomLevel.clear();
     }
 
     public void resetMapper() {
+        ZoomLevelData data = getZoomLevelData();
         datesMapper = null;
-        realIntervalCached = null;
+        data.mapper = null;
+        data.realInterval = null;
     }
 
     public IDatesMapper getMapper() {
-        if ( datesMapper == null ) {
-            if ( filter == null ) {
-                datesMapper = new DatesMapperOnInterval(getHorizontalSize(), getRealInterval());
-            } else {
+        if ( filter != null ) {
+            if ( datesMapper == null ) {
                 datesMapper = new DatesMapperOnInterval(getHorizontalSize(), filter.getCurrentPaginationInterval());
             }
+
+            return datesMapper;
+        }
+
+        ZoomLevelData data = getZoomLevelData();
+
+        if ( data.mapper == null ) {
+            data.mapper = new DatesMapperOnInterval(getHorizontalSize(), getRealInterval());
         }
 
-        return datesMapper;
+        return data.mapper;
     }
 
     public void zoomIncrease() {
@@ -241,6 +303,11 @@ public class TimeTracker {
         fireZoomChanged();
     }
 
+    private void intervalChanged() {
+        clearIntervalDependantData();
+        fireZoomChanged();
+    }
+
     public void zoomDecrease() {
         detailLevel = detailLevel.previous();
         invalidatingChangeHappenedWithFeedback();
@@ -255,7 +322,7 @@ public class TimeTracker {
         if ( !registeredFirstTask ) {
             registeredFirstTask = true;
             interval = new Interval(startMinusTwoWeeks(task), endPlusOneMonth(task));
-            invalidatingChangeHappened();
+            intervalChanged();
         } else {
             LocalDate newStart = interval.getStart();
             LocalDate newFinish = interval.getFinish();
@@ -274,7 +341,7 @@ public class TimeTracker {
 
             if ( changed ) {
                 interval = new Interval(newStart, newFinish);
-                invalidatingChangeHappened();
+                intervalChanged();
             }
         }
     }
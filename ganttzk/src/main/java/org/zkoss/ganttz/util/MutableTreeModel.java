@@ -52,6 +52,16 @@ public class MutableTreeModel<T> extends AbstractTreeModel {
 
     }
 
+    /**
+     * Tells if a node still has children that aren't added to the model yet,
+     * so it isn't shown as a leaf.
+     */
+    public interface IPendingChildren<T> {
+
+        boolean hasPendingChildren(T node);
+
+    }
+
     public static class Node<T> {
 
         private T value;
@@ -162,6 +172,8 @@ public class MutableTreeModel<T> extends AbstractTreeModel {
 
     private transient Map<T, Node<T>> nodesByDomainObject = new WeakHashMap<>();
 
+    private IPendingChildren<T> pendingChildren;
+
     private static <T> Node<T> wrapOne(T object) {
         return new Node<>(object);
     }
@@ -361,11 +373,19 @@ public class MutableTreeModel<T> extends AbstractTreeModel {
         return node.children.size();
     }
 
+    public void setPendingChildren(IPendingChildren<T> pendingChildren) {
+        this.pendingChildren = pendingChildren;
+    }
+
     @Override
     public boolean isLeaf(Object object) {
         Node<T> node = find(object);
 
-        return node.children.isEmpty();
+        return node.children.isEmpty() && !hasPendingChildren(node);
+    }
+
+    private boolean hasPendingChildren(Node<T> node) {
+        return pendingChildren != null && node.value != null && pendingChildren.hasPendingChildren(node.value);
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,118 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.util;
+
+/**
+ * Consecutive rows of a list, from {@link #getFirst()} included to
+ * {@link #getEnd()} excluded. It's used to render only the rows around the
+ * viewport.
+ */
+public class RowsWindow {
+
+    public static final RowsWindow EMPTY = new RowsWindow(0, 0);
+
+    /**
+     * Negative values are taken as zero.
+     */
+    public static RowsWindow create(int first, int count) {
+        return new RowsWindow(Math.max(0, first), Math.max(0, count));
+    }
+
+    /**
+     * The window with the visible rows and <code>buffer</code> rows above and
+     * below them. The visible rows come from the client, so they are clamped
+     * to the <code>total</code> rows.
+     */
+    public static RowsWindow around(int firstVisible, int visibleRows, int buffer, int total) {
+        int first = clamp(firstVisible, 0, total);
+        int count = clamp(visibleRows, 0, total);
+
+        return create(first - buffer, count + 2 * buffer);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
+    }
+
+    private final int first;
+
+    private final int count;
+
+    private RowsWindow(int first, int count) {
+        this.first = first;
+        this.count = count;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getEnd() {
+        return first + count;
+    }
+
+    /**
+     * @return this window moved up if needed so it fits in the
+     *         <code>total</code> rows, being cut if they are fewer
+     */
+    public RowsWindow fitTo(int total) {
+        int from = Math.max(0, Math.min(first, total - count));
+
+        return new RowsWindow(from, Math.min(total, from + count) - from);
+    }
+
+    public boolean contains(int row) {
+        return row >= first && row < getEnd();
+    }
+
+    /**
+     * @return if some of the rows from <code>oneRow</code> to
+     *         <code>otherRow</code>, both included and in any order, is in the
+     *         window
+     */
+    public boolean intersectsSpan(int oneRow, int otherRow) {
+        return count > 0 && Math.min(oneRow, otherRow) < getEnd() && Math.max(oneRow, otherRow) >= first;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( !(obj instanceof RowsWindow) ) {
+            return false;
+        }
+        RowsWindow other = (RowsWindow) obj;
+
+        return first == other.first && count == other.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * first + count;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + first + ", " + getEnd() + ")";
+    }
+
+}
@@ -250,7 +250,9 @@ ganttz.DependencyComponent = zk.$extends(
         $define : {
             idTaskOrig : null,
             idTaskEnd : null,
-            dependencyType : null
+            dependencyType : null,
+            originBox : null,
+            destinationBox : null
         },
 
         bind_ : function() {
@@ -293,7 +295,34 @@ ganttz.DependencyComponent = zk.$extends(
         },
 
         _withOriginAndDestination : function(f) {
-            f.call(this, jq('#' + this.getIdTaskOrig()), jq('#' + this.getIdTaskEnd()));
+            f.call(this,
+                this._findTask(this.getIdTaskOrig(), this.getOriginBox()),
+                this._findTask(this.getIdTaskEnd(), this.getDestinationBox()));
+        },
+
+        /*
+         * A task whose row is not rendered is replaced by its box, the
+         * "row,left,width" sent by the server, placed like the rendered rows.
+         */
+        _findTask : function(id, box) {
+            var task = jq('#' + id);
+            var taskList = ganttz.TaskList.getInstance();
+            if (task.length > 0 || !box || !taskList) {
+                return task;
+            }
+
+            var values = box.split(',');
+            var rows = taskList.rowsGeometry();
+            var position = {
+                left : rows.left + parseInt(values[1], 10),
+                top : rows.top + rows.barTop + parseInt(values[0], 10) * rows.rowHeight
+            };
+            var width = parseInt(values[2], 10);
+
+            return {
+                offset : function() { return position; },
+                outerWidth : function() { return width; }
+            };
         }
     },
     {
@@ -1,15 +1,263 @@
 zk.$package("ganttz");
 
 ganttz.DependencyList = zk.$extends(zk.Widget, {
+    $define : {
+        drawingInBulk : null
+    },
+
     $init : function(){
         this.$supers('$init', arguments);
         this.$class.setInstance(this);
+        this._records = {};
+    },
+
+    bind_ : function() {
+        this.$supers('bind_', arguments);
+        if (!this._drawingInBulk) {
+            return;
+        }
+        this._contextMenuListener = this.proxy(this._onContextMenu);
+        jq(ganttz.GanttPanel.getInstance().$n()).on('contextmenu', this._contextMenuListener);
+        zAu.send(new zk.Event(this, 'onRequestDependencies', {}));
+    },
+
+    unbind_ : function() {
+        if (this._contextMenuListener) {
+            jq(ganttz.GanttPanel.getInstance().$n()).off('contextmenu', this._contextMenuListener);
+            this._contextMenuListener = null;
+        }
+        this.$supers('unbind_', arguments);
+    },
+
+    /*
+     * Each record is [id, sourceRow, sourceStart, sourceEnd, destinationRow,
+     * destinationStart, destinationEnd, type, flags], with the positions in pixels.
+     */
+    drawDependencies : function(records) {
+        this._records = {};
+        this.updateDependencies(records, []);
+    },
+
+    updateDependencies : function(records, removedIds) {
+        for (var i = 0; i < removedIds.length; i++) {
+            delete this._records[removedIds[i]];
+        }
+        for (var j = 0; j < records.length; j++) {
+            this._records[records[j][0]] = records[j];
+        }
+        this._scheduleDraw();
+    },
+
+    viewportChanged : function(scroller) {
+        this._scroller = scroller;
+        if (this._drawingInBulk) {
+            this._scheduleDraw();
+        }
+    },
+
+    _scheduleDraw : function() {
+        if (this._drawScheduled) {
+            return;
+        }
+        this._drawScheduled = true;
+        setTimeout(this.proxy(function() {
+            this._drawScheduled = false;
+            this._draw();
+        }), 0);
+    },
+
+    _getScroller : function() {
+        return this._scroller || (this._scroller = jq('.rightpanel-layout div:first'));
+    },
+
+    /*
+     * The canvas only covers the viewport, so it's drawn again on scroll
+     * keeping just the dependencies crossing it.
+     */
+    _draw : function() {
+        var canvas = this.$n('canvas');
+        var taskList = ganttz.TaskList.getInstance();
+        if (!this.desktop || !canvas || !taskList) {
+            return;
+        }
+
+        var scroller = this._getScroller();
+        var viewport = scroller.offset();
+        var origin = jq(canvas.parentNode).offset();
+        var width = scroller[0].clientWidth;
+        var height = scroller[0].clientHeight;
+
+        jq(canvas).css({ left : viewport.left - origin.left, top : viewport.top - origin.top });
+        canvas.width = width;
+        canvas.height = height;
+
+        var rows = taskList.rowsGeometry();
+        var geometry = {
+            left : rows.left - viewport.left,
+            top : rows.top + rows.barTop - viewport.top,
+            rowHeight : rows.rowHeight,
+            width : width,
+            height : height
+        };
+
+        var context = canvas.getContext('2d');
+        for (var id in this._records) {
+            this._drawRecord(context, geometry, this._records[id]);
+        }
+    },
+
+    _drawRecord : function(context, geometry, record) {
+        var points = this._pointsOf(geometry, record);
+        if (!this._crossesViewport(geometry, points)) {
+            return;
+        }
+
+        var flags = record[8];
+        context.strokeStyle = context.fillStyle =
+            (flags & this.$class.VIOLATED) ? this.$class.VIOLATED_COLOR : this.$class.COLOR;
+        context.lineWidth = (flags & this.$class.CRITICAL) ? 2 : 1;
+
+        context.beginPath();
+        context.moveTo(points[0].x + 0.5, points[0].y + 0.5);
+        for (var i = 1; i < points.length; i++) {
+            context.lineTo(points[i].x + 0.5, points[i].y + 0.5);
+        }
+        context.stroke();
+
+        this._drawArrowHead(context, points[points.length - 2], points[points.length - 1]);
+    },
+
+    /*
+     * The points of the path from the source to the destination in canvas
+     * coordinates, following the same shapes as ganttz.DependencyComponent.
+     */
+    _pointsOf : function(geometry, record) {
+        var height = ganttz.TaskComponent.HEIGHT;
+        var corner = ganttz.TaskComponent.CORNER_WIDTH;
+
+        var sourceTop = geometry.top + record[1] * geometry.rowHeight;
+        var sourceStart = geometry.left + record[2];
+        var sourceEnd = geometry.left + record[3];
+        var destinationTop = geometry.top + record[4] * geometry.rowHeight;
+        var destinationStart = geometry.left + record[5];
+        var destinationEnd = geometry.left + record[6];
+        var sourceMiddle = sourceTop + height / 2;
+        var destinationMiddle = destinationTop + height / 2;
+        var x;
+
+        switch (this.$class.TYPES[record[7]]) {
+            case ganttz.DependencyComponentBase.START_START:
+                x = Math.min(sourceStart, destinationStart) - corner;
+                return [{ x : sourceStart, y : sourceMiddle }, { x : x, y : sourceMiddle },
+                    { x : x, y : destinationMiddle }, { x : destinationStart, y : destinationMiddle }];
+
+            case ganttz.DependencyComponentBase.END_END:
+                x = Math.max(sourceEnd, destinationEnd) + corner;
+                return [{ x : sourceEnd, y : sourceMiddle }, { x : x, y : sourceMiddle },
+                    { x : x, y : destinationMiddle }, { x : destinationEnd, y : destinationMiddle }];
+
+            default:
+                var separation = Math.max(0, sourceEnd - destinationStart);
+                x = sourceStart + Math.max(0, sourceEnd - sourceStart - corner - separation);
+                var downwards = destinationTop >= sourceTop;
+                var y = downwards ? sourceTop + height : sourceTop;
+
+                if (x == destinationStart) {
+                    return [{ x : x, y : y }, { x : x, y : downwards ? destinationTop : destinationTop + height }];
+                }
+                return [{ x : x, y : y }, { x : x, y : destinationMiddle },
+                    { x : destinationStart, y : destinationMiddle }];
+        }
+    },
+
+    _crossesViewport : function(geometry, points) {
+        var minX = Infinity, maxX = -Infinity, minY = Infinity, maxY = -Infinity;
+        for (var i = 0; i < points.length; i++) {
+            minX = Math.min(minX, points[i].x);
+            maxX = Math.max(maxX, points[i].x);
+            minY = Math.min(minY, points[i].y);
+            maxY = Math.max(maxY, points[i].y);
+        }
+        return maxX >= 0 && minX <= geometry.width && maxY >= 0 && minY <= geometry.height;
+    },
+
+    _drawArrowHead : function(context, from, to) {
+        var size = this.$class.ARROW_SIZE;
+        var angle = Math.atan2(to.y - from.y, to.x - from.x);
+
+        context.beginPath();
+        context.moveTo(to.x, to.y);
+        context.lineTo(to.x - size * Math.cos(angle - Math.PI / 6), to.y - size * Math.sin(angle - Math.PI / 6));
+        context.lineTo(to.x - size * Math.cos(angle + Math.PI / 6), to.y - size * Math.sin(angle + Math.PI / 6));
+        context.closePath();
+        context.fill();
+    },
+
+    /*
+     * The canvas doesn't receive mouse events so the tasks below keep working,
+     * the dependency under a right click is searched here instead.
+     */
+    _onContextMenu : function(event) {
+        var canvas = this.$n('canvas');
+        var taskList = ganttz.TaskList.getInstance();
+        if (!canvas || !taskList || jq(event.target).closest('.box, .milestone, .taskgroup').length > 0) {
+            return;
+        }
+
+        var scroller = this._getScroller();
+        var viewport = scroller.offset();
+        var rows = taskList.rowsGeometry();
+        var geometry = {
+            left : rows.left - viewport.left,
+            top : rows.top + rows.barTop - viewport.top,
+            rowHeight : rows.rowHeight,
+            width : scroller[0].clientWidth,
+            height : scroller[0].clientHeight
+        };
+        var x = event.pageX - viewport.left;
+        var y = event.pageY - viewport.top;
+
+        for (var id in this._records) {
+            if (this._isNear(this._pointsOf(geometry, this._records[id]), x, y)) {
+                event.preventDefault();
+                zAu.send(new zk.Event(this, 'onDependencyContextMenu',
+                    { id : this._records[id][0], x : event.pageX, y : event.pageY }));
+                return;
+            }
+        }
+    },
+
+    _isNear : function(points, x, y) {
+        var tolerance = this.$class.CLICK_TOLERANCE;
+        for (var i = 1; i < points.length; i++) {
+            var from = points[i - 1], to = points[i];
+            if (x >= Math.min(from.x, to.x) - tolerance && x <= Math.max(from.x, to.x) + tolerance
+                && y >= Math.min(from.y, to.y) - tolerance && y <= Math.max(from.y, to.y) + tolerance) {
+                return true;
+            }
+        }
+        return false;
     }
 },{
+    // Same order as org.zkoss.ganttz.data.DependencyType
+    TYPES : [ "VOID", "END_START", "START_END", "START_START", "END_END" ],
+
+    VIOLATED : 1,
+
+    CRITICAL : 2,
+
+    COLOR : "#000000",
+
+    VIOLATED_COLOR : "#FF0000",
+
+    ARROW_SIZE : 6,
+
+    CLICK_TOLERANCE : 3,          // Pixels around a segment accepting the right click
+
     setInstance : function(instance){
         this._instance = instance;
     },
     getInstance : function(){
         return this._instance;
     }
-});
\ No newline at end of file
+});
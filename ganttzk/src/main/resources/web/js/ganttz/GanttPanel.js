@@ -25,6 +25,7 @@ ganttz.GanttPanel = zk.$extends(
 
             this.domListen_(this.$n(), 'onMousemove', '_calcXY');
             this.domListen_(this._rightPanelLayout, 'onScroll', '_listenToScroll');
+            this._notifyViewport();
         },
         
         unbind_ : function(evt){
@@ -59,6 +60,18 @@ ganttz.GanttPanel = zk.$extends(
             this._taskdetails.css("top", "-" + this._rightPanelLayout.scrollTop() + "px");
             this._plannergraph.scrollLeft( this._rightPanelLayout.scrollLeft() );
             this.timeplotContainerRescroll();
+            this._notifyViewport();
+        },
+
+        _notifyViewport : function() {
+            var taskList = ganttz.TaskList.getInstance();
+            if (taskList) {
+                taskList.viewportChanged(this._rightPanelLayout);
+            }
+            var dependencyList = ganttz.DependencyList.getInstance();
+            if (dependencyList) {
+                dependencyList.viewportChanged(this._rightPanelLayout);
+            }
         },
         
         /*
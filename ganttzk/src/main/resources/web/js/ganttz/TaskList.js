@@ -3,11 +3,87 @@ zk.$package("ganttz");
 ganttz.TaskList = zk.$extends(
     zk.Widget,
     {
+        $define : {
+            rowsBefore : function() {
+                this._resizeSpacers();
+            },
+            rowsAfter : function() {
+                this._resizeSpacers();
+            }
+        },
+
         $init : function() {
             this.$supers('$init', arguments);
             this.$class.setInstance(this);
         },
 
+        bind_ : function() {
+            this.$supers('bind_', arguments);
+            this._resizeSpacers();
+        },
+
+        _rowHeight : function() {
+            var rows = jq(this.$n()).find('.row');
+            if (rows.length > 1) {
+                return rows[1].offsetTop - rows[0].offsetTop;
+            }
+            return this.$class.DEFAULT_ROW_HEIGHT;
+        },
+
+        /*
+         * The page coordinates of the first row, shown or not, and the offset
+         * of the task bars inside their rows.
+         */
+        rowsGeometry : function() {
+            var rowHeight = this._rowHeight();
+            var origin = jq(this.$n('before')).offset();
+            var barTop = this.$class.DEFAULT_BAR_TOP;
+
+            if (this.firstChild && this.firstChild.firstChild) {
+                var firstRowTop = origin.top + (this._rowsBefore || 0) * rowHeight;
+                barTop = jq(this.firstChild.firstChild.$n()).offset().top - firstRowTop;
+            }
+            return { left : jq('#listtasks').offset().left, top : origin.top, rowHeight : rowHeight, barTop : barTop };
+        },
+
+        _resizeSpacers : function() {
+            if (!this.desktop) {
+                return;
+            }
+            var rowHeight = this._rowHeight();
+            jq(this.$n('before')).height((this._rowsBefore || 0) * rowHeight);
+            jq(this.$n('after')).height((this._rowsAfter || 0) * rowHeight);
+        },
+
+        /*
+         * Asks the server for the rows around the viewport of the scroller when
+         * the rendered ones are about to run out.
+         */
+        viewportChanged : function(scroller) {
+            if (!this.desktop) {
+                return;
+            }
+            var rowHeight = this._rowHeight();
+            var listTop = jq(this.$n('before')).offset().top - scroller.offset().top + scroller.scrollTop();
+            var first = Math.max(0, Math.floor((scroller.scrollTop() - listTop) / rowHeight));
+            var count = Math.ceil(scroller.height() / rowHeight) + 1;
+
+            var firstRendered = this._rowsBefore || 0;
+            var lastRendered = firstRendered + this.nChildren;
+            var margin = this.$class.ROWS_MARGIN;
+
+            var missingAbove = firstRendered > 0 && first < firstRendered + margin;
+            var missingBelow = (this._rowsAfter || 0) > 0 && first + count > lastRendered - margin;
+            if (!missingAbove && !missingBelow) {
+                return;
+            }
+
+            clearTimeout(this._viewportTimeout);
+            this._viewportTimeout = setTimeout(jq.proxy(function() {
+                zAu.send(new zk.Event(this, 'onViewportChange', { first : first, count : count }));
+            }, this), this.$class.VIEWPORT_CHANGE_DELAY);
+        },
+
         showAllTaskLabels : function() {
             for (var child = this.firstChild; child; child = child.nextSibling)
                 child.showLabels();
@@ -44,6 +120,14 @@ ganttz.TaskList = zk.$extends(
     },
     {
         // Class stuff
+        DEFAULT_ROW_HEIGHT : 22,       // Used until there are two rows to measure
+
+        DEFAULT_BAR_TOP : 9,           // Used until there is a row to measure
+
+        ROWS_MARGIN : 10,              // Rows left to show before asking for more
+
+        VIEWPORT_CHANGE_DELAY : 100,   // Milliseconds without scrolling before asking for rows
+
         setInstance : function(instance) {
             this.instance = instance;
         },
@@ -6,6 +6,9 @@ function (out) {
         '>');
 
     out.push('<div id="listdependencies">');
+    if (this._drawingInBulk) {
+        out.push('<canvas id="', this.uuid, '-canvas" style="position: absolute; pointer-events: none;"></canvas>');
+    }
     for (var w = this.firstChild; w; w = w.nextSibling) {
         w.redraw(out);
     }
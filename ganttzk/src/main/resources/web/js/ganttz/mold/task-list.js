@@ -5,10 +5,12 @@ function(out){
 
     out.push('<div id="scroll_container">');
         out.push('<div z.type="gantt.tasklist.TaskList" z.autoz="true" ' + this.domAttrs_() + '>');
+            out.push('<div id="' + this.uuid + '-before" class="rows-spacer"></div>');
             out.push('<div id="listtasks">');
                 for(var w = this.firstChild; w; w = w.nextSibling)
                     w.redraw(out);
             out.push('</div>');
         out.push('</div>');
+        out.push('<div id="' + this.uuid + '-after" class="rows-spacer"></div>');
     out.push('</div>');
 }
\ No newline at end of file
@@ -0,0 +1,349 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zkoss.ganttz.data;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.zkoss.ganttz.data.DependencyType.Point;
+import org.zkoss.ganttz.data.GanttDiagramGraph.GanttZKDiagramGraph;
+import org.zkoss.ganttz.data.constraint.Constraint;
+
+/**
+ * Tests for {@link GanttDiagramGraph}.
+ */
+public class GanttDiagramGraphTest {
+
+    private static final LocalDate START = new LocalDate(2016, 1, 4);
+
+    private static final int DAYS_PER_TASK = 2;
+
+    private static final long DAY_MILLISECONDS = 24 * 60 * 60 * 1000L;
+
+    private DefaultFundamentalProperties createProperties(String name) {
+        return new DefaultFundamentalProperties(name, START.toDate(),
+                DAYS_PER_TASK * DAY_MILLISECONDS, "", START.toDate(), START.toDate(), START.toDate(),
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    private Task createTask(String name) {
+        return new TaskLeaf(createProperties(name));
+    }
+
+    private TaskContainer createContainer(String name, Task... children) {
+        TaskContainer result = new TaskContainer(createProperties(name), true);
+        for (Task each : children) {
+            result.add(each);
+        }
+
+        return result;
+    }
+
+    private List<GanttDate> startDates(List<Task> tasks) {
+        List<GanttDate> result = new ArrayList<>();
+        for (Task each : tasks) {
+            result.add(each.getBeginDate());
+        }
+
+        return result;
+    }
+
+    private List<Task> createChain(int size) {
+        List<Task> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            result.add(createTask("task-" + i));
+        }
+
+        return result;
+    }
+
+    private GanttZKDiagramGraph createEmptyGraph() {
+        return GanttDiagramGraph.create(false,
+                Collections.<Constraint<GanttDate>> emptyList(),
+                Collections.<Constraint<GanttDate>> emptyList(), false);
+    }
+
+    @Test
+    public void dependenciesAddedOneByOneGiveTheSameResultAsAddedInBulk() {
+        List<Task> oneByOne = createChain(10);
+        GanttZKDiagramGraph graph = createEmptyGraph();
+        for (Task each : oneByOne) {
+            graph.addTopLevel(each);
+        }
+        graph.enforceAllRestrictions();
+
+        // Added from the end so the depth of the already sorted tasks changes
+        for (int i = oneByOne.size() - 1; i > 0; i--) {
+            graph.add(new Dependency(oneByOne.get(i - 1), oneByOne.get(i), DependencyType.END_START));
+        }
+
+        List<Task> inBulk = createChain(10);
+        GanttZKDiagramGraph bulkGraph = createEmptyGraph();
+        bulkGraph.addTopLevel(inBulk);
+        List<Dependency> dependencies = new ArrayList<>();
+        for (int i = 1; i < inBulk.size(); i++) {
+            dependencies.add(new Dependency(inBulk.get(i - 1), inBulk.get(i), DependencyType.END_START));
+        }
+        bulkGraph.addDependencies(dependencies);
+
+        assertThat(startDates(oneByOne), equalTo(startDates(inBulk)));
+        assertThat(oneByOne.get(9).getBeginDate(),
+                equalTo((GanttDate) GanttDate.createFrom(START.plusDays(9 * DAYS_PER_TASK))));
+    }
+
+    private void assertDepthsAreTheRecalculatedOnes(GanttZKDiagramGraph graph) {
+        Map<?, Integer> kept = graph.getTaskPointsByDepth();
+        assertEquals(graph.recalculateTaskPointsByDepth(), kept);
+    }
+
+    @Test
+    public void theDepthsKeptWhileAddingAndRemovingAreTheRecalculatedOnes() {
+        List<Task> chain = createChain(6);
+        GanttZKDiagramGraph graph = createEmptyGraph();
+        for (Task each : chain) {
+            graph.addTopLevel(each);
+        }
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        for (int i = chain.size() - 1; i > 0; i--) {
+            graph.add(new Dependency(chain.get(i - 1), chain.get(i), DependencyType.END_START));
+            assertDepthsAreTheRecalculatedOnes(graph);
+        }
+
+        Task other = createTask("other");
+        graph.addTopLevel(other);
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.add(new Dependency(chain.get(2), other, DependencyType.START_START));
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        Task last = createTask("last");
+        graph.addTopLevel(last);
+        Dependency fromOther = new Dependency(other, last, DependencyType.END_START);
+        graph.add(fromOther);
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.add(new Dependency(chain.get(0), last, DependencyType.END_END));
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.remove(chain.get(3));
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.add(new Dependency(chain.get(5), last, DependencyType.END_START));
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.removeDependency(fromOther);
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.add(fromOther);
+        assertDepthsAreTheRecalculatedOnes(graph);
+    }
+
+    /**
+     * Checks the depths kept for the start and end points of the task, so it
+     * must be called before the depths are recalculated.
+     */
+    private void assertDepths(GanttZKDiagramGraph graph, Task task, Integer start, Integer end) {
+        assertEquals(start, graph.getDepth(task, Point.START));
+        assertEquals(end, graph.getDepth(task, Point.END));
+    }
+
+    private GanttZKDiagramGraph createGraphWithDepths(Task... topLevel) {
+        GanttZKDiagramGraph result = createEmptyGraph();
+        for (Task each : topLevel) {
+            result.addTopLevel(each);
+        }
+        assertDepthsAreTheRecalculatedOnes(result);
+
+        return result;
+    }
+
+    @Test
+    public void theDepthsAreUpdatedWhenDependenciesAreRemovedAndAddedAgain() {
+        Task first = createTask("first");
+        Task second = createTask("second");
+        Task third = createTask("third");
+        GanttZKDiagramGraph graph = createGraphWithDepths(first, second, third);
+
+        graph.add(new Dependency(first, second, DependencyType.END_START));
+        Dependency toThird = new Dependency(second, third, DependencyType.END_START);
+        graph.add(toThird);
+        assertDepths(graph, first, 0, 1);
+        assertDepths(graph, second, 2, 3);
+        assertDepths(graph, third, 4, 5);
+
+        graph.removeDependency(toThird);
+        assertDepths(graph, second, 2, 3);
+        assertDepths(graph, third, 0, 1);
+
+        graph.add(toThird);
+        assertDepths(graph, third, 4, 5);
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.remove(second);
+        assertDepths(graph, first, 0, 1);
+        assertDepths(graph, third, 0, 1);
+
+        graph.add(new Dependency(first, third, DependencyType.END_START));
+        assertDepths(graph, third, 2, 3);
+        assertDepthsAreTheRecalculatedOnes(graph);
+    }
+
+    @Test
+    public void theDepthsOfTheTasksInsideContainersAreUpdated() {
+        Task predecessor = createTask("predecessor");
+        GanttZKDiagramGraph graph = createGraphWithDepths(predecessor);
+
+        Task first = createTask("first");
+        Task second = createTask("second");
+        TaskContainer container = createContainer("container", first, second);
+        graph.addTopLevel(container);
+        assertDepths(graph, container, 0, 3);
+        assertDepths(graph, first, 1, 2);
+        assertDepths(graph, second, 1, 2);
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.add(new Dependency(first, second, DependencyType.END_START));
+        assertDepths(graph, second, 3, 4);
+        assertDepths(graph, container, 0, 5);
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        Dependency toContainer = new Dependency(predecessor, container, DependencyType.END_START);
+        graph.add(toContainer);
+        assertDepths(graph, container, 2, 7);
+        assertDepths(graph, first, 3, 4);
+        assertDepths(graph, second, 5, 6);
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.removeDependency(toContainer);
+        assertDepths(graph, container, 0, 5);
+        assertDepths(graph, second, 3, 4);
+
+        graph.add(toContainer);
+        assertDepths(graph, container, 2, 7);
+        assertDepths(graph, second, 5, 6);
+        assertDepthsAreTheRecalculatedOnes(graph);
+    }
+
+    /**
+     * The moved task is wired to its new container with the same invisible
+     * dependencies the graph creates for the children of the containers added
+     * to it.
+     */
+    @Test
+    public void theDepthsAreUpdatedWhenATaskIsMovedToAnotherContainer() {
+        Task first = createTask("first");
+        Task moved = createTask("moved");
+        TaskContainer origin = createContainer("origin", first, moved);
+        Task other = createTask("other");
+        TaskContainer destination = createContainer("destination", other);
+        GanttZKDiagramGraph graph = createGraphWithDepths(origin, destination);
+
+        graph.add(new Dependency(first, moved, DependencyType.END_START));
+        assertDepths(graph, origin, 0, 5);
+        assertDepths(graph, moved, 3, 4);
+
+        graph.remove(moved);
+        origin.remove(moved);
+        assertDepths(graph, origin, 0, 3);
+        assertDepths(graph, first, 1, 2);
+
+        destination.add(moved);
+        graph.addTask(moved);
+        assertDepths(graph, moved, null, null);
+
+        graph.addWithoutEnforcingConstraints(
+                new Dependency(moved, destination, DependencyType.END_END, false));
+        graph.addWithoutEnforcingConstraints(
+                new Dependency(destination, moved, DependencyType.START_START, false));
+        assertDepths(graph, destination, 0, 3);
+        assertDepths(graph, moved, 1, 2);
+        assertDepthsAreTheRecalculatedOnes(graph);
+
+        graph.add(new Dependency(first, moved, DependencyType.END_START));
+        assertDepths(graph, moved, 3, 4);
+        assertDepths(graph, destination, 0, 5);
+        assertDepths(graph, other, 1, 2);
+        assertDepthsAreTheRecalculatedOnes(graph);
+    }
+
+    /**
+     * Creates tasks depending on the first one, and on the second one that
+     * also depends on the first one. The first, second and last tasks are then
+     * moved without going through the graph, as when their dates are updated
+     * in the domain.
+     */
+    private List<Task> givenTasksMovedOutsideTheGraph(GanttZKDiagramGraph graph) {
+        List<DefaultFundamentalProperties> properties = new ArrayList<>();
+        List<Task> result = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            DefaultFundamentalProperties each = createProperties("task-" + i);
+            properties.add(each);
+            result.add(new TaskLeaf(each));
+        }
+        graph.addTopLevel(result);
+        graph.addDependencies(Arrays.asList(
+                new Dependency(result.get(0), result.get(1), DependencyType.END_START),
+                new Dependency(result.get(0), result.get(2), DependencyType.END_START),
+                new Dependency(result.get(1), result.get(2), DependencyType.END_START),
+                new Dependency(result.get(2), result.get(3), DependencyType.END_START)));
+
+        moveTo(properties.get(0), START.plusDays(10));
+        moveTo(properties.get(1), START);
+        moveTo(properties.get(4), START.plusDays(3));
+
+        return result;
+    }
+
+    private void moveTo(DefaultFundamentalProperties properties, LocalDate date) {
+        properties.doPositionModifications(position -> position.moveTo(GanttDate.createFrom(date)));
+    }
+
+    @Test
+    public void enforcingFromSeveralTasksAtOnceGivesTheSameDatesAsFromEachOne() {
+        GanttZKDiagramGraph graph = createEmptyGraph();
+        List<Task> oneByOne = givenTasksMovedOutsideTheGraph(graph);
+        for (Task each : Arrays.asList(oneByOne.get(0), oneByOne.get(1), oneByOne.get(4))) {
+            graph.enforceRestrictions(each);
+        }
+
+        GanttZKDiagramGraph otherGraph = createEmptyGraph();
+        List<Task> atOnce = givenTasksMovedOutsideTheGraph(otherGraph);
+        otherGraph.enforceRestrictions(Arrays.asList(atOnce.get(0), atOnce.get(1), atOnce.get(4)));
+
+        assertThat(startDates(atOnce), equalTo(startDates(oneByOne)));
+        assertThat(startDates(atOnce), equalTo(Arrays.<GanttDate> asList(
+                GanttDate.createFrom(START.plusDays(10)),
+                GanttDate.createFrom(START.plusDays(10 + DAYS_PER_TASK)),
+                GanttDate.createFrom(START.plusDays(10 + 2 * DAYS_PER_TASK)),
+                GanttDate.createFrom(START.plusDays(10 + 3 * DAYS_PER_TASK)),
+                GanttDate.createFrom(START.plusDays(3)))));
+    }
+
+}
@@ -23,12 +23,14 @@ package org.zkoss.ganttz.data.resourceload;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.joda.time.LocalDate;
 import org.junit.Test;
@@ -111,4 +113,27 @@ public class LoadTimelineTest {
         new LoadTimeLine("bla", Arrays.asList(l1, l2), null);
     }
 
+    @Test
+    public void theChildrenOfALazyLoadTimelineAreOnlyLoadedOnceWhenAsked() {
+        givenValidLoadTimeLine();
+        final LoadTimeLine child = new LoadTimeLine("child", Collections.<LoadPeriod> emptyList(), null);
+        final AtomicInteger loads = new AtomicInteger();
+
+        LoadTimeLine lazy = new LoadTimeLine(loadTimeLine, () -> {
+            loads.incrementAndGet();
+            return Collections.singletonList(child);
+        });
+
+        assertFalse(lazy.areChildrenLoaded());
+        assertTrue(lazy.hasChildren());
+        assertTrue(lazy.getAllChildren().isEmpty());
+        assertThat(lazy.getStart(), equalTo(loadTimeLine.getStart()));
+        assertThat(loads.get(), equalTo(0));
+
+        assertThat(lazy.getChildren(), equalTo(Collections.singletonList(child)));
+        assertThat(lazy.getAllChildren(), equalTo(Collections.singletonList(child)));
+        assertTrue(lazy.areChildrenLoaded());
+        assertThat(loads.get(), equalTo(1));
+    }
+
 }
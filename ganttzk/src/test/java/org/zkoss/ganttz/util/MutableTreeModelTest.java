@@ -93,6 +93,22 @@ public class MutableTreeModelTest {
         assertFalse(model.isLeaf(root));
     }
 
+    @Test
+    public void aNodeWithPendingChildrenIsNotALeaf() {
+        Prueba root = new Prueba();
+        MutableTreeModel<Prueba> model = MutableTreeModel.create(Prueba.class, root);
+        final Prueba withPending = new Prueba();
+        Prueba other = new Prueba();
+        model.add(root, withPending);
+        model.add(root, other);
+
+        model.setPendingChildren(node -> node == withPending);
+
+        assertFalse(model.isLeaf(withPending));
+        assertTrue(model.isLeaf(other));
+        assertThat(model.getChildCount(withPending), equalTo(0));
+    }
+
     @Test
     public void childAddedCanBeFoundUsingGetPath() {
         Prueba root = new Prueba();
@@ -0,0 +1,125 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the windows of rendered rows built by {@link RowsWindow}.
+ */
+public class RowsWindowTest {
+
+    private static final int BUFFER = 30;
+
+    @Test
+    public void theWindowAroundTheVisibleRowsHasTheBufferAboveAndBelow() {
+        RowsWindow window = RowsWindow.around(100, 20, BUFFER, 1000);
+
+        assertEquals(RowsWindow.create(70, 80), window);
+        assertEquals(RowsWindow.create(70, 80), window.fitTo(1000));
+    }
+
+    @Test
+    public void theBufferAboveTheFirstRowIsNotTaken() {
+        assertEquals(RowsWindow.create(0, 80), RowsWindow.around(10, 20, BUFFER, 1000));
+    }
+
+    @Test
+    public void negativeValuesFromTheClientAreTakenAsZero() {
+        assertEquals(RowsWindow.create(0, 2 * BUFFER), RowsWindow.around(-5, -20, BUFFER, 1000));
+        assertEquals(RowsWindow.create(0, 0), RowsWindow.create(-5, -20));
+    }
+
+    @Test
+    public void valuesFromTheClientBeyondTheRowsAreTakenAsTheRows() {
+        RowsWindow window = RowsWindow.around(5000, Integer.MAX_VALUE, BUFFER, 1000);
+
+        assertEquals(RowsWindow.create(1000 - BUFFER, 1000 + 2 * BUFFER), window);
+        assertEquals(RowsWindow.create(0, 1000), window.fitTo(1000));
+    }
+
+    @Test
+    public void aWindowPastTheLastRowIsMovedUp() {
+        RowsWindow fitted = RowsWindow.create(950, 80).fitTo(1000);
+
+        assertEquals(RowsWindow.create(920, 80), fitted);
+        assertEquals(1000, fitted.getEnd());
+    }
+
+    @Test
+    public void aWindowBiggerThanTheRowsIsCut() {
+        assertEquals(RowsWindow.create(0, 10), RowsWindow.create(5, 80).fitTo(10));
+        assertEquals(RowsWindow.EMPTY, RowsWindow.create(5, 80).fitTo(0));
+    }
+
+    @Test
+    public void theEndIsNotContained() {
+        RowsWindow window = RowsWindow.create(10, 5);
+
+        assertFalse(window.contains(9));
+        assertTrue(window.contains(10));
+        assertTrue(window.contains(14));
+        assertFalse(window.contains(15));
+        assertFalse(window.contains(-1));
+    }
+
+    @Test
+    public void aSpanInsideTheWindowIntersectsIt() {
+        assertTrue(RowsWindow.create(10, 5).intersectsSpan(11, 13));
+    }
+
+    @Test
+    public void aSpanWithOneEndOutsideTheWindowIntersectsIt() {
+        RowsWindow window = RowsWindow.create(10, 5);
+
+        assertTrue(window.intersectsSpan(2, 10));
+        assertTrue(window.intersectsSpan(14, 40));
+        assertTrue(window.intersectsSpan(40, 14));
+    }
+
+    @Test
+    public void aSpanCrossingTheWindowIntersectsIt() {
+        RowsWindow window = RowsWindow.create(10, 5);
+
+        assertTrue(window.intersectsSpan(2, 40));
+        assertTrue(window.intersectsSpan(40, 2));
+    }
+
+    @Test
+    public void aSpanAboveOrBelowTheWindowDoesNotIntersectIt() {
+        RowsWindow window = RowsWindow.create(10, 5);
+
+        assertFalse(window.intersectsSpan(2, 9));
+        assertFalse(window.intersectsSpan(15, 40));
+    }
+
+    @Test
+    public void noSpanIntersectsAnEmptyWindow() {
+        RowsWindow window = RowsWindow.create(10, 0);
+
+        assertFalse(window.intersectsSpan(2, 40));
+        assertFalse(window.intersectsSpan(10, 10));
+    }
+
+}
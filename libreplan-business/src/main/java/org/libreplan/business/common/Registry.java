@@ -45,6 +45,7 @@ import org.libreplan.business.logs.daos.IRiskLogDAO;
 import org.libreplan.business.materials.daos.IMaterialCategoryDAO;
 import org.libreplan.business.materials.daos.IMaterialDAO;
 import org.libreplan.business.materials.daos.IUnitTypeDAO;
+import org.libreplan.business.orders.daos.IDailyChargedEffortDAO;
 import org.libreplan.business.orders.daos.IHoursGroupDAO;
 import org.libreplan.business.orders.daos.IOrderDAO;
 import org.libreplan.business.orders.daos.IOrderElementDAO;
@@ -136,6 +137,9 @@ public class Registry {
     @Autowired
     private IWorkerDAO workerDAO;
 
+    @Autowired
+    private IDailyChargedEffortDAO dailyChargedEffortDAO;
+
     @Autowired
     private IWorkReportLineDAO workReportLineDAO;
 
@@ -293,6 +297,10 @@ public class Registry {
         return getInstance().orderElementDAO;
     }
 
+    public static IDailyChargedEffortDAO getDailyChargedEffortDAO() {
+        return getInstance().dailyChargedEffortDAO;
+    }
+
     public static IWorkerDAO getWorkerDAO() {
         return getInstance().workerDAO;
     }
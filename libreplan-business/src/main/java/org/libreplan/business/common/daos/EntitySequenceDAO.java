@@ -22,31 +22,63 @@
 package org.libreplan.business.common.daos;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.Validate;
 import org.hibernate.NonUniqueResultException;
 import org.hibernate.criterion.Restrictions;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.entities.EntityNameEnum;
 import org.libreplan.business.common.entities.EntitySequence;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
+import org.libreplan.business.common.exceptions.ValidationException;
 import org.libreplan.business.i18n.I18nHelper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
-import org.springframework.orm.hibernate5.HibernateOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * DAO for {@link EntitySequence}.
  *
+ * The codes are generated from blocks of values reserved with one update of
+ * the sequence and kept in memory, checking in bulk which of them are already
+ * in use.
+ *
  * @author Susana Montes Pedreira <smontes@wirelessgalicia.com>
  */
 @Repository
 @Scope(BeanDefinition.SCOPE_SINGLETON)
 public class EntitySequenceDAO extends GenericDAOHibernate<EntitySequence, Long> implements IEntitySequenceDAO {
 
+    /**
+     * Number of values of a sequence reserved at once. The values reserved
+     * and not used before the application is stopped are lost.
+     */
+    private static final int RESERVATION_SIZE = 50;
+
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
+    private final ConcurrentMap<EntityNameEnum, ReservedCodes> reservedCodes = new ConcurrentHashMap<>();
+
+    private final Map<EntityNameEnum, Object> reservationLocks = new EnumMap<>(EntityNameEnum.class);
+
+    public EntitySequenceDAO() {
+        for (EntityNameEnum each : EntityNameEnum.values()) {
+            reservationLocks.put(each, new Object());
+        }
+    }
+
     @Override
     public List<EntitySequence> getAll() {
         return list(EntitySequence.class);
@@ -96,31 +128,247 @@ public class EntitySequenceDAO extends GenericDAOHibernate<EntitySequence, Long>
     }
 
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public String getNextEntityCode(EntityNameEnum entityName) {
-        return getNextEntityCodeWithoutTransaction(entityName);
+        String code;
+        do {
+            code = takeReservedCode(entityName);
+        } while (code != null && isInUse(entityName, code));
+
+        return code;
     }
 
+    private String takeReservedCode(EntityNameEnum entityName) {
+        String code = pollReservedCode(entityName);
+
+        while (code == null) {
+            synchronized (reservationLocks.get(entityName)) {
+                code = pollReservedCode(entityName);
+                if (code != null) {
+                    break;
+                }
+
+                ReservedCodes reserved = reserveCodesOnAnotherTransaction(entityName);
+                if (reserved == null) {
+                    return null;
+                }
+                code = reserved.codes.poll();
+                reservedCodes.put(entityName, reserved);
+            }
+        }
+
+        return code;
+    }
+
+    /**
+     * The codes in use were discarded when the block was reserved, but an
+     * entity could have been given the code since then, e.g. by hand or in
+     * the transaction of the caller, which the reservation can't see.
+     */
+    private boolean isInUse(final EntityNameEnum entityName, final String code) {
+        return transactionService.runOnReadOnlyTransaction(
+                () -> entityName.getIntegrationEntityDAO().existsByCode(code));
+    }
+
+    private String pollReservedCode(EntityNameEnum entityName) {
+        ReservedCodes reserved = reservedCodes.get(entityName);
+        return reserved != null ? reserved.codes.poll() : null;
+    }
+
+    /**
+     * Codes reserved from a sequence, together with the prefix and number of
+     * digits they were formatted with.
+     */
+    private static class ReservedCodes {
+
+        private final Long sequenceId;
+
+        private final String prefix;
+
+        private final Integer numberOfDigits;
+
+        private final Queue<String> codes;
+
+        private ReservedCodes(EntitySequence entitySequence, List<String> codes) {
+            this.sequenceId = entitySequence.getId();
+            this.prefix = entitySequence.getPrefix();
+            this.numberOfDigits = entitySequence.getNumberOfDigits();
+            this.codes = new ConcurrentLinkedQueue<>(codes);
+        }
+
+        /**
+         * The codes are still valid unless the sequence they come from is
+         * deactivated or its prefix or number of digits change, or another
+         * sequence becomes the active one.
+         */
+        private boolean isValidAfterSaving(EntitySequence saved) {
+            if ( !sequenceId.equals(saved.getId()) ) {
+                return !saved.isActive();
+            }
+
+            return saved.isActive() && prefix.equals(saved.getPrefix()) &&
+                    numberOfDigits.equals(saved.getNumberOfDigits());
+        }
+
+    }
+
+    /**
+     * Reserves a block of {@link #RESERVATION_SIZE} values of the active
+     * sequence in a transaction of its own, so they are not given again even
+     * if the transaction of the caller is rolled back. The block is smaller if
+     * there are fewer values left for the number of digits of the sequence.
+     *
+     * @return the codes of the block not used yet or <code>null</code> if
+     *         there is not an active sequence for <code>entityName</code>
+     *         visible from other transactions
+     */
+    private ReservedCodes reserveCodesOnAnotherTransaction(final EntityNameEnum entityName) {
+        return transactionService.runOnAnotherTransaction(new IOnTransaction<ReservedCodes>() {
+            @Override
+            public ReservedCodes execute() {
+                try {
+                    EntitySequence entitySequence = getActiveEntitySequence(entityName);
+                    int size;
+                    do {
+                        size = Math.min(RESERVATION_SIZE, entitySequence.getValuesLeft());
+                        if ( size <= 0 ) {
+                            throw new IllegalStateException("entity sequence " + entitySequence.getPrefix() +
+                                    " has no values left for " + entitySequence.getNumberOfDigits() + " digits");
+                        }
+                    } while (!reserve(entitySequence, size));
+
+                    int first = entitySequence.getLastValue() - size + 1;
+                    return new ReservedCodes(entitySequence,
+                            withoutExistingCodes(entityName, codesFrom(entitySequence, first, size)));
+
+                } catch (InstanceNotFoundException | NonUniqueResultException e) {
+                    return null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Increases the last value of <code>entitySequence</code> by
+     * <code>size</code> if no other transaction has changed it since it was
+     * read. The row is locked until the end of the transaction, so other
+     * transactions reserving values wait here.
+     *
+     * @return if the values were reserved. Otherwise the sequence is refreshed
+     *         so it can be tried again.
+     */
+    private boolean reserve(EntitySequence entitySequence, int size) {
+        int updated = getSession()
+                .createQuery("update versioned EntitySequence s set s.lastValue = s.lastValue + :size " +
+                        "where s.id = :id and s.lastValue = :lastValue")
+                .setParameter("size", size)
+                .setParameter("id", entitySequence.getId())
+                .setParameter("lastValue", entitySequence.getLastValue())
+                .executeUpdate();
+        getSession().refresh(entitySequence);
+
+        return updated > 0;
+    }
+
+    /**
+     * The values are reserved like in {@link #getNextEntityCode(EntityNameEnum)}
+     * unless the active sequence has been created or changed in the current
+     * transaction. Only then it's updated in the current transaction, as it
+     * already has it locked or other transactions can't see it. So the
+     * sequence is never locked by the transaction of the caller and then
+     * waited for by another transaction of the same thread.
+     */
+    @Override
     public String getNextEntityCodeWithoutTransaction(EntityNameEnum entityName) {
-        for (int i = 0; i < 5; i++) {
-            try {
-                String code;
-                EntitySequence entitySequence = getActiveEntitySequence(entityName);
+        try {
+            EntitySequence entitySequence = getActiveEntitySequence(entityName);
+            if ( !isChangedInCurrentTransaction(entitySequence) ) {
+                return getNextEntityCode(entityName);
+            }
+
+            String code;
+            do {
+                entitySequence.incrementLastValue();
+                code = entitySequence.getCode();
+            } while (entityName.getIntegrationEntityDAO().existsByCode(code));
+
+            save(entitySequence);
+            return code;
+
+        } catch (InstanceNotFoundException | NonUniqueResultException e) {
+            return null;
+        }
+    }
+
+    private boolean isChangedInCurrentTransaction(EntitySequence entitySequence) {
+        // The changes to the sequence were flushed when it was queried
+        if ( entitySequence.isNewObject() ) {
+            return true;
+        }
+        final Long id = entitySequence.getId();
+        Long committedVersion = transactionService.runOnAnotherTransaction(
+                () -> (Long) getSession()
+                        .createQuery("select s.version from EntitySequence s where s.id = :id")
+                        .setParameter("id", id)
+                        .uniqueResult());
+
+        if ( committedVersion == null ) {
+            return true;
+        }
+        if ( entitySequence.getVersion() < committedVersion ) {
+            // It was loaded before other transactions reserved values
+            getSession().refresh(entitySequence);
+            return false;
+        }
 
-                do {
-                    entitySequence.incrementLastValue();
-                    code = entitySequence.getCode();
-                } while (entityName.getIntegrationEntityDAO().existsByCode(code));
+        return entitySequence.getVersion() > committedVersion;
+    }
+
+    private static List<String> codesFrom(EntitySequence entitySequence, int firstValue, int size) {
+        List<String> result = new ArrayList<>();
+        for (int value = firstValue; value < firstValue + size; value++) {
+            result.add(entitySequence.getPrefix() + EntitySequence.formatValue(entitySequence.getNumberOfDigits(), value));
+        }
+
+        return result;
+    }
 
-                save(entitySequence);
-                return code;
+    /**
+     * Checks with one query which of the <code>codes</code> are already in use.
+     */
+    private static List<String> withoutExistingCodes(EntityNameEnum entityName, List<String> codes) {
+        Set<String> existing = new HashSet<>();
+        for (String each : entityName.getIntegrationEntityDAO().findExistingCodes(codes)) {
+            existing.add(each.toLowerCase());
+        }
 
-            } catch (HibernateOptimisticLockingFailureException | InstanceNotFoundException | NonUniqueResultException e) {
-                // Do nothing (optimistic approach 5 attempts)
+        List<String> result = new ArrayList<>();
+        for (String each : codes) {
+            if (!existing.contains(each.toLowerCase())) {
+                result.add(each);
             }
         }
 
-        return null;
+        return result;
+    }
+
+    /**
+     * Discards the codes reserved for the entity name of
+     * <code>entitySequence</code> only if they would not be given by it.
+     */
+    @Override
+    public void save(EntitySequence entitySequence) throws ValidationException {
+        super.save(entitySequence);
+
+        ReservedCodes reserved = reservedCodes.get(entitySequence.getEntityName());
+        if ( reserved != null && !reserved.isValidAfterSaving(entitySequence) ) {
+            reservedCodes.remove(entitySequence.getEntityName(), reserved);
+        }
+    }
+
+    @Override
+    public void remove(final Long id) throws InstanceNotFoundException {
+        super.remove(id);
+        reservedCodes.values().removeIf(each -> each.sequenceId.equals(id));
     }
 
     @Override
@@ -210,6 +210,11 @@ public class GenericDAOHibernate<E extends BaseEntity, PK extends Serializable>
         getSession().flush();
     }
 
+    @Override
+    public void evict(E entity) {
+        getSession().evict(entity);
+    }
+
     @Override
     @Transactional
     public void reattach(E entity) {
@@ -49,8 +49,21 @@ public interface IEntitySequenceDAO extends IGenericDAO<EntitySequence, Long> {
     EntitySequence getActiveEntitySequence(EntityNameEnum entityName)
             throws InstanceNotFoundException, NonUniqueResultException;
 
+    /**
+     * Returns a code not in use for <code>entityName</code> taken from the
+     * values of its active sequence reserved in memory. When they are
+     * exhausted a new block is reserved in another transaction.
+     *
+     * @return the code or <code>null</code> if there is not an active sequence
+     *         for <code>entityName</code>
+     */
     String getNextEntityCode(EntityNameEnum entityName);
 
+    /**
+     * Like {@link #getNextEntityCode(EntityNameEnum)}, but if the sequence has
+     * been created or changed in the current transaction, like in the
+     * bootstraps, it's updated in the current transaction.
+     */
     String getNextEntityCodeWithoutTransaction(EntityNameEnum entityName);
 
     boolean existOtherActiveSequenceByEntityNameForNewObject(EntitySequence entitySequence);
@@ -156,4 +156,10 @@ public interface IGenericDAO <E, PK extends Serializable>{
 
     void flush();
 
+    /**
+     * Detaches <code>entity</code> from the current session. Its pending
+     * changes must be flushed before, otherwise they are lost.
+     */
+    void evict(E entity);
+
 }
@@ -21,6 +21,7 @@
 
 package org.libreplan.business.common.daos;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.libreplan.business.common.IntegrationEntity;
@@ -63,6 +64,12 @@ public interface IIntegrationEntityDAO<E extends IntegrationEntity>
 
     public E findExistingEntityByCode(String code);
 
+    /**
+     * It returns the codes of the entities whose code is one of
+     * <code>codes</code>, compared ignoring case.
+     */
+    public List<String> findExistingCodes(Collection<String> codes);
+
     /**
      * It returns all entities ordered by ascending code.
      */
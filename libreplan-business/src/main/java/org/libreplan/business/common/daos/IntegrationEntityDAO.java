@@ -21,6 +21,9 @@
 
 package org.libreplan.business.common.daos;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -94,6 +97,33 @@ public class IntegrationEntityDAO<E extends IntegrationEntity>
         }
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<String> findExistingCodes(Collection<String> codes) {
+        if (codes.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> lowerCaseCodes = new ArrayList<>();
+        for (String each : codes) {
+            lowerCaseCodes.add(each.trim().toLowerCase());
+        }
+
+        return getSession()
+                .createQuery("select e." + getCodeProperty() + " from " + getEntityClass().getName() + " e " +
+                        "where lower(e." + getCodeProperty() + ") in (:codes)")
+                .setParameterList("codes", lowerCaseCodes)
+                .list();
+    }
+
+    /**
+     * @return the path of the code in the queries, it must be overridden by
+     *         the entities that do not keep it in a <code>code</code> property
+     */
+    protected String getCodeProperty() {
+        return "code";
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public List<E> findAll() {
@@ -182,7 +182,30 @@ public class EntitySequence extends BaseEntity {
         return prefix + formatValue(numberOfDigits, lastValue);
     }
 
+    /**
+     * @return the greatest value whose code fits in the number of digits
+     */
+    public int getMaxValue() {
+        return (int) Math.pow(10, numberOfDigits) - 1;
+    }
+
+    /**
+     * @return how many values are left before the codes overflow the number
+     *         of digits
+     */
+    public int getValuesLeft() {
+        return getMaxValue() - lastValue;
+    }
+
+    /**
+     * @throws IllegalStateException
+     *             if the next code wouldn't fit in the number of digits
+     */
     public void incrementLastValue() {
+        if ( getValuesLeft() <= 0 ) {
+            throw new IllegalStateException(
+                    "entity sequence " + prefix + " has no values left for " + numberOfDigits + " digits");
+        }
         lastValue++;
     }
 
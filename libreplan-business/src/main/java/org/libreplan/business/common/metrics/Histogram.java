@@ -0,0 +1,164 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of the values of something, e.g. the number of tasks of the
+ * projects opened. The count, mean, minimum and maximum take into account all
+ * the values since the histogram was created or {@link #reset()}, but the
+ * percentiles are calculated from the last {@link #RESERVOIR_SIZE} ones so the
+ * memory used is bounded. So a value out of the usual range is reported as the
+ * maximum until the next reset, while it only affects the percentiles until
+ * {@link #RESERVOIR_SIZE} more values are recorded.
+ */
+public class Histogram {
+
+    static final int RESERVOIR_SIZE = 1024;
+
+    private final long[] reservoir = new long[RESERVOIR_SIZE];
+
+    private long count = 0;
+
+    private long sum = 0;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max = Long.MIN_VALUE;
+
+    Histogram() {
+    }
+
+    public synchronized void update(long value) {
+        reservoir[(int) (count % RESERVOIR_SIZE)] = value;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Forgets the values recorded so far.
+     */
+    public synchronized void reset() {
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    public Snapshot getSnapshot() {
+        long[] values;
+        synchronized (this) {
+            values = Arrays.copyOf(reservoir, (int) Math.min(count, RESERVOIR_SIZE));
+            if ( count == 0 ) {
+                return new Snapshot(0, 0, 0, 0, values);
+            }
+            return new Snapshot(count, sum, min, max, values);
+        }
+    }
+
+    /**
+     * The values of a {@link Histogram} at some moment.
+     */
+    public static class Snapshot {
+
+        private final long count;
+
+        private final long sum;
+
+        private final long min;
+
+        private final long max;
+
+        private final long[] sortedValues;
+
+        private Snapshot(long count, long sum, long min, long max, long[] values) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.sortedValues = values;
+            Arrays.sort(this.sortedValues);
+        }
+
+        /**
+         * @return how many values have been recorded since the last reset
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the mean of all the values since the last reset
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @return the minimum of all the values since the last reset
+         */
+        public long getMin() {
+            return min;
+        }
+
+        /**
+         * @return the maximum of all the values since the last reset
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @param quantile
+         *            between 0 and 1
+         * @return the smallest value such that at least the given fraction of
+         *         the last {@link Histogram#RESERVOIR_SIZE} values are lower or
+         *         equal to it
+         */
+        public long getPercentile(double quantile) {
+            if ( quantile < 0 || quantile > 1 ) {
+                throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+            }
+            if ( sortedValues.length == 0 ) {
+                return 0;
+            }
+            int position = (int) Math.ceil(quantile * sortedValues.length) - 1;
+
+            return sortedValues[Math.max(0, position)];
+        }
+
+        public long getMedian() {
+            return getPercentile(0.5);
+        }
+
+        public long get95thPercentile() {
+            return getPercentile(0.95);
+        }
+
+        public long get99thPercentile() {
+            return getPercentile(0.99);
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common.metrics;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The values of a metric at some moment. For counters only the count is
+ * filled. The percentiles of histograms and timers only take into account the
+ * last values, see {@link Histogram}. It's a read-only bean so it can be
+ * exposed through JMX.
+ */
+public class MetricSummary {
+
+    public enum Type {
+        COUNTER, HISTOGRAM, TIMER
+    }
+
+    static MetricSummary ofCounter(String name, long count) {
+        return new MetricSummary(name, Type.COUNTER.name(), count, 0, 0, 0, 0, 0, 0);
+    }
+
+    static MetricSummary ofHistogram(String name, Histogram.Snapshot snapshot) {
+        return new MetricSummary(name, Type.HISTOGRAM.name(), snapshot.getCount(), snapshot.getMean(),
+                snapshot.getMin(), snapshot.getMax(), snapshot.getMedian(), snapshot.get95thPercentile(),
+                snapshot.get99thPercentile());
+    }
+
+    static MetricSummary ofTimer(String name, Histogram.Snapshot nanoseconds, TimeUnit unit) {
+        double nanosecondsPerUnit = unit.toNanos(1);
+
+        return new MetricSummary(name, Type.TIMER.name(), nanoseconds.getCount(),
+                nanoseconds.getMean() / nanosecondsPerUnit,
+                nanoseconds.getMin() / nanosecondsPerUnit,
+                nanoseconds.getMax() / nanosecondsPerUnit,
+                nanoseconds.getMedian() / nanosecondsPerUnit,
+                nanoseconds.get95thPercentile() / nanosecondsPerUnit,
+                nanoseconds.get99thPercentile() / nanosecondsPerUnit);
+    }
+
+    private final String name;
+
+    private final String type;
+
+    private final long count;
+
+    private final double mean;
+
+    private final double min;
+
+    private final double max;
+
+    private final double median;
+
+    private final double percentile95;
+
+    private final double percentile99;
+
+    @ConstructorProperties({ "name", "type", "count", "mean", "min", "max", "median", "percentile95",
+            "percentile99" })
+    public MetricSummary(String name, String type, long count, double mean, double min, double max,
+                         double median, double percentile95, double percentile99) {
+        this.name = name;
+        this.type = type;
+        this.count = count;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.median = median;
+        this.percentile95 = percentile95;
+        this.percentile99 = percentile99;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public double getPercentile95() {
+        return percentile95;
+    }
+
+    public double getPercentile99() {
+        return percentile99;
+    }
+
+}
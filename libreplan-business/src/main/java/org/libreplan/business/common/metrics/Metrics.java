@@ -0,0 +1,100 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the metrics of the application. They are identified by a name
+ * and created the first time they are requested, so the code measured,
+ * entities included, doesn't need any injected dependency.
+ *
+ * The values are kept in memory since the application started. They are
+ * exposed through JMX and the metrics REST service as {@link MetricSummary
+ * summaries}.
+ */
+public class Metrics {
+
+    private static final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private Metrics() {
+        // not instantiable
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, each -> new Counter());
+    }
+
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, each -> new Histogram());
+    }
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, each -> new Timer());
+    }
+
+    /**
+     * @return the summaries of all the metrics sorted by name. The durations
+     *         of the timers are in milliseconds.
+     */
+    public static List<MetricSummary> getSummaries() {
+        Map<String, MetricSummary> result = new TreeMap<>();
+        for (Entry<String, Counter> each : counters.entrySet()) {
+            result.put(each.getKey(), MetricSummary.ofCounter(each.getKey(), each.getValue().getCount()));
+        }
+        for (Entry<String, Histogram> each : histograms.entrySet()) {
+            result.put(each.getKey(), MetricSummary.ofHistogram(each.getKey(), each.getValue().getSnapshot()));
+        }
+        for (Entry<String, Timer> each : timers.entrySet()) {
+            result.put(each.getKey(), MetricSummary.ofTimer(each.getKey(), each.getValue().getSnapshot(),
+                    TimeUnit.MILLISECONDS));
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Forgets all the values recorded so far. The metrics themselves are kept,
+     * as the code measured can hold them, e.g. a {@link Timer} captured by a
+     * listener, and what it records after the reset must still be reported.
+     */
+    public static void reset() {
+        for (Counter each : counters.values()) {
+            each.reset();
+        }
+        for (Histogram each : histograms.values()) {
+            each.reset();
+        }
+        for (Timer each : timers.values()) {
+            each.reset();
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures how long an operation takes. The durations are kept in a
+ * {@link Histogram} in nanoseconds.
+ *
+ * It can be used with try-with-resources:
+ *
+ * <pre>
+ * try (Timer.Context context = Metrics.timer("planning.save").start()) {
+ *     ...
+ * }
+ * </pre>
+ */
+public class Timer {
+
+    private final Histogram durations = new Histogram();
+
+    Timer() {
+    }
+
+    public Context start() {
+        return new Context();
+    }
+
+    public void update(long duration, TimeUnit unit) {
+        durations.update(unit.toNanos(duration));
+    }
+
+    public <T> T time(Supplier<T> operation) {
+        try (Context context = start()) {
+            return operation.get();
+        }
+    }
+
+    public void time(Runnable operation) {
+        try (Context context = start()) {
+            operation.run();
+        }
+    }
+
+    /**
+     * Forgets the durations recorded so far.
+     */
+    public void reset() {
+        durations.reset();
+    }
+
+    /**
+     * @return the durations in nanoseconds
+     */
+    public Histogram.Snapshot getSnapshot() {
+        return durations.getSnapshot();
+    }
+
+    public class Context implements AutoCloseable {
+
+        private final long start = System.nanoTime();
+
+        private boolean stopped = false;
+
+        private Context() {
+        }
+
+        /**
+         * Records the time elapsed since the context was started. Only the
+         * first call has effect.
+         */
+        public void stop() {
+            if ( !stopped ) {
+                stopped = true;
+                update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+
+    }
+
+}
@@ -25,6 +25,8 @@ import org.libreplan.business.email.entities.EmailNotification;
 import org.libreplan.business.email.entities.EmailTemplateEnum;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -37,6 +39,8 @@ public class EmailNotificationDAO
         extends GenericDAOHibernate<EmailNotification, Long>
         implements IEmailNotificationDAO {
 
+    private static final int DELETE_BATCH_SIZE = 500;
+
     @Override
     public List<EmailNotification> getAll() {
         return list(EmailNotification.class);
@@ -89,4 +93,20 @@ public class EmailNotificationDAO
                 .uniqueResult() == null;
     }
 
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        List<Long> pending = new ArrayList<>(ids);
+        int result = 0;
+
+        for (int from = 0; from < pending.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> batch = pending.subList(from, Math.min(from + DELETE_BATCH_SIZE, pending.size()));
+            result += getSession()
+                    .createQuery("delete from EmailNotification n where n.id in (:ids)")
+                    .setParameterList("ids", batch)
+                    .executeUpdate();
+        }
+
+        return result;
+    }
+
 }
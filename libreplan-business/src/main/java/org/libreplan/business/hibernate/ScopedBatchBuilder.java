@@ -0,0 +1,65 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate;
+
+import org.hibernate.engine.jdbc.batch.internal.BatchBuilderImpl;
+import org.hibernate.engine.jdbc.batch.internal.BatchingBatch;
+import org.hibernate.engine.jdbc.batch.spi.Batch;
+import org.hibernate.engine.jdbc.batch.spi.BatchKey;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+
+/**
+ * Builds the JDBC batches of Hibernate, batching the statements only for the
+ * threads that asked for it with {@link #startBatching(int)}. The rest use the
+ * <code>hibernate.jdbc.batch_size</code> of the configuration, so they are not
+ * batched by default.
+ *
+ * Hibernate 5.1 does not allow to set the batch size of a single session. It's
+ * set with the <code>hibernate.jdbc.batch.builder</code> property.
+ */
+public class ScopedBatchBuilder extends BatchBuilderImpl {
+
+    private static final ThreadLocal<Integer> batchSize = new ThreadLocal<>();
+
+    /**
+     * The statements executed by the current thread are sent in batches of
+     * <code>size</code> until {@link #stopBatching()} is called. The session
+     * must be flushed before stopping, otherwise the pending statements would
+     * be sent later one by one.
+     */
+    public static void startBatching(int size) {
+        batchSize.set(size);
+    }
+
+    public static void stopBatching() {
+        batchSize.remove();
+    }
+
+    @Override
+    public Batch buildBatch(BatchKey key, JdbcCoordinator jdbcCoordinator) {
+        Integer size = batchSize.get();
+        if ( size != null && size > 1 ) {
+            return new BatchingBatch(key, jdbcCoordinator, size);
+        }
+
+        return super.buildBatch(key, jdbcCoordinator);
+    }
+
+}
@@ -23,11 +23,13 @@ package org.libreplan.business.hibernate.notification;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.libreplan.business.common.metrics.Metrics;
 
 /**
  * @author Óscar González Fernández
@@ -278,6 +280,7 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
                 newData = previousData.newData(timeWaiting, timeExecuting,
                         possibleError);
             } while (!data.compareAndSet(previousData, newData));
+            Metrics.timer("snapshot." + name).update(timeExecuting, TimeUnit.MILLISECONDS);
             report(timeWaiting, timeExecuting, newData, possibleError);
         }
 
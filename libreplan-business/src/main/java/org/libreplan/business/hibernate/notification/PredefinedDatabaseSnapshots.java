@@ -24,11 +24,13 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -47,7 +49,9 @@ import org.libreplan.business.labels.daos.ILabelDAO;
 import org.libreplan.business.labels.daos.ILabelTypeDAO;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.labels.entities.LabelType;
+import org.libreplan.business.orders.daos.IDailyChargedEffortDAO;
 import org.libreplan.business.orders.daos.IOrderDAO;
+import org.libreplan.business.orders.entities.DailyChargedEffort;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.planner.chart.ResourceLoadChartData;
 import org.libreplan.business.planner.daos.IDayAssignmentDAO;
@@ -71,8 +75,8 @@ import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.resources.entities.VirtualWorker;
 import org.libreplan.business.resources.entities.Worker;
 import org.libreplan.business.scenarios.IScenarioManager;
-import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
-import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.util.SearchIndex;
+import org.libreplan.business.workingday.EffortDuration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
@@ -128,7 +132,7 @@ public class PredefinedDatabaseSnapshots {
     private IScenarioManager scenarioManager;
 
     @Autowired
-    private IWorkReportLineDAO workReportLineDAO;
+    private IDailyChargedEffortDAO dailyChargedEffortDAO;
 
     @Autowired
     private ICostCalculator hoursCostCalculator;
@@ -156,7 +160,7 @@ public class PredefinedDatabaseSnapshots {
 
     private IAutoUpdatedSnapshot<ResourceLoadChartData> resourceLoadChartData;
 
-    private IAutoUpdatedSnapshot<List<WorkReportLine>> workReportLines;
+    private IAutoUpdatedSnapshot<SortedMap<LocalDate, EffortDuration>> chargedEffortPerDay;
 
     private IAutoUpdatedSnapshot<Map<TaskElement,SortedMap<LocalDate, BigDecimal>>> estimatedCostPerTask;
 
@@ -164,6 +168,74 @@ public class PredefinedDatabaseSnapshots {
 
     private boolean snapshotsRegistered = false;
 
+    private final Derived<SortedMap<CriterionType, List<Criterion>>, SearchIndex<CriterionType>> criterionTypesIndex =
+            new Derived<>(map -> SearchIndex.create(map.keySet(), CriterionType::getName));
+
+    private final Derived<SortedMap<CriterionType, List<Criterion>>, Map<CriterionType, SearchIndex<Criterion>>>
+            criterionsIndex = new Derived<>(map -> indexesByKey(map, Criterion::getName));
+
+    private final Derived<Map<LabelType, List<Label>>, SearchIndex<LabelType>> labelTypesIndex =
+            new Derived<>(map -> SearchIndex.create(map.keySet(), LabelType::getName));
+
+    private final Derived<Map<LabelType, List<Label>>, Map<LabelType, SearchIndex<Label>>> labelsIndex =
+            new Derived<>(map -> indexesByKey(map, Label::getName));
+
+    private final Derived<Map<Class<?>, List<Resource>>, Map<Class<?>, SearchIndex<Resource>>> resourcesIndex =
+            new Derived<>(map -> indexesByKey(map, Resource::getName));
+
+    private final Derived<List<CostCategory>, SearchIndex<CostCategory>> costCategoriesIndex =
+            new Derived<>(list -> SearchIndex.create(list, CostCategory::getName));
+
+    private final Derived<List<ExternalCompany>, SearchIndex<ExternalCompany>> externalCompaniesIndex =
+            new Derived<>(list -> {
+                SearchIndex.Builder<ExternalCompany> builder = SearchIndex.builder();
+                for (ExternalCompany each : list) {
+                    builder.add(each, each.getName(), each.getNif());
+                }
+                return builder.build();
+            });
+
+    private final Derived<List<String>, SearchIndex<String>> customerReferencesIndex =
+            new Derived<>(list -> SearchIndex.create(list, Function.identity()));
+
+    private final Derived<List<String>, SearchIndex<String>> ordersCodesIndex =
+            new Derived<>(list -> SearchIndex.create(list, Function.identity()));
+
+    /**
+     * Value calculated from the one of a snapshot. It is only calculated again
+     * when the snapshot has been, so it is shared by all the users while the
+     * snapshot does not change.
+     */
+    private static class Derived<S, T> {
+
+        private final Function<S, T> calculation;
+
+        private S source;
+
+        private T value;
+
+        private Derived(Function<S, T> calculation) {
+            this.calculation = calculation;
+        }
+
+        synchronized T of(S currentSource) {
+            if ( value == null || source != currentSource ) {
+                value = calculation.apply(currentSource);
+                source = currentSource;
+            }
+            return value;
+        }
+
+    }
+
+    private static <K, T> Map<K, SearchIndex<T>> indexesByKey(Map<K, List<T>> map, Function<? super T, String> text) {
+        Map<K, SearchIndex<T>> result = new LinkedHashMap<>();
+        for (Map.Entry<K, List<T>> each : map.entrySet()) {
+            result.put(each.getKey(), SearchIndex.create(each.getValue(), text));
+        }
+        return result;
+    }
+
     public SortedMap<CriterionType, List<Criterion>> snapshotCriterionsMap() {
         return criterionsMap.getValue();
     }
@@ -200,12 +272,63 @@ public class PredefinedDatabaseSnapshots {
         return ordersCodes.getValue();
     }
 
+    /**
+     * @return the index of the names of the criterion types of
+     *         {@link #snapshotCriterionsMap()}
+     */
+    public SearchIndex<CriterionType> snapshotCriterionTypesIndex() {
+        return criterionTypesIndex.of(snapshotCriterionsMap());
+    }
+
+    /**
+     * @return the index of the names of the criteria of every criterion type
+     *         of {@link #snapshotCriterionsMap()}
+     */
+    public Map<CriterionType, SearchIndex<Criterion>> snapshotCriterionsIndex() {
+        return criterionsIndex.of(snapshotCriterionsMap());
+    }
+
+    public SearchIndex<LabelType> snapshotLabelTypesIndex() {
+        return labelTypesIndex.of(snapshotLabelsMap());
+    }
+
+    public Map<LabelType, SearchIndex<Label>> snapshotLabelsIndex() {
+        return labelsIndex.of(snapshotLabelsMap());
+    }
+
+    public Map<Class<?>, SearchIndex<Resource>> snapshotResourcesIndex() {
+        return resourcesIndex.of(snapshotMapResources());
+    }
+
+    public SearchIndex<CostCategory> snapshotCostCategoriesIndex() {
+        return costCategoriesIndex.of(snapshotListCostCategories());
+    }
+
+    /**
+     * @return the index of the names and NIFs of
+     *         {@link #snapshotExternalCompanies()}
+     */
+    public SearchIndex<ExternalCompany> snapshotExternalCompaniesIndex() {
+        return externalCompaniesIndex.of(snapshotExternalCompanies());
+    }
+
+    public SearchIndex<String> snapshotCustomerReferencesIndex() {
+        return customerReferencesIndex.of(snapshotCustomerReferences());
+    }
+
+    public SearchIndex<String> snapshotOrdersCodesIndex() {
+        return ordersCodesIndex.of(snapshotOrdersCodes());
+    }
+
     public ResourceLoadChartData snapshotResourceLoadChartData() {
         return resourceLoadChartData.getValue();
     }
 
-    public List<WorkReportLine> snapshotWorkReportLines() {
-        return workReportLines.getValue();
+    /**
+     * @return the effort charged every day in all the work reports
+     */
+    public SortedMap<LocalDate, EffortDuration> snapshotChargedEffortPerDay() {
+        return chargedEffortPerDay.getValue();
     }
 
     public Map<TaskElement,SortedMap<LocalDate, BigDecimal>> snapshotEstimatedCostPerTask() {
@@ -252,7 +375,7 @@ public class PredefinedDatabaseSnapshots {
                 GenericResourceAllocation.class,
                 ResourceAllocation.class);
 
-        workReportLines = snapshot("work report lines", calculateWorkReportLines(), WorkReportLine.class);
+        chargedEffortPerDay = snapshot("charged effort per day", calculateChargedEffortPerDay(), DailyChargedEffort.class);
 
         estimatedCostPerTask = snapshot(
                 "estimated cost per task",
@@ -362,15 +485,15 @@ public class PredefinedDatabaseSnapshots {
 
     private Callable<ResourceLoadChartData> calculateResourceLoadChartData() {
         return () -> {
-            List<DayAssignment> dayAssignments = dayAssignmentDAO.getAllFor(scenarioManager.getCurrent(), null, null);
             List<Resource> resources = resourceDAO.list(Resource.class);
-            return new ResourceLoadChartData(dayAssignments, resources);
+            return ResourceLoadChartData.fromEffortByResourceAndDay(
+                    dayAssignmentDAO.sumEffortByResourceAndDay(scenarioManager.getCurrent(), null, null), resources);
 
         };
     }
 
-    private Callable<List<WorkReportLine>> calculateWorkReportLines() {
-        return () -> workReportLineDAO.list(WorkReportLine.class);
+    private Callable<SortedMap<LocalDate, EffortDuration>> calculateChargedEffortPerDay() {
+        return () -> dailyChargedEffortDAO.getEffortPerDay();
     }
 
 
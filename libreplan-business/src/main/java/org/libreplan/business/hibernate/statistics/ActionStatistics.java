@@ -0,0 +1,194 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.statistics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.libreplan.business.common.metrics.Metrics;
+
+/**
+ * Database work done by the current thread during a user action: a ZK event,
+ * a REST call, etc. The counts are gathered by
+ * {@link HibernateStatisticsListener} and
+ * {@link StatementsCountingSessionListener}.
+ *
+ * Actions can be nested, the work done by a nested action is also added to
+ * the enclosing one when it's stopped.
+ */
+public class ActionStatistics {
+
+    private static final Log LOG = LogFactory.getLog(ActionStatistics.class);
+
+    private static final ThreadLocal<ActionStatistics> current = new ThreadLocal<>();
+
+    public static ActionStatistics start(String action) {
+        ActionStatistics result = new ActionStatistics(action, current.get());
+        current.set(result);
+
+        return result;
+    }
+
+    /**
+     * Stops the actions in progress in the current thread, the innermost
+     * first. It must be called when the thread ends its work, as the actions
+     * are left in progress if it fails before stopping them. Otherwise, when
+     * the thread is reused, the following actions would be nested in them and
+     * never checked against the budget.
+     */
+    public static void stopAll() {
+        ActionStatistics action;
+        while ((action = current.get()) != null) {
+            action.stop();
+        }
+    }
+
+    /**
+     * @return the innermost action in progress in the current thread or
+     *         <code>null</code> if there is none
+     */
+    public static ActionStatistics current() {
+        return current.get();
+    }
+
+    static void statementExecuted(long nanos) {
+        ActionStatistics action = current.get();
+        if (action != null) {
+            action.statements++;
+            action.jdbcNanos += nanos;
+        }
+    }
+
+    static void entityLoaded() {
+        ActionStatistics action = current.get();
+        if (action != null) {
+            action.entitiesLoaded++;
+        }
+    }
+
+    static void collectionInitialized() {
+        ActionStatistics action = current.get();
+        if (action != null) {
+            action.collectionsInitialized++;
+        }
+    }
+
+    private final String action;
+
+    private final ActionStatistics parent;
+
+    private final long start = System.nanoTime();
+
+    private long elapsedNanos = -1;
+
+    private long statements = 0;
+
+    private long entitiesLoaded = 0;
+
+    private long collectionsInitialized = 0;
+
+    private long jdbcNanos = 0;
+
+    private ActionStatistics(String action, ActionStatistics parent) {
+        this.action = action;
+        this.parent = parent;
+    }
+
+    /**
+     * Stops gathering statistics for this action. If it isn't nested, it's
+     * checked against the {@link QueryBudget#getDefault() default budget},
+     * logging a warning if it's exceeded.
+     */
+    public ActionStatistics stop() {
+        return stop(QueryBudget.getDefault());
+    }
+
+    public ActionStatistics stop(QueryBudget budget) {
+        if (isStopped()) {
+            return this;
+        }
+        elapsedNanos = System.nanoTime() - start;
+
+        if (current.get() == this) {
+            if (parent == null) {
+                current.remove();
+            } else {
+                current.set(parent);
+            }
+        }
+
+        if (parent != null) {
+            parent.add(this);
+        } else {
+            record(budget);
+        }
+
+        return this;
+    }
+
+    private void add(ActionStatistics nested) {
+        statements += nested.statements;
+        entitiesLoaded += nested.entitiesLoaded;
+        collectionsInitialized += nested.collectionsInitialized;
+        jdbcNanos += nested.jdbcNanos;
+    }
+
+    private void record(QueryBudget budget) {
+        Metrics.histogram("hibernate.statementsPerAction").update(statements);
+        Metrics.histogram("hibernate.entitiesLoadedPerAction").update(entitiesLoaded);
+
+        if (budget.isExceededBy(this)) {
+            LOG.warn("Query budget " + budget + " exceeded by " + this);
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug(this);
+        }
+    }
+
+    public boolean isStopped() {
+        return elapsedNanos >= 0;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public long getCollectionsInitialized() {
+        return collectionsInitialized;
+    }
+
+    public long getJdbcTimeMillis() {
+        return jdbcNanos / 1000000;
+    }
+
+    @Override
+    public String toString() {
+        return action + ": " + statements + " statements, " + entitiesLoaded + " entities loaded, "
+                + collectionsInitialized + " collections initialized, " + getJdbcTimeMillis() + " ms in JDBC"
+                + (isStopped() ? ", " + elapsedNanos / 1000000 + " ms in total" : "");
+    }
+
+}
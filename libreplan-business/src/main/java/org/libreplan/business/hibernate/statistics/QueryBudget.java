@@ -0,0 +1,74 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.statistics;
+
+/**
+ * Maximum database work a user action should do. Exceeding it usually means
+ * a N+1 selects problem.
+ *
+ * The default budget can be configured with the system properties
+ * <code>libreplan-query-budget-statements</code>,
+ * <code>libreplan-query-budget-entities</code> and
+ * <code>libreplan-query-budget-collections</code>.
+ */
+public class QueryBudget {
+
+    private static final QueryBudget defaultBudget = new QueryBudget(
+            Long.getLong("libreplan-query-budget-statements", 200),
+            Long.getLong("libreplan-query-budget-entities", 10000),
+            Long.getLong("libreplan-query-budget-collections", 1000));
+
+    public static QueryBudget getDefault() {
+        return defaultBudget;
+    }
+
+    public static QueryBudget of(long maxStatements, long maxEntitiesLoaded, long maxCollectionsInitialized) {
+        return new QueryBudget(maxStatements, maxEntitiesLoaded, maxCollectionsInitialized);
+    }
+
+    public static QueryBudget statements(long maxStatements) {
+        return new QueryBudget(maxStatements, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    private final long maxStatements;
+
+    private final long maxEntitiesLoaded;
+
+    private final long maxCollectionsInitialized;
+
+    private QueryBudget(long maxStatements, long maxEntitiesLoaded, long maxCollectionsInitialized) {
+        this.maxStatements = maxStatements;
+        this.maxEntitiesLoaded = maxEntitiesLoaded;
+        this.maxCollectionsInitialized = maxCollectionsInitialized;
+    }
+
+    public boolean isExceededBy(ActionStatistics statistics) {
+        return statistics.getStatements() > maxStatements
+                || statistics.getEntitiesLoaded() > maxEntitiesLoaded
+                || statistics.getCollectionsInitialized() > maxCollectionsInitialized;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + maxStatements + " statements, " + maxEntitiesLoaded + " entities, "
+                + maxCollectionsInitialized + " collections]";
+    }
+
+}
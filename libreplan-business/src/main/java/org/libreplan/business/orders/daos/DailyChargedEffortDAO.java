@@ -0,0 +1,214 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.orders.daos;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.hibernate.Criteria;
+import org.hibernate.criterion.MatchMode;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.joda.time.LocalDate;
+import org.libreplan.business.common.daos.GenericDAOHibernate;
+import org.libreplan.business.orders.entities.DailyChargedEffort;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.hibernate.EffortDurationType;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DAO for {@link DailyChargedEffort}.
+ */
+@Repository
+@Scope(BeanDefinition.SCOPE_SINGLETON)
+public class DailyChargedEffortDAO extends GenericDAOHibernate<DailyChargedEffort, Long>
+        implements IDailyChargedEffortDAO {
+
+    @Override
+    public void addEffortOf(WorkReportLine line) {
+        DailyChargedEffort dailyChargedEffort = findByKeyOf(line);
+        if ( dailyChargedEffort == null ) {
+            dailyChargedEffort = DailyChargedEffort.create(line.getOrderElement(), line.getResource(),
+                    line.getTypeOfWorkHours(), line.getLocalDate());
+        }
+
+        dailyChargedEffort.addEffort(line.getEffort());
+        save(dailyChargedEffort);
+    }
+
+    @Override
+    public void subtractEffortOf(WorkReportLine line) {
+        DailyChargedEffort dailyChargedEffort = findByKeyOf(line);
+        if ( dailyChargedEffort == null ) {
+            return;
+        }
+
+        dailyChargedEffort.subtractEffort(line.getEffort());
+        if ( dailyChargedEffort.isZero() ) {
+            getSession().delete(dailyChargedEffort);
+        } else {
+            save(dailyChargedEffort);
+        }
+    }
+
+    @Override
+    public void updateEffortOf(WorkReportLine previous, WorkReportLine line) {
+        if ( !haveTheSameKey(previous, line) ) {
+            subtractEffortOf(previous);
+            addEffortOf(line);
+            return;
+        }
+
+        if ( line.getEffort().equals(previous.getEffort()) ) {
+            return;
+        }
+
+        DailyChargedEffort dailyChargedEffort = findByKeyOf(line);
+        if ( dailyChargedEffort == null ) {
+            addEffortOf(line);
+            return;
+        }
+
+        dailyChargedEffort.addEffort(line.getEffort());
+        dailyChargedEffort.subtractEffort(previous.getEffort());
+        if ( dailyChargedEffort.isZero() ) {
+            getSession().delete(dailyChargedEffort);
+        } else {
+            save(dailyChargedEffort);
+        }
+    }
+
+    private static boolean haveTheSameKey(WorkReportLine one, WorkReportLine other) {
+        return one.getOrderElement().getId().equals(other.getOrderElement().getId())
+                && one.getResource().getId().equals(other.getResource().getId())
+                && one.getTypeOfWorkHours().getId().equals(other.getTypeOfWorkHours().getId())
+                && one.getLocalDate().equals(other.getLocalDate());
+    }
+
+    private DailyChargedEffort findByKeyOf(WorkReportLine line) {
+        return (DailyChargedEffort) getSession().createCriteria(DailyChargedEffort.class)
+                .add(Restrictions.eq("orderElement", line.getOrderElement()))
+                .add(Restrictions.eq("resource", line.getResource()))
+                .add(Restrictions.eq("typeOfWorkHours", line.getTypeOfWorkHours()))
+                .add(Restrictions.eq("date", line.getLocalDate()))
+                .uniqueResult();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<DailyChargedEffort> findByOrderElement(OrderElement orderElement) {
+        return getSession().createCriteria(DailyChargedEffort.class)
+                .add(Restrictions.eq("orderElement", orderElement))
+                .addOrder(Order.asc("resource"))
+                .addOrder(Order.asc("typeOfWorkHours"))
+                .addOrder(Order.asc("date"))
+                .list();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<DailyChargedEffort> findByResourceBetween(Resource resource, LocalDate start, LocalDate end) {
+        return getSession().createCriteria(DailyChargedEffort.class)
+                .add(Restrictions.eq("resource", resource))
+                .add(Restrictions.between("date", start, end))
+                .list();
+    }
+
+    @Override
+    public SortedMap<LocalDate, EffortDuration> getEffortPerDay(Collection<? extends OrderElement> orderElements) {
+        if ( orderElements.isEmpty() ) {
+            return new TreeMap<>();
+        }
+
+        return getEffortPerDay(getSession().createCriteria(DailyChargedEffort.class)
+                .add(Restrictions.in("orderElement", orderElements)));
+    }
+
+    @Override
+    public SortedMap<LocalDate, EffortDuration> getEffortPerDay() {
+        return getEffortPerDay(getSession().createCriteria(DailyChargedEffort.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SortedMap<LocalDate, EffortDuration> getEffortPerDay(Criteria criteria) {
+        List<Object[]> rows = criteria
+                .setProjection(Projections.projectionList()
+                        .add(Projections.groupProperty("date"))
+                        .add(Projections.sum("effort")))
+                .list();
+
+        SortedMap<LocalDate, EffortDuration> result = new TreeMap<>();
+        for (Object[] each : rows) {
+            result.put((LocalDate) each[0], EffortDurationType.fromSum(each[1]));
+        }
+
+        return result;
+    }
+
+    @Override
+    public EffortDuration getEffortOfOrderElementAndChildrenUntil(OrderElement orderElement, LocalDate date) {
+        if ( orderElement.getId() == null ) {
+            return EffortDuration.zero();
+        }
+
+        Criteria criteria = restrictToSubtree(getSession().createCriteria(DailyChargedEffort.class), orderElement)
+                .setProjection(Projections.sum("effort"));
+        if ( date != null ) {
+            criteria.add(Restrictions.le("date", date));
+        }
+
+        return EffortDurationType.fromSum(criteria.uniqueResult());
+    }
+
+    @Override
+    public SortedMap<LocalDate, EffortDuration> getEffortPerDayOfOrderElementAndChildren(OrderElement orderElement) {
+        if ( orderElement.getId() == null ) {
+            return new TreeMap<>();
+        }
+
+        return getEffortPerDay(restrictToSubtree(getSession().createCriteria(DailyChargedEffort.class), orderElement));
+    }
+
+    /**
+     * The subtree is filtered by the path of the elements, so the children
+     * don't have to be loaded. The ones without path yet are looked for in
+     * memory.
+     */
+    private static Criteria restrictToSubtree(Criteria criteria, OrderElement orderElement) {
+        if ( orderElement.getPath() == null ) {
+            Collection<OrderElement> orderElements = orderElement.getAllChildren();
+            orderElements.add(orderElement);
+
+            return criteria.add(Restrictions.in("orderElement", orderElements));
+        }
+
+        return criteria.createAlias("orderElement", "oe")
+                .add(Restrictions.like("oe.path", orderElement.getPath(), MatchMode.START));
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.orders.daos;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.common.daos.IGenericDAO;
+import org.libreplan.business.orders.entities.DailyChargedEffort;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+
+/**
+ * Contract for {@link DailyChargedEffortDAO}.
+ *
+ * The {@link DailyChargedEffort} objects are kept up to date by
+ * {@link ISumChargedEffortDAO} when the {@link WorkReportLine WorkReportLines}
+ * are saved or removed.
+ */
+public interface IDailyChargedEffortDAO extends IGenericDAO<DailyChargedEffort, Long> {
+
+    /**
+     * Adds the effort of the {@link WorkReportLine} to its
+     * {@link DailyChargedEffort}, creating it on demand.
+     */
+    void addEffortOf(WorkReportLine line);
+
+    /**
+     * Subtracts the effort of the {@link WorkReportLine} from its
+     * {@link DailyChargedEffort}, which is removed if there is no effort left.
+     */
+    void subtractEffortOf(WorkReportLine line);
+
+    /**
+     * Replaces the effort of the <code>previous</code> state of a
+     * {@link WorkReportLine} with the effort of its current state.
+     */
+    void updateEffortOf(WorkReportLine previous, WorkReportLine line);
+
+    /**
+     * @return the {@link DailyChargedEffort} objects of the
+     *         {@link OrderElement} sorted by resource, type of work hours and
+     *         date
+     */
+    List<DailyChargedEffort> findByOrderElement(OrderElement orderElement);
+
+    /**
+     * @return the {@link DailyChargedEffort} objects of the {@link Resource}
+     *         between <code>start</code> and <code>end</code>, both included
+     */
+    List<DailyChargedEffort> findByResourceBetween(Resource resource, LocalDate start, LocalDate end);
+
+    /**
+     * @return the effort charged every day to the {@link OrderElement
+     *         OrderElements}
+     */
+    SortedMap<LocalDate, EffortDuration> getEffortPerDay(Collection<? extends OrderElement> orderElements);
+
+    /**
+     * @return the effort charged every day to all the {@link OrderElement
+     *         OrderElements}
+     */
+    SortedMap<LocalDate, EffortDuration> getEffortPerDay();
+
+    /**
+     * @return the effort charged to the {@link OrderElement} and its children
+     *         until <code>date</code>, included. If it's <code>null</code>
+     *         all the effort is returned.
+     */
+    EffortDuration getEffortOfOrderElementAndChildrenUntil(OrderElement orderElement, LocalDate date);
+
+    /**
+     * @return the effort charged per day to the {@link OrderElement} and its
+     *         children
+     */
+    SortedMap<LocalDate, EffortDuration> getEffortPerDayOfOrderElementAndChildren(OrderElement orderElement);
+
+}
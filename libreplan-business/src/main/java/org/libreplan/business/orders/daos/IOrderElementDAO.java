@@ -43,6 +43,15 @@ public interface IOrderElementDAO extends IIntegrationEntityDAO<OrderElement> {
 
     public List<OrderElement> findWithoutParent();
 
+    /**
+     * Returns the {@link OrderElement} passed as parameter and all its
+     * descendants with just one query, thanks to the
+     * {@link OrderElement#getPath() path} of the elements. The parents are
+     * always before their children, so the tree can be walked in memory
+     * without more queries.
+     */
+    List<OrderElement> findSubtree(OrderElement orderElement);
+
     public OrderElement findUniqueByCode(String code)
             throws InstanceNotFoundException;
 
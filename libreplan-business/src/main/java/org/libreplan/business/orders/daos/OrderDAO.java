@@ -35,6 +35,7 @@ import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.daos.IntegrationEntityDAO;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
+import org.libreplan.business.common.exceptions.ValidationException;
 import org.libreplan.business.costcategories.daos.CostCategoryDAO;
 import org.libreplan.business.costcategories.daos.ITypeOfWorkHoursDAO;
 import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
@@ -96,6 +97,18 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
         return list(Order.class);
     }
 
+    @Override
+    public void save(Order order) throws ValidationException {
+        super.save(order);
+        OrderElementDAO.updatePathsFrom(getSession(), order);
+    }
+
+    @Override
+    public void saveWithoutValidating(Order order) {
+        super.saveWithoutValidating(order);
+        OrderElementDAO.updatePathsFrom(getSession(), order);
+    }
+
     @Override
     public void remove(Long id) throws InstanceNotFoundException {
         Order order = find(id);
@@ -508,6 +521,11 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
                 .list();
     }
 
+    @Override
+    protected String getCodeProperty() {
+        return "infoComponent.code";
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     @Transactional(readOnly = true)
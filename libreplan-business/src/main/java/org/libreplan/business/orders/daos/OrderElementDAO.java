@@ -26,6 +26,7 @@ import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -36,9 +37,12 @@ import java.util.Objects;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.Query;
+import org.hibernate.Session;
+import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Restrictions;
 import org.libreplan.business.common.daos.IntegrationEntityDAO;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
+import org.libreplan.business.common.exceptions.ValidationException;
 import org.libreplan.business.expensesheet.daos.IExpenseSheetLineDAO;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.orders.entities.Order;
@@ -84,6 +88,68 @@ public class OrderElementDAO extends IntegrationEntityDAO<OrderElement> implemen
     @Autowired
     private ITaskSourceDAO taskSourceDAO;
 
+    @Override
+    public void save(OrderElement orderElement) throws ValidationException {
+        super.save(orderElement);
+        updatePathsFrom(getSession(), orderElement);
+    }
+
+    @Override
+    public void saveWithoutValidating(OrderElement orderElement) {
+        super.saveWithoutValidating(orderElement);
+        updatePathsFrom(getSession(), orderElement);
+    }
+
+    /**
+     * It updates the paths of the subtree of the element, starting from the
+     * topmost ancestor without path. The new elements are saved first, as the
+     * ones added to a persistent parent would not get an id until flushing.
+     */
+    static void updatePathsFrom(Session session, OrderElement orderElement) {
+        OrderElement top = orderElement;
+        while ( top.getParent() != null && top.getParent().getPath() == null ) {
+            top = top.getParent();
+        }
+        updatePathsOfSubtree(session, top);
+    }
+
+    private static void updatePathsOfSubtree(Session session, OrderElement orderElement) {
+        if ( orderElement.getId() == null ) {
+            session.saveOrUpdate(orderElement);
+        }
+        orderElement.updatePath();
+
+        for (OrderElement each : orderElement.getChildren()) {
+            updatePathsOfSubtree(session, each);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<OrderElement> findSubtree(OrderElement orderElement) {
+        if ( orderElement.getPath() == null ) {
+            List<OrderElement> result = new ArrayList<>();
+            result.add(orderElement);
+            result.addAll(orderElement.getAllChildren());
+
+            return result;
+        }
+
+        List<OrderElement> result = getSession()
+                .createCriteria(OrderElement.class)
+                .add(Restrictions.like("path", orderElement.getPath(), MatchMode.START))
+                .list();
+
+        /*
+         * Sorted in memory as the collation of the database could ignore the
+         * separators. As "/" goes before any digit every element is followed
+         * by its whole subtree.
+         */
+        result.sort(Comparator.comparing(OrderElement::getPath));
+
+        return result;
+    }
+
     @Override
     public List<OrderElement> findWithoutParent() {
         return getSession()
@@ -187,6 +253,11 @@ public class OrderElementDAO extends IntegrationEntityDAO<OrderElement> implemen
                 .list();
     }
 
+    @Override
+    protected String getCodeProperty() {
+        return "infoComponent.code";
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     @Transactional(readOnly = true)
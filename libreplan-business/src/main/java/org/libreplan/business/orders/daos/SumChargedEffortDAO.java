@@ -24,10 +24,12 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.hibernate.SessionFactory;
+import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Restrictions;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
@@ -73,6 +75,9 @@ public class SumChargedEffortDAO extends
     @Autowired
     private IOrderElementDAO orderElementDAO;
 
+    @Autowired
+    private IDailyChargedEffortDAO dailyChargedEffortDAO;
+
     private Map<OrderElement, SumChargedEffort> mapSumChargedEfforts;
 
     @Override
@@ -96,20 +101,17 @@ public class SumChargedEffortDAO extends
         OrderElement previousOrderElement = null;
 
         if (!workReportLine.isNewObject()) {
-            Pair<EffortDuration, OrderElement> previous = transactionService
-                    .runOnAnotherTransaction(new IOnTransaction<Pair<EffortDuration, OrderElement>>() {
+            WorkReportLine previous = transactionService
+                    .runOnAnotherTransaction(new IOnTransaction<WorkReportLine>() {
                         @Override
-                        public Pair<EffortDuration, OrderElement> execute() {
+                        public WorkReportLine execute() {
                             try {
                                 WorkReportLine line = workReportLineDAO
                                         .find(workReportLine.getId());
 
-                                OrderElement orderElement = line
-                                        .getOrderElement();
-                                forceLoadParents(orderElement);
+                                forceLoadParents(line.getOrderElement());
 
-                                return Pair.create(line.getEffort(),
-                                        orderElement);
+                                return line;
                             } catch (InstanceNotFoundException e) {
                                 throw new RuntimeException(e);
                             }
@@ -124,11 +126,15 @@ public class SumChargedEffortDAO extends
 
                     });
 
-            previousEffort = previous.getFirst();
-            previousOrderElement = previous.getSecond();
+            previousEffort = previous.getEffort();
+            previousOrderElement = previous.getOrderElement();
 
             sameOrderElement = orderElement.getId().equals(
                     previousOrderElement.getId());
+
+            dailyChargedEffortDAO.updateEffortOf(previous, workReportLine);
+        } else {
+            dailyChargedEffortDAO.addEffortOf(workReportLine);
         }
 
         if (sameOrderElement) {
@@ -203,6 +209,7 @@ public class SumChargedEffortDAO extends
 
         substractDirectChargedEffort(workReportLine.getOrderElement(),
                 workReportLine.getEffort());
+        dailyChargedEffortDAO.subtractEffortOf(workReportLine);
     }
 
     private void substractDirectChargedEffort(OrderElement orderElement,
@@ -254,6 +261,7 @@ public class SumChargedEffortDAO extends
         try {
             Order order = orderDAO.find(orderId);
             resetMapSumChargedEfforts();
+            preloadSumChargedEfforts(order);
             resetSumChargedEffort(order);
             calculateDirectChargedEffort(order);
             calculateTimesheetData(order);
@@ -262,6 +270,33 @@ public class SumChargedEffortDAO extends
         }
     }
 
+    /**
+     * Loads the whole tree of the order and its {@link SumChargedEffort
+     * SumChargedEfforts} with a couple of queries, instead of one per element
+     * while walking the tree.
+     */
+    @SuppressWarnings("unchecked")
+    private void preloadSumChargedEfforts(Order order) {
+        if ( order.getPath() == null ) {
+            return;
+        }
+
+        List<OrderElement> orderElements = orderElementDAO.findSubtree(order);
+
+        List<SumChargedEffort> sumChargedEfforts = getSession().createCriteria(getEntityClass())
+                .createAlias("orderElement", "oe")
+                .add(Restrictions.like("oe.path", order.getPath(), MatchMode.START))
+                .list();
+        for (SumChargedEffort each : sumChargedEfforts) {
+            mapSumChargedEfforts.put(each.getOrderElement(), each);
+        }
+        for (OrderElement each : orderElements) {
+            if ( !mapSumChargedEfforts.containsKey(each) ) {
+                mapSumChargedEfforts.put(each, SumChargedEffort.create(each));
+            }
+        }
+    }
+
     private void resetSumChargedEffort(OrderElement orderElement) {
         SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
         sumChargedEffort.reset();
@@ -0,0 +1,99 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.orders.entities;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+
+/**
+ * It represents the effort charged by a {@link Resource} to an
+ * {@link OrderElement} with a {@link TypeOfWorkHours} in a day, avoiding the
+ * need to iterate among the work report lines to get this information.
+ *
+ * It only includes the effort of the {@link WorkReportLine WorkReportLines}
+ * pointing directly to the {@link OrderElement}, not the one of its children.
+ */
+public class DailyChargedEffort extends BaseEntity {
+
+    private OrderElement orderElement;
+
+    private Resource resource;
+
+    private TypeOfWorkHours typeOfWorkHours;
+
+    private LocalDate date;
+
+    private EffortDuration effort = EffortDuration.zero();
+
+    protected DailyChargedEffort() {}
+
+    private DailyChargedEffort(OrderElement orderElement, Resource resource,
+                               TypeOfWorkHours typeOfWorkHours, LocalDate date) {
+        this.orderElement = orderElement;
+        this.resource = resource;
+        this.typeOfWorkHours = typeOfWorkHours;
+        this.date = date;
+    }
+
+    public static DailyChargedEffort create(OrderElement orderElement, Resource resource,
+                                            TypeOfWorkHours typeOfWorkHours, LocalDate date) {
+        return create(new DailyChargedEffort(orderElement, resource, typeOfWorkHours, date));
+    }
+
+    public OrderElement getOrderElement() {
+        return orderElement;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public TypeOfWorkHours getTypeOfWorkHours() {
+        return typeOfWorkHours;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public EffortDuration getEffort() {
+        return effort;
+    }
+
+    public void addEffort(EffortDuration effort) {
+        this.effort = this.effort.plus(effort);
+    }
+
+    /**
+     * The effort never becomes negative, it is zero at least.
+     */
+    public void subtractEffort(EffortDuration effort) {
+        this.effort = this.effort.compareTo(effort) > 0 ? this.effort.minus(effort) : EffortDuration.zero();
+    }
+
+    public boolean isZero() {
+        return effort.isZero();
+    }
+
+}
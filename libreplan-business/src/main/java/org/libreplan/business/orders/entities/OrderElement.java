@@ -123,6 +123,8 @@ public abstract class OrderElement extends IntegrationEntity implements ICriteri
 
     private String externalCode;
 
+    private String path;
+
     private Map<OrderVersion, SchedulingDataForVersion> schedulingDataForVersion = new HashMap<>();
 
     private SchedulingDataForVersion.Data current = null;
@@ -1318,6 +1320,27 @@ public abstract class OrderElement extends IntegrationEntity implements ICriteri
         return externalCode;
     }
 
+    /**
+     * It returns the ids of the ancestors of this element and the id of the
+     * element itself, from the root, separated and ended by "/". For example
+     * "/1/5/9/". All the elements below this one have a path starting with it,
+     * so a whole subtree can be retrieved with just one query.
+     *
+     * It's <code>null</code> if the element has not been saved yet.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * It recalculates the {@link #getPath() path} of this element from the one
+     * of its parent, so the parents have to be updated before their children.
+     */
+    public void updatePath() {
+        Validate.notNull(getId());
+        path = (parent == null ? "/" : parent.getPath()) + getId() + "/";
+    }
+
     public abstract OrderLine calculateOrderLineForSubcontract();
 
     public Set<MaterialAssignment> getAllMaterialAssignments() {
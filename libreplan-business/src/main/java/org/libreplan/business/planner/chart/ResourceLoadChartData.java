@@ -27,6 +27,7 @@ import static org.libreplan.business.planner.chart.ContiguousDaysLine.toSortedMa
 import static org.libreplan.business.workingday.EffortDuration.min;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -34,6 +35,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots;
@@ -76,18 +78,88 @@ public class ResourceLoadChartData implements ILoadChartData {
             assignments = assignments.subInterval(startInclusive, endExclusive);
         }
 
-        ContiguousDaysLine<EffortDuration> load = assignments.transform(extractLoad());
+        calculate(assignments.transform(effortByResource()), resources);
+    }
+
+    private ResourceLoadChartData(ContiguousDaysLine<Map<Resource, EffortDuration>> effortByResource,
+                                  List<Resource> resources) {
+        calculate(effortByResource, resources);
+    }
+
+    /**
+     * It creates the chart data from the effort already summed by resource id
+     * and day in the database, so the day assignments don't have to be loaded.
+     */
+    public static ResourceLoadChartData fromEffortByResourceAndDay(
+            Map<Long, Map<LocalDate, EffortDuration>> effortByResourceAndDay, List<Resource> resources) {
+
+        Map<Long, Resource> resourcesById = new HashMap<>();
+        for (Resource each : resources) {
+            resourcesById.put(each.getId(), each);
+        }
+
+        SortedMap<LocalDate, Map<Resource, EffortDuration>> byDay = new TreeMap<>();
+        for (Entry<Long, Map<LocalDate, EffortDuration>> each : effortByResourceAndDay.entrySet()) {
+            Resource resource = resourcesById.get(each.getKey());
+            if ( resource == null ) {
+                // Only the given resources are charted
+                continue;
+            }
+            for (Entry<LocalDate, EffortDuration> effortOnDay : each.getValue().entrySet()) {
+                byDay.computeIfAbsent(effortOnDay.getKey(), day -> new HashMap<>())
+                        .put(resource, effortOnDay.getValue());
+            }
+        }
+
+        if (byDay.isEmpty()) {
+            return new ResourceLoadChartData(ContiguousDaysLine.invalid(), resources);
+        }
+
+        ContiguousDaysLine<Map<Resource, EffortDuration>> line =
+                ContiguousDaysLine.create(byDay.firstKey(), byDay.lastKey().plusDays(1));
+        line.transformInSitu(new IValueTransformer<Map<Resource, EffortDuration>, Map<Resource, EffortDuration>>() {
+
+            @Override
+            public Map<Resource, EffortDuration> transform(LocalDate day,
+                                                           Map<Resource, EffortDuration> previousValue) {
+                Map<Resource, EffortDuration> result = byDay.get(day);
+                return result != null ? result : Collections.emptyMap();
+            }
+        });
 
-        ContiguousDaysLine<EffortDuration> overload = assignments.transform(extractOverload());
+        return new ResourceLoadChartData(line, resources);
+    }
+
+    private void calculate(ContiguousDaysLine<Map<Resource, EffortDuration>> effortByResource,
+                           List<Resource> resources) {
+
+        ContiguousDaysLine<EffortDuration> load = effortByResource.transform(sumOfEfforts());
+
+        ContiguousDaysLine<EffortDuration> overload = effortByResource.transform(calculateOverload());
 
         ContiguousDaysLine<EffortDuration> availabilityOnAllResources =
-                assignments.transform(extractAvailabilityOnAllResources(resources));
+                effortByResource.transform(extractAvailabilityOnAllResources(resources));
 
         this.load = toSortedMap(ContiguousDaysLine.min(load, availabilityOnAllResources));
         this.overload = toSortedMap(sum(overload, availabilityOnAllResources));
         this.availability = toSortedMap(availabilityOnAllResources);
     }
 
+    private static IValueTransformer<Map<Resource, EffortDuration>, EffortDuration> sumOfEfforts() {
+        return new IValueTransformer<Map<Resource, EffortDuration>, EffortDuration>() {
+
+            @Override
+            public EffortDuration transform(LocalDate day, Map<Resource, EffortDuration> previousValue) {
+                return EffortDuration.sum(previousValue.values(), new IEffortFrom<EffortDuration>() {
+                    @Override
+                    public EffortDuration from(EffortDuration each) {
+                        return each;
+                    }
+                });
+            }
+        };
+    }
+
     public static IValueTransformer<List<DayAssignment>, EffortDuration> extractOverload() {
         return compound(effortByResource(), calculateOverload());
     }
@@ -157,13 +229,13 @@ public class ResourceLoadChartData implements ILoadChartData {
         };
     }
 
-    private IValueTransformer<List<DayAssignment>, EffortDuration> extractAvailabilityOnAllResources(
+    private static <T> IValueTransformer<T, EffortDuration> extractAvailabilityOnAllResources(
             final List<Resource> resources) {
 
-        return new IValueTransformer<List<DayAssignment>, EffortDuration>() {
+        return new IValueTransformer<T, EffortDuration>() {
 
             @Override
-            public EffortDuration transform(LocalDate day, List<DayAssignment> previousValue) {
+            public EffortDuration transform(LocalDate day, T previousValue) {
                 return sumCalendarCapacitiesForDay(resources, day);
             }
         };
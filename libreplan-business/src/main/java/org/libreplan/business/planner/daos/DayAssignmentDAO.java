@@ -22,9 +22,14 @@
 package org.libreplan.business.planner.daos;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.hibernate.Criteria;
 import org.hibernate.Query;
@@ -37,6 +42,8 @@ import org.libreplan.business.planner.entities.GenericDayAssignment;
 import org.libreplan.business.planner.entities.SpecificDayAssignment;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.scenarios.entities.Scenario;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.hibernate.EffortDurationType;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Repository;
@@ -54,6 +61,11 @@ public class DayAssignmentDAO extends GenericDAOHibernate<DayAssignment, Long> i
 
     private final String SCENARIO = "scenario";
 
+    private static final int RESOURCE_IDS_BATCH_SIZE = 500;
+
+    private static final List<String> DAY_ASSIGNMENTS_CONTAINERS = Arrays.asList(
+            "SpecificDayAssignmentsContainer", "GenericDayAssignmentsContainer", "DerivedDayAssignmentsContainer");
+
     @Override
     public void removeDerived(Collection<? extends DerivedDayAssignment> assignments) {
         for (DerivedDayAssignment each : assignments) {
@@ -184,6 +196,103 @@ public class DayAssignmentDAO extends GenericDAOHibernate<DayAssignment, Long> i
         return DayAssignment.withScenario(scenario, findByResources(resources));
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<Long, Set<LocalDate>> findDaysWithAssignedEffort(
+            Scenario scenario, LocalDate startInclusive, LocalDate endInclusive) {
+
+        Map<Long, Set<LocalDate>> result = new HashMap<>();
+        for (String container : DAY_ASSIGNMENTS_CONTAINERS) {
+
+            String queryString = "select d.resource.id, d.day from " + container + " c " +
+                    "JOIN c.dayAssignments d where c.scenario = :scenario and d.duration > 0" +
+                    addQueryConditionForInitAndEndDate(startInclusive, endInclusive) +
+                    " group by d.resource.id, d.day";
+
+            Query query = getSession().createQuery(queryString).setParameter(SCENARIO, scenario);
+            addInitAndEndParameters(query, startInclusive, endInclusive);
+
+            for (Object[] each : (List<Object[]>) query.list()) {
+                Long resourceId = (Long) each[0];
+                if (!result.containsKey(resourceId)) {
+                    result.put(resourceId, new HashSet<>());
+                }
+                result.get(resourceId).add((LocalDate) each[1]);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Map<Long, Map<LocalDate, EffortDuration>> sumEffortByResourceAndDay(
+            Scenario scenario, LocalDate startInclusive, LocalDate endInclusive, Collection<Long> resourceIds) {
+
+        Map<Long, Map<LocalDate, EffortDuration>> result = new HashMap<>();
+        List<Long> ids = new ArrayList<>(resourceIds);
+
+        for (String container : DAY_ASSIGNMENTS_CONTAINERS) {
+            for (int from = 0; from < ids.size(); from += RESOURCE_IDS_BATCH_SIZE) {
+                Query query = createSumEffortQuery(
+                        container, " and d.resource.id in (:ids)", scenario, startInclusive, endInclusive)
+                        .setParameterList("ids", ids.subList(from, Math.min(from + RESOURCE_IDS_BATCH_SIZE, ids.size())));
+
+                addEffortOf(result, query);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Map<Long, Map<LocalDate, EffortDuration>> sumEffortByResourceAndDay(
+            Scenario scenario, LocalDate startInclusive, LocalDate endInclusive) {
+
+        Map<Long, Map<LocalDate, EffortDuration>> result = new HashMap<>();
+
+        for (String container : DAY_ASSIGNMENTS_CONTAINERS) {
+            addEffortOf(result, createSumEffortQuery(container, "", scenario, startInclusive, endInclusive));
+        }
+
+        return result;
+    }
+
+    private Query createSumEffortQuery(String container, String resourceCondition,
+                                       Scenario scenario, LocalDate startInclusive, LocalDate endInclusive) {
+
+        String queryString = "select d.resource.id, d.day, sum(d.duration) from " + container + " c " +
+                "JOIN c.dayAssignments d where c.scenario = :scenario" + resourceCondition +
+                addQueryConditionForInitAndEndDate(startInclusive, endInclusive) +
+                " group by d.resource.id, d.day";
+
+        Query query = getSession().createQuery(queryString).setParameter(SCENARIO, scenario);
+
+        return addInitAndEndParameters(query, startInclusive, endInclusive);
+    }
+
+    /**
+     * Adds the sums of effort per resource and day returned by
+     * <code>query</code> to <code>result</code>.
+     */
+    @SuppressWarnings("unchecked")
+    private static void addEffortOf(Map<Long, Map<LocalDate, EffortDuration>> result, Query query) {
+        for (Object[] each : (List<Object[]>) query.list()) {
+            addEffort(result, (Long) each[0], (LocalDate) each[1], EffortDurationType.fromSum(each[2]));
+        }
+    }
+
+    private static void addEffort(Map<Long, Map<LocalDate, EffortDuration>> result,
+                                  Long resourceId, LocalDate day, EffortDuration effort) {
+
+        if (!result.containsKey(resourceId)) {
+            result.put(resourceId, new HashMap<>());
+        }
+
+        Map<LocalDate, EffortDuration> effortPerDay = result.get(resourceId);
+        EffortDuration previous = effortPerDay.get(day);
+        effortPerDay.put(day, previous == null ? effort : previous.plus(effort));
+    }
+
     @Override
     public List<DayAssignment> findByResources(List<Resource> resources) {
         return resources.isEmpty()
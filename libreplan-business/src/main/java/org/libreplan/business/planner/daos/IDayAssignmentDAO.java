@@ -23,6 +23,8 @@ package org.libreplan.business.planner.daos;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.common.daos.IGenericDAO;
@@ -30,6 +32,7 @@ import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.planner.entities.DerivedDayAssignment;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.scenarios.entities.Scenario;
+import org.libreplan.business.workingday.EffortDuration;
 
 /**
  * DAO interface for {@link DayAssignment}
@@ -58,4 +61,30 @@ public interface IDayAssignmentDAO extends IGenericDAO<DayAssignment, Long> {
 
     public List<DayAssignment> findByResources(List<Resource> resources);
 
+    /**
+     * Returns, for every resource with some effort assigned in the given
+     * <code>scenario</code> between <code>startInclusive</code> and
+     * <code>endInclusive</code>, the days with effort assigned. The map is
+     * indexed by the id of the resource.
+     */
+    Map<Long, Set<LocalDate>> findDaysWithAssignedEffort(
+            Scenario scenario, LocalDate startInclusive, LocalDate endInclusive);
+
+    /**
+     * Returns the effort assigned in the given <code>scenario</code> between
+     * <code>startInclusive</code> and <code>endInclusive</code> to the
+     * resources with the given ids, summed by day. It is indexed by resource
+     * id and then by day. Resources without effort assigned are not included.
+     */
+    Map<Long, Map<LocalDate, EffortDuration>> sumEffortByResourceAndDay(
+            Scenario scenario, LocalDate startInclusive, LocalDate endInclusive, Collection<Long> resourceIds);
+
+    /**
+     * Like {@link #sumEffortByResourceAndDay(Scenario, LocalDate, LocalDate, Collection)}
+     * for all the resources. The sums are done by the database, so the day
+     * assignments are not loaded. Any of the dates can be <code>null</code>.
+     */
+    Map<Long, Map<LocalDate, EffortDuration>> sumEffortByResourceAndDay(
+            Scenario scenario, LocalDate startInclusive, LocalDate endInclusive);
+
 }
@@ -0,0 +1,44 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.planner.daos;
+
+import org.libreplan.business.orders.entities.Order;
+
+/**
+ * Loads in the current session all the data needed to plan an {@link Order}.
+ *
+ * Each level of associations is retrieved with a few queries restricted with
+ * <code>IN</code> clauses, instead of navigating the entities one by one and
+ * letting Hibernate initialize every lazy association on its own.
+ */
+public interface IPlanningDataLoader {
+
+    /**
+     * Initializes order elements, hours groups, criterion requirements,
+     * advance assignments and measurements, labels, task elements, resource
+     * allocations, day assignments, dependencies and calendars of the
+     * <code>order</code>. The day assignments of its resources are only
+     * retrieved since the start of the planning. The order must be attached
+     * to the current session.
+     *
+     * @return the number of queries issued
+     */
+    int loadPlanningDataFor(Order order);
+
+}
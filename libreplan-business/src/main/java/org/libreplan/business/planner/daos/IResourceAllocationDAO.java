@@ -21,6 +21,7 @@
 
 package org.libreplan.business.planner.daos;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +68,24 @@ public interface IResourceAllocationDAO extends
             Scenario onScenario, Criterion criterion,
             Date intervalFilterStartDate, Date intervalFilterEndDate);
 
+    /**
+     * It returns the same criteria as the keys of
+     * {@link #findGenericAllocationsByCriterion(Scenario, Date, Date)}, but
+     * without retrieving the allocations.
+     */
+    List<Criterion> findCriterionsWithGenericAllocations(
+            Scenario onScenario,
+            Date intervalFilterStartDate, Date intervalFilterEndDate);
+
+    /**
+     * It does the same as
+     * {@link #findGenericAllocationsRelatedToCriterion(Scenario, Criterion, Date, Date)}
+     * for several criteria with only one query.
+     */
+    Map<Criterion, List<GenericResourceAllocation>> findGenericAllocationsRelatedToCriterions(
+            Scenario onScenario, Collection<Criterion> criterions,
+            Date intervalFilterStartDate, Date intervalFilterEndDate);
+
     /**
      * <p>
      * It searches for the {@link SpecificResourceAllocation specific
@@ -100,4 +119,15 @@ public interface IResourceAllocationDAO extends
             Date intervalFilterStartDate,
             Date intervalFilterEndDate);
 
+    /**
+     * It does the same as
+     * {@link #findSpecificAllocationsRelatedTo(Scenario, Criterion, Date, Date)}
+     * for several criteria with only one query.
+     */
+    Map<Criterion, List<SpecificResourceAllocation>> findSpecificAllocationsRelatedTo(
+            Scenario onScenario,
+            Collection<Criterion> criterions,
+            Date intervalFilterStartDate,
+            Date intervalFilterEndDate);
+
 }
\ No newline at end of file
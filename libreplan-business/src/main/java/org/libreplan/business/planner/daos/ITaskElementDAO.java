@@ -36,6 +36,14 @@ public interface ITaskElementDAO extends IGenericDAO<TaskElement, Long> {
 
     List<TaskElement> findChildrenOf(TaskGroup each);
 
+    /**
+     * Returns the {@link TaskElement} passed as parameter and all its
+     * descendants, retrieved with one query through the path of the order
+     * elements of their task sources. The parents are always before their
+     * children.
+     */
+    List<TaskElement> findSubtree(TaskElement taskElement);
+
     List<TaskElement> listFilteredByDate(Date start, Date end);
 
     List<TaskElement> getTaskElementsNoMilestonesWithoutTaskSource();
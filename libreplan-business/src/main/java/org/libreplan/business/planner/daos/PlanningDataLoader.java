@@ -0,0 +1,400 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.planner.daos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.calendars.entities.CalendarData;
+import org.libreplan.business.orders.daos.IOrderElementDAO;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.orders.entities.OrderLineGroup;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.entities.TaskElement;
+import org.libreplan.business.planner.entities.TaskGroup;
+import org.libreplan.business.resources.entities.Resource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Default implementation of {@link IPlanningDataLoader}.
+ *
+ * The tree of order elements and the tree of task elements are retrieved at
+ * once through the path of the order elements. If the paths are not available
+ * yet they are traversed level by level, so the number of queries depends on
+ * the depth of the trees and not on the number of elements.
+ *
+ * The day assignments of the resources involved, which include the ones of
+ * other projects, are only retrieved since the start of the planning, as the
+ * tasks can't be moved before the start of the project.
+ */
+@Repository
+@Scope(BeanDefinition.SCOPE_SINGLETON)
+public class PlanningDataLoader implements IPlanningDataLoader {
+
+    private static final Log LOG = LogFactory.getLog(PlanningDataLoader.class);
+
+    /**
+     * Maximum number of identifiers sent in a single <code>IN</code> clause.
+     */
+    static final int BATCH_SIZE = 500;
+
+    private static final String DAY_ASSIGNMENTS_SINCE_FILTER = "dayAssignmentsSince";
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private IOrderElementDAO orderElementDAO;
+
+    @Autowired
+    private ITaskElementDAO taskElementDAO;
+
+    @Override
+    public int loadPlanningDataFor(Order order) {
+        Validate.notNull(order);
+        Validate.notNull(order.getId());
+
+        Loading loading = new Loading(sessionFactory.getCurrentSession(), orderElementDAO, taskElementDAO);
+        loading.load(order);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("planning data for order " + order.getId() + " loaded with " +
+                    loading.queriesIssued + " queries");
+        }
+
+        return loading.queriesIssued;
+    }
+
+    private static class Loading {
+
+        private final Session session;
+
+        private int queriesIssued = 0;
+
+        private final Set<Long> orderElementIds = new LinkedHashSet<>();
+
+        private final Set<Long> orderLineIds = new LinkedHashSet<>();
+
+        private final Set<Long> orderLineGroupIds = new LinkedHashSet<>();
+
+        private final Set<Long> taskElementIds = new LinkedHashSet<>();
+
+        private final Set<Long> taskIds = new LinkedHashSet<>();
+
+        private final Set<Long> calendarIds = new LinkedHashSet<>();
+
+        private final IOrderElementDAO orderElementDAO;
+
+        private final ITaskElementDAO taskElementDAO;
+
+        private Loading(Session session, IOrderElementDAO orderElementDAO, ITaskElementDAO taskElementDAO) {
+            this.session = session;
+            this.orderElementDAO = orderElementDAO;
+            this.taskElementDAO = taskElementDAO;
+        }
+
+        void load(Order order) {
+            loadOrderElements(order);
+            loadHoursGroupsAndCriterionRequirements();
+            loadAdvanceAssignments();
+            loadLabels();
+
+            TaskElement rootTask = order.getAssociatedTaskElement();
+            if (rootTask != null) {
+                loadTaskElements(rootTask);
+                loadResourceAllocations();
+                loadDayAssignments(getStartOfPlanning(order, rootTask));
+                loadDependencies();
+            }
+
+            addCalendar(order.getCalendar());
+            loadCalendars();
+        }
+
+        private void loadOrderElements(Order order) {
+            orderElementIds.add(order.getId());
+            orderLineGroupIds.add(order.getId());
+
+            if (order.getPath() != null) {
+                List<OrderElement> subtree = orderElementDAO.findSubtree(order);
+                queriesIssued++;
+
+                for (OrderElement each : subtree) {
+                    addOrderElement(each);
+                }
+                list("select distinct g from OrderLineGroup g left join fetch g.children where g.id in (:ids)",
+                        orderLineGroupIds);
+                return;
+            }
+
+            Collection<Long> currentLevel = Collections.singletonList(order.getId());
+            while (!currentLevel.isEmpty()) {
+                list("select distinct g from OrderLineGroup g left join fetch g.children where g.id in (:ids)",
+                        currentLevel);
+
+                List<OrderElement> children = list("from OrderElement e where e.parent.id in (:ids)", currentLevel);
+                List<Long> nextLevel = new ArrayList<>();
+
+                for (OrderElement each : children) {
+                    if (addOrderElement(each)) {
+                        nextLevel.add(each.getId());
+                    }
+                }
+                currentLevel = nextLevel;
+            }
+        }
+
+        /**
+         * @return if the element is an {@link OrderLineGroup}
+         */
+        private boolean addOrderElement(OrderElement orderElement) {
+            orderElementIds.add(orderElement.getId());
+            Class<?> klass = Hibernate.getClass(orderElement);
+
+            if (OrderLineGroup.class.isAssignableFrom(klass)) {
+                orderLineGroupIds.add(orderElement.getId());
+                return true;
+            } else if (OrderLine.class.isAssignableFrom(klass)) {
+                orderLineIds.add(orderElement.getId());
+            }
+
+            return false;
+        }
+
+        private void loadHoursGroupsAndCriterionRequirements() {
+            list("select distinct l from OrderLine l left join fetch l.hoursGroups where l.id in (:ids)",
+                    orderLineIds);
+
+            list("select distinct h from HoursGroup h " +
+                    "left join fetch h.criterionRequirements r left join fetch r.criterion " +
+                    "where h.parentOrderLine.id in (:ids)", orderLineIds);
+
+            list("select distinct e from OrderElement e " +
+                    "left join fetch e.criterionRequirements r left join fetch r.criterion " +
+                    "where e.id in (:ids)", orderElementIds);
+        }
+
+        private void loadAdvanceAssignments() {
+            list("select distinct e from OrderElement e " +
+                    "left join fetch e.directAdvanceAssignments a left join fetch a.advanceType " +
+                    "where e.id in (:ids)", orderElementIds);
+
+            list("select distinct a from DirectAdvanceAssignment a left join fetch a.advanceMeasurements " +
+                    "where a.orderElement.id in (:ids)", orderElementIds);
+
+            list("select distinct g from OrderLineGroup g " +
+                    "left join fetch g.indirectAdvanceAssignments a left join fetch a.advanceType " +
+                    "where g.id in (:ids)", orderLineGroupIds);
+
+            list("select distinct a from IndirectAdvanceAssignment a left join fetch a.calculatedConsolidations " +
+                    "where a.orderElement.id in (:ids)", orderLineGroupIds);
+        }
+
+        private void loadLabels() {
+            list("select distinct e from OrderElement e left join fetch e.labels l left join fetch l.type " +
+                    "where e.id in (:ids)", orderElementIds);
+        }
+
+        private void loadTaskElements(TaskElement rootTask) {
+            taskElementIds.add(rootTask.getId());
+            addCalendar(rootTask.getOwnCalendar());
+
+            if (rootTask.getOrderElement() != null && rootTask.getOrderElement().getPath() != null) {
+                List<TaskElement> subtree = taskElementDAO.findSubtree(rootTask);
+                queriesIssued++;
+
+                for (TaskElement each : subtree) {
+                    addTaskElement(each);
+                }
+                return;
+            }
+
+            Collection<Long> currentLevel = Collections.singletonList(rootTask.getId());
+            while (!currentLevel.isEmpty()) {
+                List<TaskElement> children = list("from TaskElement t where t.parent.id in (:ids)", currentLevel);
+                List<Long> nextLevel = new ArrayList<>();
+
+                for (TaskElement each : children) {
+                    if (addTaskElement(each)) {
+                        nextLevel.add(each.getId());
+                    }
+                }
+                currentLevel = nextLevel;
+            }
+        }
+
+        /**
+         * @return if the element is a {@link TaskGroup}
+         */
+        private boolean addTaskElement(TaskElement taskElement) {
+            taskElementIds.add(taskElement.getId());
+            addCalendar(taskElement.getOwnCalendar());
+            Class<?> klass = Hibernate.getClass(taskElement);
+
+            if (TaskGroup.class.isAssignableFrom(klass)) {
+                return true;
+            } else if (Task.class.isAssignableFrom(klass)) {
+                taskIds.add(taskElement.getId());
+            }
+
+            return false;
+        }
+
+        private void loadResourceAllocations() {
+            list("select distinct t from Task t left join fetch t.resourceAllocations where t.id in (:ids)",
+                    taskIds);
+
+            list("select distinct a from ResourceAllocation a " +
+                    "left join fetch a.assignmentFunction left join fetch a.derivedAllocations " +
+                    "where a.task.id in (:ids)", taskIds);
+
+            list("select distinct a from SpecificResourceAllocation a " +
+                    "left join fetch a.resource left join fetch a.specificDayAssignmentsContainers " +
+                    "where a.task.id in (:ids)", taskIds);
+
+            list("select distinct a from GenericResourceAllocation a " +
+                    "left join fetch a.criterions left join fetch a.genericDayAssignmentsContainers " +
+                    "where a.task.id in (:ids)", taskIds);
+
+            list("select distinct d from DerivedAllocation d " +
+                    "left join fetch d.configurationUnit left join fetch d.derivedDayAssignmentsContainers " +
+                    "where d.derivedFrom.task.id in (:ids)", taskIds);
+        }
+
+        /**
+         * @return the first day the tasks of the order can be at, or
+         *         <code>null</code> if they can be moved to any day because
+         *         the project has no start
+         */
+        private static LocalDate getStartOfPlanning(Order order, TaskElement rootTask) {
+            if (order.getInitDate() == null) {
+                return null;
+            }
+
+            LocalDate result = LocalDate.fromDateFields(order.getInitDate());
+            if (rootTask.getStartDate() != null && rootTask.getStartAsLocalDate().isBefore(result)) {
+                result = rootTask.getStartAsLocalDate();
+            }
+
+            return result;
+        }
+
+        private void loadDayAssignments(LocalDate since) {
+            list("select distinct c from SpecificDayAssignmentsContainer c left join fetch c.dayAssignments " +
+                    "where c.resourceAllocation.task.id in (:ids)", taskIds);
+
+            list("select distinct c from GenericDayAssignmentsContainer c left join fetch c.dayAssignments " +
+                    "where c.resourceAllocation.task.id in (:ids)", taskIds);
+
+            list("select distinct c from DerivedDayAssignmentsContainer c left join fetch c.dayAssignments " +
+                    "where c.resourceAllocation.derivedFrom.task.id in (:ids)", taskIds);
+
+            Set<Long> resourceIds = new LinkedHashSet<>();
+            resourceIds.addAll(this.<Long> list("select distinct s.resource.id from SpecificDayAssignment s " +
+                    "where s.container.resourceAllocation.task.id in (:ids)", taskIds));
+            resourceIds.addAll(this.<Long> list("select distinct g.resource.id from GenericDayAssignment g " +
+                    "where g.container.resourceAllocation.task.id in (:ids)", taskIds));
+
+            if (since != null) {
+                session.enableFilter(DAY_ASSIGNMENTS_SINCE_FILTER).setParameter("since", since.toDate());
+            }
+            List<Resource> resources;
+            try {
+                resources = list("select distinct r from Resource r " +
+                        "left join fetch r.dayAssignments left join fetch r.calendar where r.id in (:ids)",
+                        resourceIds);
+            } finally {
+                session.disableFilter(DAY_ASSIGNMENTS_SINCE_FILTER);
+            }
+
+            for (Resource each : resources) {
+                addCalendar(each.getCalendar());
+            }
+        }
+
+        private void loadDependencies() {
+            list("select distinct t from TaskElement t left join fetch t.dependenciesWithThisOrigin " +
+                    "where t.id in (:ids)", taskElementIds);
+
+            list("select distinct t from TaskElement t left join fetch t.dependenciesWithThisDestination " +
+                    "where t.id in (:ids)", taskElementIds);
+        }
+
+        private void loadCalendars() {
+            Set<Long> loaded = new HashSet<>();
+            Collection<Long> pending = new ArrayList<>(calendarIds);
+
+            while (!pending.isEmpty()) {
+                loaded.addAll(pending);
+                List<BaseCalendar> calendars = list("select distinct c from BaseCalendar c " +
+                        "left join fetch c.exceptions e left join fetch e.type where c.id in (:ids)", pending);
+
+                Set<Long> parents = new LinkedHashSet<>();
+                for (BaseCalendar each : calendars) {
+                    for (CalendarData data : each.getCalendarDataVersions()) {
+                        if (data.getParent() != null && !loaded.contains(data.getParent().getId())) {
+                            parents.add(data.getParent().getId());
+                        }
+                    }
+                }
+                pending = parents;
+            }
+        }
+
+        private void addCalendar(BaseCalendar calendar) {
+            if (calendar != null && calendar.getId() != null) {
+                calendarIds.add(calendar.getId());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> List<T> list(String hql, Collection<Long> ids) {
+            List<T> result = new ArrayList<>();
+            List<Long> pending = new ArrayList<>(ids);
+
+            for (int from = 0; from < pending.size(); from += BATCH_SIZE) {
+                List<Long> batch = pending.subList(from, Math.min(from + BATCH_SIZE, pending.size()));
+                result.addAll(session.createQuery(hql).setParameterList("ids", batch).list());
+                queriesIssued++;
+            }
+
+            return result;
+        }
+
+    }
+
+}
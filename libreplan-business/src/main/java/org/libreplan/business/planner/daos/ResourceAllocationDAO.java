@@ -23,12 +23,15 @@ package org.libreplan.business.planner.daos;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -269,6 +272,91 @@ public class ResourceAllocationDAO
         return queryBuilder.build(getSession()).list();
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Criterion> findCriterionsWithGenericAllocations(
+            final Scenario onScenario,
+            final Date intervalFilterStartDate, final Date intervalFilterEndDate) {
+
+        QueryBuilder queryBuilder = new QueryBuilder() {
+
+            @Override
+            protected String getBaseQuery() {
+                return "select distinct criterion "
+                        + "from GenericResourceAllocation as generic "
+                        + "join generic.criterions as criterion "
+                        + "join generic.genericDayAssignmentsContainers as container "
+                        + "join container.dayAssignments as dayAssignment "
+                        + "join generic.task as task";
+            }
+
+            @Override
+            protected String getBaseConditions() {
+                return "where container.scenario = :scenario";
+            }
+
+            @Override
+            protected void setBaseParameters(Query query) {
+                query.setParameter("scenario", onScenario);
+            }
+
+            @Override
+            protected IQueryPart[] getExtraParts() {
+                return new IQueryPart[] {
+                        new DatesInterval("task", intervalFilterStartDate, intervalFilterEndDate),
+                        new OnScenario("task", onScenario) };
+            }
+
+        };
+        List<Criterion> found = queryBuilder.build(getSession()).list();
+
+        Set<Criterion> result = new LinkedHashSet<>(found);
+        for (Criterion each : found) {
+            result.addAll(getParentsFrom(each));
+        }
+        return new ArrayList<>(result);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Criterion, List<GenericResourceAllocation>> findGenericAllocationsRelatedToCriterions(
+            final Scenario onScenario, final Collection<Criterion> criterions,
+            final Date intervalFilterStartDate, final Date intervalFilterEndDate) {
+
+        if (criterions.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        QueryBuilder queryBuilder = new QueryBuilder() {
+
+            @Override
+            protected String getBaseQuery() {
+                return "select generic, criterion "
+                        + "from GenericResourceAllocation as generic "
+                        + "join generic.task as task "
+                        + "join generic.criterions as criterion ";
+            }
+
+            @Override
+            protected String getBaseConditions() {
+                return "where criterion in (:criterions) ";
+            }
+
+            @Override
+            protected void setBaseParameters(Query query) {
+                query.setParameterList("criterions", criterions);
+            }
+
+            @Override
+            protected IQueryPart[] getExtraParts() {
+                return new IQueryPart[] {
+                        new DatesInterval("task", intervalFilterStartDate, intervalFilterEndDate),
+                        new OnScenario("task", onScenario) };
+            }
+        };
+        return byCriterion(queryBuilder.build(getSession()).list());
+    }
+
     @SuppressWarnings("unchecked")
     private Map<Criterion, List<GenericResourceAllocation>> toCriterionMapFrom(Query query){
         return addParents(stripAllocationsWithoutAssignations(byCriterion(query.list())));
@@ -387,6 +475,63 @@ public class ResourceAllocationDAO
                 criterion, result, asLocalDate(intervalFilterStartDate), asLocalDate(intervalFilterEndDate));
     }
 
+    @Override
+    public Map<Criterion, List<SpecificResourceAllocation>> findSpecificAllocationsRelatedTo(
+            final Scenario onScenario,
+            final Collection<Criterion> criterions,
+            final Date intervalFilterStartDate,
+            final Date intervalFilterEndDate) {
+
+        if (criterions.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        QueryBuilder builder = new QueryBuilder() {
+
+            @Override
+            protected String getBaseQuery() {
+                return "select distinct s, c from SpecificResourceAllocation s "
+                        + "join s.resource r "
+                        + "join r.criterionSatisfactions satisfaction "
+                        + "join satisfaction.criterion c join s.task t";
+            }
+
+            @Override
+            protected String getBaseConditions() {
+                return " where c in (:criterions)";
+            }
+
+            @Override
+            protected void setBaseParameters(Query query) {
+                query.setParameterList("criterions", criterions);
+            }
+
+            @Override
+            protected IQueryPart[] getExtraParts() {
+                return new IQueryPart[] {
+                        new DatesInterval("t", intervalFilterStartDate, intervalFilterEndDate),
+                        new OnScenario("t", onScenario) };
+            }
+        };
+
+        Map<Criterion, List<SpecificResourceAllocation>> result = new HashMap<>();
+        for (Object each : builder.build(getSession()).list()) {
+            Object[] row = (Object[]) each;
+            SpecificResourceAllocation allocation = (SpecificResourceAllocation) row[0];
+            Criterion criterion = (Criterion) row[1];
+
+            if (allocation.interferesWith(criterion,
+                    asLocalDate(intervalFilterStartDate), asLocalDate(intervalFilterEndDate))) {
+
+                if (!result.containsKey(criterion)) {
+                    result.put(criterion, new ArrayList<>());
+                }
+                result.get(criterion).add(allocation);
+            }
+        }
+        return result;
+    }
+
     private static LocalDate asLocalDate(Date date) {
         if (date == null) {
             return null;
@@ -21,8 +21,13 @@
 
 package org.libreplan.business.planner.daos;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Criteria;
 import org.hibernate.Hibernate;
@@ -30,6 +35,7 @@ import org.hibernate.Query;
 import org.hibernate.criterion.Restrictions;
 import org.joda.time.LocalDate;
 import org.libreplan.business.common.daos.GenericDAOHibernate;
+import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.planner.entities.ResourceAllocation;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.business.planner.entities.TaskGroup;
@@ -55,6 +61,58 @@ public class TaskElementDAO extends GenericDAOHibernate<TaskElement, Long> imple
                 Restrictions.eq("parent", each)).list();
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TaskElement> findSubtree(TaskElement taskElement) {
+        OrderElement orderElement = taskElement.getOrderElement();
+        if ( orderElement == null || orderElement.getPath() == null ) {
+            List<TaskElement> result = new ArrayList<>();
+            result.add(taskElement);
+            result.addAll(taskElement.getAllChildren());
+
+            return result;
+        }
+
+        /*
+         * The milestones don't have task source, so the children of the task
+         * elements found are retrieved too.
+         */
+        String taskSourcesInPath = "(SELECT ts.id FROM TaskSource ts "
+                + "WHERE ts.schedulingData.orderElement.path LIKE :path)";
+        String strQuery = "FROM TaskElement t "
+                + "WHERE t.id IN " + taskSourcesInPath + " OR t.parent.id IN " + taskSourcesInPath;
+        List<TaskElement> candidates = getSession()
+                .createQuery(strQuery)
+                .setParameter("path", orderElement.getPath() + "%")
+                .list();
+
+        /*
+         * There could be task elements of other scenarios for the same order
+         * elements, only the ones reachable from the root are kept.
+         */
+        Map<Long, List<TaskElement>> childrenByParent = new HashMap<>();
+        for (TaskElement each : candidates) {
+            if ( each.getParent() != null ) {
+                childrenByParent.computeIfAbsent(each.getParent().getId(), k -> new ArrayList<>()).add(each);
+            }
+        }
+
+        List<TaskElement> result = new ArrayList<>();
+        addWithDescendants(result, taskElement, childrenByParent);
+
+        return result;
+    }
+
+    private static void addWithDescendants(List<TaskElement> result, TaskElement taskElement,
+                                           Map<Long, List<TaskElement>> childrenByParent) {
+        result.add(taskElement);
+        List<TaskElement> children = childrenByParent.getOrDefault(taskElement.getId(), Collections.emptyList());
+        children.sort(Comparator.comparing(TaskElement::getId));
+        for (TaskElement each : children) {
+            addWithDescendants(result, each, childrenByParent);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public List<TaskElement> listFilteredByDate(Date start, Date end) {
@@ -19,6 +19,7 @@
 package org.libreplan.business.planner.entities;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -125,18 +126,35 @@ public class AssignedEffortForResource {
     public static class WithTheLoadOf implements IAssignedEffortForResource {
 
         private final Set<? extends ResourceAllocation<?>> allocations;
-        private final IAssignedEffortForResource implementation;
+
+        private final Set<ResourceAllocation<?>> notConsidered;
 
         public WithTheLoadOf(
                 Collection<? extends ResourceAllocation<?>> allocations) {
-            this.allocations = new HashSet<ResourceAllocation<?>>(allocations);
-            this.implementation = sum(this.allocations);
+            this(new HashSet<ResourceAllocation<?>>(allocations),
+                    Collections.<ResourceAllocation<?>> emptySet());
+        }
+
+        private WithTheLoadOf(Set<? extends ResourceAllocation<?>> allocations,
+                Set<ResourceAllocation<?>> notConsidered) {
+            this.allocations = allocations;
+            this.notConsidered = notConsidered;
         }
 
         @Override
         public EffortDuration getAssignedDurationAt(Resource resource,
                 LocalDate day) {
-            return implementation.getAssignedDurationAt(resource, day);
+            EffortDuration result = EffortDuration.zero();
+            for (ResourceAllocation<?> each : allocations) {
+                if (notConsidered.contains(each)) {
+                    continue;
+                }
+                EffortDuration e = each.getAssignedDurationAt(resource, day);
+                if (e != null) {
+                    result = result.plus(e);
+                }
+            }
+            return result;
         }
 
         /**
@@ -144,13 +162,14 @@ public class AssignedEffortForResource {
          * load as <code>this</code> but without the provided
          * <code>allocation</code>. When you're doing an allocation you don't
          * want to consider the allocation currently being done, so it's
-         * excluded.
+         * excluded. The allocations are shared with <code>this</code> instead
+         * of being copied.
          */
         public WithTheLoadOf withoutConsidering(ResourceAllocation<?> allocation) {
-            Set<ResourceAllocation<?>> copy = new HashSet<ResourceAllocation<?>>(
-                    this.allocations);
-            copy.remove(allocation);
-            return new WithTheLoadOf(copy);
+            Set<ResourceAllocation<?>> newNotConsidered = new HashSet<ResourceAllocation<?>>(
+                    notConsidered);
+            newNotConsidered.add(allocation);
+            return new WithTheLoadOf(allocations, newNotConsidered);
         }
     }
 
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -31,7 +32,7 @@ import org.joda.time.LocalDate;
 import org.libreplan.business.calendars.entities.AvailabilityTimeLine;
 import org.libreplan.business.calendars.entities.AvailabilityTimeLine.Interval;
 import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots;
-import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workingday.EffortDuration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
@@ -74,17 +75,6 @@ public class CompanyEarnedValueCalculator extends EarnedValueCalculator implemen
         return result;
     }
 
-    private List<WorkReportLine> filterWorkReportLinesByDate(Collection<WorkReportLine> lines,
-                                                             AvailabilityTimeLine.Interval interval) {
-        List<WorkReportLine> result = new ArrayList<WorkReportLine>();
-        for(WorkReportLine line: lines) {
-            if ( interval.includes(line.getLocalDate()) ) {
-                result.add(line);
-            }
-        }
-        return result;
-    }
-
     private void addCost(SortedMap<LocalDate, BigDecimal> currentCost,
                          SortedMap<LocalDate, BigDecimal> additionalCost) {
 
@@ -117,23 +107,12 @@ public class CompanyEarnedValueCalculator extends EarnedValueCalculator implemen
     public SortedMap<LocalDate, BigDecimal> calculateActualCostWorkPerformed(
             Interval interval) {
         SortedMap<LocalDate, BigDecimal> result = new TreeMap<LocalDate, BigDecimal>();
-        Collection<WorkReportLine> workReportLines = filterWorkReportLinesByDate(
-                databaseSnapshots.snapshotWorkReportLines(),
-                interval);
-
-        if (workReportLines.isEmpty()) {
-            return result;
-        }
-
-        for (WorkReportLine workReportLine : workReportLines) {
-            LocalDate day = new LocalDate(workReportLine.getDate());
-            BigDecimal cost = workReportLine.getEffort()
-                    .toHoursAsDecimalWithScale(2);
-
-            if (!result.containsKey(day)) {
-                result.put(day, BigDecimal.ZERO);
+        for (Entry<LocalDate, EffortDuration> each : databaseSnapshots
+                .snapshotChargedEffortPerDay().entrySet()) {
+            if (interval.includes(each.getKey())) {
+                result.put(each.getKey(),
+                        each.getValue().toHoursAsDecimalWithScale(2));
             }
-            result.put(day, result.get(day).add(cost));
         }
         return accumulateResult(result);
     }
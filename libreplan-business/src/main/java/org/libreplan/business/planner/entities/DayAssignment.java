@@ -163,6 +163,93 @@ public abstract class DayAssignment extends BaseEntity {
         return result;
     }
 
+    /**
+     * It sums the duration of the assignments of each day by the allocation
+     * they belong to, so the load of some allocations can be discounted
+     * without going through the assignments.
+     *
+     * @see DayLoad#discounting(Map)
+     */
+    public static Map<LocalDate, DayLoad> loadByDay(Collection<? extends DayAssignment> assignments) {
+        Map<LocalDate, DayLoad> result = new HashMap<>();
+        for (DayAssignment each : assignments) {
+            DayLoad load = result.get(each.getDay());
+            if ( load == null ) {
+                load = new DayLoad();
+                result.put(each.getDay(), load);
+            }
+            load.add(each);
+        }
+        return result;
+    }
+
+    /**
+     * The seconds assigned in a day, kept by allocation in parallel arrays. The
+     * assignments without an allocation yet are kept apart, since they could
+     * be associated to one afterwards.
+     */
+    public static class DayLoad {
+
+        private BaseEntity[] allocations = new BaseEntity[2];
+
+        private int[] seconds = new int[2];
+
+        private int size = 0;
+
+        private int total = 0;
+
+        private List<DayAssignment> withoutAllocation = Collections.emptyList();
+
+        private DayLoad() {
+        }
+
+        private void add(DayAssignment assignment) {
+            int assignmentSeconds = assignment.getDuration().getSeconds();
+            BaseEntity allocation = assignment.getParent();
+            if ( allocation == null ) {
+                if ( withoutAllocation.isEmpty() ) {
+                    withoutAllocation = new ArrayList<>();
+                }
+                withoutAllocation.add(assignment);
+                return;
+            }
+            total += assignmentSeconds;
+            for (int i = 0; i < size; i++) {
+                if ( allocations[i] == allocation ) {
+                    seconds[i] += assignmentSeconds;
+                    return;
+                }
+            }
+            if ( size == allocations.length ) {
+                allocations = Arrays.copyOf(allocations, size * 2);
+                seconds = Arrays.copyOf(seconds, size * 2);
+            }
+            allocations[size] = allocation;
+            seconds[size] = assignmentSeconds;
+            size++;
+        }
+
+        /**
+         * @return the same as summing the duration of the assignments of the
+         *         day that don't {@link DayAssignment#belongsToSomeOf(Map)
+         *         belong to some of} the provided allocations
+         */
+        public EffortDuration discounting(Map<Long, Set<BaseEntity>> allocationsToDiscount) {
+            int result = total;
+            for (int i = 0; i < size; i++) {
+                if ( isSomeOf(allocations[i], allocationsToDiscount) ) {
+                    result -= seconds[i];
+                }
+            }
+            for (DayAssignment each : withoutAllocation) {
+                if ( !each.belongsToSomeOf(allocationsToDiscount) ) {
+                    result += each.getDuration().getSeconds();
+                }
+            }
+            return EffortDuration.seconds(result);
+        }
+    }
+
     public static Set<Resource> getAllResources(Collection<? extends DayAssignment> assignments) {
         Set<Resource> result = new HashSet<Resource>();
         for (DayAssignment dayAssignment : assignments) {
@@ -306,7 +393,10 @@ public abstract class DayAssignment extends BaseEntity {
     protected abstract void detachFromAllocation();
 
     public final boolean belongsToSomeOf(Map<Long, Set<BaseEntity>> allocations) {
-        BaseEntity parent = getParent();
+        return isSomeOf(getParent(), allocations);
+    }
+
+    private static boolean isSomeOf(BaseEntity parent, Map<Long, Set<BaseEntity>> allocations) {
         if (parent.getId() == null) {
             Set<BaseEntity> entitiesWithNullId = allocations.get(null);
             return entitiesWithNullId != null
@@ -318,7 +318,15 @@ public class EffortDistributor {
         return result;
     }
 
+    /**
+     * Nothing would be assigned when there is no effort to distribute, e.g. on
+     * the days without capacity, so the resources aren't sorted by load then.
+     */
     private List<ResourceWithAssignedDuration> distributeForDay_(PartialDay day, EffortDuration totalDuration) {
+        if (totalDuration.isZero()) {
+            return new ArrayList<>();
+        }
+
         List<ResourceWithDerivedData> resourcesAssignable = resourcesAssignableAt(day.getDate());
 
         List<ResourceWithAssignedDuration> withoutOvertime =
@@ -27,6 +27,7 @@ import java.math.RoundingMode;
 import java.sql.Time;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.List;
 import java.util.SortedSet;
@@ -37,9 +38,10 @@ import org.joda.time.LocalDate;
 import org.joda.time.LocalTime;
 import org.libreplan.business.advance.entities.AdvanceMeasurement;
 import org.libreplan.business.advance.entities.DirectAdvanceAssignment;
+import org.libreplan.business.orders.daos.IDailyChargedEffortDAO;
+import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.planner.entities.DayAssignment.FilterType;
-import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
-import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workingday.EffortDuration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
@@ -56,7 +58,7 @@ import org.springframework.stereotype.Component;
 public class HoursCostCalculator implements ICostCalculator {
 
     @Autowired
-    private IWorkReportLineDAO workReportLineDAO;
+    private IDailyChargedEffortDAO dailyChargedEffortDAO;
 
     @Override
     public SortedMap<LocalDate, BigDecimal> getAdvanceCost(Task task) {
@@ -210,22 +212,15 @@ public class HoursCostCalculator implements ICostCalculator {
         }
 
         SortedMap<LocalDate, BigDecimal> result = new TreeMap<LocalDate, BigDecimal>();
-        List<WorkReportLine> workReportLines = workReportLineDAO
-                .findByOrderElementAndChildren(task.getOrderElement());
-
-        if (workReportLines.isEmpty()) {
+        OrderElement orderElement = task.getOrderElement();
+        if (orderElement.isNewObject()) {
             return result;
         }
 
-        for (WorkReportLine workReportLine : workReportLines) {
-            LocalDate day = new LocalDate(workReportLine.getDate());
-            BigDecimal cost = workReportLine.getEffort()
-                    .toHoursAsDecimalWithScale(2);
-
-            if (!result.containsKey(day)) {
-                result.put(day, BigDecimal.ZERO);
-            }
-            result.put(day, result.get(day).add(cost));
+        for (Entry<LocalDate, EffortDuration> each : dailyChargedEffortDAO
+                .getEffortPerDayOfOrderElementAndChildren(orderElement).entrySet()) {
+            result.put(each.getKey(),
+                    each.getValue().toHoursAsDecimalWithScale(2));
         }
 
         return result;
@@ -51,6 +51,7 @@ import org.libreplan.business.calendars.entities.ThereAreHoursOnWorkHoursCalcula
 import org.libreplan.business.calendars.entities.ThereAreHoursOnWorkHoursCalculator.CapacityResult;
 import org.libreplan.business.common.BaseEntity;
 import org.libreplan.business.common.Registry;
+import org.libreplan.business.common.metrics.Metrics;
 import org.libreplan.business.planner.entities.AssignedEffortForResource.IAssignedEffortForResource;
 import org.libreplan.business.planner.entities.DerivedAllocationGenerator.IWorkerFinder;
 import org.libreplan.business.planner.entities.allocationalgorithms.AllocationModification;
@@ -425,7 +426,8 @@ public abstract class ResourceAllocation<T extends DayAssignment>
                 }
 
             };
-            IntraDayDate result = allocator.untilAllocating(toAllocate);
+            IntraDayDate result =
+                    Metrics.timer("allocation.untilFillingHours").time(() -> allocator.untilAllocating(toAllocate));
 
             if (result == null) {
                 // Allocation could not be done
@@ -438,21 +440,21 @@ public abstract class ResourceAllocation<T extends DayAssignment>
             AllocatorForTaskDurationAndSpecifiedResourcesPerDay allocator =
                     new AllocatorForTaskDurationAndSpecifiedResourcesPerDay(allocations);
 
-            allocator.allocateOnTaskLength();
+            Metrics.timer("allocation.onInterval").time(() -> allocator.allocateOnTaskLength());
         }
 
         public void allocateUntil(IntraDayDate endExclusive) {
             AllocatorForTaskDurationAndSpecifiedResourcesPerDay allocator =
                     new AllocatorForTaskDurationAndSpecifiedResourcesPerDay(allocations);
 
-            allocator.allocateUntil(endExclusive);
+            Metrics.timer("allocation.onInterval").time(() -> allocator.allocateUntil(endExclusive));
         }
 
         public void allocateFromEndUntil(IntraDayDate start) {
             AllocatorForTaskDurationAndSpecifiedResourcesPerDay allocator =
                     new AllocatorForTaskDurationAndSpecifiedResourcesPerDay(allocations);
 
-            allocator.allocateFromEndUntil(start);
+            Metrics.timer("allocation.onInterval").time(() -> allocator.allocateFromEndUntil(start));
         }
     }
 
@@ -298,6 +298,20 @@ public abstract class ResourcesPerDayModification extends
                 return effortDistributor.distributeForDay(distributeOn,
                         effortLimited);
             }
+
+            @Override
+            public List<? extends DayAssignment> createAssignmentsWithoutCapacity(
+                    Iterable<PartialDay> days) {
+                if (!isSpecific()) {
+                    return Collections.emptyList();
+                }
+                List<DayAssignment> result = new ArrayList<DayAssignment>();
+                for (PartialDay each : days) {
+                    result.addAll(effortDistributor.distributeForDay(each,
+                            EffortDuration.zero()));
+                }
+                return result;
+            }
         };
     }
 
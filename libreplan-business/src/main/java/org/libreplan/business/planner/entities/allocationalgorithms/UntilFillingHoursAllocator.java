@@ -25,13 +25,17 @@ import static org.libreplan.business.workingday.EffortDuration.zero;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 
 import org.apache.commons.lang3.Validate;
+import org.joda.time.Days;
 import org.joda.time.LocalDate;
 import org.libreplan.business.calendars.entities.ICalendar;
 import org.libreplan.business.calendars.entities.ThereAreHoursOnWorkHoursCalculator.CapacityResult;
@@ -113,6 +117,14 @@ public abstract class UntilFillingHoursAllocator {
 
         List<? extends DayAssignment> createAssignmentsAtDay(PartialDay day,
                 EffortDuration limit, ResourcesPerDay resourcesPerDay);
+
+        /**
+         * The same assignments {@link #createAssignmentsAtDay} would create
+         * for days on which the allocation has no capacity, without
+         * evaluating them.
+         */
+        List<? extends DayAssignment> createAssignmentsWithoutCapacity(
+                Iterable<PartialDay> days);
     }
 
     /**
@@ -130,7 +142,11 @@ public abstract class UntilFillingHoursAllocator {
         IntraDayDate current = dateFromWhichToAllocate;
         IAssignmentsCreator assignmentsCreator = resourcesPerDayModification
                 .createAssignmentsCreator();
+        CapacityPrefix capacityPrefix = new CapacityPrefix(
+                resourcesPerDayModification);
         while (effortRemaining.compareTo(zero()) > 0) {
+            current = skipDaysWithoutCapacity(resourcesPerDayModification,
+                    assignmentsCreator, capacityPrefix, current);
             PartialDay day = calculateDay(current);
             Pair<EffortDuration, EffortDuration> pair = assignForDay(
                     resourcesPerDayModification, assignmentsCreator, day,
@@ -152,6 +168,155 @@ public abstract class UntilFillingHoursAllocator {
         return finish;
     }
 
+    /**
+     * @return the start of the first day from <code>current</code> on which
+     *         the allocation has capacity, once the assignments of the days
+     *         skipped are created
+     */
+    private IntraDayDate skipDaysWithoutCapacity(
+            ResourcesPerDayModification resourcesPerDayModification,
+            IAssignmentsCreator assignmentsCreator,
+            CapacityPrefix capacityPrefix, IntraDayDate current) {
+        if (!current.isStartOfDay()) {
+            return current;
+        }
+        LocalDate day = isForwardScheduling() ? current.getDate() : current
+                .getDate().minusDays(1);
+        int skipped = capacityPrefix.daysWithoutCapacityFrom(day);
+        if (skipped == 0) {
+            return current;
+        }
+        resultAssignments.get(resourcesPerDayModification).addAll(
+                assignmentsCreator.createAssignmentsWithoutCapacity(wholeDays(
+                        day, skipped)));
+        return isForwardScheduling() ? IntraDayDate.startOfDay(day
+                .plusDays(skipped)) : IntraDayDate.startOfDay(day.minusDays(
+                skipped - 1));
+    }
+
+    /**
+     * @return the days from <code>day</code> on in the allocation direction
+     */
+    private Iterable<PartialDay> wholeDays(final LocalDate day,
+            final int count) {
+        final int step = isForwardScheduling() ? 1 : -1;
+        return new Iterable<PartialDay>() {
+
+            @Override
+            public Iterator<PartialDay> iterator() {
+                return new Iterator<PartialDay>() {
+
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < count;
+                    }
+
+                    @Override
+                    public PartialDay next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return PartialDay.wholeDay(day.plusDays(step * i++));
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Accumulated capacity of the calendar of an allocation for its goal,
+     * from the first day asked in the allocation direction. It's compiled in
+     * blocks of days as the allocation advances, so a run of days on which
+     * the allocation can't take effort is skipped with a binary search
+     * instead of evaluating the assignments day by day. The capacity only
+     * depends on the calendars, so it's the same whatever the other
+     * allocations assign.
+     */
+    private class CapacityPrefix {
+
+        private static final int FIRST_BLOCK = 32;
+
+        private final ResourcesPerDayModification allocation;
+
+        private LocalDate origin;
+
+        /**
+         * The seconds of capacity from the origin to each day, excluded.
+         */
+        private long[] accumulated = new long[FIRST_BLOCK + 1];
+
+        private int compiled = 0;
+
+        private CapacityPrefix(ResourcesPerDayModification allocation) {
+            this.allocation = allocation;
+        }
+
+        /**
+         * @return the number of days from <code>day</code> on, in the
+         *         allocation direction, on which the allocation has no
+         *         capacity
+         */
+        int daysWithoutCapacityFrom(LocalDate day) {
+            if (origin == null) {
+                origin = day;
+            }
+            int from = offsetOf(day);
+            while (compiled <= from
+                    || accumulated[compiled] == accumulated[from]) {
+                compileBlock();
+            }
+            return firstWithCapacity(from) - from;
+        }
+
+        /**
+         * The first day from <code>from</code> with capacity, being one at
+         * least compiled.
+         */
+        private int firstWithCapacity(int from) {
+            int low = from;
+            int high = compiled - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (accumulated[middle + 1] > accumulated[from]) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        private void compileBlock() {
+            int block = Math.max(FIRST_BLOCK, compiled);
+            if (compiled + block + 1 > accumulated.length) {
+                accumulated = Arrays.copyOf(accumulated, compiled + block + 1);
+            }
+            for (int i = compiled; i < compiled + block; i++) {
+                EffortDuration capacity = allocation.durationAtDay(PartialDay
+                        .wholeDay(dayAt(i)));
+                accumulated[i + 1] = accumulated[i] + capacity.getSeconds();
+            }
+            compiled += block;
+        }
+
+        private int offsetOf(LocalDate day) {
+            int days = Days.daysBetween(origin, day).getDays();
+            return isForwardScheduling() ? days : -days;
+        }
+
+        private LocalDate dayAt(int offset) {
+            return isForwardScheduling() ? origin.plusDays(offset) : origin
+                    .minusDays(offset);
+        }
+    }
+
     private IntraDayDate adjustFinish(
             ResourcesPerDayModification resourcesPerDayModification,
             EffortDuration allocatedLastDay,
@@ -29,8 +29,6 @@ import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.planner.entities.DayAssignment.FilterType;
 import org.libreplan.business.planner.entities.Task;
 import org.libreplan.business.workingday.EffortDuration;
-import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
-import org.libreplan.business.workreports.entities.WorkReportLine;
 
 /**
  *
@@ -39,8 +37,6 @@ import org.libreplan.business.workreports.entities.WorkReportLine;
  */
 public class CompletedEstimatedHoursPerTaskDTO {
 
-    private IWorkReportLineDAO workReportLineDAO;
-
     private String taskName;
 
     private Integer estimatedHours;
@@ -52,7 +48,6 @@ public class CompletedEstimatedHoursPerTaskDTO {
     private EffortDuration realHours;
 
     private CompletedEstimatedHoursPerTaskDTO() {
-        workReportLineDAO = Registry.getWorkReportLineDAO();
     }
 
     public CompletedEstimatedHoursPerTaskDTO(Task task, LocalDate date) {
@@ -91,22 +86,7 @@ public class CompletedEstimatedHoursPerTaskDTO {
     }
 
     public EffortDuration calculateRealHours(Task task, LocalDate date) {
-        EffortDuration result = EffortDuration.zero();
-
-        final List<WorkReportLine> workReportLines = workReportLineDAO
-                .findByOrderElementAndChildren(task.getOrderElement());
-        if ( workReportLines.isEmpty() ) {
-            return result;
-        }
-
-        for (WorkReportLine workReportLine : workReportLines) {
-            final LocalDate workReportLineDate = new LocalDate(workReportLine.getDate());
-            if ( date == null || workReportLineDate.compareTo(date) <= 0 ) {
-                result = EffortDuration.sum(result, workReportLine.getEffort());
-            }
-        }
-
-        return result;
+        return Registry.getDailyChargedEffortDAO().getEffortOfOrderElementAndChildrenUntil(task.getOrderElement(), date);
     }
 
     public Integer getEstimatedHours() {
@@ -37,8 +37,6 @@ import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.planner.entities.DayAssignment.FilterType;
 import org.libreplan.business.planner.entities.Task;
 import org.libreplan.business.workingday.EffortDuration;
-import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
-import org.libreplan.business.workreports.entities.WorkReportLine;
 
 /**
  *
@@ -49,8 +47,6 @@ public class SchedulingProgressPerOrderDTO {
 
     private IOrderDAO orderDAO;
 
-    private IWorkReportLineDAO workReportLineDAO;
-
     private String orderName;
 
     private Integer estimatedHours;
@@ -80,7 +76,6 @@ public class SchedulingProgressPerOrderDTO {
     private Boolean appliedSpreadAdvanceType = Boolean.FALSE;
 
     private SchedulingProgressPerOrderDTO() {
-        workReportLineDAO = Registry.getWorkReportLineDAO();
         orderDAO = Registry.getOrderDAO();
     }
 
@@ -185,18 +180,7 @@ realHours
     }
 
     public EffortDuration calculateRealHours(Order order, LocalDate date) {
-        EffortDuration result = EffortDuration.zero();
-
-        final List<WorkReportLine> workReportLines = workReportLineDAO
-                .findByOrderElementAndChildren(order);
-
-        for (WorkReportLine workReportLine : workReportLines) {
-            final LocalDate workReportLineDate = new LocalDate(workReportLine.getDate());
-            if (date == null || workReportLineDate.compareTo(date) <= 0) {
-                result = EffortDuration.sum(result, workReportLine.getEffort());
-            }
-        }
-        return result;
+        return Registry.getDailyChargedEffortDAO().getEffortOfOrderElementAndChildrenUntil(order, date);
     }
 
     public Integer getEstimatedHours() {
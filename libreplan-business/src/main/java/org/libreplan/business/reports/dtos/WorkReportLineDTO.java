@@ -20,6 +20,7 @@ import java.util.Date;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
+import org.libreplan.business.orders.entities.DailyChargedEffort;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.workingday.EffortDuration;
 import org.libreplan.business.workreports.entities.WorkReportLine;
@@ -51,6 +52,13 @@ public class WorkReportLineDTO {
         this.setSumEffort(EffortDuration.seconds(effortDB.intValue()));
     }
 
+    public WorkReportLineDTO(DailyChargedEffort dailyChargedEffort) {
+        this.setDate(dailyChargedEffort.getDate().toDateTimeAtStartOfDay().toDate());
+        this.setResource(dailyChargedEffort.getResource());
+        this.setTypeOfWorkHours(dailyChargedEffort.getTypeOfWorkHours());
+        this.setSumEffort(dailyChargedEffort.getEffort());
+    }
+
     public void setDate(Date date) {
         this.date = date;
     }
@@ -38,8 +38,6 @@ import org.libreplan.business.planner.entities.DayAssignment.FilterType;
 import org.libreplan.business.planner.entities.Task;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.business.workingday.EffortDuration;
-import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
-import org.libreplan.business.workreports.entities.WorkReportLine;
 
 /**
  *
@@ -71,8 +69,6 @@ public class WorkingArrangementsPerOrderDTO {
         return result;
     }
 
-    private IWorkReportLineDAO workReportLineDAO;
-
     private String orderName;
 
     private Integer estimatedHours;
@@ -100,7 +96,6 @@ public class WorkingArrangementsPerOrderDTO {
     private Boolean advanceTypeDoesNotApply = Boolean.FALSE;
 
     private WorkingArrangementsPerOrderDTO() {
-        workReportLineDAO = Registry.getWorkReportLineDAO();
     }
 
     public WorkingArrangementsPerOrderDTO(Order order, AdvanceType advanceType, LocalDate date) {
@@ -201,18 +196,7 @@ public class WorkingArrangementsPerOrderDTO {
     }
 
     public EffortDuration calculateRealHours(Task task, LocalDate date) {
-        EffortDuration result = EffortDuration.zero();
-
-        final List<WorkReportLine> workReportLines = workReportLineDAO
-                .findByOrderElementAndChildren(task.getOrderElement());
-
-        for (WorkReportLine workReportLine : workReportLines) {
-            final LocalDate workReportLineDate = new LocalDate(workReportLine.getDate());
-            if (date == null || workReportLineDate.compareTo(date) <= 0) {
-                result.plus(workReportLine.getEffort());
-            }
-        }
-        return result;
+        return Registry.getDailyChargedEffortDAO().getEffortOfOrderElementAndChildrenUntil(task.getOrderElement(), date);
     }
 
     public Integer getEstimatedHours() {
@@ -31,8 +31,6 @@ import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.planner.entities.DayAssignment.FilterType;
 import org.libreplan.business.planner.entities.Task;
 import org.libreplan.business.workingday.EffortDuration;
-import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
-import org.libreplan.business.workreports.entities.WorkReportLine;
 
 /**
  *
@@ -41,8 +39,6 @@ import org.libreplan.business.workreports.entities.WorkReportLine;
  */
 public class WorkingProgressPerTaskDTO {
 
-    private IWorkReportLineDAO workReportLineDAO;
-
     private String taskName;
 
     private Integer estimatedHours;
@@ -68,7 +64,6 @@ public class WorkingProgressPerTaskDTO {
     private BigDecimal ratioPlanningDifference;
 
     private WorkingProgressPerTaskDTO() {
-        workReportLineDAO = Registry.getWorkReportLineDAO();
 
     }
 
@@ -125,21 +120,7 @@ public class WorkingProgressPerTaskDTO {
     }
 
     public EffortDuration calculateRealHours(Task task, LocalDate date) {
-        EffortDuration result = EffortDuration.zero();
-
-        final List<WorkReportLine> workReportLines = workReportLineDAO
-                .findByOrderElementAndChildren(task.getOrderElement());
-        if ( workReportLines.isEmpty() ) {
-            return result;
-        }
-
-        for (WorkReportLine workReportLine : workReportLines) {
-            final LocalDate workReportLineDate = new LocalDate(workReportLine.getDate());
-            if ( date == null || workReportLineDate.compareTo(date) <= 0 ) {
-                result = EffortDuration.sum(result, workReportLine.getEffort());
-            }
-        }
-        return result;
+        return Registry.getDailyChargedEffortDAO().getEffortOfOrderElementAndChildrenUntil(task.getOrderElement(), date);
     }
 
     public Integer getEstimatedHours() {
@@ -22,6 +22,7 @@
 package org.libreplan.business.resources.daos;
 
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 
 import org.libreplan.business.common.daos.IIntegrationEntityDAO;
@@ -111,6 +112,30 @@ public interface IResourceDAO extends IIntegrationEntityDAO<Resource> {
             Date startingDate,
             Date endingDate);
 
+    /**
+     * Returns the {@link Resource} with some work report line matching the
+     * same filters as {@link #getWorkingHoursPerWorker(List, List, LabelFilterType, List, Date, Date)},
+     * sorted by name.
+     */
+    List<Resource> getResourcesWithWorkingHours(
+            List<Resource> resources, List<Label> labels,
+            LabelFilterType labelFilterType, List<Criterion> criterions,
+            Date startingDate,
+            Date endingDate);
+
+    /**
+     * Iterates over the {@link HoursWorkedPerResourceDTO} of every one of the
+     * <code>resources</code>, in their order, and then by date. The lines are
+     * read with a scrollable query, so the iterator must be consumed inside
+     * a transaction. The iterator is {@link AutoCloseable}, and it must be
+     * closed if it's not consumed entirely.
+     */
+    Iterator<HoursWorkedPerResourceDTO> iterateWorkingHoursPerWorker(
+            List<Resource> resources, List<Label> labels,
+            LabelFilterType labelFilterType, List<Criterion> criterions,
+            Date startingDate,
+            Date endingDate);
+
     /**
      * Returns all {@link HoursWorkedPerWorkerInAMonthDTO} in year and month
      *
@@ -20,6 +20,8 @@
 package org.libreplan.business.resources.daos;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.resources.entities.Resource;
@@ -77,4 +79,19 @@ public interface IResourceLoadRatiosCalculator {
             LocalDate startDate,
             LocalDate endDate, Scenario scenario);
 
+    /**
+     * Calculates the load ratios of several resources between two dates in
+     * the escenario specified. The effort assigned to all of them is retrieved
+     * at once, so it should be used instead of calling
+     * {@link #calculateLoadRatios(Resource, LocalDate, LocalDate, Scenario)}
+     * for every resource.
+     *
+     * @return the load ratios calculated, in the same order as the resources
+     *         received.
+     */
+    Map<Resource, ILoadRatiosDataType> calculateLoadRatios(
+            Collection<? extends Resource> resources,
+            LocalDate startDate,
+            LocalDate endDate, Scenario scenario);
+
 }
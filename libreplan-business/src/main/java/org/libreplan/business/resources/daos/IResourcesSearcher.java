@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.joda.time.LocalDate;
 import org.libreplan.business.resources.entities.Criterion;
 import org.libreplan.business.resources.entities.CriterionType;
 import org.libreplan.business.resources.entities.Machine;
@@ -60,6 +61,17 @@ public interface IResourcesSearcher {
          */
         IResourcesQuery<T> byCriteria(Collection<? extends Criterion> criteria);
 
+        /**
+         * Only consider the criteria satisfied at some point between
+         * <code>start</code>, inclusive, and <code>end</code>, exclusive, when
+         * restricting by {@link #byCriteria(Collection)}.
+         *
+         * @param start
+         * @param end
+         * @return this same object in order to cascade calls
+         */
+        IResourcesQuery<T> satisfyingCriteriaBetween(LocalDate start, LocalDate end);
+
         /**
          * Restrict resources to the ones having the provided type.
          * By default if this method is not called, the resources are restricted to the type NON_LIMITING_RESOURCE.
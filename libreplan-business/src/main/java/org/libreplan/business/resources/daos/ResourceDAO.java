@@ -22,11 +22,16 @@
 package org.libreplan.business.resources.daos;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.libreplan.business.common.daos.IntegrationEntityDAO;
@@ -41,6 +46,7 @@ import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.resources.entities.Worker;
 import org.libreplan.business.scenarios.IScenarioManager;
 import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.entities.WorkReportLine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
@@ -139,8 +145,161 @@ public class ResourceDAO extends IntegrationEntityDAO<Resource> implements IReso
             Date startingDate,
             Date endingDate) {
 
-        String strQuery =
-                "SELECT new org.libreplan.business.reports.dtos.HoursWorkedPerResourceDTO(resource, wrl) " +
+        Query query = createWorkingHoursPerWorkerQuery(
+                "SELECT new org.libreplan.business.reports.dtos.HoursWorkedPerResourceDTO(resource, wrl) ",
+                "ORDER BY resource.id, wrl.date",
+                resources, labels, labelFilterType, criterions, startingDate, endingDate);
+
+        return query.list();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Resource> getResourcesWithWorkingHours(
+            List<Resource> resources,
+            List<Label> labels,
+            LabelFilterType labelFilterType,
+            List<Criterion> criterions,
+            Date startingDate,
+            Date endingDate) {
+
+        Query query = createWorkingHoursPerWorkerQuery(
+                "SELECT DISTINCT resource ", "",
+                resources, labels, labelFilterType, criterions, startingDate, endingDate);
+
+        List<Resource> result = query.list();
+        result.sort(Comparator.comparing(Resource::getName).thenComparing(Resource::getId));
+
+        return result;
+    }
+
+    @Override
+    public Iterator<HoursWorkedPerResourceDTO> iterateWorkingHoursPerWorker(
+            List<Resource> resources,
+            List<Label> labels,
+            LabelFilterType labelFilterType,
+            List<Criterion> criterions,
+            Date startingDate,
+            Date endingDate) {
+
+        return new WorkingHoursIterator(resources, labels, labelFilterType, criterions, startingDate, endingDate);
+    }
+
+    /**
+     * Scrolls over the work report lines of a resource after another. The
+     * lines loaded are evicted from the session once converted, so only the
+     * lines of the rows being read are kept in memory. Closing it closes the
+     * query being scrolled.
+     */
+    private class WorkingHoursIterator implements Iterator<HoursWorkedPerResourceDTO>, AutoCloseable {
+
+        private static final int FETCH_SIZE = 500;
+
+        private final Iterator<Resource> resources;
+
+        private final List<Label> labels;
+
+        private final LabelFilterType labelFilterType;
+
+        private final List<Criterion> criterions;
+
+        private final Date startingDate;
+
+        private final Date endingDate;
+
+        private ScrollableResults current = null;
+
+        private HoursWorkedPerResourceDTO next = null;
+
+        private WorkingHoursIterator(List<Resource> resources,
+                                     List<Label> labels,
+                                     LabelFilterType labelFilterType,
+                                     List<Criterion> criterions,
+                                     Date startingDate,
+                                     Date endingDate) {
+
+            this.resources = new ArrayList<>(resources).iterator();
+            this.labels = labels;
+            this.labelFilterType = labelFilterType;
+            this.criterions = criterions;
+            this.startingDate = startingDate;
+            this.endingDate = endingDate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ( next == null ) {
+                if ( current != null && current.next() ) {
+                    Object[] row = current.get();
+                    WorkReportLine line = (WorkReportLine) row[1];
+                    next = new HoursWorkedPerResourceDTO((Resource) row[0], line);
+                    evictIfLoadedByTheQuery(line);
+                } else {
+                    closeCurrent();
+                    if ( !resources.hasNext() ) {
+                        return false;
+                    }
+                    current = scrollLinesOf(resources.next());
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * The lines that were already in the session before the query are
+         * not loaded read-only and are kept.
+         */
+        private void evictIfLoadedByTheQuery(WorkReportLine line) {
+            if ( getSession().isReadOnly(line) ) {
+                getSession().evict(line);
+            }
+        }
+
+        private ScrollableResults scrollLinesOf(Resource resource) {
+            return createWorkingHoursPerWorkerQuery("SELECT resource, wrl ", "ORDER BY wrl.date",
+                    Collections.singletonList(resource), labels, labelFilterType, criterions, startingDate, endingDate)
+                    .setReadOnly(true)
+                    .setFetchSize(FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+        }
+
+        @Override
+        public void close() {
+            closeCurrent();
+        }
+
+        private void closeCurrent() {
+            if ( current != null ) {
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public HoursWorkedPerResourceDTO next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            HoursWorkedPerResourceDTO result = next;
+            next = null;
+
+            return result;
+        }
+
+    }
+
+    private Query createWorkingHoursPerWorkerQuery(
+            String select,
+            String orderBy,
+            List<Resource> resources,
+            List<Label> labels,
+            LabelFilterType labelFilterType,
+            List<Criterion> criterions,
+            Date startingDate,
+            Date endingDate) {
+
+        String strQuery = select +
                 "FROM Resource resource, WorkReportLine wrl " +
                 "LEFT OUTER JOIN wrl.resource wrlresource " +
                 "WHERE wrlresource.id = resource.id ";
@@ -203,7 +362,7 @@ public class ResourceDAO extends IntegrationEntityDAO<Resource> implements IReso
         }
 
         // Order by
-        strQuery += "ORDER BY resource.id, wrl.date";
+        strQuery += orderBy;
 
         // Set parameters
         Query query = getSession().createQuery(strQuery);
@@ -227,8 +386,7 @@ public class ResourceDAO extends IntegrationEntityDAO<Resource> implements IReso
             query.setParameterList("criterions", Criterion.withAllDescendants(criterions));
         }
 
-        // Get result
-        return query.list();
+        return query;
     }
 
     @Override
@@ -20,14 +20,23 @@
 package org.libreplan.business.resources.daos;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
+import org.joda.time.Days;
 import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.calendars.entities.CalendarAvailability;
+import org.libreplan.business.calendars.entities.CalendarData;
+import org.libreplan.business.calendars.entities.Capacity;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
 import org.libreplan.business.planner.daos.IDayAssignmentDAO;
-import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.scenarios.entities.Scenario;
 import org.libreplan.business.workingday.EffortDuration;
@@ -119,67 +128,164 @@ public class ResourceLoadRatiosCalculator implements IResourceLoadRatiosCalculat
                                                    final LocalDate startDate,
                                                    final LocalDate endDate,
                                                    final Scenario scenario) {
-        resourceDAO.reattach(resource);
 
+        return calculateLoadRatios(Collections.singletonList(resource), startDate, endDate, scenario).get(resource);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Resource, ILoadRatiosDataType> calculateLoadRatios(Collection<? extends Resource> resources,
+                                                                  LocalDate startDate,
+                                                                  LocalDate endDate,
+                                                                  Scenario scenario) {
+
+        Set<Long> resourceIds = new HashSet<>();
+        for (Resource each : resources) {
+            resourceDAO.reattach(each);
+            if (each.getId() != null) {
+                resourceIds.add(each.getId());
+            }
+        }
+
+        Map<Long, Map<LocalDate, EffortDuration>> effortPerResource =
+                dayAssignmentDAO.sumEffortByResourceAndDay(scenario, startDate, endDate, resourceIds);
+
+        Map<InheritedCapacityKey, CompiledCapacity> capacities = new HashMap<>();
+        Map<Resource, ILoadRatiosDataType> result = new LinkedHashMap<>();
+
+        for (Resource each : resources) {
+            InheritedCapacityKey key = InheritedCapacityKey.of(each.getCalendar(), startDate, endDate);
+            CompiledCapacity capacity = key != null ? capacities.get(key) : null;
+            if (capacity == null) {
+                capacity = new CompiledCapacity(each.getCalendar(), startDate, endDate);
+                if (key != null) {
+                    capacities.put(key, capacity);
+                }
+            }
+
+            Map<LocalDate, EffortDuration> efforts = effortPerResource.get(each.getId());
+            result.put(each, calculateLoadRatios(
+                    efforts != null ? efforts : Collections.<LocalDate, EffortDuration> emptyMap(), capacity));
+        }
+
+        return result;
+    }
+
+    private ILoadRatiosDataType calculateLoadRatios(Map<LocalDate, EffortDuration> efforts,
+                                                    CompiledCapacity capacity) {
         EffortDuration
                 totalLoad = EffortDuration.zero(),
-                totalOverload = EffortDuration.zero(),
-                totalCapacity;
+                totalOverload = EffortDuration.zero();
 
-        Set<Map.Entry<LocalDate, EffortDuration>> efforts =
-                getAllEffortPerDateFor(scenario, startDate, endDate, resource).entrySet();
-
-        for (Map.Entry<LocalDate, EffortDuration> each : efforts) {
+        for (Map.Entry<LocalDate, EffortDuration> each : efforts.entrySet()) {
             totalLoad = totalLoad.plus(each.getValue());
-            totalOverload = addOverload(totalOverload, resource, each.getValue(), each.getKey());
-        }
 
-        totalCapacity = calculateTotalCapacity(resource, startDate, endDate);
+            EffortDuration capacityAtDay = capacity.getCapacityOn(each.getKey());
+            if (capacityAtDay.compareTo(each.getValue()) < 0) {
+                totalOverload = totalOverload.plus(each.getValue().minus(capacityAtDay));
+            }
+        }
 
-        return new LoadRatiosDataType(totalLoad, totalOverload, totalCapacity);
+        return new LoadRatiosDataType(totalLoad, totalOverload, capacity.getTotal());
     }
 
-    private Map<LocalDate, EffortDuration> getAllEffortPerDateFor(
-            Scenario scenario, LocalDate startDate, LocalDate endDate, Resource resource) {
+    /**
+     * Identifies the capacity of the resource calendars that take everything
+     * from their parent in an interval: they don't have exceptions nor
+     * capacities of their own, a single parent and they are active in the
+     * whole interval. Those calendars only differ in the number of units, so
+     * the calendars of the same parent share the compiled capacity.
+     */
+    private static class InheritedCapacityKey {
+
+        private static InheritedCapacityKey of(ResourceCalendar calendar, LocalDate start, LocalDate endInclusive) {
+            if (calendar == null || !calendar.getOwnExceptions().isEmpty()
+                    || calendar.getCalendarDataVersions().size() != 1
+                    || !isActiveInWholeInterval(calendar, start, endInclusive)) {
+                return null;
+            }
+
+            CalendarData data = calendar.getCalendarDataVersions().get(0);
+            for (Capacity each : data.getCapacityPerDay().values()) {
+                if (each != null) {
+                    return null;
+                }
+            }
+
+            return data.getParent() != null ? new InheritedCapacityKey(data.getParent(), calendar.getCapacity()) : null;
+        }
 
-        HashMap<LocalDate, EffortDuration> result;
-        result = new HashMap<>();
+        private static boolean isActiveInWholeInterval(BaseCalendar calendar, LocalDate start, LocalDate endInclusive) {
+            if (calendar.getCalendarAvailabilities().isEmpty()) {
+                return true;
+            }
 
-        List<DayAssignment> l = dayAssignmentDAO.getAllFor(scenario, startDate, endDate, resource);
+            for (CalendarAvailability each : calendar.getCalendarAvailabilities()) {
+                if (each.isActive(start) && each.isActive(endInclusive)) {
+                    return true;
+                }
+            }
 
-        EffortDuration newValue;
+            return false;
+        }
 
-        for (DayAssignment each : l) {
-            if (result.containsKey(each.getDay())) {
-                newValue = result.get(each.getDay()).plus(each.getDuration());
-            } else {
-                newValue = each.getDuration();
+        private final BaseCalendar parent;
+
+        private final int units;
+
+        private InheritedCapacityKey(BaseCalendar parent, int units) {
+            this.parent = parent;
+            this.units = units;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof InheritedCapacityKey)) {
+                return false;
             }
-            result.put(each.getDay(), newValue);
+            InheritedCapacityKey other = (InheritedCapacityKey) obj;
+
+            return parent == other.parent && units == other.units;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(parent), units);
         }
-        return result;
-    }
 
-    private EffortDuration calculateTotalCapacity(Resource resource, LocalDate startDate, LocalDate endDate) {
-        return resource.getCalendar().getWorkableDuration(startDate, endDate);
     }
 
-    private EffortDuration addOverload(
-            EffortDuration currentOverload, Resource resource, EffortDuration loadAtDate, LocalDate date) {
+    /**
+     * Capacity of a calendar for every day of an interval, so the calendar is
+     * only evaluated once per day no matter how many times it is asked.
+     */
+    private static class CompiledCapacity {
+
+        private final LocalDate start;
+
+        private final EffortDuration[] capacityPerDay;
+
+        private final EffortDuration total;
 
-        EffortDuration result;
-        EffortDuration capacityAtDay = getCapacityAtDate(resource, date);
+        private CompiledCapacity(ResourceCalendar calendar, LocalDate start, LocalDate endInclusive) {
+            this.start = start;
+            this.capacityPerDay = new EffortDuration[Math.max(0, Days.daysBetween(start, endInclusive).getDays() + 1)];
 
-        if (capacityAtDay.compareTo(loadAtDate) < 0) {
-            result = currentOverload.plus(loadAtDate.minus(capacityAtDay));
-        } else {
-            result = currentOverload;
+            EffortDuration sum = EffortDuration.zero();
+            for (int i = 0; i < capacityPerDay.length; i++) {
+                capacityPerDay[i] = calendar.getCapacityOn(PartialDay.wholeDay(start.plusDays(i)));
+                sum = sum.plus(capacityPerDay[i]);
+            }
+            this.total = sum;
         }
 
-        return result;
-    }
+        private EffortDuration getCapacityOn(LocalDate day) {
+            return capacityPerDay[Days.daysBetween(start, day).getDays()];
+        }
+
+        private EffortDuration getTotal() {
+            return total;
+        }
 
-    private EffortDuration getCapacityAtDate(Resource resource, LocalDate date) {
-        return resource.getCalendar().getCapacityOn(PartialDay.wholeDay(date));
     }
-}
\ No newline at end of file
+}
@@ -22,13 +22,17 @@
 package org.libreplan.business.resources.daos;
 
 import static org.hibernate.criterion.Restrictions.eq;
+import static org.hibernate.criterion.Restrictions.gt;
 import static org.hibernate.criterion.Restrictions.ilike;
 import static org.hibernate.criterion.Restrictions.in;
+import static org.hibernate.criterion.Restrictions.isNull;
 import static org.hibernate.criterion.Restrictions.like;
+import static org.hibernate.criterion.Restrictions.lt;
 import static org.hibernate.criterion.Restrictions.or;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -41,9 +45,14 @@ import org.apache.commons.logging.LogFactory;
 import org.hibernate.Criteria;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Subqueries;
+import org.joda.time.LocalDate;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.CriterionSatisfaction;
 import org.libreplan.business.resources.entities.CriterionType;
 import org.libreplan.business.resources.entities.Machine;
 import org.libreplan.business.resources.entities.Resource;
@@ -90,6 +99,10 @@ public class ResourcesSearcher implements IResourcesSearcher {
 
         private ResourceType type = ResourceType.NON_LIMITING_RESOURCE;
 
+        private LocalDate satisfiedFrom = null;
+
+        private LocalDate satisfiedUntil = null;
+
         public Query(Class<T> klass) {
             this.klass = klass;
         }
@@ -108,6 +121,15 @@ public class ResourcesSearcher implements IResourcesSearcher {
             return this;
         }
 
+        @Override
+        public IResourcesQuery<T> satisfyingCriteriaBetween(LocalDate start, LocalDate end) {
+            Validate.notNull(start);
+            Validate.notNull(end);
+            this.satisfiedFrom = start;
+            this.satisfiedUntil = end;
+            return this;
+        }
+
         @Override
         public IResourcesQuery<T> byResourceType(ResourceType type) {
             this.type = type;
@@ -128,18 +150,38 @@ public class ResourcesSearcher implements IResourcesSearcher {
             Criteria result = session.createCriteria(klass);
             result.add(eq("resourceType", type));
             addQueryByName(result);
-            addFindRelatedWithSomeOfTheCriterions(result);
-            result.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+            addFindRelatedWithAllTheCriterions(result);
 
             return result;
         }
 
-        private void addFindRelatedWithSomeOfTheCriterions(Criteria criteria) {
+        /**
+         * Only the resources with some satisfaction of every criterion, or of
+         * one of its descendants, are retrieved. If the satisfactions overlap
+         * in time is checked afterwards, but only for these resources.
+         */
+        private void addFindRelatedWithAllTheCriterions(Criteria criteria) {
             if ( !criteriaSpecified() ) {
                 return;
             }
-            criteria.createCriteria("criterionSatisfactions")
-                    .add(in("criterion", Criterion.withAllDescendants(this.criteria)));
+            for (Criterion each : this.criteria) {
+                criteria.add(Subqueries.propertyIn("id", resourcesWithSatisfactionsOf(each)));
+            }
+        }
+
+        private DetachedCriteria resourcesWithSatisfactionsOf(Criterion criterion) {
+            DetachedCriteria result = DetachedCriteria.forClass(CriterionSatisfaction.class)
+                    .setProjection(Projections.property("resource.id"))
+                    .add(in("criterion", Criterion.withAllDescendants(Collections.singleton(criterion))))
+                    // A null isDeleted is taken as not deleted, like CriterionSatisfaction does
+                    .add(or(isNull("isDeleted"), eq("isDeleted", false)));
+
+            if ( satisfiedFrom != null ) {
+                result.add(lt("startDate", satisfiedUntil))
+                        .add(or(isNull("finishDate"), gt("finishDate", satisfiedFrom)));
+            }
+
+            return result;
         }
 
         private boolean criteriaSpecified() {
@@ -171,7 +213,7 @@ public class ResourcesSearcher implements IResourcesSearcher {
             }
             List<T> result = new ArrayList<>();
             for (T each : resources) {
-                if ( each.satisfiesCriterionsAtSomePoint(criteria) ) {
+                if ( satisfiesCriteria(each) ) {
                     result.add(each);
                 }
             }
@@ -179,6 +221,14 @@ public class ResourcesSearcher implements IResourcesSearcher {
             return result;
         }
 
+        private boolean satisfiesCriteria(T resource) {
+            if ( satisfiedFrom != null ) {
+                return resource.satisfiesCriterionsAtSomePointBetween(criteria, satisfiedFrom, satisfiedUntil);
+            }
+
+            return resource.satisfiesCriterionsAtSomePoint(criteria);
+        }
+
         @Override
         public Map<CriterionType, Set<Criterion>> getCriteria() {
             return adHocTransactionService.runOnReadOnlyTransaction(getCriterionsTree(klass));
@@ -222,6 +272,13 @@ public class ResourcesSearcher implements IResourcesSearcher {
                 return this;
             }
 
+            @Override
+            public IResourcesQuery<Resource> satisfyingCriteriaBetween(LocalDate start, LocalDate end) {
+                searchWorkers.satisfyingCriteriaBetween(start, end);
+                searchMachines.satisfyingCriteriaBetween(start, end);
+                return this;
+            }
+
             @Override
             public IResourcesQuery<Resource> byResourceType(ResourceType type) {
                 searchWorkers.byResourceType(type);
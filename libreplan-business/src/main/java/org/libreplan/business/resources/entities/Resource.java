@@ -61,6 +61,7 @@ import org.libreplan.business.costcategories.entities.CostCategory;
 import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
 import org.libreplan.business.planner.entities.AvailabilityCalculator;
 import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.planner.entities.DayAssignment.DayLoad;
 import org.libreplan.business.planner.entities.ResourceAllocation;
 import org.libreplan.business.resources.daos.IResourceDAO;
 import org.libreplan.business.scenarios.entities.Scenario;
@@ -135,6 +136,8 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
 
     private Map<LocalDate, List<DayAssignment>> assignmentsByDayCached = null;
 
+    private Map<LocalDate, DayLoad> loadByDayCached = null;
+
     private Set<ResourcesCostCategoryAssignment> resourcesCostCategoryAssignments =
             new HashSet<ResourcesCostCategoryAssignment>();
 
@@ -144,6 +147,7 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
 
     private void clearCachedData() {
         assignmentsByDayCached = null;
+        loadByDayCached = null;
         dayAssignmentsState.clearCachedData();
     }
 
@@ -851,14 +855,12 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
             Map<Long, Set<BaseEntity>> allocationsFromWhichDiscountHours,
             LocalDate day) {
 
-        EffortDuration result = zero();
-        for (DayAssignment dayAssignment : getAssignmentsForDay(day)) {
-
-            if ( !dayAssignment.belongsToSomeOf(allocationsFromWhichDiscountHours) ) {
-                result = result.plus(dayAssignment.getDuration());
-            }
+        if ( loadByDayCached == null ) {
+            loadByDayCached = DayAssignment.loadByDay(getAssignments());
         }
-        return result;
+        DayLoad load = loadByDayCached.get(day);
+
+        return load == null ? zero() : load.discounting(allocationsFromWhichDiscountHours);
     }
 
     public void addNewAssignments(Collection<? extends DayAssignment> assignments) {
@@ -880,6 +882,7 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
 
     public void useScenario(Scenario scenario) {
         dayAssignmentsState = new OnSpecifiedScenario(scenario);
+        clearCachedData();
     }
 
     public int getTotalWorkHours(LocalDate start, LocalDate end) {
@@ -999,6 +1002,22 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
         return !availability.getValidPeriods().isEmpty();
     }
 
+    /**
+     * @return if all the <code>criterions</code> are satisfied at the same
+     *         time at some point in the range from <code>start</code>,
+     *         inclusive, to <code>end</code>, exclusive
+     */
+    public boolean satisfiesCriterionsAtSomePointBetween(Collection<? extends Criterion> criterions,
+                                                         LocalDate start,
+                                                         LocalDate end) {
+        AvailabilityTimeLine range = AvailabilityTimeLine.allValid();
+        range.invalidUntil(start);
+        range.invalidFrom(end);
+        AvailabilityTimeLine availability = AvailabilityCalculator.getCriterionsAvailabilityFor(criterions, this);
+
+        return !availability.and(range).getValidPeriods().isEmpty();
+    }
+
     @Valid
     public Set<ResourcesCostCategoryAssignment> getResourcesCostCategoryAssignments() {
         return resourcesCostCategoryAssignments;
@@ -0,0 +1,266 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Immutable index to find the items whose texts contain a filter, ignoring
+ * case and whitespace.
+ *
+ * The texts are normalized once when the index is built and every substring
+ * of up to {@link #GRAM_LENGTH} characters is mapped to the positions of the
+ * items containing it. Filters that are not longer than that are answered
+ * directly from the map. For longer ones only the items containing its least
+ * frequent substring are checked. The items are always returned in the order
+ * they were added.
+ */
+public class SearchIndex<T> {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int[] NONE = new int[0];
+
+    /**
+     * Lower cases the text and removes all its whitespace.
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : StringUtils.deleteWhitespace(text.toLowerCase());
+    }
+
+    public static <T> SearchIndex<T> create(Collection<? extends T> items, Function<? super T, String> text) {
+        Builder<T> builder = builder();
+        for (T each : items) {
+            builder.add(each, text.apply(each));
+        }
+
+        return builder.build();
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public static class Builder<T> {
+
+        private final List<T> items = new ArrayList<>();
+
+        private final List<String[]> texts = new ArrayList<>();
+
+        private final Map<String, IntList> postings = new HashMap<>();
+
+        private final Map<String, IntList> exact = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an item that is found when any of its <code>texts</code>
+         * contains the filter.
+         */
+        public Builder<T> add(T item, String... texts) {
+            int position = items.size();
+            String[] normalized = new String[texts.length];
+
+            for (int i = 0; i < texts.length; i++) {
+                normalized[i] = normalize(texts[i]);
+                addGrams(position, normalized[i]);
+                addTo(exact, normalized[i], position);
+            }
+
+            items.add(item);
+            this.texts.add(normalized);
+
+            return this;
+        }
+
+        private void addGrams(int position, String text) {
+            for (int start = 0; start < text.length(); start++) {
+                int maxEnd = Math.min(start + GRAM_LENGTH, text.length());
+                for (int end = start + 1; end <= maxEnd; end++) {
+                    addTo(postings, text.substring(start, end), position);
+                }
+            }
+        }
+
+        private static void addTo(Map<String, IntList> map, String key, int position) {
+            IntList list = map.get(key);
+            if (list == null) {
+                list = new IntList();
+                map.put(key, list);
+            }
+            list.addIfNotLast(position);
+        }
+
+        public SearchIndex<T> build() {
+            return new SearchIndex<>(items, texts, toArrays(postings), toArrays(exact));
+        }
+
+        private static Map<String, int[]> toArrays(Map<String, IntList> map) {
+            Map<String, int[]> result = new HashMap<>();
+            for (Entry<String, IntList> each : map.entrySet()) {
+                result.put(each.getKey(), each.getValue().toArray());
+            }
+
+            return result;
+        }
+
+    }
+
+    /**
+     * Growable list of positions, kept ascending as the items are added in
+     * order.
+     */
+    private static class IntList {
+
+        private int[] values = new int[4];
+
+        private int size = 0;
+
+        void addIfNotLast(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+    }
+
+    private final List<T> items;
+
+    private final List<String[]> texts;
+
+    private final Map<String, int[]> postings;
+
+    private final Map<String, int[]> exact;
+
+    private SearchIndex(List<T> items, List<String[]> texts, Map<String, int[]> postings, Map<String, int[]> exact) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.texts = new ArrayList<>(texts);
+        this.postings = postings;
+        this.exact = exact;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @return all the items with some text containing <code>filter</code>
+     */
+    public List<T> find(String filter) {
+        return find(filter, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the first <code>limit</code> items with some text containing
+     *         <code>filter</code>. If the filter is empty the first items are
+     *         returned.
+     */
+    public List<T> find(String filter, int limit) {
+        String normalized = normalize(filter);
+        if (normalized.isEmpty()) {
+            return items.subList(0, Math.min(limit, items.size()));
+        }
+
+        if (normalized.length() <= GRAM_LENGTH) {
+            return itemsAt(postingsOf(normalized), limit);
+        }
+
+        List<T> result = new ArrayList<>();
+        for (int each : leastFrequentGramPostings(normalized)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (anyContains(texts.get(each), normalized)) {
+                result.add(items.get(each));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the items with some text equal to <code>filter</code>
+     */
+    public List<T> findExactly(String filter) {
+        int[] positions = exact.get(normalize(filter));
+
+        return itemsAt(positions != null ? positions : NONE, Integer.MAX_VALUE);
+    }
+
+    private int[] postingsOf(String gram) {
+        int[] result = postings.get(gram);
+
+        return result != null ? result : NONE;
+    }
+
+    private int[] leastFrequentGramPostings(String normalized) {
+        int[] result = null;
+        for (int start = 0; start + GRAM_LENGTH <= normalized.length(); start++) {
+            int[] each = postingsOf(normalized.substring(start, start + GRAM_LENGTH));
+            if (result == null || each.length < result.length) {
+                result = each;
+            }
+            if (result.length == 0) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    private List<T> itemsAt(int[] positions, int limit) {
+        List<T> result = new ArrayList<>(Math.min(limit, positions.length));
+        for (int i = 0; i < positions.length && result.size() < limit; i++) {
+            result.add(items.get(positions[i]));
+        }
+
+        return result;
+    }
+
+    private static boolean anyContains(String[] texts, String filter) {
+        for (String each : texts) {
+            if (each.contains(filter)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
@@ -106,4 +106,17 @@ public class EffortDurationType implements UserType {
         return original;
     }
 
+    /**
+     * Converts the result of a <code>sum</code> over a column of this type.
+     * Depending on the dialect it is returned as an {@link EffortDuration} or
+     * as a number of seconds. A <code>null</code> sum is taken as zero.
+     */
+    public static EffortDuration fromSum(Object sum) {
+        if (sum == null) {
+            return EffortDuration.zero();
+        }
+        return sum instanceof EffortDuration ? (EffortDuration) sum
+                : EffortDuration.seconds(((Number) sum).intValue());
+    }
+
 }
@@ -23,8 +23,12 @@ package org.libreplan.business.workreports.daos;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.joda.time.LocalDate;
 import org.libreplan.business.common.daos.IIntegrationEntityDAO;
+import org.libreplan.business.orders.entities.DailyChargedEffort;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.reports.dtos.WorkReportLineDTO;
 import org.libreplan.business.resources.entities.Resource;
@@ -51,6 +55,11 @@ public interface IWorkReportLineDAO extends
 
     List<WorkReportLine> findByResources(List<Resource> resourcesList);
 
+    /**
+     * Returns the effort charged to the <code>orderElement</code> per
+     * resource, type of work hours and date. It is read from the
+     * {@link DailyChargedEffort} objects instead of the lines.
+     */
     List<WorkReportLineDTO> findByOrderElementGroupByResourceAndHourTypeAndDate(
             OrderElement orderElement);
 
@@ -84,4 +93,11 @@ public interface IWorkReportLineDAO extends
     List<WorkReportLine> findByOrderElementAndChildrenFilteredByDate(
             OrderElement orderElement, Date start, Date end, boolean sortByDate);
 
+    /**
+     * Returns, for every resource with personal timesheet lines between
+     * <code>start</code> and <code>end</code> (both inclusive), the days with
+     * some line. The map is indexed by the id of the resource.
+     */
+    Map<Long, Set<LocalDate>> findDaysWithPersonalTimesheetData(LocalDate start, LocalDate end);
+
 }
@@ -25,18 +25,27 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.hibernate.Criteria;
 import org.hibernate.Query;
 import org.hibernate.criterion.Restrictions;
+import org.joda.time.LocalDate;
 import org.libreplan.business.common.daos.IntegrationEntityDAO;
+import org.libreplan.business.orders.daos.IDailyChargedEffortDAO;
+import org.libreplan.business.orders.entities.DailyChargedEffort;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.reports.dtos.WorkReportLineDTO;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.util.Pair;
+import org.libreplan.business.workreports.entities.PredefinedWorkReportTypes;
 import org.libreplan.business.workreports.entities.WorkReport;
 import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Repository;
@@ -55,6 +64,9 @@ import org.springframework.transaction.annotation.Transactional;
 public class WorkReportLineDAO extends IntegrationEntityDAO<WorkReportLine>
         implements IWorkReportLineDAO {
 
+    @Autowired
+    private IDailyChargedEffortDAO dailyChargedEffortDAO;
+
     @SuppressWarnings("unchecked")
     @Override
     public List<WorkReportLine> findByOrderElement(OrderElement orderElement){
@@ -63,23 +75,15 @@ public class WorkReportLineDAO extends IntegrationEntityDAO<WorkReportLine>
         return (List<WorkReportLine>) c.list();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public List<WorkReportLineDTO> findByOrderElementGroupByResourceAndHourTypeAndDate(
             OrderElement orderElement) {
 
-        String strQuery = "SELECT new org.libreplan.business.reports.dtos.WorkReportLineDTO(wrl.resource, wrl.typeOfWorkHours, wrl.date, SUM(wrl.effort)) "
-                + "FROM WorkReportLine wrl "
-                + "LEFT OUTER JOIN wrl.orderElement orderElement "
-                + "WHERE orderElement = :orderElement "
-                + "GROUP BY wrl.resource, wrl.typeOfWorkHours, wrl.date "
-                + "ORDER BY wrl.resource, wrl.typeOfWorkHours, wrl.date";
-
-        // Set parameters
-        Query query = getSession().createQuery(strQuery);
-        query.setParameter("orderElement", orderElement);
-
-        return (List<WorkReportLineDTO>) query.list();
+        List<WorkReportLineDTO> result = new ArrayList<WorkReportLineDTO>();
+        for (DailyChargedEffort each : dailyChargedEffortDAO.findByOrderElement(orderElement)) {
+            result.add(new WorkReportLineDTO(each));
+        }
+        return result;
     }
 
     @Override
@@ -245,4 +249,30 @@ public class WorkReportLineDAO extends IntegrationEntityDAO<WorkReportLine>
 
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Long, Set<LocalDate>> findDaysWithPersonalTimesheetData(LocalDate start, LocalDate end) {
+        String strQuery = "SELECT wrl.resource.id, wrl.date " +
+                "FROM WorkReportLine wrl " +
+                "WHERE wrl.workReport.workReportType.name = :type " +
+                "AND wrl.date >= :start AND wrl.date < :end " +
+                "GROUP BY wrl.resource.id, wrl.date";
+
+        Query query = getSession().createQuery(strQuery);
+        query.setParameter("type", PredefinedWorkReportTypes.PERSONAL_TIMESHEETS.getName());
+        query.setParameter("start", start.toDateTimeAtStartOfDay().toDate());
+        query.setParameter("end", end.plusDays(1).toDateTimeAtStartOfDay().toDate());
+
+        Map<Long, Set<LocalDate>> result = new HashMap<>();
+        for (Object[] each : (List<Object[]>) query.list()) {
+            Long resourceId = (Long) each[0];
+            if (!result.containsKey(resourceId)) {
+                result.put(resourceId, new HashSet<>());
+            }
+            result.get(resourceId).add(LocalDate.fromDateFields((Date) each[1]));
+        }
+
+        return result;
+    }
+
 }
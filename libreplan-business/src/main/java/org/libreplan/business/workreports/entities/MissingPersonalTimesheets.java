@@ -0,0 +1,105 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.workreports.entities;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.LocalDate;
+import org.libreplan.business.common.entities.PersonalTimesheetsPeriodicityEnum;
+
+/**
+ * Computes which personal timesheets are missing for a set of resources.
+ *
+ * A personal timesheet is considered missing when the resource has effort
+ * assigned on some day of the period but there is no personal timesheet data
+ * for any day of it. Everything is calculated from the days returned by
+ * grouped queries, so no {@link WorkReport} has to be loaded.
+ */
+public class MissingPersonalTimesheets {
+
+    /**
+     * Returns the start of the window to look for missing personal
+     * timesheets: the start of the period <code>periods</code> periods before
+     * the one containing <code>today</code>.
+     */
+    public static LocalDate getLookBackStart(PersonalTimesheetsPeriodicityEnum periodicity,
+                                             LocalDate today, int periods) {
+        Validate.isTrue(periods >= 0);
+
+        LocalDate result = periodicity.getStart(today);
+        for (int i = 0; i < periods; i++) {
+            result = periodicity.previous(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * @param daysWithAssignedEffort
+     *            days with effort assigned, indexed by resource id
+     * @param daysWithTimesheetData
+     *            days with personal timesheet data, indexed by resource id
+     * @return the start dates of the periods without personal timesheet data,
+     *         indexed by resource id. Resources without missing personal
+     *         timesheets are not included.
+     */
+    public static Map<Long, SortedSet<LocalDate>> find(
+            PersonalTimesheetsPeriodicityEnum periodicity,
+            Map<Long, ? extends Collection<LocalDate>> daysWithAssignedEffort,
+            Map<Long, ? extends Collection<LocalDate>> daysWithTimesheetData) {
+
+        Map<Long, SortedSet<LocalDate>> result = new HashMap<>();
+
+        for (Entry<Long, ? extends Collection<LocalDate>> each : daysWithAssignedEffort.entrySet()) {
+            SortedSet<LocalDate> missing = periodStarts(periodicity, each.getValue());
+
+            Collection<LocalDate> reported = daysWithTimesheetData.get(each.getKey());
+            if (reported != null) {
+                missing.removeAll(periodStarts(periodicity, reported));
+            }
+
+            if (!missing.isEmpty()) {
+                result.put(each.getKey(), missing);
+            }
+        }
+
+        return result;
+    }
+
+    private static SortedSet<LocalDate> periodStarts(PersonalTimesheetsPeriodicityEnum periodicity,
+                                                     Collection<LocalDate> days) {
+        SortedSet<LocalDate> result = new TreeSet<>();
+        for (LocalDate each : days) {
+            result.add(periodicity.getStart(each));
+        }
+
+        return result;
+    }
+
+    private MissingPersonalTimesheets() {
+    }
+
+}
@@ -21,6 +21,7 @@
 
 package org.libreplan.business.common;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
@@ -36,6 +37,8 @@ import org.libreplan.business.common.entities.EntityNameEnum;
 import org.libreplan.business.common.entities.EntitySequence;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.common.exceptions.ValidationException;
+import org.libreplan.business.labels.daos.ILabelTypeDAO;
+import org.libreplan.business.labels.entities.LabelType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -54,13 +57,22 @@ public class EntitySequenceTest {
     @Autowired
     IEntitySequenceDAO entitySequenceDAO;
 
+    @Autowired
+    ILabelTypeDAO labelTypeDAO;
+
+    @Autowired
+    IAdHocTransactionService transactionService;
+
     @Before
     public void loadRequiredData() {
-        for (EntitySequence sequence : entitySequenceDAO.getAll()) {
-            try {
-                entitySequenceDAO.remove(sequence.getId());
-            } catch (InstanceNotFoundException ignored) {}
-        }
+        transactionService.runOnTransaction(() -> {
+            for (EntitySequence sequence : entitySequenceDAO.getAll()) {
+                try {
+                    entitySequenceDAO.remove(sequence.getId());
+                } catch (InstanceNotFoundException ignored) {}
+            }
+            return null;
+        });
     }
 
     @Test
@@ -199,6 +211,167 @@ public class EntitySequenceTest {
         }
     }
 
+    @Test
+    @Transactional
+    public void testNextEntityCodeSkipsTheCodesInUse() {
+        String prefix = "prefix" + UUID.randomUUID().toString().substring(0, 8);
+        entitySequenceDAO.save(givenEntitySequence(prefix, EntityNameEnum.LABEL, true));
+
+        labelTypeDAO.save(LabelType.create(prefix + "0001", "label-type-" + UUID.randomUUID()));
+        labelTypeDAO.save(LabelType.create(prefix + "0002", "label-type-" + UUID.randomUUID()));
+
+        assertEquals(prefix + "0003", entitySequenceDAO.getNextEntityCodeWithoutTransaction(EntityNameEnum.LABEL));
+        assertEquals(prefix + "0004", entitySequenceDAO.getNextEntityCodeWithoutTransaction(EntityNameEnum.LABEL));
+    }
+
+    @Test
+    @Transactional
+    public void testNextEntityCodeOfOrders() {
+        String prefix = "prefix" + UUID.randomUUID().toString().substring(0, 8);
+        entitySequenceDAO.save(givenEntitySequence(prefix, EntityNameEnum.ORDER, true));
+
+        assertEquals(prefix + "0001", entitySequenceDAO.getNextEntityCodeWithoutTransaction(EntityNameEnum.ORDER));
+    }
+
+    @Test
+    public void testReservedCodesAreKeptUntilAnotherSequenceIsActivated() {
+        final String prefix = "prefix" + UUID.randomUUID().toString().substring(0, 8);
+        final Long id = saveOnTransaction(givenEntitySequence(prefix, EntityNameEnum.LABEL, true));
+        Long otherId = null;
+
+        try {
+            assertEquals(prefix + "0001", entitySequenceDAO.getNextEntityCode(EntityNameEnum.LABEL));
+
+            transactionService.runOnTransaction(() -> {
+                entitySequenceDAO.save(entitySequenceDAO.findExistingEntity(id));
+                return null;
+            });
+            assertEquals(prefix + "0002", entitySequenceDAO.getNextEntityCode(EntityNameEnum.LABEL));
+
+            transactionService.runOnTransaction(() -> {
+                EntitySequence sequence = entitySequenceDAO.findExistingEntity(id);
+                sequence.setActive(false);
+                entitySequenceDAO.save(sequence);
+                return null;
+            });
+            String otherPrefix = "other" + UUID.randomUUID().toString().substring(0, 8);
+            otherId = saveOnTransaction(givenEntitySequence(otherPrefix, EntityNameEnum.LABEL, true));
+            assertEquals(otherPrefix + "0001", entitySequenceDAO.getNextEntityCode(EntityNameEnum.LABEL));
+
+        } finally {
+            removeOnTransaction(id);
+            if ( otherId != null ) {
+                removeOnTransaction(otherId);
+            }
+        }
+    }
+
+    @Test
+    public void testReservedCodesGivenInTheMeantimeAreSkipped() {
+        final String prefix = "prefix" + UUID.randomUUID().toString().substring(0, 8);
+        final Long id = saveOnTransaction(givenEntitySequence(prefix, EntityNameEnum.LABEL, true));
+        Long labelTypeId = null;
+
+        try {
+            assertEquals(prefix + "0001", entitySequenceDAO.getNextEntityCode(EntityNameEnum.LABEL));
+
+            labelTypeId = transactionService.runOnTransaction(() -> {
+                LabelType labelType = LabelType.create(prefix + "0002", "label-type-" + UUID.randomUUID());
+                labelTypeDAO.save(labelType);
+                assertEquals(prefix + "0003", entitySequenceDAO.getNextEntityCode(EntityNameEnum.LABEL));
+                return labelType.getId();
+            });
+
+        } finally {
+            if ( labelTypeId != null ) {
+                final Long labelTypeToRemove = labelTypeId;
+                transactionService.runOnTransaction(() -> {
+                    try {
+                        labelTypeDAO.remove(labelTypeToRemove);
+                    } catch (InstanceNotFoundException ignored) {}
+                    return null;
+                });
+            }
+            removeOnTransaction(id);
+        }
+    }
+
+    @Test
+    public void testBothWaysOfGettingCodesCanBeUsedInTheSameTransaction() {
+        final String prefix = "prefix" + UUID.randomUUID().toString().substring(0, 8);
+        final Long id = saveOnTransaction(givenEntitySequence(prefix, EntityNameEnum.LABEL, true));
+
+        try {
+            transactionService.runOnTransaction(() -> {
+                assertEquals(prefix + "0001",
+                        entitySequenceDAO.getNextEntityCodeWithoutTransaction(EntityNameEnum.LABEL));
+                assertEquals(prefix + "0002", entitySequenceDAO.getNextEntityCode(EntityNameEnum.LABEL));
+                return null;
+            });
+
+        } finally {
+            removeOnTransaction(id);
+        }
+    }
+
+    @Test
+    public void testReservedCodesDoNotOverflowTheNumberOfDigits() {
+        String prefix = "prefix" + UUID.randomUUID().toString().substring(0, 8);
+        EntitySequence sequence = EntitySequence.create(prefix, EntityNameEnum.LABEL, 2);
+        sequence.setActive(true);
+        Long id = saveOnTransaction(sequence);
+
+        try {
+            for (int i = 1; i <= 99; i++) {
+                entitySequenceDAO.getNextEntityCode(EntityNameEnum.LABEL);
+            }
+            try {
+                entitySequenceDAO.getNextEntityCode(EntityNameEnum.LABEL);
+                fail("There are no values left for two digits");
+            } catch (IllegalStateException e) {
+                // Ok
+            }
+
+        } finally {
+            removeOnTransaction(id);
+        }
+    }
+
+    @Test
+    @Transactional
+    public void testCodesDoNotOverflowTheNumberOfDigits() {
+        String prefix = "prefix" + UUID.randomUUID().toString().substring(0, 8);
+        EntitySequence sequence = EntitySequence.create(prefix, EntityNameEnum.LABEL, 2);
+        sequence.setActive(true);
+        entitySequenceDAO.save(sequence);
+
+        for (int i = 1; i <= 99; i++) {
+            entitySequenceDAO.getNextEntityCodeWithoutTransaction(EntityNameEnum.LABEL);
+        }
+        try {
+            entitySequenceDAO.getNextEntityCodeWithoutTransaction(EntityNameEnum.LABEL);
+            fail("There are no values left for two digits");
+        } catch (IllegalStateException e) {
+            // Ok
+        }
+    }
+
+    private Long saveOnTransaction(final EntitySequence entitySequence) {
+        return transactionService.runOnTransaction(() -> {
+            entitySequenceDAO.save(entitySequence);
+            return entitySequence.getId();
+        });
+    }
+
+    private void removeOnTransaction(final Long id) {
+        transactionService.runOnTransaction(() -> {
+            try {
+                entitySequenceDAO.remove(id);
+            } catch (InstanceNotFoundException ignored) {}
+            return null;
+        });
+    }
+
     private EntitySequence givenEntitySequence(String prefix, EntityNameEnum entityName, boolean active) {
         EntitySequence entitySequence = EntitySequence.create(prefix, entityName);
         entitySequence.setActive(active);
@@ -0,0 +1,139 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.common.metrics;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.libreplan.business.common.metrics.Histogram;
+import org.libreplan.business.common.metrics.MetricSummary;
+import org.libreplan.business.common.metrics.Metrics;
+import org.libreplan.business.common.metrics.Timer;
+
+public class MetricsTest {
+
+    @After
+    public void resetMetrics() {
+        Metrics.reset();
+    }
+
+    @Test
+    public void theMetricsAreCreatedTheFirstTimeTheyAreRequested() {
+        Metrics.counter("test.counter").increment();
+        Metrics.counter("test.counter").increment(2);
+
+        assertThat(Metrics.counter("test.counter").getCount(), equalTo(3L));
+    }
+
+    @Test
+    public void theHistogramCalculatesThePercentilesOfTheValues() {
+        Histogram histogram = Metrics.histogram("test.histogram");
+        for (int i = 100; i >= 1; i--) {
+            histogram.update(i);
+        }
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertThat(snapshot.getCount(), equalTo(100L));
+        assertThat(snapshot.getMean(), equalTo(50.5));
+        assertThat(snapshot.getMin(), equalTo(1L));
+        assertThat(snapshot.getMax(), equalTo(100L));
+        assertThat(snapshot.getMedian(), equalTo(50L));
+        assertThat(snapshot.get95thPercentile(), equalTo(95L));
+        assertThat(snapshot.get99thPercentile(), equalTo(99L));
+    }
+
+    @Test
+    public void thePercentilesOnlyTakeIntoAccountTheLastValues() {
+        Histogram histogram = Metrics.histogram("test.histogram");
+        histogram.update(1000000);
+        for (int i = 0; i < 2000; i++) {
+            histogram.update(1);
+        }
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertThat(snapshot.getCount(), equalTo(2001L));
+        assertThat(snapshot.getMax(), equalTo(1000000L));
+        assertThat(snapshot.get99thPercentile(), equalTo(1L));
+    }
+
+    @Test
+    public void anEmptyHistogramHasZeroValues() {
+        Histogram.Snapshot snapshot = Metrics.histogram("test.histogram").getSnapshot();
+
+        assertThat(snapshot.getCount(), equalTo(0L));
+        assertThat(snapshot.getMax(), equalTo(0L));
+        assertThat(snapshot.getMedian(), equalTo(0L));
+    }
+
+    @Test
+    public void theTimerRecordsTheDurationOfTheOperations() {
+        String result = Metrics.timer("test.timer").time(() -> "done");
+        Metrics.timer("test.timer").update(2, TimeUnit.SECONDS);
+
+        assertThat(result, equalTo("done"));
+        Histogram.Snapshot snapshot = Metrics.timer("test.timer").getSnapshot();
+        assertThat(snapshot.getCount(), equalTo(2L));
+        assertThat(snapshot.getMax(), equalTo(TimeUnit.SECONDS.toNanos(2)));
+    }
+
+    @Test
+    public void theMetricsHeldAreStillReportedAfterAReset() {
+        Timer timer = Metrics.timer("test.timer");
+        timer.update(2, TimeUnit.SECONDS);
+        Metrics.counter("test.counter").increment();
+
+        Metrics.reset();
+
+        assertThat(timer.getSnapshot().getCount(), equalTo(0L));
+        assertThat(Metrics.counter("test.counter").getCount(), equalTo(0L));
+
+        timer.update(1, TimeUnit.SECONDS);
+        Histogram.Snapshot snapshot = Metrics.timer("test.timer").getSnapshot();
+        assertThat(snapshot.getCount(), equalTo(1L));
+        assertThat(snapshot.getMax(), equalTo(TimeUnit.SECONDS.toNanos(1)));
+        assertThat(snapshot.getMedian(), equalTo(TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    public void theSummariesAreSortedByNameAndTheTimersAreInMilliseconds() {
+        Metrics.timer("b.timer").update(3, TimeUnit.SECONDS);
+        Metrics.counter("a.counter").increment();
+
+        // The metrics of other tests are kept with their values reset
+        List<MetricSummary> summaries = Metrics.getSummaries().stream()
+                .filter(each -> each.getName().equals("a.counter") || each.getName().equals("b.timer"))
+                .collect(Collectors.toList());
+
+        assertThat(summaries.size(), equalTo(2));
+        assertThat(summaries.get(0).getName(), equalTo("a.counter"));
+        assertThat(summaries.get(0).getCount(), equalTo(1L));
+        assertThat(summaries.get(1).getType(), equalTo(MetricSummary.Type.TIMER.name()));
+        assertThat(summaries.get(1).getMax(), equalTo(3000.0));
+        assertTrue(summaries.get(1).getMean() > 0);
+    }
+
+}
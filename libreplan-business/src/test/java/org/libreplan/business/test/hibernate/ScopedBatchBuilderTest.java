@@ -0,0 +1,87 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
+import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
+
+import java.util.UUID;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.libreplan.business.hibernate.ScopedBatchBuilder;
+import org.libreplan.business.hibernate.statistics.ActionStatistics;
+import org.libreplan.business.materials.entities.UnitType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tests for {@link ScopedBatchBuilder}.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { BUSINESS_SPRING_CONFIG_FILE, BUSINESS_SPRING_CONFIG_TEST_FILE })
+public class ScopedBatchBuilderTest {
+
+    private static final int UNIT_TYPES = 10;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * The unit types are saved directly in the session, because the queries
+     * validating them would flush the ones saved before.
+     */
+    private long statementsStoringUnitTypes() {
+        Session session = sessionFactory.getCurrentSession();
+        session.clear();
+        for (int i = 0; i < UNIT_TYPES; i++) {
+            session.save(UnitType.create(UUID.randomUUID().toString()));
+        }
+
+        ActionStatistics statistics = ActionStatistics.start("storing unit types");
+        session.flush();
+
+        return statistics.stop().getStatements();
+    }
+
+    @Test
+    @Transactional
+    public void theStatementsAreOnlyBatchedWhenAskedFor() {
+        long notBatched = statementsStoringUnitTypes();
+        long batched;
+
+        ScopedBatchBuilder.startBatching(UNIT_TYPES);
+        try {
+            batched = statementsStoringUnitTypes();
+        } finally {
+            ScopedBatchBuilder.stopBatching();
+        }
+
+        // Every kind of statement is sent once for all the unit types
+        assertEquals(notBatched / UNIT_TYPES, batched);
+        assertEquals(notBatched, statementsStoringUnitTypes());
+    }
+
+}
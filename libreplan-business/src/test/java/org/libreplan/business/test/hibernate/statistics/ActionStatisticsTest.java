@@ -0,0 +1,141 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.hibernate.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
+import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.libreplan.business.hibernate.statistics.ActionStatistics;
+import org.libreplan.business.hibernate.statistics.QueryBudget;
+import org.libreplan.business.labels.daos.ILabelTypeDAO;
+import org.libreplan.business.labels.entities.Label;
+import org.libreplan.business.labels.entities.LabelType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { BUSINESS_SPRING_CONFIG_FILE, BUSINESS_SPRING_CONFIG_TEST_FILE })
+public class ActionStatisticsTest {
+
+    @Autowired
+    private ILabelTypeDAO labelTypeDAO;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    private void givenLabelTypesWithOneLabel(int number) {
+        for (int i = 0; i < number; i++) {
+            LabelType labelType = LabelType.create(UUID.randomUUID().toString());
+            labelType.addLabel(Label.create(UUID.randomUUID().toString()));
+            labelTypeDAO.save(labelType);
+        }
+        sessionFactory.getCurrentSession().flush();
+        sessionFactory.getCurrentSession().clear();
+    }
+
+    @Test
+    @Transactional
+    public void theWorkDoneByTheActionIsCounted() {
+        givenLabelTypesWithOneLabel(3);
+
+        ActionStatistics statistics = ActionStatistics.start("listing label types");
+        List<LabelType> labelTypes = labelTypeDAO.getAll();
+        int labels = 0;
+        for (LabelType each : labelTypes) {
+            labels += each.getLabels().size();
+        }
+        statistics.stop();
+
+        assertEquals(labelTypes.size() + labels, statistics.getEntitiesLoaded());
+        // The labels of all the label types are fetched in a batch when the first one is initialized
+        assertEquals(1, statistics.getCollectionsInitialized());
+        assertEquals(2, statistics.getStatements());
+        assertNull(ActionStatistics.current());
+    }
+
+    @Test
+    @Transactional
+    public void theActionsExceedingTheBudgetAreDetected() {
+        givenLabelTypesWithOneLabel(3);
+
+        ActionStatistics statistics = ActionStatistics.start("listing label types");
+        for (LabelType each : labelTypeDAO.getAll()) {
+            each.getLabels().size();
+        }
+        statistics.stop();
+
+        assertTrue(QueryBudget.statements(1).isExceededBy(statistics));
+        assertTrue(QueryBudget.of(10, 1, 10).isExceededBy(statistics));
+        assertFalse(QueryBudget.statements(statistics.getStatements()).isExceededBy(statistics));
+    }
+
+    @Test
+    @Transactional
+    public void theWorkOfNestedActionsIsAddedToTheEnclosingOne() {
+        givenLabelTypesWithOneLabel(1);
+
+        ActionStatistics outer = ActionStatistics.start("outer");
+        ActionStatistics inner = ActionStatistics.start("inner");
+        labelTypeDAO.getAll();
+        inner.stop();
+
+        assertTrue(ActionStatistics.current() == outer);
+        labelTypeDAO.getAll();
+        outer.stop();
+
+        assertEquals(1, inner.getStatements());
+        assertEquals(2, outer.getStatements());
+        assertNull(ActionStatistics.current());
+    }
+
+    @Test
+    @Transactional
+    public void theActionsLeftInProgressAreStoppedAtTheEnd() {
+        givenLabelTypesWithOneLabel(1);
+
+        ActionStatistics outer = ActionStatistics.start("failed request");
+        ActionStatistics inner = ActionStatistics.start("failed event");
+        labelTypeDAO.getAll();
+        ActionStatistics.stopAll();
+
+        assertTrue(inner.isStopped());
+        assertTrue(outer.isStopped());
+        assertEquals(1, outer.getStatements());
+        assertNull(ActionStatistics.current());
+
+        ActionStatistics next = ActionStatistics.start("next request");
+        next.stop();
+        assertEquals(0, next.getStatements());
+        assertEquals(1, outer.getStatements());
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.orders.daos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
+import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Resource;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.libreplan.business.IDataBootstrap;
+import org.libreplan.business.orders.daos.IDailyChargedEffortDAO;
+import org.libreplan.business.orders.daos.ISumChargedEffortDAO;
+import org.libreplan.business.orders.entities.DailyChargedEffort;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.test.workreports.daos.AbstractWorkReportTest;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { BUSINESS_SPRING_CONFIG_FILE, BUSINESS_SPRING_CONFIG_TEST_FILE })
+public class DailyChargedEffortDAOTest extends AbstractWorkReportTest {
+
+    @Autowired
+    private IDailyChargedEffortDAO dailyChargedEffortDAO;
+
+    @Autowired
+    private ISumChargedEffortDAO sumChargedEffortDAO;
+
+    @Autowired
+    private IWorkReportLineDAO workReportLineDAO;
+
+    @Resource
+    private IDataBootstrap configurationBootstrap;
+
+    @Before
+    public void loadRequiredData() {
+        configurationBootstrap.loadRequiredData();
+    }
+
+    private WorkReportLine createLineLike(WorkReportLine line, EffortDuration effort) {
+        WorkReportLine result = WorkReportLine.create(line.getWorkReport());
+        line.getWorkReport().addWorkReportLine(result);
+        result.setDate(line.getDate());
+        result.setEffort(effort);
+        result.setResource(line.getResource());
+        result.setOrderElement(line.getOrderElement());
+        result.setTypeOfWorkHours(line.getTypeOfWorkHours());
+
+        return result;
+    }
+
+    @Test
+    @Transactional
+    public void theEffortOfTheSavedLinesIsAddedPerDay() {
+        WorkReportLine line = createValidWorkReportLine();
+        WorkReportLine sameDay = createLineLike(line, EffortDuration.hours(2));
+        workReportLineDAO.save(line);
+        workReportLineDAO.save(sameDay);
+
+        Set<WorkReportLine> lines = new HashSet<>();
+        lines.add(line);
+        lines.add(sameDay);
+        sumChargedEffortDAO.updateRelatedSumChargedEffortWithWorkReportLineSet(lines);
+
+        OrderElement orderElement = line.getOrderElement();
+        LocalDate day = line.getLocalDate();
+        EffortDuration total = EffortDuration.hours(102);
+
+        List<DailyChargedEffort> dailyChargedEfforts = dailyChargedEffortDAO.findByOrderElement(orderElement);
+        assertEquals(1, dailyChargedEfforts.size());
+        assertEquals(total, dailyChargedEfforts.get(0).getEffort());
+        assertEquals(day, dailyChargedEfforts.get(0).getDate());
+
+        assertEquals(Collections.singletonMap(day, total),
+                dailyChargedEffortDAO.getEffortPerDay(Collections.singleton(orderElement)));
+        assertEquals(total, dailyChargedEffortDAO.getEffortOfOrderElementAndChildrenUntil(orderElement, null));
+        assertEquals(total, dailyChargedEffortDAO.getEffortOfOrderElementAndChildrenUntil(orderElement, day));
+        assertEquals(EffortDuration.zero(),
+                dailyChargedEffortDAO.getEffortOfOrderElementAndChildrenUntil(orderElement, day.minusDays(1)));
+        assertEquals(1, dailyChargedEffortDAO
+                .findByResourceBetween(line.getResource(), day.minusDays(1), day).size());
+    }
+
+    @Test
+    @Transactional
+    public void theDaysWithoutEffortAreRemoved() {
+        WorkReportLine line = createValidWorkReportLine();
+        workReportLineDAO.save(line);
+
+        dailyChargedEffortDAO.addEffortOf(line);
+        dailyChargedEffortDAO.subtractEffortOf(line);
+
+        assertTrue(dailyChargedEffortDAO.findByOrderElement(line.getOrderElement()).isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void theEffortIsMovedWhenTheLineChanges() {
+        WorkReportLine line = createValidWorkReportLine();
+        workReportLineDAO.save(line);
+        dailyChargedEffortDAO.addEffortOf(line);
+
+        WorkReportLine modified = createLineLike(line, EffortDuration.hours(3));
+        dailyChargedEffortDAO.updateEffortOf(line, modified);
+
+        assertEquals(EffortDuration.hours(3),
+                dailyChargedEffortDAO.findByOrderElement(line.getOrderElement()).get(0).getEffort());
+
+        modified.setDate(line.getLocalDate().plusDays(1).toDateTimeAtStartOfDay().toDate());
+        dailyChargedEffortDAO.updateEffortOf(createLineLike(line, EffortDuration.hours(3)), modified);
+
+        List<DailyChargedEffort> dailyChargedEfforts = dailyChargedEffortDAO.findByOrderElement(line.getOrderElement());
+        assertEquals(1, dailyChargedEfforts.size());
+        assertEquals(line.getLocalDate().plusDays(1), dailyChargedEfforts.get(0).getDate());
+    }
+
+}
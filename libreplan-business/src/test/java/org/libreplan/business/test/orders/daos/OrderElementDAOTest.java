@@ -160,6 +160,15 @@ public class OrderElementDAOTest {
         return orderLine;
     }
 
+    private OrderLine createValidStandAloneLine() {
+        OrderLine orderLine = OrderLine.createOrderLineWithUnfixedPercentage(10);
+        orderLine.setName(UUID.randomUUID().toString());
+        orderLine.setCode(UUID.randomUUID().toString());
+        orderLine.getHoursGroups().get(0).setCode(UUID.randomUUID().toString());
+
+        return orderLine;
+    }
+
     private OrderLineGroup createValidOrderLineGroup() {
         String unique = UUID.randomUUID().toString();
         return createValidOrderLineGroup(unique, unique);
@@ -246,6 +255,46 @@ public class OrderElementDAOTest {
         assertFalse(list.isEmpty());
     }
 
+    @Test
+    @Transactional
+    public void testPathsAreUpdatedWhenSaving() {
+        OrderLineGroup orderLineGroup = createValidOrderLineGroup();
+        Order order = orderLineGroup.getOrder();
+        OrderElement line = orderLineGroup.getChildren().get(0);
+        orderElementDAO.save(order);
+
+        assertEquals("/" + order.getId() + "/", order.getPath());
+        assertEquals(order.getPath() + orderLineGroup.getId() + "/", orderLineGroup.getPath());
+        assertEquals(orderLineGroup.getPath() + line.getId() + "/", line.getPath());
+
+        OrderLine newLine = createValidStandAloneLine();
+        orderLineGroup.add(newLine);
+        orderElementDAO.save(newLine);
+        assertEquals(orderLineGroup.getPath() + newLine.getId() + "/", newLine.getPath());
+    }
+
+    @Test
+    @Transactional
+    public void testFindSubtree() {
+        OrderLineGroup orderLineGroup = createValidOrderLineGroup();
+        Order order = orderLineGroup.getOrder();
+        order.add(createValidStandAloneLine());
+        orderElementDAO.save(order);
+        orderElementDAO.flush();
+
+        List<OrderElement> subtree = orderElementDAO.findSubtree(order);
+        assertEquals(4, subtree.size());
+        assertEquals(order.getId(), subtree.get(0).getId());
+        for (OrderElement each : subtree.subList(1, subtree.size())) {
+            assertTrue(subtree.indexOf(each.getParent()) < subtree.indexOf(each));
+        }
+
+        List<OrderElement> groupSubtree = orderElementDAO.findSubtree(orderLineGroup);
+        assertEquals(2, groupSubtree.size());
+        assertEquals(orderLineGroup.getId(), groupSubtree.get(0).getId());
+        assertEquals(orderLineGroup.getChildren().get(0).getId(), groupSubtree.get(1).getId());
+    }
+
     @Test
     @Transactional
     public void testSaveOrderLineWithAdvanceAssignments()
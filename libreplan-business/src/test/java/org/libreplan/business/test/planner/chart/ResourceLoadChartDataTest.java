@@ -0,0 +1,132 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.planner.chart;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.planner.chart.ResourceLoadChartData;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+
+public class ResourceLoadChartDataTest {
+
+    private static final LocalDate day = new LocalDate(2016, 3, 7);
+
+    private Resource worker1 = createWorker(1L);
+
+    private Resource worker2 = createWorker(2L);
+
+    private List<Resource> resources = Arrays.asList(worker1, worker2);
+
+    private List<DayAssignment> assignments = new ArrayList<>();
+
+    private Map<Long, Map<LocalDate, EffortDuration>> effortByResourceAndDay = new HashMap<>();
+
+    private static Resource createWorker(Long id) {
+        ResourceCalendar calendar = createNiceMock(ResourceCalendar.class);
+        expect(calendar.getCapacityOn(anyObject(PartialDay.class))).andReturn(hours(8)).anyTimes();
+        replay(calendar);
+
+        Worker result = createNiceMock(Worker.class);
+        expect(result.getId()).andReturn(id).anyTimes();
+        expect(result.getCalendarOrDefault()).andReturn(calendar).anyTimes();
+        replay(result);
+
+        return result;
+    }
+
+    private void givenAssignment(Resource resource, LocalDate day, EffortDuration duration) {
+        DayAssignment assignment = createNiceMock(DayAssignment.class);
+        expect(assignment.getResource()).andReturn(resource).anyTimes();
+        expect(assignment.getDay()).andReturn(day).anyTimes();
+        expect(assignment.getDuration()).andReturn(duration).anyTimes();
+        replay(assignment);
+        assignments.add(assignment);
+
+        Map<LocalDate, EffortDuration> effortPerDay =
+                effortByResourceAndDay.computeIfAbsent(resource.getId(), id -> new HashMap<>());
+        EffortDuration previous = effortPerDay.get(day);
+        effortPerDay.put(day, previous == null ? duration : previous.plus(duration));
+    }
+
+    @Test
+    public void theDataFromTheSumsIsTheSameAsFromTheAssignments() {
+        givenAssignment(worker1, day, hours(6));
+        givenAssignment(worker1, day, hours(4));
+        givenAssignment(worker2, day, hours(2));
+        givenAssignment(worker2, day.plusDays(3), hours(9));
+
+        ResourceLoadChartData fromAssignments = new ResourceLoadChartData(assignments, resources);
+        ResourceLoadChartData fromSums =
+                ResourceLoadChartData.fromEffortByResourceAndDay(effortByResourceAndDay, resources);
+
+        assertThat(fromSums.getLoad(), equalTo(fromAssignments.getLoad()));
+        assertThat(fromSums.getOverload(), equalTo(fromAssignments.getOverload()));
+        assertThat(fromSums.getAvailability(), equalTo(fromAssignments.getAvailability()));
+
+        assertThat(fromSums.getLoad().size(), equalTo(4));
+        assertThat(fromSums.getLoad().get(day), equalTo(hours(12)));
+        assertThat(fromSums.getOverload().get(day), equalTo(hours(18)));
+        assertThat(fromSums.getLoad().get(day.plusDays(1)), equalTo(EffortDuration.zero()));
+    }
+
+    @Test
+    public void theSumsOfOtherResourcesAreIgnored() {
+        givenAssignment(worker1, day, hours(6));
+        ResourceLoadChartData fromAssignments = new ResourceLoadChartData(assignments, resources);
+
+        givenAssignment(createWorker(3L), day.plusDays(1), hours(5));
+        ResourceLoadChartData fromSums =
+                ResourceLoadChartData.fromEffortByResourceAndDay(effortByResourceAndDay, resources);
+
+        assertThat(fromSums.getLoad(), equalTo(fromAssignments.getLoad()));
+        assertThat(fromSums.getOverload(), equalTo(fromAssignments.getOverload()));
+        assertThat(fromSums.getAvailability(), equalTo(fromAssignments.getAvailability()));
+    }
+
+    @Test
+    public void withoutAssignmentsThereIsNoData() {
+        ResourceLoadChartData fromSums =
+                ResourceLoadChartData.fromEffortByResourceAndDay(effortByResourceAndDay, resources);
+
+        assertTrue(fromSums.getLoad().isEmpty());
+        assertTrue(fromSums.getAvailability().isEmpty());
+    }
+
+}
@@ -0,0 +1,301 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.planner.daos;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
+import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.Resource;
+
+import org.hibernate.SessionFactory;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.libreplan.business.IDataBootstrap;
+import org.libreplan.business.common.daos.IConfigurationDAO;
+import org.libreplan.business.hibernate.statistics.ActionStatistics;
+import org.libreplan.business.hibernate.statistics.QueryBudget;
+import org.libreplan.business.orders.daos.IOrderDAO;
+import org.libreplan.business.orders.entities.HoursGroup;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.orders.entities.OrderLineGroup;
+import org.libreplan.business.orders.entities.TaskSource;
+import org.libreplan.business.orders.entities.TaskSource.TaskSourceSynchronization;
+import org.libreplan.business.planner.daos.IPlanningDataLoader;
+import org.libreplan.business.planner.daos.ITaskElementDAO;
+import org.libreplan.business.planner.daos.ITaskSourceDAO;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.entities.TaskElement;
+import org.libreplan.business.resources.daos.IResourceDAO;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.scenarios.IScenarioManager;
+import org.libreplan.business.scenarios.bootstrap.IScenariosBootstrap;
+import org.libreplan.business.scenarios.entities.OrderVersion;
+import org.libreplan.business.workingday.IntraDayDate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tests for {@link IPlanningDataLoader}.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { BUSINESS_SPRING_CONFIG_FILE, BUSINESS_SPRING_CONFIG_TEST_FILE })
+public class PlanningDataLoaderTest {
+
+    /**
+     * Opening the planning of a project of any size shouldn't need more than
+     * these queries, entities and collections.
+     */
+    private static final QueryBudget PLANNING_BUDGET = QueryBudget.of(30, 100, 5);
+
+    @Resource
+    private IDataBootstrap defaultAdvanceTypesBootstrapListener;
+
+    @Resource
+    private IDataBootstrap configurationBootstrap;
+
+    @Autowired
+    private IScenariosBootstrap scenariosBootstrap;
+
+    @Autowired
+    private IScenarioManager scenarioManager;
+
+    @Autowired
+    private IConfigurationDAO configurationDAO;
+
+    @Autowired
+    private IOrderDAO orderDAO;
+
+    @Autowired
+    private ITaskSourceDAO taskSourceDAO;
+
+    @Autowired
+    private ITaskElementDAO taskElementDAO;
+
+    @Autowired
+    private IResourceDAO resourceDAO;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private IPlanningDataLoader planningDataLoader;
+
+    @Before
+    public void loadRequiredData() {
+        scenariosBootstrap.loadRequiredData();
+        defaultAdvanceTypesBootstrapListener.loadRequiredData();
+        configurationBootstrap.loadRequiredData();
+    }
+
+    private Order createOrderWithTasks() {
+        return createOrderWithTasks(new Date());
+    }
+
+    private Order createOrderWithTasks(Date initDate) {
+        Order order = Order.create();
+        OrderVersion orderVersion = ResourceAllocationDAOTest.setupVersionUsing(scenarioManager, order);
+        order.setName("order-" + UUID.randomUUID());
+        order.setCode("code-" + UUID.randomUUID());
+        order.setInitDate(initDate);
+        order.useSchedulingDataFor(orderVersion);
+        order.setCalendar(configurationDAO.getConfiguration().getDefaultCalendar());
+
+        OrderLineGroup group = OrderLineGroup.create();
+        group.setName("group");
+        group.setCode("code-" + UUID.randomUUID());
+        order.add(group);
+
+        for (int i = 0; i < 3; i++) {
+            OrderLine line = OrderLine.create();
+            line.setName("line-" + i);
+            line.setCode("code-" + UUID.randomUUID());
+            HoursGroup hoursGroup = new HoursGroup();
+            hoursGroup.setCode("hours-group-code-" + UUID.randomUUID());
+            hoursGroup.setWorkingHours(10);
+            line.addHoursGroup(hoursGroup);
+            group.add(line);
+        }
+
+        orderDAO.save(order);
+        for (TaskSourceSynchronization each : order.calculateSynchronizationsNeeded()) {
+            each.apply(TaskSource.persistTaskSources(taskSourceDAO));
+        }
+        sessionFactory.getCurrentSession().flush();
+
+        return order;
+    }
+
+    private Order reloadInNewSession(Order order) {
+        sessionFactory.getCurrentSession().clear();
+        Order result = orderDAO.findExistingEntity(order.getId());
+        result.useSchedulingDataFor(scenarioManager.getCurrent());
+
+        return result;
+    }
+
+    @Test
+    @Transactional
+    public void loadsTheWholeTreeOfTheOrder() {
+        Order order = reloadInNewSession(createOrderWithTasks());
+
+        int queries = planningDataLoader.loadPlanningDataFor(order);
+
+        assertTrue(queries > 0);
+        assertThat(order.getAllChildren().size(), equalTo(4));
+        TaskElement rootTask = order.getAssociatedTaskElement();
+        assertNotNull(rootTask);
+        assertThat(rootTask.getChildren().size(), equalTo(1));
+        assertThat(rootTask.getChildren().get(0).getChildren().size(), equalTo(3));
+    }
+
+    private ActionStatistics loadAndNavigate(Order order) {
+        ActionStatistics result = ActionStatistics.start("opening the planning");
+        planningDataLoader.loadPlanningDataFor(order);
+
+        ActionStatistics navigation = ActionStatistics.start("navigating the planning");
+        for (OrderElement each : order.getAllChildren()) {
+            each.getHoursGroups().size();
+            each.getCriterionRequirements().size();
+            each.getLabels().size();
+            each.getDirectAdvanceAssignments().size();
+        }
+        navigate(order.getAssociatedTaskElement());
+        navigation.stop();
+
+        assertThat(navigation.getStatements(), equalTo(0L));
+
+        return result.stop(PLANNING_BUDGET);
+    }
+
+    private void navigate(TaskElement taskElement) {
+        taskElement.getDependenciesWithThisOrigin().size();
+        taskElement.getDependenciesWithThisDestination().size();
+        taskElement.getAllResourceAllocations().size();
+        if ( !taskElement.isLeaf() ) {
+            for (TaskElement each : taskElement.getChildren()) {
+                navigate(each);
+            }
+        }
+    }
+
+    @Test
+    @Transactional
+    public void openingThePlanningIsWithinTheBudget() {
+        Order order = reloadInNewSession(createOrderWithTasks());
+
+        ActionStatistics statistics = loadAndNavigate(order);
+
+        assertFalse(statistics.toString(), PLANNING_BUDGET.isExceededBy(statistics));
+    }
+
+    @Test
+    @Transactional
+    public void theNumberOfQueriesDoesNotDependOnTheNumberOfElements() {
+        Order order = reloadInNewSession(createOrderWithTasks());
+        long statementsForSmallOrder = loadAndNavigate(order).getStatements();
+
+        OrderLineGroup group = (OrderLineGroup) order.getChildren().get(0);
+        for (int i = 0; i < 10; i++) {
+            OrderLine line = OrderLine.create();
+            line.setName("extra-line-" + i);
+            line.setCode("code-" + UUID.randomUUID());
+            HoursGroup hoursGroup = new HoursGroup();
+            hoursGroup.setCode("hours-group-code-" + UUID.randomUUID());
+            hoursGroup.setWorkingHours(10);
+            line.addHoursGroup(hoursGroup);
+            group.add(line);
+        }
+        orderDAO.save(order);
+        for (TaskSourceSynchronization each : order.calculateSynchronizationsNeeded()) {
+            each.apply(TaskSource.persistTaskSources(taskSourceDAO));
+        }
+        sessionFactory.getCurrentSession().flush();
+
+        Order bigger = reloadInNewSession(order);
+        ActionStatistics statistics = loadAndNavigate(bigger);
+        assertThat(statistics.getStatements(), equalTo(statementsForSmallOrder));
+        assertFalse(statistics.toString(), PLANNING_BUDGET.isExceededBy(statistics));
+        assertThat(bigger.getAllChildren().size(), equalTo(14));
+    }
+
+    private Worker createWorker() {
+        Worker result = Worker.create();
+        result.setFirstName(UUID.randomUUID().toString());
+        result.setSurname(UUID.randomUUID().toString());
+        result.setNif(UUID.randomUUID().toString());
+        resourceDAO.save(result);
+
+        return result;
+    }
+
+    private void allocate(Worker worker, Order order) {
+        Task task = (Task) order.getAssociatedTaskElement().getChildren().get(0).getChildren().get(0);
+        LocalDate start = task.getStartAsLocalDate();
+        task.setIntraDayEndDate(IntraDayDate.startOfDay(start.plusDays(3)));
+
+        SpecificResourceAllocation allocation = SpecificResourceAllocation.create(task);
+        allocation.setResource(worker);
+        allocation.onIntervalWithinTask(start, start.plusDays(3)).allocateHours(24);
+        allocation.switchToScenario(scenarioManager.getCurrent());
+        task.addResourceAllocation(allocation);
+        taskElementDAO.save(task);
+        sessionFactory.getCurrentSession().flush();
+    }
+
+    @Test
+    @Transactional
+    public void theAssignmentsOfTheResourcesBeforeThePlanningAreNotLoaded() {
+        Worker worker = createWorker();
+        allocate(worker, createOrderWithTasks(new LocalDate().minusYears(1).toDate()));
+        Order order = createOrderWithTasks();
+        allocate(worker, order);
+
+        order = reloadInNewSession(order);
+        planningDataLoader.loadPlanningDataFor(order);
+
+        LocalDate start = LocalDate.fromDateFields(order.getInitDate());
+        List<DayAssignment> loaded = resourceDAO.findExistingEntity(worker.getId()).getAssignments();
+        assertFalse(loaded.isEmpty());
+        for (DayAssignment each : loaded) {
+            assertFalse(each.getDay().isBefore(start));
+        }
+
+        sessionFactory.getCurrentSession().clear();
+        assertTrue(resourceDAO.findExistingEntity(worker.getId()).getAssignments().size() > loaded.size());
+    }
+
+}
@@ -29,8 +29,10 @@ import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_
 import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.joda.time.LocalDate;
@@ -52,14 +54,18 @@ import org.libreplan.business.planner.entities.GenericResourceAllocation;
 import org.libreplan.business.planner.entities.ResourceAllocation;
 import org.libreplan.business.planner.entities.SpecificResourceAllocation;
 import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.resources.daos.ICriterionDAO;
+import org.libreplan.business.resources.daos.ICriterionTypeDAO;
 import org.libreplan.business.resources.daos.IResourceDAO;
 import org.libreplan.business.resources.daos.IWorkerDAO;
+import org.libreplan.business.resources.entities.Criterion;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.resources.entities.Worker;
 import org.libreplan.business.scenarios.IScenarioManager;
 import org.libreplan.business.scenarios.bootstrap.IScenariosBootstrap;
 import org.libreplan.business.scenarios.entities.OrderVersion;
 import org.libreplan.business.scenarios.entities.Scenario;
+import org.libreplan.business.test.resources.daos.CriterionDAOTest;
 import org.libreplan.business.workingday.ResourcesPerDay;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
@@ -103,6 +109,12 @@ public class ResourceAllocationDAOTest {
     @Autowired
     IResourceDAO resourceDAO;
 
+    @Autowired
+    private ICriterionDAO criterionDAO;
+
+    @Autowired
+    private ICriterionTypeDAO criterionTypeDAO;
+
     @Autowired
     private IScenariosBootstrap scenariosBootstrap;
 
@@ -301,4 +313,47 @@ public class ResourceAllocationDAOTest {
                 resources,
                 intervalInitDate, null).contains(resourceAllocation1));
   }
+
+    private Criterion createValidCriterion() {
+        Criterion criterion = CriterionDAOTest.createValidCriterion();
+        criterionTypeDAO.save(criterion.getType());
+        criterionDAO.save(criterion);
+        return criterion;
+    }
+
+    @Test
+    @Transactional
+    public void testFindGenericAllocationsGroupedByTheCriterionsAsked() {
+        Scenario current = scenarioManager.getCurrent();
+        Criterion criterion = createValidCriterion();
+        Criterion other = createValidCriterion();
+        Task task = createValidGenericResourceAllocation().getTask();
+        GenericResourceAllocation allocation = GenericResourceAllocation.create(
+                task, Collections.singletonList(criterion));
+        resourceAllocationDAO.save(allocation);
+
+        Map<Criterion, List<GenericResourceAllocation>> found = resourceAllocationDAO
+                .findGenericAllocationsRelatedToCriterions(current,
+                        Arrays.asList(criterion, other), null, null);
+
+        assertEquals(resourceAllocationDAO
+                .findGenericAllocationsRelatedToCriterion(current, criterion,
+                        null, null), found.get(criterion));
+        assertFalse(found.containsKey(other));
+        assertTrue(resourceAllocationDAO.findSpecificAllocationsRelatedTo(
+                current, Arrays.asList(criterion, other), null, null).isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testCriterionsOfGenericAllocationsWithoutAssignmentsAreNotFound() {
+        Scenario current = scenarioManager.getCurrent();
+        Criterion criterion = createValidCriterion();
+        Task task = createValidGenericResourceAllocation().getTask();
+        resourceAllocationDAO.save(GenericResourceAllocation.create(task,
+                Collections.singletonList(criterion)));
+
+        assertFalse(resourceAllocationDAO.findCriterionsWithGenericAllocations(
+                current, null, null).contains(criterion));
+    }
 }
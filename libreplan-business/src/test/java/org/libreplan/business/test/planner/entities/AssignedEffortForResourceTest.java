@@ -0,0 +1,165 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.planner.entities;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.planner.entities.AssignedEffortForResource;
+import org.libreplan.business.planner.entities.AssignedEffortForResource.WithTheLoadOf;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.planner.entities.DayAssignment.DayLoad;
+import org.libreplan.business.planner.entities.GenericResourceAllocation;
+import org.libreplan.business.planner.entities.ResourceAllocation;
+import org.libreplan.business.planner.entities.SpecificDayAssignment;
+import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.workingday.EffortDuration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AssignedEffortForResourceTest {
+
+    private static final LocalDate day = new LocalDate(2016, 3, 7);
+
+    private Resource worker = createNiceMock(Worker.class);
+
+    private ResourceAllocation<?> createAllocationWithLoad(EffortDuration load) {
+        GenericResourceAllocation result = createNiceMock(GenericResourceAllocation.class);
+        expect(result.getAssignedDurationAt(worker, day)).andReturn(load).anyTimes();
+        replay(result);
+
+        return result;
+    }
+
+    @Test
+    public void theLoadOfAllTheAllocationsIsSummed() {
+        WithTheLoadOf withTheLoadOf = AssignedEffortForResource.withTheLoadOf(Arrays.asList(
+                createAllocationWithLoad(hours(2)), createAllocationWithLoad(hours(3))));
+
+        assertThat(withTheLoadOf.getAssignedDurationAt(worker, day), equalTo(hours(5)));
+    }
+
+    @Test
+    public void theAllocationsNotConsideredAreDiscountedWithoutChangingTheOriginal() {
+        ResourceAllocation<?> first = createAllocationWithLoad(hours(2));
+        ResourceAllocation<?> second = createAllocationWithLoad(hours(3));
+        ResourceAllocation<?> third = createAllocationWithLoad(hours(4));
+        WithTheLoadOf withTheLoadOf = AssignedEffortForResource.withTheLoadOf(Arrays.asList(first, second, third));
+
+        WithTheLoadOf withoutFirst = withTheLoadOf.withoutConsidering(first);
+        WithTheLoadOf withoutFirstAndThird = withoutFirst.withoutConsidering(third);
+
+        assertThat(withoutFirst.getAssignedDurationAt(worker, day), equalTo(hours(7)));
+        assertThat(withoutFirstAndThird.getAssignedDurationAt(worker, day), equalTo(hours(3)));
+        assertThat(withTheLoadOf.getAssignedDurationAt(worker, day), equalTo(hours(9)));
+    }
+
+    private SpecificResourceAllocation createAllocation(Long id) {
+        SpecificResourceAllocation result = SpecificResourceAllocation.create(createNiceMock(Task.class));
+        ReflectionTestUtils.setField(result, "id", id);
+
+        return result;
+    }
+
+    private SpecificDayAssignment createAssignment(int hours, SpecificResourceAllocation allocation) {
+        SpecificDayAssignment result = SpecificDayAssignment.create(day, hours(hours), worker);
+        if ( allocation != null ) {
+            result.setSpecificResourceAllocation(allocation);
+        }
+
+        return result;
+    }
+
+    /**
+     * How the load of a resource was calculated before {@link DayLoad}.
+     */
+    private static EffortDuration sumNotBelongingToSomeOf(Collection<? extends DayAssignment> assignments,
+                                                          Map<Long, Set<BaseEntity>> allocations) {
+        EffortDuration result = EffortDuration.zero();
+        for (DayAssignment each : assignments) {
+            if ( !each.belongsToSomeOf(allocations) ) {
+                result = result.plus(each.getDuration());
+            }
+        }
+
+        return result;
+    }
+
+    @Test
+    public void theLoadOfADayDiscountsTheSameAsFilteringTheAssignments() {
+        SpecificResourceAllocation stored = createAllocation(1L);
+        SpecificResourceAllocation otherStored = createAllocation(2L);
+        SpecificResourceAllocation notStored = createAllocation(null);
+        SpecificResourceAllocation otherNotStored = createAllocation(null);
+        List<SpecificResourceAllocation> allocations = Arrays.asList(stored, otherStored, notStored, otherNotStored);
+
+        SpecificDayAssignment associatedLater = createAssignment(5, null);
+        List<SpecificDayAssignment> assignments = Arrays.asList(
+                createAssignment(1, stored), createAssignment(2, stored), createAssignment(3, otherStored),
+                createAssignment(4, notStored), associatedLater, createAssignment(6, otherNotStored),
+                createAssignment(7, otherNotStored));
+
+        DayLoad load = DayAssignment.loadByDay(assignments).get(day);
+        associatedLater.setSpecificResourceAllocation(notStored);
+
+        // Every combination of allocations is excluded
+        for (int mask = 0; mask < 1 << allocations.size(); mask++) {
+            List<BaseEntity> excluded = new ArrayList<>();
+            for (int i = 0; i < allocations.size(); i++) {
+                if ( (mask & 1 << i) != 0 ) {
+                    excluded.add(allocations.get(i));
+                }
+            }
+            Map<Long, Set<BaseEntity>> byId = BaseEntity.byId(excluded);
+
+            assertThat(load.discounting(byId), equalTo(sumNotBelongingToSomeOf(assignments, byId)));
+        }
+    }
+
+    @Test
+    public void theStoredAllocationsAreDiscountedByTheirId() {
+        SpecificResourceAllocation stored = createAllocation(1L);
+        List<SpecificDayAssignment> assignments =
+                Arrays.asList(createAssignment(2, stored), createAssignment(3, createAllocation(2L)));
+
+        DayLoad load = DayAssignment.loadByDay(assignments).get(day);
+        Map<Long, Set<BaseEntity>> excluded = BaseEntity.byId(Arrays.<BaseEntity> asList(createAllocation(1L)));
+
+        assertThat(load.discounting(excluded), equalTo(hours(3)));
+        assertThat(load.discounting(excluded), equalTo(sumNotBelongingToSomeOf(assignments, excluded)));
+    }
+
+}
@@ -232,6 +232,70 @@ public class UntilFillingHoursAllocatorTest {
         }
     }
 
+    @Test
+    public void theSpecificAllocationsGetEmptyAssignmentsOnTheDaysWithoutCapacity() {
+        AvailabilityTimeLine availability = AvailabilityTimeLine.allValid();
+        availability.invalidAt(new LocalDate(2009, 10, 11), new LocalDate(2009, 10, 14));
+        givenCalendarWithAvailability(availability, hours(8));
+        givenSpecificAllocations(ResourcesPerDay.amount(1));
+
+        IntraDayDate endDate = ResourceAllocation.allocating(allocations).untilAllocating(hours(24));
+
+        assertThat(endDate, equalTo(IntraDayDate.startOfDay(new LocalDate(2009, 10, 16))));
+        List<? extends DayAssignment> assignments = allocations.get(0).getBeingModified().getAssignments();
+        assertThat(assignments, haveHours(8, 0, 0, 0, 8, 8));
+    }
+
+    @Test
+    public void theGenericAllocationsGetNoAssignmentsOnTheDaysWithoutCapacity() {
+        AvailabilityTimeLine availability = AvailabilityTimeLine.allValid();
+        availability.invalidAt(new LocalDate(2009, 10, 11), new LocalDate(2009, 10, 14));
+        givenCalendarWithAvailability(availability, hours(8));
+        givenWorkers(2);
+        givenGenericAllocation(ResourcesPerDay.amount(1));
+
+        IntraDayDate endDate = ResourceAllocation.allocating(allocations).untilAllocating(hours(24));
+
+        assertThat(endDate, equalTo(IntraDayDate.startOfDay(new LocalDate(2009, 10, 16))));
+        List<? extends DayAssignment> assignments = allocations.get(0).getBeingModified().getAssignments();
+        assertThat(assignments, haveHours(8, 8, 8));
+        assertThat(assignments.get(1).getDay(), equalTo(new LocalDate(2009, 10, 14)));
+        assertThat(assignments.get(1).getResource(), equalTo(assignments.get(0).getResource()));
+        assertThat(assignments.get(2).getResource(), equalTo(assignments.get(0).getResource()));
+    }
+
+    @Test
+    public void theDaysWithoutCapacityAreAlsoSkippedFromEnd() {
+        givenStartDate(IntraDayDate.startOfDay(new LocalDate(2009, 1, 10)));
+        givenTaskOfDaysLength(10); // so end is day 20
+        AvailabilityTimeLine availability = AvailabilityTimeLine.allValid();
+        availability.invalidAt(new LocalDate(2009, 1, 15), new LocalDate(2009, 1, 18));
+        givenCalendarWithAvailability(availability, hours(8));
+        givenSpecificAllocations(ResourcesPerDay.amount(1));
+
+        IntraDayDate newStart = ResourceAllocation.allocating(allocations).untilAllocating(Direction.BACKWARD, hours(24));
+
+        assertThat(newStart, equalTo(IntraDayDate.startOfDay(new LocalDate(2009, 1, 14))));
+        List<? extends DayAssignment> assignments = allocations.get(0).getBeingModified().getAssignments();
+        assertThat(assignments, haveHours(8, 0, 0, 0, 8, 8));
+    }
+
+    @Test
+    public void aLongPeriodWithoutCapacityIsSkipped() {
+        AvailabilityTimeLine availability = AvailabilityTimeLine.allValid();
+        availability.invalidAt(new LocalDate(2009, 10, 11), new LocalDate(2010, 10, 11));
+        givenCalendarWithAvailability(availability, hours(8));
+        givenWorkers(2);
+        givenGenericAllocation(ResourcesPerDay.amount(1));
+
+        IntraDayDate endDate = ResourceAllocation.allocating(allocations).untilAllocating(hours(24));
+
+        assertThat(endDate, equalTo(IntraDayDate.startOfDay(new LocalDate(2010, 10, 13))));
+        List<? extends DayAssignment> assignments = allocations.get(0).getBeingModified().getAssignments();
+        assertThat(assignments, haveHours(8, 8, 8));
+        assertThat(assignments.get(1).getDay(), equalTo(new LocalDate(2010, 10, 11)));
+    }
+
     @Test
     public void ifNoAllocationsCantBeDoneTheTaskEndIsReturned() {
         givenTaskOfDaysLength(10);
@@ -24,16 +24,22 @@ package org.libreplan.business.test.resources.daos;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
 import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -48,6 +54,11 @@ import org.libreplan.business.calendars.entities.ResourceCalendar;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.common.exceptions.ValidationException;
+import org.libreplan.business.costcategories.daos.ITypeOfWorkHoursDAO;
+import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
+import org.libreplan.business.orders.daos.IOrderElementDAO;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.reports.dtos.HoursWorkedPerResourceDTO;
 import org.libreplan.business.resources.daos.ICriterionDAO;
 import org.libreplan.business.resources.daos.ICriterionTypeDAO;
 import org.libreplan.business.resources.daos.IResourceDAO;
@@ -60,6 +71,12 @@ import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.resources.entities.Worker;
 import org.libreplan.business.users.daos.IUserDAO;
 import org.libreplan.business.users.entities.User;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.daos.IWorkReportDAO;
+import org.libreplan.business.workreports.daos.IWorkReportTypeDAO;
+import org.libreplan.business.workreports.entities.WorkReport;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workreports.entities.WorkReportType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -95,6 +112,18 @@ public class ResourceDAOTest {
     @Autowired
     private IUserDAO userDAO;
 
+    @Autowired
+    private IWorkReportDAO workReportDAO;
+
+    @Autowired
+    private IWorkReportTypeDAO workReportTypeDAO;
+
+    @Autowired
+    private IOrderElementDAO orderElementDAO;
+
+    @Autowired
+    private ITypeOfWorkHoursDAO typeOfWorkHoursDAO;
+
     @javax.annotation.Resource
     private IDataBootstrap configurationBootstrap;
 
@@ -234,6 +263,58 @@ public class ResourceDAOTest {
         assertThat(result.size(), not(equalTo(1)));
     }
 
+    @Test
+    @Transactional
+    public void onlyTheResourcesSatisfyingAllTheCriteriaAreFound() {
+        List<Criterion> criterions = new ArrayList<>(createCriterions());
+        Interval interval = Interval.from(new LocalDate(1970, 1, 1));
+
+        Worker satisfyingOne = givenValidWorker();
+        addSatisfactionsOn(satisfyingOne, interval, criterions.get(0));
+        Worker satisfyingAll = createAndSaveResourceSatisfyingAllCriterions(criterions);
+        resourceDAO.flush();
+
+        List<Resource> result = resourcesSearcher.searchBoth().byCriteria(criterions).execute();
+
+        assertThat(result, equalTo(Collections.<Resource> singletonList(satisfyingAll)));
+    }
+
+    @Test
+    @Transactional
+    public void theCriteriaCanBeRequiredToBeSatisfiedBetweenTwoDates() {
+        Collection<Criterion> criterions = createCriterions();
+        Worker worker = givenValidWorker();
+        addSatisfactionsOn(worker, Interval.range(new LocalDate(2016, 1, 1), new LocalDate(2016, 2, 1)),
+                criterions.toArray(new Criterion[criterions.size()]));
+        resourceDAO.flush();
+
+        List<Resource> outside = resourcesSearcher.searchBoth().byCriteria(criterions)
+                .satisfyingCriteriaBetween(new LocalDate(2016, 2, 1), new LocalDate(2016, 3, 1)).execute();
+        List<Resource> overlapping = resourcesSearcher.searchBoth().byCriteria(criterions)
+                .satisfyingCriteriaBetween(new LocalDate(2016, 1, 15), new LocalDate(2016, 3, 1)).execute();
+
+        assertThat(outside.size(), equalTo(0));
+        assertThat(overlapping, equalTo(Collections.<Resource> singletonList(worker)));
+    }
+
+    @Test
+    @Transactional
+    public void theSatisfactionsWithoutDeletedFlagAreNotDeleted() {
+        Collection<Criterion> criterions = createCriterions();
+        Worker worker = createAndSaveResourceSatisfyingAllCriterions(criterions);
+        resourceDAO.flush();
+        sessionFactory.getCurrentSession().evict(worker);
+        sessionFactory.getCurrentSession()
+                .createSQLQuery("UPDATE criterion_satisfaction SET is_deleted = NULL WHERE resource = :id")
+                .setParameter("id", worker.getId())
+                .executeUpdate();
+
+        List<Resource> result = resourcesSearcher.searchBoth().byCriteria(criterions).execute();
+
+        assertThat(result.size(), equalTo(1));
+        assertThat(result.get(0).getId(), equalTo(worker.getId()));
+    }
+
     private User givenStoredUser() {
         return transactionService.runOnAnotherTransaction(() -> {
             User user = User.create("login" + UUID.randomUUID(), "password", "");
@@ -266,4 +347,59 @@ public class ResourceDAOTest {
         });
     }
 
+    private WorkReportLine givenStoredWorkReportLine() {
+        Worker worker = givenValidWorker();
+        worker.setFirstName(UUID.randomUUID().toString());
+        resourceDAO.save(worker);
+
+        WorkReportType workReportType =
+                WorkReportType.create(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        workReportTypeDAO.save(workReportType);
+
+        OrderLine orderLine = OrderLine.create();
+        orderLine.setName(UUID.randomUUID().toString());
+        orderLine.setCode(UUID.randomUUID().toString());
+        orderElementDAO.save(orderLine);
+
+        TypeOfWorkHours typeOfWorkHours =
+                TypeOfWorkHours.create(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        typeOfWorkHours.setDefaultPrice(BigDecimal.TEN);
+        typeOfWorkHoursDAO.save(typeOfWorkHours);
+
+        WorkReport workReport = WorkReport.create(workReportType);
+        WorkReportLine result = WorkReportLine.create(workReport);
+        workReport.addWorkReportLine(result);
+        result.setDate(new Date());
+        result.setEffort(EffortDuration.hours(8));
+        result.setResource(worker);
+        result.setOrderElement(orderLine);
+        result.setTypeOfWorkHours(typeOfWorkHours);
+        workReportDAO.save(workReport);
+
+        return result;
+    }
+
+    @Test
+    @Transactional
+    public void testIterateWorkingHoursPerWorkerInTheOrderOfTheResources() {
+        WorkReportLine first = givenStoredWorkReportLine();
+        WorkReportLine second = givenStoredWorkReportLine();
+        resourceDAO.flush();
+        List<Resource> resources = Arrays.asList(first.getResource(), second.getResource());
+
+        List<Resource> withHours = resourceDAO.getResourcesWithWorkingHours(resources, null, null, null, null, null);
+
+        assertEquals(2, withHours.size());
+        assertTrue(withHours.get(0).getName().compareTo(withHours.get(1).getName()) <= 0);
+
+        Iterator<HoursWorkedPerResourceDTO> iterator =
+                resourceDAO.iterateWorkingHoursPerWorker(withHours, null, null, null, null, null);
+
+        for (Resource each : withHours) {
+            assertTrue(iterator.hasNext());
+            assertEquals(each.getName(), iterator.next().getWorkerName());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
 }
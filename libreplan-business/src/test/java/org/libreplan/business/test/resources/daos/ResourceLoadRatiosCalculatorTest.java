@@ -0,0 +1,152 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.resources.daos;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
+import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.libreplan.business.IDataBootstrap;
+import org.libreplan.business.calendars.entities.CalendarData.Days;
+import org.libreplan.business.calendars.entities.Capacity;
+import org.libreplan.business.common.daos.IConfigurationDAO;
+import org.libreplan.business.resources.daos.IResourceDAO;
+import org.libreplan.business.resources.daos.IResourceLoadRatiosCalculator;
+import org.libreplan.business.resources.daos.IResourceLoadRatiosCalculator.ILoadRatiosDataType;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.scenarios.IScenarioManager;
+import org.libreplan.business.scenarios.bootstrap.IScenariosBootstrap;
+import org.libreplan.business.workingday.EffortDuration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tests for {@link IResourceLoadRatiosCalculator}.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { BUSINESS_SPRING_CONFIG_FILE, BUSINESS_SPRING_CONFIG_TEST_FILE })
+public class ResourceLoadRatiosCalculatorTest {
+
+    private static final LocalDate START = new LocalDate(2016, 4, 4);
+
+    private static final LocalDate END = new LocalDate(2016, 4, 17);
+
+    @Autowired
+    private IResourceLoadRatiosCalculator resourceLoadRatiosCalculator;
+
+    @Autowired
+    private IResourceDAO resourceDAO;
+
+    @Autowired
+    private IConfigurationDAO configurationDAO;
+
+    @Autowired
+    private IScenariosBootstrap scenariosBootstrap;
+
+    @Autowired
+    private IScenarioManager scenarioManager;
+
+    @javax.annotation.Resource
+    private IDataBootstrap configurationBootstrap;
+
+    @Before
+    public void loadRequiredData() {
+        scenariosBootstrap.loadRequiredData();
+        configurationBootstrap.loadRequiredData();
+    }
+
+    private List<Worker> givenWorkersWithCalendar(int number) {
+        List<Worker> result = new ArrayList<>();
+        for (int i = 0; i < number; i++) {
+            Worker worker = ResourceDAOTest.givenValidWorker();
+            worker.setCalendar(configurationDAO.getConfiguration().getDefaultCalendar().newDerivedResourceCalendar());
+            resourceDAO.save(worker);
+            result.add(worker);
+        }
+        resourceDAO.flush();
+
+        return result;
+    }
+
+    @Test
+    @Transactional
+    public void theLoadRatiosOfAllTheResourcesAreCalculated() {
+        List<Worker> workers = givenWorkersWithCalendar(3);
+
+        Map<Resource, ILoadRatiosDataType> result =
+                resourceLoadRatiosCalculator.calculateLoadRatios(workers, START, END, scenarioManager.getCurrent());
+
+        assertThat(new ArrayList<>(result.keySet()), equalTo(new ArrayList<Resource>(workers)));
+        for (Worker each : workers) {
+            ILoadRatiosDataType ratios = result.get(each);
+            assertTrue(ratios.getLoad().isZero());
+            assertTrue(ratios.getOverload().isZero());
+            assertThat(ratios.getCapacity(), equalTo(each.getCalendar().getWorkableDuration(START, END)));
+        }
+    }
+
+    @Test
+    @Transactional
+    public void aSingleResourceIsCalculatedTheSameWay() {
+        Worker worker = givenWorkersWithCalendar(1).get(0);
+
+        ILoadRatiosDataType ratios = resourceLoadRatiosCalculator.calculateLoadRatios(
+                worker, START, END, scenarioManager.getCurrent());
+
+        assertThat(ratios.getCapacity(), equalTo(worker.getCalendar().getWorkableDuration(START, END)));
+        assertTrue(ratios.getLoad().isZero());
+        assertThat(ratios.getOvertimeRatio(), equalTo(BigDecimal.ZERO.setScale(2)));
+    }
+
+    @Test
+    @Transactional
+    public void theCalendarsOfTheSameParentOnlyShareTheCapacityIfTheyHaveNothingOfTheirOwn() {
+        List<Worker> workers = givenWorkersWithCalendar(4);
+        workers.get(1).getCalendar().setCapacity(2);
+        workers.get(2).getCalendar().getLastCalendarData()
+                .setCapacityAt(Days.MONDAY, Capacity.create(EffortDuration.hours(2)));
+
+        LocalDate start = new LocalDate();
+        LocalDate end = start.plusWeeks(2);
+        Map<Resource, ILoadRatiosDataType> result =
+                resourceLoadRatiosCalculator.calculateLoadRatios(workers, start, end, scenarioManager.getCurrent());
+
+        for (Worker each : workers) {
+            assertThat(result.get(each).getCapacity(), equalTo(each.getCalendar().getWorkableDuration(start, end)));
+        }
+        assertThat(result.get(workers.get(1)).getCapacity(),
+                equalTo(result.get(workers.get(0)).getCapacity().multiplyBy(2)));
+    }
+
+}
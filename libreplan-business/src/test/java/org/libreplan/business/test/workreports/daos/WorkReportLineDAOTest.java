@@ -25,19 +25,30 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
+import static org.libreplan.business.common.entities.PersonalTimesheetsPeriodicityEnum.WEEKLY;
 import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.UUID;
 
 import javax.annotation.Resource;
 
+import org.joda.time.LocalDate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.libreplan.business.IDataBootstrap;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
+import org.libreplan.business.workreports.entities.MissingPersonalTimesheets;
+import org.libreplan.business.workreports.entities.PredefinedWorkReportTypes;
 import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workreports.entities.WorkReportType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -93,4 +104,54 @@ public class WorkReportLineDAOTest extends AbstractWorkReportTest {
         List<WorkReportLine> list = workReportLineDAO.list(WorkReportLine.class);
         assertEquals(previous + 2, list.size());
     }
+
+    @Test
+    @Transactional
+    public void testFindDaysWithPersonalTimesheetDataIgnoresOtherTypes() {
+        WorkReportLine workReportLine = createValidWorkReportLine();
+        workReportLineDAO.save(workReportLine);
+        LocalDate date = LocalDate.fromDateFields(workReportLine.getDate());
+
+        Map<Long, Set<LocalDate>> days = workReportLineDAO.findDaysWithPersonalTimesheetData(date, date);
+        assertFalse(days.containsKey(workReportLine.getResource().getId()));
+    }
+
+    @Test
+    @Transactional
+    public void testMissingPersonalTimesheetsAreDetectedForTheWorkersWithoutData() {
+        WorkReportLine personalTimesheetLine = createValidWorkReportLine();
+        personalTimesheetLine.getWorkReport().setWorkReportType(getPersonalTimesheetsType());
+        workReportLineDAO.save(personalTimesheetLine);
+        WorkReportLine otherLine = createValidWorkReportLine();
+        workReportLineDAO.save(otherLine);
+        workReportLineDAO.flush();
+
+        Long withTimesheet = personalTimesheetLine.getResource().getId();
+        Long withoutTimesheet = otherLine.getResource().getId();
+        LocalDate date = LocalDate.fromDateFields(personalTimesheetLine.getDate());
+
+        Map<Long, Set<LocalDate>> days = workReportLineDAO.findDaysWithPersonalTimesheetData(date, date);
+        assertEquals(Collections.singleton(date), days.get(withTimesheet));
+
+        Map<Long, Set<LocalDate>> assigned = new HashMap<>();
+        assigned.put(withTimesheet, Collections.singleton(date));
+        assigned.put(withoutTimesheet, Collections.singleton(date));
+
+        Map<Long, SortedSet<LocalDate>> missing = MissingPersonalTimesheets.find(WEEKLY, assigned, days);
+        assertFalse(missing.containsKey(withTimesheet));
+        assertEquals(Collections.singleton(WEEKLY.getStart(date)), missing.get(withoutTimesheet));
+    }
+
+    private WorkReportType getPersonalTimesheetsType() {
+        String name = PredefinedWorkReportTypes.PERSONAL_TIMESHEETS.getName();
+        try {
+            return workReportTypeDAO.findUniqueByName(name);
+        } catch (InstanceNotFoundException e) {
+            WorkReportType result = WorkReportType.create(name, UUID.randomUUID().toString());
+            workReportTypeDAO.save(result);
+
+            return result;
+        }
+    }
+
 }
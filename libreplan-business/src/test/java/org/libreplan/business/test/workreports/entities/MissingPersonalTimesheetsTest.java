@@ -0,0 +1,92 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.workreports.entities;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.common.entities.PersonalTimesheetsPeriodicityEnum.MONTHLY;
+import static org.libreplan.business.common.entities.PersonalTimesheetsPeriodicityEnum.WEEKLY;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.workreports.entities.MissingPersonalTimesheets;
+
+/**
+ * Tests for {@link MissingPersonalTimesheets}.
+ */
+public class MissingPersonalTimesheetsTest {
+
+    private static final Long RESOURCE = 1L;
+
+    private static final Long OTHER_RESOURCE = 2L;
+
+    private Map<Long, Collection<LocalDate>> assigned = new HashMap<>();
+
+    private Map<Long, Collection<LocalDate>> reported = new HashMap<>();
+
+    @Test
+    public void periodsWithAssignedEffortAndNoDataAreMissing() {
+        assigned.put(RESOURCE, asList(new LocalDate(2016, 3, 2), new LocalDate(2016, 4, 20)));
+        reported.put(RESOURCE, asList(new LocalDate(2016, 4, 1)));
+
+        Map<Long, SortedSet<LocalDate>> missing = MissingPersonalTimesheets.find(MONTHLY, assigned, reported);
+
+        assertThat(missing.get(RESOURCE).size(), equalTo(1));
+        assertThat(missing.get(RESOURCE).first(), equalTo(new LocalDate(2016, 3, 1)));
+    }
+
+    @Test
+    public void resourcesWithoutAssignedEffortAreNotIncluded() {
+        reported.put(OTHER_RESOURCE, asList(new LocalDate(2016, 4, 1)));
+        assigned.put(RESOURCE, asList(new LocalDate(2016, 4, 4)));
+        reported.put(RESOURCE, asList(new LocalDate(2016, 4, 8)));
+
+        Map<Long, SortedSet<LocalDate>> missing = MissingPersonalTimesheets.find(WEEKLY, assigned, reported);
+
+        assertTrue(missing.isEmpty());
+    }
+
+    @Test
+    public void periodsAreCalculatedWithThePeriodicity() {
+        assigned.put(RESOURCE, asList(new LocalDate(2016, 4, 4), new LocalDate(2016, 4, 11)));
+        reported.put(RESOURCE, asList(new LocalDate(2016, 4, 5)));
+
+        assertFalse(MissingPersonalTimesheets.find(WEEKLY, assigned, reported).isEmpty());
+        assertTrue(MissingPersonalTimesheets.find(MONTHLY, assigned, reported).isEmpty());
+    }
+
+    @Test
+    public void lookBackStartIsTheStartOfAPreviousPeriod() {
+        LocalDate today = new LocalDate(2016, 4, 20);
+
+        assertThat(MissingPersonalTimesheets.getLookBackStart(MONTHLY, today, 0), equalTo(new LocalDate(2016, 4, 1)));
+        assertThat(MissingPersonalTimesheets.getLookBackStart(MONTHLY, today, 2), equalTo(new LocalDate(2016, 2, 1)));
+        assertThat(MissingPersonalTimesheets.getLookBackStart(WEEKLY, today, 1), equalTo(new LocalDate(2016, 4, 11)));
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.util;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class SearchIndexTest {
+
+    private static final List<String> NAMES = asList(
+            "Java Developer", "Senior developer", "Tester", "Project Manager", "Devops");
+
+    private SearchIndex<String> index = SearchIndex.create(NAMES, Function.identity());
+
+    @Test
+    public void itemsAreFoundIgnoringCaseAndWhitespace() {
+        assertThat(index.find("DEVELOPER"), equalTo(asList("Java Developer", "Senior developer")));
+        assertThat(index.find("vade"), equalTo(asList("Java Developer")));
+        assertThat(index.find("project man"), equalTo(asList("Project Manager")));
+    }
+
+    @Test
+    public void shortFiltersAreFound() {
+        assertThat(index.find("dev"), equalTo(asList("Java Developer", "Senior developer", "Devops")));
+        assertThat(index.find("j"), equalTo(asList("Java Developer", "Project Manager")));
+        assertTrue(index.find("x").isEmpty());
+    }
+
+    @Test
+    public void theResultsAreLimitedKeepingTheOrder() {
+        assertThat(index.find("e", 2), equalTo(asList("Java Developer", "Senior developer")));
+        assertThat(index.find("", 1), equalTo(asList("Java Developer")));
+    }
+
+    @Test
+    public void anyOfTheTextsOfAnItemCanMatch() {
+        SearchIndex<Integer> companies = SearchIndex.<Integer> builder()
+                .add(1, "Igalia", "B15804842")
+                .add(2, "LibrePlan", "B123")
+                .build();
+
+        assertThat(companies.find("b1"), equalTo(asList(1, 2)));
+        assertThat(companies.find("plan"), equalTo(asList(2)));
+        assertThat(companies.findExactly("b 123"), equalTo(asList(2)));
+        assertTrue(companies.findExactly("b12").isEmpty());
+    }
+
+    @Test
+    public void theResultsAreTheSameAsCheckingEveryText() {
+        Random random = new Random(7);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            texts.add(randomText(random, 4 + random.nextInt(12)));
+        }
+        SearchIndex<String> big = SearchIndex.create(texts, Function.identity());
+
+        for (int i = 0; i < 200; i++) {
+            String filter = randomText(random, 1 + random.nextInt(5));
+            assertThat(big.find(filter), equalTo(findByContains(texts, filter)));
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            result.append("abcD e".charAt(random.nextInt(6)));
+        }
+
+        return result.toString();
+    }
+
+    private static List<String> findByContains(List<String> texts, String filter) {
+        List<String> result = new ArrayList<>();
+        for (String each : texts) {
+            if (SearchIndex.normalize(each).contains(SearchIndex.normalize(filter))) {
+                result.add(each);
+            }
+        }
+
+        return result;
+    }
+
+}
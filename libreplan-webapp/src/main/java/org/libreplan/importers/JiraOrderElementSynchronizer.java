@@ -31,10 +31,17 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.hibernate.Hibernate;
+import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
 import org.libreplan.business.advance.bootstrap.PredefinedAdvancedTypes;
 import org.libreplan.business.advance.entities.AdvanceMeasurement;
@@ -80,6 +87,20 @@ public class JiraOrderElementSynchronizer implements IJiraOrderElementSynchroniz
     private static final Log LOG = LogFactory
             .getLog(JiraOrderElementSynchronizer.class);
 
+    /**
+     * Maximum number of searches run against JIRA at the same time
+     */
+    private static final int MAX_CONCURRENT_SEARCHES = 4;
+
+    /**
+     * Days before the day in UTC of the last synchronization since which the
+     * updated issues are requested. JQL dates are read in the time zone of the
+     * JIRA user, which is unknown. The start of the day before in any time
+     * zone, from UTC-12 to UTC+14, is not after the last synchronization, so
+     * no change is missed.
+     */
+    private static final int INCREMENTAL_SYNC_OVERLAP_DAYS = 1;
+
     private SynchronizationInfo synchronizationInfo;
 
     @Autowired
@@ -145,7 +166,23 @@ public class JiraOrderElementSynchronizer implements IJiraOrderElementSynchroniz
      * @return a list of {@link IssueDTO}
      */
     private List<IssueDTO> getJiraIssues(String label, Connector connector) {
-        Map<String, String> properties = connector.getPropertiesAsMap();
+        return getJiraIssues(label, null, connector.getPropertiesAsMap());
+    }
+
+    /**
+     * Gets the jira issues for the specified <code>label</code> updated since
+     * the specified date
+     *
+     * @param label
+     *            the search criteria
+     * @param updatedSince
+     *            only issues updated since this date are returned. If it is
+     *            <code>null</code> all the issues are returned
+     * @param properties
+     *            the configuration parameters of the connector
+     * @return a list of {@link IssueDTO}
+     */
+    private static List<IssueDTO> getJiraIssues(String label, LocalDate updatedSince, Map<String, String> properties) {
         String url = properties.get(PredefinedConnectorProperties.SERVER_URL);
 
         String username = properties
@@ -156,6 +193,9 @@ public class JiraOrderElementSynchronizer implements IJiraOrderElementSynchroniz
 
         String path = JiraRESTClient.PATH_SEARCH;
         String query = "labels=" + label;
+        if (updatedSince != null) {
+            query += " AND updated >= \"" + updatedSince.toString("yyyy-MM-dd") + "\"";
+        }
 
         List<IssueDTO> issues = JiraRESTClient.getIssues(url, username, password,
                 path, query);
@@ -500,9 +540,18 @@ public class JiraOrderElementSynchronizer implements IJiraOrderElementSynchroniz
     }
 
     @Override
-    @Transactional
     public List<SynchronizationInfo> syncOrderElementsWithJiraIssues() throws ConnectorException {
-        Connector connector = getJiraConnector();
+        final Connector connector = adHocTransactionService
+                .runOnReadOnlyTransaction(new IOnTransaction<Connector>() {
+                    @Override
+                    public Connector execute() {
+                        Connector result = getJiraConnector();
+                        if (result != null) {
+                            result.getPropertiesAsMap();
+                        }
+                        return result;
+                    }
+                });
         if (connector == null) {
             throw new ConnectorException(_("JIRA connector not found"));
         }
@@ -511,8 +560,18 @@ public class JiraOrderElementSynchronizer implements IJiraOrderElementSynchroniz
                     _("Connection values of JIRA connector are invalid"));
         }
 
-        List<OrderSyncInfo> orderSyncInfos = orderSyncInfoDAO
-                .findByConnectorName(PredefinedConnectors.JIRA.getName());
+        List<OrderSyncInfo> orderSyncInfos = adHocTransactionService
+                .runOnReadOnlyTransaction(new IOnTransaction<List<OrderSyncInfo>>() {
+                    @Override
+                    public List<OrderSyncInfo> execute() {
+                        List<OrderSyncInfo> result = orderSyncInfoDAO
+                                .findByConnectorName(PredefinedConnectors.JIRA.getName());
+                        for (OrderSyncInfo each : result) {
+                            Hibernate.initialize(each.getOrder());
+                        }
+                        return result;
+                    }
+                });
 
         synchronizationInfo = new SynchronizationInfo(_("Synchronization"));
 
@@ -526,40 +585,147 @@ public class JiraOrderElementSynchronizer implements IJiraOrderElementSynchroniz
             return syncInfos;
         }
 
-        for (OrderSyncInfo orderSyncInfo : orderSyncInfos) {
-            Order order = orderSyncInfo.getOrder();
-            LOG.info("Synchronizing '" + order.getName() + "'");
-            synchronizationInfo = new SynchronizationInfo(_(
-                    "Synchronization order {0}", order.getName()));
-
-            List<IssueDTO> issueDTOs = getJiraIssues(orderSyncInfo.getKey(),
-                    connector);
-            if (issueDTOs == null || issueDTOs.isEmpty()) {
-                LOG.warn("No JIRA issues found for '" + orderSyncInfo.getKey()
-                        + "'");
-                synchronizationInfo.addFailedReason(_(
-                        "No JIRA issues found for key {0}",
-                        orderSyncInfo.getKey()));
-                syncInfos.add(synchronizationInfo);
-                continue;
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(MAX_CONCURRENT_SEARCHES, orderSyncInfos.size()));
+        try {
+            List<Future<List<IssueDTO>>> searches = searchJiraIssues(executor,
+                    orderSyncInfos, connector.getPropertiesAsMap());
+
+            for (int i = 0; i < orderSyncInfos.size(); i++) {
+                SynchronizationInfo info = syncOrder(orderSyncInfos.get(i),
+                        searches.get(i));
+                if (info != null) {
+                    syncInfos.add(info);
+                }
             }
+        } finally {
+            executor.shutdownNow();
+        }
 
-            orderModel.initEdit(order, null);
-            syncOrderElementsWithJiraIssues(issueDTOs, order);
-            if (!synchronizationInfo.isSuccessful()) {
-                syncInfos.add(synchronizationInfo);
-                continue;
+        return syncInfos;
+    }
+
+    /**
+     * Launches the searches of the issues of every {@link OrderSyncInfo} in
+     * <code>executor</code>. Only the issues updated since the last
+     * synchronization are requested.
+     */
+    private List<Future<List<IssueDTO>>> searchJiraIssues(ExecutorService executor,
+            List<OrderSyncInfo> orderSyncInfos, final Map<String, String> properties) {
+
+        List<Future<List<IssueDTO>>> result = new ArrayList<Future<List<IssueDTO>>>();
+        for (OrderSyncInfo each : orderSyncInfos) {
+            final String key = each.getKey();
+            final LocalDate updatedSince = getUpdatedSince(each);
+
+            result.add(executor.submit(new Callable<List<IssueDTO>>() {
+                @Override
+                public List<IssueDTO> call() {
+                    return getJiraIssues(key, updatedSince, properties);
+                }
+            }));
+        }
+
+        return result;
+    }
+
+    private static LocalDate getUpdatedSince(OrderSyncInfo orderSyncInfo) {
+        if (orderSyncInfo.getLastSyncDate() == null) {
+            return null;
+        }
+
+        return new LocalDate(orderSyncInfo.getLastSyncDate(), DateTimeZone.UTC)
+                .minusDays(INCREMENTAL_SYNC_OVERLAP_DAYS);
+    }
+
+    /**
+     * Synchronizes the order of <code>orderSyncInfo</code> with the issues
+     * returned by <code>search</code>. The order is saved in a transaction of
+     * its own, so a failure only affects to this order. The date of the last
+     * synchronization is only updated if the timesheets are synchronized too,
+     * so the issues of a failed synchronization are requested again next time.
+     *
+     * @return the {@link SynchronizationInfo} if it was not successful,
+     *         <code>null</code> otherwise
+     */
+    private SynchronizationInfo syncOrder(OrderSyncInfo orderSyncInfo,
+            Future<List<IssueDTO>> search) throws ConnectorException {
+        final Order order = orderSyncInfo.getOrder();
+        LOG.info("Synchronizing '" + order.getName() + "'");
+        synchronizationInfo = new SynchronizationInfo(_(
+                "Synchronization order {0}", order.getName()));
+
+        final List<IssueDTO> issueDTOs;
+        try {
+            issueDTOs = search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectorException(_("JIRA synchronization interrupted"));
+        } catch (ExecutionException e) {
+            LOG.error("Error getting JIRA issues for '" + orderSyncInfo.getKey() + "'", e.getCause());
+            synchronizationInfo.addFailedReason(_(
+                    "Error getting JIRA issues for key {0}",
+                    orderSyncInfo.getKey()));
+            return synchronizationInfo;
+        }
+
+        if (issueDTOs == null || issueDTOs.isEmpty()) {
+            if (orderSyncInfo.getLastSyncDate() != null) {
+                LOG.info("No JIRA issues updated for '" + orderSyncInfo.getKey() + "'");
+                return null;
             }
-            orderModel.save(false);
+            LOG.warn("No JIRA issues found for '" + orderSyncInfo.getKey()
+                    + "'");
+            synchronizationInfo.addFailedReason(_(
+                    "No JIRA issues found for key {0}",
+                    orderSyncInfo.getKey()));
+            return synchronizationInfo;
+        }
+
+        Order synchronizedOrder;
+        try {
+            synchronizedOrder = adHocTransactionService
+                    .runOnTransaction(new IOnTransaction<Order>() {
+                        @Override
+                        public Order execute() {
+                            orderModel.initEdit(order, null);
+                            Order result = orderModel.getOrder();
+                            syncOrderElementsWithJiraIssues(issueDTOs, result);
+                            if (!synchronizationInfo.isSuccessful()) {
+                                return null;
+                            }
+                            orderModel.save(false);
+                            return result;
+                        }
+                    });
+        } catch (RuntimeException e) {
+            LOG.error("Error synchronizing '" + order.getName() + "'", e);
+            synchronizationInfo.addFailedReason(e.getMessage());
+            return synchronizationInfo;
+        }
 
-            saveSyncInfo(orderSyncInfo.getKey(), order);
+        if (synchronizedOrder == null) {
+            return synchronizationInfo;
+        }
 
+        try {
             jiraTimesheetSynchronizer.syncJiraTimesheetWithJiraIssues(
-                    issueDTOs, order);
-            if (!synchronizationInfo.isSuccessful()) {
-                syncInfos.add(synchronizationInfo);
+                    issueDTOs, synchronizedOrder);
+        } catch (RuntimeException e) {
+            LOG.error("Error synchronizing the timesheets of '" + order.getName() + "'", e);
+            synchronizationInfo.addFailedReason(e.getMessage());
+            return synchronizationInfo;
+        }
+
+        SynchronizationInfo timesheetsInfo = jiraTimesheetSynchronizer.getSynchronizationInfo();
+        if (!timesheetsInfo.isSuccessful()) {
+            for (String each : timesheetsInfo.getFailedReasons()) {
+                synchronizationInfo.addFailedReason(each);
             }
+            return synchronizationInfo;
         }
-        return syncInfos;
+
+        saveSyncInfo(orderSyncInfo.getKey(), synchronizedOrder);
+        return null;
     }
 }
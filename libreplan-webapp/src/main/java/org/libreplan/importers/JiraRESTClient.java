@@ -19,6 +19,7 @@
 
 package org.libreplan.importers;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -59,9 +60,10 @@ public class JiraRESTClient {
     private static final String FIELDS_TO_INCLUDE_IN_RESPONSE = "summary,status,timetracking,worklog";
 
     /**
-     * Max number of issues to return(default is 50)
+     * Max number of issues to return in every page of results. JIRA can
+     * return less than this if it is configured with a lower limit.
      */
-    private static final long MAX_RESULTS = 1000;
+    private static final int MAX_RESULTS = 1000;
 
     private static final MediaType[] mediaTypes = new MediaType[] {
             MediaType.valueOf(MediaType.APPLICATION_JSON),
@@ -82,7 +84,9 @@ public class JiraRESTClient {
     }
 
     /**
-     * Query Jira for all issues with the specified query parameter
+     * Query Jira for all issues with the specified query parameter. The
+     * results are requested page by page until all the issues found are
+     * retrieved.
      *
      * @param url
      *            the url(end point)
@@ -114,9 +118,20 @@ public class JiraRESTClient {
         client.query("maxResults", MAX_RESULTS);
         client.query("fields", StringUtils.deleteWhitespace(FIELDS_TO_INCLUDE_IN_RESPONSE));
 
-        SearchResultDTO searchResult = client.get(SearchResultDTO.class);
+        List<IssueDTO> result = new ArrayList<>();
+        SearchResultDTO searchResult;
+        do {
+            client.replaceQueryParam("startAt", result.size());
+            searchResult = client.get(SearchResultDTO.class);
 
-        return searchResult.getIssues();
+            if ( searchResult.getIssues() == null || searchResult.getIssues().isEmpty() ) {
+                break;
+            }
+            result.addAll(searchResult.getIssues());
+
+        } while (searchResult.getTotal() != null && result.size() < searchResult.getTotal());
+
+        return result;
     }
 
     /**
@@ -131,25 +131,22 @@ public class JiraTimesheetSynchronizer implements IJiraTimesheetSynchronizer {
 
         for (IssueDTO issue : issues) {
             WorkLogDTO workLog = issue.getFields().getWorklog();
-            if (workLog == null) {
-                synchronizationInfo.addFailedReason(_("No worklogs found for \"{0}\" key", issue.getKey()));
+            List<WorkLogItemDTO> workLogItems = workLog != null ? workLog.getWorklogs() : null;
+
+            // Nobody logged work on the issue yet, there is nothing to synchronize
+            if (workLogItems == null || workLogItems.isEmpty()) {
+                continue;
+            }
+
+            String codeOrderElement =
+                    PredefinedConnectorProperties.JIRA_CODE_PREFIX + order.getCode() + "-" + issue.getKey();
+
+            OrderElement orderElement = order.getOrderElement(codeOrderElement);
+
+            if (orderElement == null) {
+                synchronizationInfo.addFailedReason(_("Order element \"{0}\" not found", code));
             } else {
-                List<WorkLogItemDTO> workLogItems = workLog.getWorklogs();
-                if (workLogItems == null || workLogItems.isEmpty()) {
-                    synchronizationInfo.addFailedReason(_("No worklog items found for \"{0}\" issue", issue.getKey()));
-                } else {
-
-                    String codeOrderElement =
-                            PredefinedConnectorProperties.JIRA_CODE_PREFIX + order.getCode() + "-" + issue.getKey();
-
-                    OrderElement orderElement = order.getOrderElement(codeOrderElement);
-
-                    if (orderElement == null) {
-                        synchronizationInfo.addFailedReason(_("Order element \"{0}\" not found", code));
-                    } else {
-                        updateOrCreateWorkReportLineAndAddToWorkReport(workReport, orderElement, workLogItems);
-                    }
-                }
+                updateOrCreateWorkReportLineAndAddToWorkReport(workReport, orderElement, workLogItems);
             }
         }
 
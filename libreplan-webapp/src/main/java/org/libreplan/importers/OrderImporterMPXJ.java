@@ -22,8 +22,10 @@ package org.libreplan.importers;
 import static org.libreplan.web.I18nHelper._;
 
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
+import java.util.Deque;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,6 +33,8 @@ import net.sf.mpxj.reader.ProjectReader;
 import net.sf.mpxj.reader.ProjectReaderUtility;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.joda.time.LocalDate;
 import org.libreplan.business.calendars.daos.IBaseCalendarDAO;
 import org.libreplan.business.calendars.entities.BaseCalendar;
@@ -38,8 +42,11 @@ import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.daos.IConfigurationDAO;
 import org.libreplan.business.common.daos.IEntitySequenceDAO;
 import org.libreplan.business.common.entities.EntityNameEnum;
+import org.libreplan.business.common.entities.EntitySequence;
 import org.libreplan.business.common.exceptions.ValidationException;
+import org.libreplan.business.hibernate.ScopedBatchBuilder;
 import org.libreplan.business.orders.daos.IOrderDAO;
+import org.libreplan.business.orders.entities.HoursGroup;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.orders.entities.OrderLine;
@@ -76,6 +83,18 @@ import org.springframework.transaction.annotation.Transactional;
 @Scope(BeanDefinition.SCOPE_SINGLETON)
 public class OrderImporterMPXJ implements IOrderImporter {
 
+    private static final Log LOG = LogFactory.getLog(OrderImporterMPXJ.class);
+
+    /**
+     * Number of {@link TaskSource} saved between flushes of the session.
+     */
+    private static final int FLUSH_INTERVAL = 500;
+
+    /**
+     * Number of statements sent together to the database while storing.
+     */
+    private static final int BATCH_SIZE = 50;
+
     @Autowired
     private IBaseCalendarDAO baseCalendarDAO;
 
@@ -184,16 +203,6 @@ public class OrderImporterMPXJ implements IOrderImporter {
 
         orderElement.useSchedulingDataFor(orderVersion);
 
-        List<OrderElement> children = new ArrayList<>();
-
-        for (OrderElementDTO task : project.tasks) {
-            children.add(convertImportTaskToOrderElement(orderVersion, task));
-        }
-
-        for (OrderElement child : children) {
-            ((OrderLineGroup) orderElement).add(child);
-        }
-
         orderElement.setName(project.name + ": " + project.hashCode());
         orderElement.setCode(code);
 
@@ -201,12 +210,11 @@ public class OrderImporterMPXJ implements IOrderImporter {
 
         orderElement.setDeadline(project.deadline);
 
-        ((Order) orderElement).calculateAndSetTotalHours();
-
         project.order = (Order) orderElement;
 
-        ((Order) orderElement).generateOrderElementCodes(entitySequenceDAO
-                .getNumberOfDigitsCode(EntityNameEnum.ORDER));
+        addOrderElements(project, orderVersion, entitySequenceDAO.getNumberOfDigitsCode(EntityNameEnum.ORDER));
+
+        ((Order) orderElement).calculateAndSetTotalHours();
 
         return (Order) orderElement;
 
@@ -215,52 +223,112 @@ public class OrderImporterMPXJ implements IOrderImporter {
     /**
      * Private method.
      *
-     * It makes a {@link OrderElement} from a {@link OrderElementDTO}
+     * Adds the {@link OrderElement} of all the tasks of the project level by
+     * level, so every element is added to its parent before having children of
+     * its own and the requirements and labels propagated on every addition
+     * only go through one level. The codes are taken from the sequence of the
+     * order as the elements are created, so there is no need to generate them
+     * again afterwards.
+     *
+     * @param project
+     *            OrderDTO with the order already created.
+     * @param orderVersion
+     *            Number of version.
+     * @param numberOfDigits
+     *            Number of digits of the codes.
+     */
+    private void addOrderElements(OrderDTO project, OrderVersion orderVersion, int numberOfDigits) {
+
+        Order order = project.order;
+
+        Deque<OrderElementDTO> pending = new ArrayDeque<>();
+
+        for (OrderElementDTO task : project.tasks) {
+            addOrderElement(order, order, orderVersion, task, numberOfDigits, pending);
+        }
+
+        while ( !pending.isEmpty() ) {
+
+            OrderElementDTO parent = pending.poll();
+
+            for (OrderElementDTO task : parent.children) {
+                addOrderElement(order, (OrderLineGroup) parent.orderElement, orderVersion, task, numberOfDigits,
+                        pending);
+            }
+        }
+    }
+
+    /**
+     * Private method.
+     *
+     * It makes a {@link OrderElement} from a {@link OrderElementDTO} without
+     * its children and adds it to <code>parent</code>. If the task has children
+     * it is added to <code>pending</code>.
      *
      * @param task
      *            ImportTask to extract data from.
      * @param orderVersion
      *            Number of version.
-     * @return OrderElement OrderElement that represent the data.
      */
-    private OrderElement convertImportTaskToOrderElement(OrderVersion orderVersion, OrderElementDTO task) {
+    private void addOrderElement(Order order, OrderLineGroup parent, OrderVersion orderVersion, OrderElementDTO task,
+                                 int numberOfDigits, Deque<OrderElementDTO> pending) {
 
         Validate.notNull(orderVersion);
         OrderElement orderElement;
 
+        String code = nextOrderElementCode(order, numberOfDigits);
+
         if ( task.children.size() == 0 ) {
-            orderElement = OrderLine
-                    .createUnvalidatedWithUnfixedPercentage(UUID.randomUUID().toString(), task.totalHours);
+            OrderLine orderLine = OrderLine.createUnvalidatedWithUnfixedPercentage(code, task.totalHours);
 
-            if ( !orderElement.getHoursGroups().isEmpty() ) {
-                orderElement.getHoursGroups().get(0).setCode(UUID.randomUUID().toString());
+            for (HoursGroup hoursGroup : orderLine.getHoursGroups()) {
+                hoursGroup.setCode(nextHoursGroupCode(order, orderLine, numberOfDigits));
             }
 
+            orderElement = orderLine;
+
         } else {
 
-            orderElement = OrderLineGroup.createUnvalidated(UUID.randomUUID().toString());
+            orderElement = OrderLineGroup.createUnvalidated(code);
 
             orderElement.useSchedulingDataFor(orderVersion);
+
+            pending.add(task);
         }
 
-        List<OrderElement> children = new ArrayList<>();
+        orderElement.setName(task.name);
 
-        for (OrderElementDTO childrenTask : task.children) {
-            children.add(convertImportTaskToOrderElement(orderVersion, childrenTask));
-        }
+        orderElement.setDeadline(task.deadline);
+
+        parent.add(orderElement);
 
-        for (OrderElement child : children) {
+        task.orderElement = orderElement;
+    }
 
-            ((OrderLineGroup) orderElement).add(child);
+    /**
+     * The codes are only taken from the sequence of the order when they are
+     * autogenerated, as {@link Order#generateOrderElementCodes(int)} does.
+     */
+    private String nextOrderElementCode(Order order, int numberOfDigits) {
+        if ( !order.isCodeAutogenerated() ) {
+            return UUID.randomUUID().toString();
         }
 
-        orderElement.setName(task.name);
+        order.incrementLastOrderElementSequenceCode();
 
-        orderElement.setDeadline(task.deadline);
+        return order.getCode() + EntitySequence.CODE_SEPARATOR_CHILDREN +
+                EntitySequence.formatValue(numberOfDigits, order.getLastOrderElementSequenceCode());
+    }
 
-        task.orderElement = orderElement;
+    private String nextHoursGroupCode(Order order, OrderLine orderLine, int numberOfDigits) {
+        if ( !order.isCodeAutogenerated() ) {
+            return UUID.randomUUID().toString();
+        }
 
-        return orderElement;
+        orderLine.incrementLastHoursGroupSequenceCode();
+
+        return orderLine.getCode() + EntitySequence.CODE_SEPARATOR_CHILDREN +
+                EntitySequence.formatValue(numberOfDigits, orderLine.getLastHoursGroupSequenceCode());
     }
 
     /**
@@ -332,7 +400,8 @@ public class OrderImporterMPXJ implements IOrderImporter {
     }
 
     /**
-     * It makes a {@link TaskElement} from a {@link OrderElementDTO}.
+     * It makes a {@link TaskElement} from a {@link OrderElementDTO} and the
+     * ones of all its descendants, level by level.
      *
      * @param task
      *            ImportTask to extract data from.
@@ -341,6 +410,48 @@ public class OrderImporterMPXJ implements IOrderImporter {
      */
     private TaskElement createTask(OrderElementDTO task, boolean importCalendar) {
 
+        Deque<OrderElementDTO> pending = new ArrayDeque<>();
+
+        TaskElement result = createTaskElement(task, importCalendar, pending);
+
+        while ( !pending.isEmpty() ) {
+
+            OrderElementDTO parent = pending.poll();
+
+            TaskGroup taskGroup = (TaskGroup) parent.taskElement;
+
+            for (OrderElementDTO importTask : parent.children) {
+
+                addAtTheEnd(taskGroup, createTaskElement(importTask, importCalendar, pending));
+
+            }
+
+            if ( parent.milestones != null )
+                for (MilestoneDTO milestone : parent.milestones) {
+
+                    addAtTheEnd(taskGroup, createTaskMilestone(milestone));
+
+                }
+        }
+
+        return result;
+    }
+
+    /**
+     * The dates of the imported task groups are kept as they are, so they are
+     * not extended with the ones of their children.
+     */
+    private void addAtTheEnd(TaskGroup taskGroup, TaskElement taskElement) {
+        taskGroup.addTaskElement(taskGroup.getChildren().size(), taskElement);
+    }
+
+    /**
+     * It makes a {@link TaskElement} from a {@link OrderElementDTO} without its
+     * children. If the task has children it is added to <code>pending</code>.
+     */
+    private TaskElement createTaskElement(OrderElementDTO task, boolean importCalendar,
+                                          Deque<OrderElementDTO> pending) {
+
         OrderElement orderElement = task.orderElement;
 
         TaskElement taskElement;
@@ -366,24 +477,7 @@ public class OrderImporterMPXJ implements IOrderImporter {
 
             taskElement = taskSource.createTaskGroupWithoutDatesInitializedAndLinkItToTaskSource();
 
-            List<TaskElement> taskElements = new ArrayList<>();
-
-            for (OrderElementDTO importTask : task.children) {
-
-                taskElements.add(createTask(importTask, importCalendar));
-
-            }
-
-            if ( task.milestones != null )
-                for (MilestoneDTO milestone : task.milestones) {
-
-                    taskElements.add(createTaskMilestone(milestone));
-
-                }
-
-            for (TaskElement childTaskElement : taskElements) {
-                ((TaskGroup) taskElement).addTaskElement(childTaskElement);
-            }
+            pending.add(task);
 
         }
 
@@ -503,25 +597,85 @@ public class OrderImporterMPXJ implements IOrderImporter {
 
         }
 
+        ScopedBatchBuilder.startBatching(BATCH_SIZE);
+        try {
+
+            storeOrder(order, taskGroup, dependencies, taskSources);
+
+        } finally {
+            ScopedBatchBuilder.stopBatching();
+        }
+
+    }
+
+    /**
+     * The imported entities already stored are not needed anymore, so they
+     * are flushed and evicted in order not to be checked again on every
+     * flush. The rest of the entities of the session are kept.
+     */
+    private void storeOrder(Order order, TaskGroup taskGroup, List<Dependency> dependencies,
+                            List<TaskSource> taskSources) {
+
         orderDAO.save(order);
 
         taskDAO.save(taskGroup);
 
-        for (TaskSource taskSource : taskSources) {
+        for(Dependency dependency: dependencies){
 
-            taskSource.validate();
-            taskSourceDAO.save(taskSource);
+            dependencyDAO.save(dependency);
 
         }
 
-        for(Dependency dependency: dependencies){
+        orderDAO.flush();
 
-            dependencyDAO.save(dependency);
+        orderDAO.evict(order);
+        taskDAO.evict(taskGroup);
+
+        for (Dependency dependency : dependencies) {
+            dependencyDAO.evict(dependency);
+        }
+
+        LOG.info("Order " + order.getCode() + " stored with " + dependencies.size() + " dependencies, storing " +
+                taskSources.size() + " task sources");
+
+        for (int from = 0; from < taskSources.size(); from += FLUSH_INTERVAL) {
 
+            List<TaskSource> chunk = taskSources.subList(from, Math.min(from + FLUSH_INTERVAL, taskSources.size()));
+
+            for (TaskSource taskSource : chunk) {
+
+                dontPoseAsTransientObjectsAnymore(taskSource);
+
+                taskSource.validate();
+                taskSourceDAO.save(taskSource);
+
+            }
+
+            taskSourceDAO.flush();
+
+            for (TaskSource taskSource : chunk) {
+                taskSourceDAO.evict(taskSource);
+            }
+
+            LOG.info(from + chunk.size() + " of " + taskSources.size() + " task sources of order " +
+                    order.getCode() + " stored");
         }
 
     }
 
+    /**
+     * The entities referenced by a {@link TaskSource} have already been stored
+     * but, once evicted, they would be taken as new ones and inserted again.
+     */
+    private void dontPoseAsTransientObjectsAnymore(TaskSource taskSource) {
+        taskSource.getTask().dontPoseAsTransientObjectAnymore();
+        taskSource.getOrderElement().getCurrentSchedulingDataForVersion().dontPoseAsTransientObjectAnymore();
+
+        for (HoursGroup each : taskSource.getHoursGroups()) {
+            each.dontPoseAsTransientObjectAnymore();
+        }
+    }
+
     /**
      * Creates a list of {@link Dependency} from a {@link OrderDTO}.
      *
@@ -36,7 +36,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
-import org.zkoss.zul.Messagebox;
 
 import javax.mail.Message;
 import javax.mail.MessagingException;
@@ -49,8 +48,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 
-import static org.libreplan.web.I18nHelper._;
-
 /**
  * Sends E-mail to users with data that storing in notification_queue table
  * and that are treat to incoming {@link EmailNotification}.
@@ -87,8 +84,52 @@ public class ComposeMessage {
 
     private static final Log LOG = LogFactory.getLog(ComposeMessage.class);
 
+    private static final int SMTP_TIMEOUT_MILLIS = 30000;
+
 
     public boolean composeMessageForUser(EmailNotification notification) {
+        try {
+            MimeMessage message = composeMessage(notification, createMailSession());
+            if ( message == null ) {
+                return false;
+            }
+
+            Transport.send(message);
+
+            return true;
+
+        } catch (MessagingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates a mail {@link Session} with the properties of the E-mail connector.
+     * A single session can be shared by all the messages composed in a job.
+     */
+    public Session createMailSession() {
+        setupConnectionProperties();
+
+        final String username = usrnme;
+        final String password = psswrd;
+
+        // It is very important to use Session.getInstance() instead of Session.getDefaultInstance()
+        return Session.getInstance(properties, new javax.mail.Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(username, password);
+            }
+        });
+    }
+
+    /**
+     * Composes the message for the {@link EmailNotification} without sending it.
+     *
+     * @return the message ready to be sent, or <code>null</code> if nothing has to be sent to the user
+     */
+    public MimeMessage composeMessage(EmailNotification notification, Session mailSession)
+            throws MessagingException {
+
         // Gather data about EmailTemplate needs to be used
         Resource resource = notification.getResource();
         EmailTemplateEnum type = notification.getType();
@@ -97,66 +138,49 @@ public class ComposeMessage {
 
         UserRole currentUserRole = getCurrentUserRole(notification.getType());
 
-        if (currentWorker != null && currentWorker.getUser().isInRole(currentUserRole)) {
-            if (currentWorker.getUser().getApplicationLanguage().equals(Language.BROWSER_LANGUAGE)) {
-                locale = new Locale(System.getProperty("user.language"));
-            } else {
-                locale = new Locale(currentWorker.getUser().getApplicationLanguage().getLocale().getLanguage());
-            }
-
-            EmailTemplate currentEmailTemplate = findCurrentEmailTemplate(type, locale);
-
-            if (currentEmailTemplate == null) {
-                LOG.error("Email template is null");
-                return false;
-            }
+        if ( currentWorker == null || !currentWorker.getUser().isInRole(currentUserRole) ) {
+            return null;
+        }
 
-            // Modify text that will be composed
-            String text = currentEmailTemplate.getContent();
-            text = replaceKeywords(text, currentWorker, notification);
+        if ( currentWorker.getUser().getApplicationLanguage().equals(Language.BROWSER_LANGUAGE) ) {
+            locale = new Locale(System.getProperty("user.language"));
+        } else {
+            locale = new Locale(currentWorker.getUser().getApplicationLanguage().getLocale().getLanguage());
+        }
 
-            String receiver = currentWorker.getUser().getEmail();
+        EmailTemplate currentEmailTemplate = findCurrentEmailTemplate(type, locale);
 
-            setupConnectionProperties();
+        if ( currentEmailTemplate == null ) {
+            LOG.error("Email template is null");
+            return null;
+        }
 
-            final String username = usrnme;
-            final String password = psswrd;
+        String receiver = currentWorker.getUser().getEmail();
 
-            // It is very important to use Session.getInstance() instead of Session.getDefaultInstance()
-            Session mailSession = Session.getInstance(properties, new javax.mail.Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(username, password);
-                }
-            });
+        if ( receiver == null ) {
+            // It's composed by the dispatcher out of any ZK execution, so it can't be shown to the user
+            LOG.warn(currentWorker.getUser().getLoginName() + " - this user has not filled the E-mail, " +
+                    "the notification is not sent");
 
-            // Send message
-            try {
-                MimeMessage message = new MimeMessage(mailSession);
+            return null;
+        }
 
-                message.setFrom(new InternetAddress(sender));
-                message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(receiver));
+        // Modify text that will be composed
+        String text = currentEmailTemplate.getContent();
+        text = replaceKeywords(text, currentWorker, notification);
 
-                String subject = currentEmailTemplate.getSubject();
-                message.setSubject(subject);
+        MimeMessage message = new MimeMessage(mailSession);
 
-                message.setText(text);
+        message.setFrom(new InternetAddress(sender));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(receiver));
 
-                Transport.send(message);
+        String subject = currentEmailTemplate.getSubject();
+        message.setSubject(subject);
 
-                return true;
+        message.setText(text);
+        message.saveChanges();
 
-            } catch (MessagingException e) {
-                throw new RuntimeException(e);
-            } catch (NullPointerException e) {
-                if (receiver == null) {
-                    Messagebox.show(
-                            _(currentWorker.getUser().getLoginName() + " - this user have not filled E-mail"),
-                            _("Error"), Messagebox.OK, Messagebox.ERROR);
-                }
-            }
-        }
-        return false;
+        return message;
     }
 
     private Worker getCurrentWorker(Long resourceID){
@@ -243,6 +267,11 @@ public class ComposeMessage {
 
         properties = new Properties();
 
+        // Without timeouts a slow SMTP server would block the sending job forever
+        properties.put("mail.smtp.connectiontimeout", Integer.toString(SMTP_TIMEOUT_MILLIS));
+        properties.put("mail.smtp.timeout", Integer.toString(SMTP_TIMEOUT_MILLIS));
+        properties.put("mail.smtp.writetimeout", Integer.toString(SMTP_TIMEOUT_MILLIS));
+
         if ( "STARTTLS".equals(protocol) ) {
             properties.put("mail.smtp.starttls.enable", "true");
             properties.put("mail.smtp.host", host);
@@ -0,0 +1,405 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.importers.notifications;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.email.daos.IEmailNotificationDAO;
+import org.libreplan.business.email.entities.EmailNotification;
+import org.libreplan.business.email.entities.EmailTemplateEnum;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+/**
+ * Sends the pending {@link EmailNotification} of a type.
+ *
+ * The notification_queue table acts as the queue: messages are composed in a
+ * read-only transaction and then sent by a bounded pool of workers, once that
+ * transaction has finished. Every worker keeps its SMTP connection open for all
+ * the messages it sends and retries the failed ones with an increasing delay.
+ * The notifications sent are removed with bulk deletes in another short
+ * transaction and the ones that could not be sent stay in the table to be tried
+ * again the next time the job runs.
+ */
+@Component
+@Scope(BeanDefinition.SCOPE_SINGLETON)
+public class EmailDispatcher {
+
+    private static final Log LOG = LogFactory.getLog(EmailDispatcher.class);
+
+    private static final int POOL_SIZE = 4;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+
+    @Autowired
+    private IEmailNotificationDAO emailNotificationDAO;
+
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE, new ThreadFactory() {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread result = new Thread(runnable, "email-dispatcher-" + count.incrementAndGet());
+            result.setDaemon(true);
+
+            return result;
+        }
+    });
+
+    private final Map<EmailTemplateEnum, TemplateStatistics> statistics =
+            Collections.synchronizedMap(new EnumMap<EmailTemplateEnum, TemplateStatistics>(EmailTemplateEnum.class));
+
+    /**
+     * Sends all the pending notifications of <code>type</code>. It must be
+     * called outside of any transaction, after the notifications to send have
+     * been committed, so no transaction is kept open while the messages are
+     * sent.
+     *
+     * @return the number of notifications sent
+     */
+    public int dispatch(final EmailTemplateEnum type, final ComposeMessage composeMessage) {
+        long start = System.currentTimeMillis();
+
+        ComposedMessages composed = transactionService.runOnReadOnlyTransaction(() -> compose(type, composeMessage));
+        if ( composed == null ) {
+            return 0;
+        }
+
+        List<OutgoingMessage> outgoing = composed.messages;
+        final List<Long> sent = send(composed.mailSession, outgoing);
+
+        if ( !sent.isEmpty() ) {
+            transactionService.runOnTransaction(() -> {
+                emailNotificationDAO.deleteByIds(sent);
+                return null;
+            });
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        getStatistics(type).add(sent.size(), outgoing.size() - sent.size(), elapsed);
+        LOG.info(sent.size() + " of " + outgoing.size() + " messages of type " + type + " sent in " + elapsed + " ms");
+
+        return sent.size();
+    }
+
+    /**
+     * @return the messages of the pending notifications of <code>type</code>,
+     *         or <code>null</code> if there are no pending notifications
+     */
+    private ComposedMessages compose(EmailTemplateEnum type, ComposeMessage composeMessage) {
+        List<EmailNotification> notifications = emailNotificationDAO.getAllByType(type);
+        if ( notifications.isEmpty() ) {
+            return null;
+        }
+
+        ComposedMessages result = new ComposedMessages(composeMessage.createMailSession());
+        for (EmailNotification each : notifications) {
+            try {
+                MimeMessage message = composeMessage.composeMessage(each, result.mailSession);
+                if ( message != null ) {
+                    result.messages.add(new OutgoingMessage(each.getId(), message));
+                }
+            } catch (MessagingException e) {
+                LOG.error("Unable to compose message for notification " + each.getId(), e);
+            }
+        }
+
+        return result;
+    }
+
+    private List<Long> send(Session mailSession, List<OutgoingMessage> outgoing) {
+        List<Long> result = new ArrayList<>();
+        if ( outgoing.isEmpty() ) {
+            return result;
+        }
+
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (List<OutgoingMessage> each : split(outgoing, POOL_SIZE)) {
+            futures.add(executor.submit(new Sender(mailSession, each)));
+        }
+
+        for (Future<List<Long>> each : futures) {
+            try {
+                result.addAll(each.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.error("Interrupted while waiting for messages to be sent", e);
+            } catch (ExecutionException e) {
+                LOG.error("Error sending messages", e.getCause());
+            }
+        }
+
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T> List<List<T>> split(List<T> list, int parts) {
+        List<List<T>> result = new ArrayList<>();
+        int size = (list.size() + parts - 1) / parts;
+
+        for (int from = 0; from < list.size(); from += size) {
+            result.add(list.subList(from, Math.min(from + size, list.size())));
+        }
+
+        return result;
+    }
+
+    private TemplateStatistics getStatistics(EmailTemplateEnum type) {
+        synchronized (statistics) {
+            TemplateStatistics result = statistics.get(type);
+            if ( result == null ) {
+                result = new TemplateStatistics();
+                statistics.put(type, result);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * @return the statistics of the messages sent for every type of template
+     *         since the application was started
+     */
+    public Map<EmailTemplateEnum, TemplateStatistics> getStatistics() {
+        synchronized (statistics) {
+            return Collections.unmodifiableMap(new EnumMap<>(statistics));
+        }
+    }
+
+    public static class TemplateStatistics {
+
+        private final AtomicLong sent = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private final AtomicLong elapsedMillis = new AtomicLong();
+
+        private void add(int sent, int failed, long elapsedMillis) {
+            this.sent.addAndGet(sent);
+            this.failed.addAndGet(failed);
+            this.elapsedMillis.addAndGet(elapsedMillis);
+        }
+
+        public long getSent() {
+            return sent.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis.get();
+        }
+
+        /**
+         * @return messages sent per second
+         */
+        public double getThroughput() {
+            long millis = elapsedMillis.get();
+
+            return millis == 0 ? 0 : sent.get() * 1000.0 / millis;
+        }
+
+    }
+
+    private static class ComposedMessages {
+
+        private final Session mailSession;
+
+        private final List<OutgoingMessage> messages = new ArrayList<>();
+
+        private ComposedMessages(Session mailSession) {
+            this.mailSession = mailSession;
+        }
+
+    }
+
+    private static class OutgoingMessage {
+
+        private final Long notificationId;
+
+        private final MimeMessage message;
+
+        private OutgoingMessage(Long notificationId, MimeMessage message) {
+            this.notificationId = notificationId;
+            this.message = message;
+        }
+
+    }
+
+    /**
+     * Sends a list of messages reusing the same connection.
+     */
+    private static class Sender implements Callable<List<Long>> {
+
+        private final Session mailSession;
+
+        private final List<OutgoingMessage> messages;
+
+        private Transport transport;
+
+        private Sender(Session mailSession, List<OutgoingMessage> messages) {
+            this.mailSession = mailSession;
+            this.messages = messages;
+        }
+
+        @Override
+        public List<Long> call() throws Exception {
+            List<Long> result = new ArrayList<>();
+
+            try {
+                for (OutgoingMessage each : messages) {
+                    if ( sendWithRetries(each.message) ) {
+                        result.add(each.notificationId);
+                    }
+                }
+            } finally {
+                close();
+            }
+
+            return result;
+        }
+
+        private boolean sendWithRetries(MimeMessage message) throws InterruptedException {
+            long backoff = INITIAL_BACKOFF_MILLIS;
+
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                try {
+                    connectIfNeeded();
+                    transport.sendMessage(message, message.getAllRecipients());
+
+                    return true;
+
+                } catch (SendFailedException e) {
+                    if ( !isTransient(e) ) {
+                        // Wrong addresses, trying again will not help
+                        LOG.error("Message rejected by the SMTP server", e);
+
+                        return false;
+                    }
+                    LOG.warn("Attempt " + attempt + " of " + MAX_ATTEMPTS + " to send message failed", e);
+
+                    if ( attempt < MAX_ATTEMPTS ) {
+                        Thread.sleep(backoff);
+                        backoff *= 2;
+                    }
+
+                } catch (MessagingException e) {
+                    LOG.warn("Attempt " + attempt + " of " + MAX_ATTEMPTS + " to send message failed", e);
+                    close();
+
+                    if ( attempt < MAX_ATTEMPTS ) {
+                        Thread.sleep(backoff);
+                        backoff *= 2;
+                    }
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * The SMTP replies with a 4xx code, like 421 service not available or
+         * 451 local error, are transient failures, so sending the message
+         * again later can work.
+         */
+        private static boolean isTransient(SendFailedException e) {
+            Exception each = e;
+            while (each instanceof MessagingException) {
+                int returnCode = returnCodeOf(each);
+                if ( returnCode >= 400 && returnCode < 500 ) {
+                    return true;
+                }
+                each = ((MessagingException) each).getNextException();
+            }
+
+            return false;
+        }
+
+        private static int returnCodeOf(Exception e) {
+            if ( e instanceof SMTPSendFailedException ) {
+                return ((SMTPSendFailedException) e).getReturnCode();
+            }
+            if ( e instanceof SMTPAddressFailedException ) {
+                return ((SMTPAddressFailedException) e).getReturnCode();
+            }
+
+            return -1;
+        }
+
+        private void connectIfNeeded() throws MessagingException {
+            if ( transport == null || !transport.isConnected() ) {
+                transport = mailSession.getTransport("smtp");
+                transport.connect();
+            }
+        }
+
+        private void close() {
+            if ( transport != null ) {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    LOG.warn("Error closing SMTP connection", e);
+                }
+                transport = null;
+            }
+        }
+
+    }
+
+}
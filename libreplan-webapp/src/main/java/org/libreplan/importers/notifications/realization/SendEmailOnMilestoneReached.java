@@ -22,6 +22,7 @@ package org.libreplan.importers.notifications.realization;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.common.Configuration;
+import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.email.entities.EmailNotification;
 import org.libreplan.business.email.entities.EmailTemplateEnum;
@@ -32,13 +33,13 @@ import org.libreplan.business.users.entities.User;
 import org.libreplan.business.users.entities.UserRole;
 import org.libreplan.importers.notifications.ComposeMessage;
 import org.libreplan.importers.notifications.EmailConnectionValidator;
+import org.libreplan.importers.notifications.EmailDispatcher;
 import org.libreplan.importers.notifications.IEmailNotificationJob;
 import org.libreplan.web.email.IEmailNotificationModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
@@ -61,6 +62,9 @@ public class SendEmailOnMilestoneReached implements IEmailNotificationJob {
     @Autowired
     private IEmailNotificationModel emailNotificationModel;
 
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
     @Autowired
     private ITaskElementDAO taskElementDAO;
 
@@ -70,34 +74,32 @@ public class SendEmailOnMilestoneReached implements IEmailNotificationJob {
     @Autowired
     private ComposeMessage composeMessage;
 
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
     @Autowired
     EmailConnectionValidator emailConnectionValidator;
 
     /**
-     * Transactional here is needed because without this annotation we are getting
+     * The data is gathered in a transaction because without it we are getting
      * "LazyInitializationException: could not initialize proxy - no Session" error,
      * when "item.getParent().getOrderElement().getOrder().getResponsible()" method was called.
      * Earlier this trouble was not present because in Tasks.hbm.xml for "TaskElement" class field
      * named "parent", which has relation "many-to-one" to "TaskGroup", lazy was set to "false".
      */
     @Override
-    @Transactional
     public void sendEmail() {
         // Gathering data
-        checkMilestoneDate();
+        transactionService.runOnTransaction(() -> {
+            checkMilestoneDate();
+            return null;
+        });
 
         if ( Configuration.isEmailSendingEnabled() ) {
 
             if ( emailConnectionValidator.isConnectionActivated() && emailConnectionValidator.validConnection() ) {
 
-                List<EmailNotification> notifications =
-                        emailNotificationModel.getAllByType(EmailTemplateEnum.TEMPLATE_MILESTONE_REACHED);
-
-                for (EmailNotification notification : notifications) {
-                    if ( composeMessageForUser(notification) ) {
-                        deleteSingleNotification(notification);
-                    }
-                }
+                emailDispatcher.dispatch(EmailTemplateEnum.TEMPLATE_MILESTONE_REACHED, composeMessage);
             }
         }
     }
@@ -107,10 +109,6 @@ public class SendEmailOnMilestoneReached implements IEmailNotificationJob {
         return composeMessage.composeMessageForUser(notification);
     }
 
-    private void deleteSingleNotification(EmailNotification notification){
-        emailNotificationModel.deleteById(notification);
-    }
-
     private void sendEmailNotificationToManager(TaskElement item) {
         emailNotificationModel.setNewObject();
         emailNotificationModel.setType(EmailTemplateEnum.TEMPLATE_MILESTONE_REACHED);
@@ -25,13 +25,12 @@ import org.libreplan.business.email.entities.EmailNotification;
 import org.libreplan.business.email.entities.EmailTemplateEnum;
 import org.libreplan.importers.notifications.ComposeMessage;
 import org.libreplan.importers.notifications.EmailConnectionValidator;
+import org.libreplan.importers.notifications.EmailDispatcher;
 import org.libreplan.importers.notifications.IEmailNotificationJob;
-import org.libreplan.web.email.IEmailNotificationModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
-import java.util.List;
 
 
 /**
@@ -46,15 +45,15 @@ import java.util.List;
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class SendEmailOnResourceRemovedFromTask implements IEmailNotificationJob {
 
-    @Autowired
-    private IEmailNotificationModel emailNotificationModel;
-
     @Autowired
     private EmailConnectionValidator emailConnectionValidator;
 
     @Autowired
     private ComposeMessage composeMessage;
 
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
     @Override
     public void sendEmail() {
         // At this time all data have gathered, if it exists of course
@@ -62,14 +61,7 @@ public class SendEmailOnResourceRemovedFromTask implements IEmailNotificationJob
         if ( Configuration.isEmailSendingEnabled() ) {
             if ( emailConnectionValidator.isConnectionActivated() && emailConnectionValidator.validConnection()  ) {
 
-                List<EmailNotification> notifications =
-                        emailNotificationModel.getAllByType(EmailTemplateEnum.TEMPLATE_RESOURCE_REMOVED_FROM_TASK);
-
-                for (int i = 0; i < notifications.size(); i++) {
-                    if ( composeMessageForUser(notifications.get(i)) ) {
-                        deleteSingleNotification(notifications.get(i));
-                    }
-                }
+                emailDispatcher.dispatch(EmailTemplateEnum.TEMPLATE_RESOURCE_REMOVED_FROM_TASK, composeMessage);
             }
         }
     }
@@ -79,8 +71,4 @@ public class SendEmailOnResourceRemovedFromTask implements IEmailNotificationJob
         return composeMessage.composeMessageForUser(notification);
     }
 
-    private void deleteSingleNotification(EmailNotification notification){
-        emailNotificationModel.deleteById(notification);
-    }
-
 }
@@ -25,16 +25,14 @@ import org.libreplan.business.email.entities.EmailNotification;
 import org.libreplan.business.email.entities.EmailTemplateEnum;
 import org.libreplan.importers.notifications.ComposeMessage;
 import org.libreplan.importers.notifications.EmailConnectionValidator;
+import org.libreplan.importers.notifications.EmailDispatcher;
 import org.libreplan.importers.notifications.IEmailNotificationJob;
-import org.libreplan.web.email.IEmailNotificationModel;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 
 /**
  * Sends E-mail to users with data that storing in notification_queue table
@@ -47,30 +45,22 @@ import java.util.List;
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class SendEmailOnTaskAssignedToResource implements IEmailNotificationJob {
 
-    @Autowired
-    private IEmailNotificationModel emailNotificationModel;
-
     @Autowired
     private EmailConnectionValidator emailConnectionValidator;
 
     @Autowired
     private ComposeMessage composeMessage;
 
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
     @Override
-    @Transactional
     public void sendEmail() {
         if ( Configuration.isEmailSendingEnabled() ) {
 
             if ( emailConnectionValidator.isConnectionActivated() && emailConnectionValidator.validConnection() ) {
 
-                List<EmailNotification> notifications =
-                        emailNotificationModel.getAllByType(EmailTemplateEnum.TEMPLATE_TASK_ASSIGNED_TO_RESOURCE);
-
-                for (EmailNotification notification : notifications) {
-                    if (composeMessageForUser(notification)) {
-                        deleteSingleNotification(notification);
-                    }
-                }
+                emailDispatcher.dispatch(EmailTemplateEnum.TEMPLATE_TASK_ASSIGNED_TO_RESOURCE, composeMessage);
             }
         }
     }
@@ -80,8 +70,4 @@ public class SendEmailOnTaskAssignedToResource implements IEmailNotificationJob
         return composeMessage.composeMessageForUser(notification);
     }
 
-    private void deleteSingleNotification(EmailNotification notification){
-        emailNotificationModel.deleteById(notification);
-    }
-
 }
@@ -23,6 +23,7 @@ package org.libreplan.importers.notifications.realization;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeComparator;
 import org.libreplan.business.common.Configuration;
+import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.email.entities.EmailNotification;
 import org.libreplan.business.email.entities.EmailTemplateEnum;
 import org.libreplan.business.planner.daos.ITaskElementDAO;
@@ -31,6 +32,7 @@ import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.importers.notifications.ComposeMessage;
 import org.libreplan.importers.notifications.EmailConnectionValidator;
+import org.libreplan.importers.notifications.EmailDispatcher;
 import org.libreplan.importers.notifications.IEmailNotificationJob;
 import org.libreplan.web.email.IEmailNotificationModel;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,39 +61,40 @@ public class SendEmailOnTaskShouldFinish implements IEmailNotificationJob {
     @Autowired
     private IEmailNotificationModel emailNotificationModel;
 
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
     @Autowired
     private ITaskElementDAO taskElementDAO;
 
     @Autowired
     private ComposeMessage composeMessage;
 
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
     @Autowired
     private EmailConnectionValidator emailConnectionValidator;
 
     /**
-     * Transactional here is needed because without this annotation we are getting
+     * The data is gathered in a transaction because without it we are getting
      * "LazyInitializationException: could not initialize proxy - no Session" error,
      * when "item.getAllResourceAllocations()" method was called.
      * Earlier this trouble was not present because in Tasks.hbm.xml for joined subclass "Task" field
      * named "resourceAllocations", which has relation "one-to-many" to "ResourceAllocation", lazy was set to "false".
      */
     @Override
-    @Transactional
     public void sendEmail() {
         // Gather data for email sending
-        taskShouldFinish();
+        transactionService.runOnTransaction(() -> {
+            taskShouldFinish();
+            return null;
+        });
 
         if ( Configuration.isEmailSendingEnabled() ) {
             if ( emailConnectionValidator.isConnectionActivated() && emailConnectionValidator.validConnection() ) {
 
-                List<EmailNotification> notifications =
-                        emailNotificationModel.getAllByType(EmailTemplateEnum.TEMPLATE_TODAY_TASK_SHOULD_FINISH);
-
-                for (int i = 0; i < notifications.size(); i++) {
-                    if ( composeMessageForUser(notifications.get(i)) ) {
-                        deleteSingleNotification(notifications.get(i));
-                    }
-                }
+                emailDispatcher.dispatch(EmailTemplateEnum.TEMPLATE_TODAY_TASK_SHOULD_FINISH, composeMessage);
             }
         }
     }
@@ -101,10 +104,6 @@ public class SendEmailOnTaskShouldFinish implements IEmailNotificationJob {
         return composeMessage.composeMessageForUser(notification);
     }
 
-    private void deleteSingleNotification(EmailNotification notification){
-        emailNotificationModel.deleteById(notification);
-    }
-
     @Transactional
     public void taskShouldFinish() {
         // Check if current date equals with item date
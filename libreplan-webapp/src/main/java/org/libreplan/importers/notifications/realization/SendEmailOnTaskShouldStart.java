@@ -22,6 +22,7 @@ package org.libreplan.importers.notifications.realization;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeComparator;
 import org.libreplan.business.common.Configuration;
+import org.libreplan.business.common.IAdHocTransactionService;
 
 import org.libreplan.business.email.entities.EmailNotification;
 import org.libreplan.business.email.entities.EmailTemplateEnum;
@@ -31,6 +32,7 @@ import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.importers.notifications.ComposeMessage;
 import org.libreplan.importers.notifications.EmailConnectionValidator;
+import org.libreplan.importers.notifications.EmailDispatcher;
 import org.libreplan.importers.notifications.IEmailNotificationJob;
 import org.libreplan.web.email.IEmailNotificationModel;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,39 +61,41 @@ public class SendEmailOnTaskShouldStart implements IEmailNotificationJob {
     @Autowired
     private IEmailNotificationModel emailNotificationModel;
 
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
     @Autowired
     private ITaskElementDAO taskElementDAO;
 
     @Autowired
     private ComposeMessage composeMessage;
 
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
     @Autowired
     private EmailConnectionValidator emailConnectionValidator;
 
     /**
-     * Transactional here is needed because without this annotation we are getting
+     * The data is gathered in a transaction because without it we are getting
      * "LazyInitializationException: could not initialize proxy - no Session" error,
      * when "item.getAllResourceAllocations()" method was called.
      * Earlier this trouble was not present because in Tasks.hbm.xml for joined subclass "Task" field
      * named "resourceAllocations", which has relation "one-to-many" to "ResourceAllocation", lazy was set to "false".
      */
     @Override
-    @Transactional
     public void sendEmail() {
         // Gather data
-        taskShouldStart();
+        transactionService.runOnTransaction(() -> {
+            taskShouldStart();
+            return null;
+        });
 
         if ( Configuration.isEmailSendingEnabled() ) {
 
             if ( emailConnectionValidator.isConnectionActivated() && emailConnectionValidator.validConnection() ) {
 
-                List<EmailNotification> notifications =
-                        emailNotificationModel.getAllByType(EmailTemplateEnum.TEMPLATE_TODAY_TASK_SHOULD_START);
-
-                for (EmailNotification notification : notifications)
-                    if ( composeMessageForUser(notification) ) {
-                        deleteSingleNotification(notification);
-                    }
+                emailDispatcher.dispatch(EmailTemplateEnum.TEMPLATE_TODAY_TASK_SHOULD_START, composeMessage);
             }
         }
     }
@@ -101,10 +105,6 @@ public class SendEmailOnTaskShouldStart implements IEmailNotificationJob {
         return composeMessage.composeMessageForUser(notification);
     }
 
-    private void deleteSingleNotification(EmailNotification notification){
-        emailNotificationModel.deleteById(notification);
-    }
-
     @Transactional
     public void taskShouldStart() {
         // Check if current date equals with item date
@@ -22,46 +22,39 @@ package org.libreplan.importers.notifications.realization;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.common.Configuration;
+import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.daos.IConfigurationDAO;
 import org.libreplan.business.common.entities.PersonalTimesheetsPeriodicityEnum;
 
 import org.libreplan.business.email.entities.EmailNotification;
 import org.libreplan.business.email.entities.EmailTemplateEnum;
-import org.libreplan.business.orders.entities.OrderElement;
-
-import org.libreplan.business.resources.entities.Resource;
-import org.libreplan.business.resources.entities.Worker;
-
+import org.libreplan.business.planner.daos.IDayAssignmentDAO;
+import org.libreplan.business.scenarios.IScenarioManager;
 import org.libreplan.business.users.entities.User;
-import org.libreplan.business.workingday.EffortDuration;
-import org.libreplan.business.workingday.IntraDayDate;
-import org.libreplan.business.workreports.daos.IWorkReportDAO;
-import org.libreplan.business.workreports.entities.WorkReport;
-import org.libreplan.business.workreports.entities.WorkReportLine;
-import org.libreplan.business.workreports.entities.WorkReportType;
+import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
+import org.libreplan.business.workreports.entities.MissingPersonalTimesheets;
 import org.libreplan.importers.notifications.ComposeMessage;
 import org.libreplan.importers.notifications.EmailConnectionValidator;
+import org.libreplan.importers.notifications.EmailDispatcher;
 import org.libreplan.importers.notifications.IEmailNotificationJob;
-import org.libreplan.web.calendars.BaseCalendarModel;
-import org.libreplan.web.common.Util;
 import org.libreplan.web.email.IEmailNotificationModel;
 import org.libreplan.web.users.IUserModel;
-import org.libreplan.web.users.dashboard.PersonalTimesheetDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
 
 
 /**
  * Sends E-mail to users with data that storing in notification_queue table
  * and that are treat to {@link EmailTemplateEnum#TEMPLATE_ENTER_DATA_IN_TIMESHEET}
- * Data will be send for bound users with empty timesheet lines.
+ * Data will be send for bound users with effort assigned in a period without personal timesheet data.
  *
  * @author Vova Perebykivskyi <vova@libreplan-enterprise.com>
  */
@@ -70,14 +63,28 @@ import java.util.List;
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class SendEmailOnTimesheetDataMissing implements IEmailNotificationJob {
 
+    /**
+     * Number of periods before the current one where missing personal timesheets are looked for.
+     */
+    private static final int LOOK_BACK_PERIODS = 3;
+
     @Autowired
     private IEmailNotificationModel emailNotificationModel;
 
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
     @Autowired
     private IConfigurationDAO configurationDAO;
 
     @Autowired
-    private IWorkReportDAO workReportDAO;
+    private IWorkReportLineDAO workReportLineDAO;
+
+    @Autowired
+    private IDayAssignmentDAO dayAssignmentDAO;
+
+    @Autowired
+    private IScenarioManager scenarioManager;
 
     @Autowired
     private IUserModel userModel;
@@ -85,25 +92,23 @@ public class SendEmailOnTimesheetDataMissing implements IEmailNotificationJob {
     @Autowired
     private ComposeMessage composeMessage;
 
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
     @Autowired
     private EmailConnectionValidator emailConnectionValidator;
 
     @Override
-    @Transactional
     public void sendEmail() {
-        checkTimesheet();
+        transactionService.runOnTransaction(() -> {
+            checkTimesheet();
+            return null;
+        });
 
         if ( Configuration.isEmailSendingEnabled() ) {
             if ( emailConnectionValidator.isConnectionActivated() && emailConnectionValidator.validConnection() ) {
 
-                List<EmailNotification> notifications =
-                        emailNotificationModel.getAllByType(EmailTemplateEnum.TEMPLATE_ENTER_DATA_IN_TIMESHEET);
-
-                for (int i = 0; i < notifications.size(); i++) {
-                    if ( composeMessageForUser(notifications.get(i)) ) {
-                        deleteSingleNotification(notifications.get(i));
-                    }
-                }
+                emailDispatcher.dispatch(EmailTemplateEnum.TEMPLATE_ENTER_DATA_IN_TIMESHEET, composeMessage);
             }
         }
     }
@@ -113,46 +118,32 @@ public class SendEmailOnTimesheetDataMissing implements IEmailNotificationJob {
         return composeMessage.composeMessageForUser(notification);
     }
 
-    private void deleteSingleNotification(EmailNotification notification) {
-        emailNotificationModel.deleteById(notification);
-    }
-
 
     public void checkTimesheet() {
-        List<User> list = getPersonalTimesheets();
+        List<User> list = getUsersWithMissingTimesheets();
         addRowsToNotificationTable(list);
     }
 
-    @Transactional
-    private List<User> getPersonalTimesheets() {
-        List<PersonalTimesheetDTO> personalTimesheetDTO = new ArrayList<>();
-        List<User> usersWithoutTimesheets = new ArrayList<>();
-        List<User> users = userModel.getUsers();
-
-        for (User user : users)
-            if (user.isBound()) {
-                Resource resource = user.getWorker();
-                BaseCalendarModel.forceLoadBaseCalendar(resource.getCalendar());
-
-                LocalDate activationDate = getActivationDate(user.getWorker());
-                LocalDate currentDate = new LocalDate();
-                personalTimesheetDTO.addAll(getPersonalTimesheets(
-                        user.getWorker(),
-                        activationDate,
-                        currentDate.plusMonths(1),
-                        getPersonalTimesheetsPeriodicity()));
-
-                for(PersonalTimesheetDTO item : personalTimesheetDTO) {
-                    WorkReport workReport = item.getWorkReport();
+    /**
+     * Looks for missing personal timesheets of all the bound users at once, only inside a window of
+     * {@link #LOOK_BACK_PERIODS} periods before the current one.
+     */
+    private List<User> getUsersWithMissingTimesheets() {
+        PersonalTimesheetsPeriodicityEnum periodicity = getPersonalTimesheetsPeriodicity();
+        LocalDate today = new LocalDate();
+        LocalDate start = MissingPersonalTimesheets.getLookBackStart(periodicity, today, LOOK_BACK_PERIODS);
 
-                    if ( item.getTasksNumber() == 0 && workReport == null )
-                        if ( !usersWithoutTimesheets.contains(user) )
-                            usersWithoutTimesheets.add(user);
-                }
+        Map<Long, SortedSet<LocalDate>> missing = MissingPersonalTimesheets.find(
+                periodicity,
+                dayAssignmentDAO.findDaysWithAssignedEffort(scenarioManager.getCurrent(), start, today),
+                workReportLineDAO.findDaysWithPersonalTimesheetData(start, today));
 
-
-                personalTimesheetDTO.clear();
+        List<User> usersWithoutTimesheets = new ArrayList<>();
+        for (User user : userModel.getUsers()) {
+            if ( user.isBound() && missing.containsKey(user.getWorker().getId()) ) {
+                usersWithoutTimesheets.add(user);
             }
+        }
 
         return usersWithoutTimesheets;
     }
@@ -167,88 +158,8 @@ public class SendEmailOnTimesheetDataMissing implements IEmailNotificationJob {
         }
     }
 
-    private List<PersonalTimesheetDTO> getPersonalTimesheets(Resource resource,
-                                                             LocalDate start, LocalDate end,
-                                                             PersonalTimesheetsPeriodicityEnum periodicity) {
-        start = periodicity.getStart(start);
-        end = periodicity.getEnd(end);
-        int items = periodicity.getItemsBetween(start, end);
-
-        List<PersonalTimesheetDTO> result = new ArrayList<>();
-
-        // In decreasing order to provide a list sorted with the more recent personal timesheets at the beginning
-        for (int i = items; i >= 0; i--) {
-            LocalDate date = periodicity.getDateForItemFromDate(i, start);
-
-            WorkReport workReport = getWorkReport(resource, date, periodicity);
-
-            EffortDuration hours = EffortDuration.zero();
-            int tasksNumber = 0;
-            if (workReport != null) {
-                hours = workReport.getTotalEffortDuration();
-                tasksNumber = getNumberOfOrderElementsWithTrackedTime(workReport);
-            }
-
-            result.add(new PersonalTimesheetDTO(
-                    date,
-                    workReport,
-                    getResourceCapacity(resource, date, periodicity),
-                    hours,
-                    tasksNumber));
-        }
-
-        return result;
-    }
-    private LocalDate getActivationDate(Worker worker) {
-        return worker.getCalendar().getFistCalendarAvailability().getStartDate();
-    }
-
-
     private PersonalTimesheetsPeriodicityEnum getPersonalTimesheetsPeriodicity() {
         return configurationDAO.getConfiguration().getPersonalTimesheetsPeriodicity();
     }
-    private WorkReport getWorkReport(Resource resource, LocalDate date, PersonalTimesheetsPeriodicityEnum periodicity) {
-
-        WorkReport workReport = workReportDAO.getPersonalTimesheetWorkReport(resource, date, periodicity);
-        forceLoad(workReport);
-
-        return workReport;
-    }
-    private void forceLoad(WorkReport workReport) {
-        if (workReport != null) {
-            WorkReportType workReportType = workReport.getWorkReportType();
-            workReportType.getLineFields().size();
-            workReportType.getWorkReportLabelTypeAssignments().size();
-            workReportType.getHeadingFields().size();
-        }
-    }
-    private int getNumberOfOrderElementsWithTrackedTime(WorkReport workReport) {
-        if (workReport == null) {
-            return 0;
-        }
-
-        List<OrderElement> orderElements = new ArrayList<>();
-        for (WorkReportLine line : workReport.getWorkReportLines()) {
-            if (!line.getEffort().isZero()) {
-                OrderElement orderElement = line.getOrderElement();
-                if (!Util.contains(orderElements, orderElement)) {
-                    orderElements.add(orderElement);
-                }
-            }
-        }
-        return orderElements.size();
-    }
-    private EffortDuration getResourceCapacity(Resource resource, LocalDate date,
-                                              PersonalTimesheetsPeriodicityEnum periodicity) {
-
-        LocalDate start = periodicity.getStart(date);
-        LocalDate end = periodicity.getEnd(date);
-
-        EffortDuration capacity = EffortDuration.zero();
-        for (LocalDate day = start; day.compareTo(end) <= 0; day = day.plusDays(1)) {
-            capacity = capacity.plus(resource.getCalendar().getCapacityOn(IntraDayDate.PartialDay.wholeDay(day)));
-        }
-        return capacity;
-    }
 
 }
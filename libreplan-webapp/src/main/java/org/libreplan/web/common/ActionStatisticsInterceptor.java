@@ -0,0 +1,88 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.common;
+
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.libreplan.business.hibernate.statistics.ActionStatistics;
+import org.libreplan.business.hibernate.statistics.QueryBudget;
+import org.zkoss.zk.ui.Component;
+import org.zkoss.zk.ui.event.Event;
+import org.zkoss.zk.ui.event.EventThreadCleanup;
+import org.zkoss.zk.ui.util.EventInterceptor;
+
+/**
+ * Gathers the {@link ActionStatistics} of the processing of each ZK event,
+ * warning about the ones exceeding the default {@link QueryBudget}. It's
+ * registered in <code>zk.xml</code>.
+ */
+public class ActionStatisticsInterceptor implements EventInterceptor, EventThreadCleanup {
+
+    @Override
+    public Event beforeSendEvent(Event event) {
+        return event;
+    }
+
+    @Override
+    public Event beforePostEvent(Event event) {
+        return event;
+    }
+
+    @Override
+    public Event beforeProcessEvent(Event event) {
+        ActionStatistics.start(describe(event));
+        return event;
+    }
+
+    private static String describe(Event event) {
+        Component target = event.getTarget();
+        if (target == null) {
+            return event.getName();
+        }
+        String id = StringUtils.isEmpty(target.getId()) ? "" : "#" + target.getId();
+        String page = target.getPage() != null ? " in " + target.getPage().getRequestPath() : "";
+
+        return event.getName() + " on " + target.getClass().getSimpleName() + id + page;
+    }
+
+    @Override
+    public void afterProcessEvent(Event event) {
+        ActionStatistics current = ActionStatistics.current();
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    /**
+     * If the processing of an event fails {@link #afterProcessEvent(Event)}
+     * isn't called, so the actions left are stopped here.
+     */
+    @Override
+    public void cleanup(Component component, Event event, List<Throwable> errors) {
+        ActionStatistics.stopAll();
+    }
+
+    @Override
+    public void complete(Component component, Event event) {
+        // nothing to do
+    }
+
+}
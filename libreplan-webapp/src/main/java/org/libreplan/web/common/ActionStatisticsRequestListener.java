@@ -0,0 +1,47 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.common;
+
+import javax.servlet.ServletRequestEvent;
+import javax.servlet.ServletRequestListener;
+
+import org.libreplan.business.hibernate.statistics.ActionStatistics;
+import org.libreplan.ws.common.impl.ActionStatisticsFilter;
+
+/**
+ * Stops the {@link ActionStatistics} left in progress by a request, so they
+ * aren't kept by the pooled thread that processed it. For example,
+ * {@link ActionStatisticsFilter} doesn't stop the action of a REST call whose
+ * exception isn't mapped to a response. It's registered in
+ * <code>web.xml</code>.
+ */
+public class ActionStatisticsRequestListener implements ServletRequestListener {
+
+    @Override
+    public void requestInitialized(ServletRequestEvent event) {
+        // nothing to do
+    }
+
+    @Override
+    public void requestDestroyed(ServletRequestEvent event) {
+        ActionStatistics.stopAll();
+    }
+
+}
@@ -25,19 +25,33 @@ import org.apache.commons.lang3.StringUtils;
 import org.libreplan.business.common.AdHocTransactionService;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.hibernate.notification.ISnapshotRefresherService;
+import org.libreplan.business.util.SearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.zkoss.zul.Listcell;
 import org.zkoss.zul.Listitem;
 import org.zkoss.zul.ListitemRenderer;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
 
 import static org.libreplan.web.I18nHelper._;
 
 abstract class MultipleFiltersFinder implements IMultipleFiltersFinder {
 
+    /**
+     * Filters shorter than this only show the first {@link #SHORT_FILTER_MATCHES}.
+     */
+    private static final int SHORT_FILTER_LENGTH = 3;
+
+    private static final int SHORT_FILTER_MATCHES = 10;
+
     @Autowired
     private IAdHocTransactionService adHocTransactionService;
 
@@ -81,6 +95,69 @@ abstract class MultipleFiltersFinder implements IMultipleFiltersFinder {
         this.listMatching = listMatching;
     }
 
+    boolean isMatchesLimitReached(String filter) {
+        return filter.length() < SHORT_FILTER_LENGTH && getListMatching().size() >= SHORT_FILTER_MATCHES;
+    }
+
+    /**
+     * @return how many matches of <code>filter</code> can still be added to the
+     *         list. At least one is always added.
+     */
+    int getMatchesLimit(String filter) {
+        if ( filter.length() < SHORT_FILTER_LENGTH ) {
+            return Math.max(1, SHORT_FILTER_MATCHES - getListMatching().size());
+        }
+
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Adds all the items of the types whose name contains <code>filter</code>
+     * and, for the rest of types, the items whose name contains it. The types
+     * are visited in the order of <code>itemsByType</code>.
+     */
+    <K, T> void searchInTypes(String filter,
+                              Map<K, List<T>> itemsByType,
+                              SearchIndex<K> typesIndex,
+                              Map<K, SearchIndex<T>> itemsIndexByType,
+                              BiConsumer<K, T> add) {
+
+        Set<K> matchingTypes = new HashSet<>(typesIndex.find(filter));
+
+        for (Entry<K, List<T>> each : itemsByType.entrySet()) {
+            K type = each.getKey();
+            List<T> matching;
+
+            if ( matchingTypes.contains(type) ) {
+                List<T> items = each.getValue() != null ? each.getValue() : Collections.<T> emptyList();
+                matching = items.subList(0, Math.min(getMatchesLimit(filter), items.size()));
+            } else {
+                SearchIndex<T> index = itemsIndexByType.get(type);
+                matching = index != null ? index.find(filter, getMatchesLimit(filter)) : Collections.<T> emptyList();
+            }
+
+            for (T item : matching) {
+                add.accept(type, item);
+            }
+        }
+    }
+
+    /**
+     * Adds the items of every group whose name contains <code>filter</code>
+     * until the limit of matches is reached.
+     */
+    <K, T> void searchInGroups(String filter, Map<K, SearchIndex<T>> indexByGroup, BiConsumer<K, T> add) {
+        for (Entry<K, SearchIndex<T>> each : indexByGroup.entrySet()) {
+            List<T> matching = each.getValue().find(filter, getMatchesLimit(filter));
+            for (T item : matching) {
+                add.accept(each.getKey(), item);
+            }
+            if ( !matching.isEmpty() && isMatchesLimitReached(filter) ) {
+                return;
+            }
+        }
+    }
+
     public ListitemRenderer getFilterPairRenderer() {
         return filterPairRenderer;
     }
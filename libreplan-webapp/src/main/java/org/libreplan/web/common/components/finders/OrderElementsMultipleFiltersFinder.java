@@ -110,79 +110,13 @@ public class OrderElementsMultipleFiltersFinder extends MultipleFiltersFinder {
     }
 
     private void searchInCriterionTypes(String filter) {
-        boolean limited = (filter.length() < 3);
-        for (CriterionType type : getMapCriterions().keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName().toLowerCase());
-            if ( name.contains(filter) ) {
-                setFilterPairCriterionType(type, limited);
-            } else {
-                searchInCriterions(type, filter);
-            }
-        }
-    }
-
-    private void searchInCriterions(CriterionType type, String filter) {
-        List<Criterion> list = getMapCriterions().get(type);
-        if ( list == null ) {
-            return;
-        }
-
-        for (Criterion criterion : list) {
-            String name = StringUtils.deleteWhitespace(criterion.getName().toLowerCase());
-            if ( name.contains(filter) ) {
-                addCriterion(type, criterion);
-                if ( (filter.length() < 3) && (getListMatching().size() > 9) ) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairCriterionType(CriterionType type, boolean limited) {
-        List<Criterion> list = getMapCriterions().get(type);
-        if ( list == null ) {
-            return;
-        }
-
-        for (Criterion criterion : list) {
-            addCriterion(type, criterion);
-            if ( (limited) && (getListMatching().size() > 9) ) {
-                return;
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotCriterionsMap(), databaseSnapshots.snapshotCriterionTypesIndex(),
+                databaseSnapshots.snapshotCriterionsIndex(), this::addCriterion);
     }
 
     private void searchInLabelTypes(String filter) {
-        boolean limited = (filter.length() < 3);
-        for (LabelType type : getLabelsMap().keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName().toLowerCase());
-            if ( name.contains(filter) ) {
-                setFilterPairLabelType(type, limited);
-            } else {
-                searchInLabels(type, filter);
-            }
-        }
-    }
-
-    private void searchInLabels(LabelType type, String filter) {
-        for (Label label : getLabelsMap().get(type)) {
-            String name = StringUtils.deleteWhitespace(label.getName().toLowerCase());
-            if ( name.contains(filter) ) {
-                addLabel(label);
-                if ( (filter.length() < 3) && (getListMatching().size() > 9) ) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairLabelType(LabelType type, boolean limited) {
-        for (Label label : getLabelsMap().get(type)) {
-            addLabel(label);
-            if ( (limited) && (getListMatching().size() > 9) ) {
-                return;
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotLabelsMap(), databaseSnapshots.snapshotLabelTypesIndex(),
+                databaseSnapshots.snapshotLabelsIndex(), (type, label) -> addLabel(label));
     }
 
     private void addCriterion(CriterionType type, Criterion criterion) {
@@ -164,92 +164,23 @@ public class OrdersMultipleFiltersFinder extends MultipleFiltersFinder {
     }
 
     private void searchInCriterionTypes(String filter) {
-        Map<CriterionType, List<Criterion>> mapCriterions = getMapCriterions();
-        boolean limited = filter.length() < 3;
-
-        for (CriterionType type : mapCriterions.keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName().toLowerCase());
-            if (name.contains(filter)) {
-                setFilterPairCriterionType(type, limited);
-            } else {
-                searchInCriterions(type, filter);
-            }
-        }
-    }
-
-    private void searchInCriterions(CriterionType type, String filter) {
-        for (Criterion criterion : getMapCriterions().get(type)) {
-            String name = StringUtils.deleteWhitespace(criterion.getName().toLowerCase());
-
-            if (name.contains(filter)) {
-                addCriterion(type, criterion);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairCriterionType(CriterionType type, boolean limited) {
-        for (Criterion criterion : getMapCriterions().get(type)) {
-            addCriterion(type, criterion);
-            if ((limited) && (getListMatching().size() > 9)) {
-                return;
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotCriterionsMap(), databaseSnapshots.snapshotCriterionTypesIndex(),
+                databaseSnapshots.snapshotCriterionsIndex(), this::addCriterion);
     }
 
     private void searchInLabelTypes(String filter) {
-        Map<LabelType, List<Label>> mapLabels = getLabelsMap();
-        boolean limited = filter.length() < 3;
-
-        for (LabelType type : mapLabels.keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName().toLowerCase());
-            if (name.contains(filter)) {
-                setFilterPairLabelType(type, limited);
-            } else {
-                searchInLabels(type, filter);
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotLabelsMap(), databaseSnapshots.snapshotLabelTypesIndex(),
+                databaseSnapshots.snapshotLabelsIndex(), (type, label) -> addLabel(label));
     }
 
     private Map<LabelType, List<Label>> getLabelsMap() {
         return databaseSnapshots.snapshotLabelsMap();
     }
 
-    private void searchInLabels(LabelType type, String filter) {
-        for (Label label : getLabelsMap().get(type)) {
-            String name = StringUtils.deleteWhitespace(label.getName().toLowerCase());
-
-            if (name.contains(filter)) {
-                addLabel(label);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairLabelType(LabelType type, boolean limited) {
-        for (Label label : getLabelsMap().get(type)) {
-            addLabel(label);
-            if ((limited) && (getListMatching().size() > 9)) {
-                return;
-            }
-        }
-    }
-
     private void searchInExternalCompanies(String filter){
-        for (ExternalCompany externalCompany : databaseSnapshots.snapshotExternalCompanies()) {
-            String name = StringUtils.deleteWhitespace(externalCompany.getName().toLowerCase());
-            String nif = StringUtils.deleteWhitespace(externalCompany.getNif().toLowerCase());
-
-            if ((name.contains(filter)) || (nif.contains(filter))) {
-                addExternalCompany(externalCompany);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
+        for (ExternalCompany externalCompany : databaseSnapshots.snapshotExternalCompaniesIndex()
+                .find(filter, getMatchesLimit(filter))) {
+            addExternalCompany(externalCompany);
         }
     }
 
@@ -270,13 +201,9 @@ public class OrdersMultipleFiltersFinder extends MultipleFiltersFinder {
         if (filter.indexOf("cod:") == 0) {
             String codeFilter = filter.replaceFirst("cod:", "");
 
-            for (String code : databaseSnapshots.snapshotOrdersCodes()) {
-                code = StringUtils.deleteWhitespace(code.toLowerCase());
-
-                if (code.equals(codeFilter)) {
-                    addCode(code);
-                    return;
-                }
+            for (String code : databaseSnapshots.snapshotOrdersCodesIndex().findExactly(codeFilter)) {
+                addCode(StringUtils.deleteWhitespace(code.toLowerCase()));
+                return;
             }
         }
     }
@@ -285,13 +212,9 @@ public class OrdersMultipleFiltersFinder extends MultipleFiltersFinder {
         if (filter.indexOf("rc:") == 0) {
             String referenceFilter = filter.replaceFirst("rc:", "");
 
-            for (String reference : databaseSnapshots.snapshotCustomerReferences()) {
-                reference = StringUtils.deleteWhitespace(reference.toLowerCase());
-
-                if (reference.equals(referenceFilter)) {
-                    addCustomerReference(reference);
-                    return;
-                }
+            for (String reference : databaseSnapshots.snapshotCustomerReferencesIndex().findExactly(referenceFilter)) {
+                addCustomerReference(StringUtils.deleteWhitespace(reference.toLowerCase()));
+                return;
             }
         }
     }
@@ -32,6 +32,7 @@ import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots
 import org.libreplan.business.resources.entities.Criterion;
 import org.libreplan.business.resources.entities.CriterionType;
 import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.util.SearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -124,61 +125,23 @@ public class ResourceAllocationMultipleFiltersFinder extends MultipleFiltersFind
     }
 
     private void searchInCriterionTypes(String filter) {
-        Map<CriterionType, List<Criterion>> mapCriterions = getCriterionsMap();
-        boolean limited = (filter.length() < 3);
-        for (CriterionType type : mapCriterions.keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName()
-                    .toLowerCase());
-            if (name.contains(filter)) {
-                setFilterPairCriterionType(type, limited);
-            } else {
-                searchInCriterions(type, filter);
-            }
-        }
-    }
-
-    private void searchInCriterions(CriterionType type, String filter) {
-        Map<CriterionType, List<Criterion>> mapCriterions = getCriterionsMap();
-        for (Criterion criterion : mapCriterions.get(type)) {
-            String name = StringUtils.deleteWhitespace(criterion.getName()
-                    .toLowerCase());
-            if (name.contains(filter)) {
-                addCriterion(type, criterion);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairCriterionType(CriterionType type, boolean limited) {
-        Map<CriterionType, List<Criterion>> mapCriterions = getCriterionsMap();
-        for (Criterion criterion : mapCriterions.get(type)) {
-            addCriterion(type, criterion);
-            if ((limited) && (getListMatching().size() > 9)) {
-                return;
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotCriterionsMap(), databaseSnapshots.snapshotCriterionTypesIndex(),
+                databaseSnapshots.snapshotCriterionsIndex(), this::addCriterion);
     }
 
     private void searchInResources(String filter) {
-        Map<Class<?>, List<Resource>> mapResources = databaseSnapshots
-                .snapshotMapResources();
-        for (Class<?> className : mapResources.keySet()) {
-            for (Resource resource : mapResources.get(className)) {
+        Map<Class<?>, SearchIndex<Resource>> resourcesIndex = databaseSnapshots.snapshotResourcesIndex();
+        for (Class<?> className : resourcesIndex.keySet()) {
+            for (Resource resource : resourcesIndex.get(className).find(filter)) {
 
                 if (isLimitingResourceAllocation != resource
                         .isLimitingResource()) {
                     continue;
                 }
 
-                String name = StringUtils.deleteWhitespace(resource.getName()
-                        .toLowerCase());
-                if (name.contains(filter)) {
-                    addResource(className, resource);
-                    if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                        return;
-                    }
+                addResource(className, resource);
+                if (isMatchesLimitReached(filter)) {
+                    return;
                 }
             }
         }
@@ -122,63 +122,12 @@ public class ResourceMultipleFiltersFinderByResourceAndCriterion extends Multipl
     }
 
     private void searchInResources(String filter) {
-        Map<Class<?>, List<Resource>> mapResources = databaseSnapshots
-                .snapshotMapResources();
-        for (Class<?> className : mapResources.keySet()) {
-            for (Resource resource : mapResources.get(className)) {
-                String name = StringUtils.deleteWhitespace(resource.getName()
-                        .toLowerCase());
-                if (name.contains(filter)) {
-                    addResource(className, resource);
-                    if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                        return;
-                    }
-                }
-            }
-        }
+        searchInGroups(filter, databaseSnapshots.snapshotResourcesIndex(), this::addResource);
     }
 
     private void searchInCriterionTypes(String filter) {
-        boolean limited = (filter.length() < 3);
-        for (CriterionType type : getMapCriterions().keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName()
-                    .toLowerCase());
-            if (name.contains(filter)) {
-                setFilterPairCriterionType(type, limited);
-            } else {
-                searchInCriterions(type, filter);
-            }
-        }
-    }
-
-    private void searchInCriterions(CriterionType type, String filter) {
-        List<Criterion> list = getMapCriterions().get(type);
-        if (list == null) {
-            return;
-        }
-        for (Criterion criterion : list) {
-            String name = StringUtils.deleteWhitespace(criterion.getName()
-                    .toLowerCase());
-            if (name.contains(filter)) {
-                addCriterion(type, criterion);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairCriterionType(CriterionType type, boolean limited) {
-        List<Criterion> list = getMapCriterions().get(type);
-        if (list == null) {
-            return;
-        }
-        for (Criterion criterion : list) {
-            addCriterion(type, criterion);
-            if ((limited) && (getListMatching().size() > 9)) {
-                return;
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotCriterionsMap(), databaseSnapshots.snapshotCriterionTypesIndex(),
+                databaseSnapshots.snapshotCriterionsIndex(), this::addCriterion);
     }
 
 }
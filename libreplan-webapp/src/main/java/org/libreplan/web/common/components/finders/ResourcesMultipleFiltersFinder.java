@@ -23,7 +23,6 @@ package org.libreplan.web.common.components.finders;
 
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.SortedMap;
 
 import org.apache.commons.lang3.StringUtils;
@@ -98,54 +97,14 @@ public class ResourcesMultipleFiltersFinder extends MultipleFiltersFinder {
     }
 
     private void searchInCriterionTypes(String filter) {
-        boolean limited = (filter.length() < 3);
-        Map<CriterionType, List<Criterion>> mapCriterions = getCriterionsMap();
-        for (CriterionType type : mapCriterions.keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName()
-                    .toLowerCase());
-            if (name.contains(filter)) {
-                setFilterPairCriterionType(type, limited);
-            } else {
-                searchInCriterions(type, filter);
-            }
-        }
-    }
-
-    private void searchInCriterions(CriterionType type, String filter) {
-        Map<CriterionType, List<Criterion>> mapCriterions = getCriterionsMap();
-        for (Criterion criterion : mapCriterions.get(type)) {
-            String name = StringUtils.deleteWhitespace(criterion.getName()
-                    .toLowerCase());
-            if (name.contains(filter)) {
-                addCriterion(type, criterion);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairCriterionType(CriterionType type, boolean limited) {
-        Map<CriterionType, List<Criterion>> mapCriterions = getCriterionsMap();
-        for (Criterion criterion : mapCriterions.get(type)) {
-            addCriterion(type, criterion);
-            if ((limited) && (getListMatching().size() > 9)) {
-                return;
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotCriterionsMap(), databaseSnapshots.snapshotCriterionTypesIndex(),
+                databaseSnapshots.snapshotCriterionsIndex(), this::addCriterion);
     }
 
     private void searchInCostCategories(String filter) {
-        for (CostCategory costCategory : databaseSnapshots
-                .snapshotListCostCategories()) {
-            String name = StringUtils.deleteWhitespace(costCategory.getName()
-                    .toLowerCase());
-            if (name.contains(filter)) {
-                addCostCategory(costCategory);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
+        for (CostCategory costCategory : databaseSnapshots.snapshotCostCategoriesIndex()
+                .find(filter, getMatchesLimit(filter))) {
+            addCostCategory(costCategory);
         }
     }
 
@@ -160,97 +160,23 @@ public class TaskGroupsMultipleFiltersFinder extends MultipleFiltersFinder {
     }
 
     private void searchInCriterionTypes(String filter) {
-        boolean limited = filter.length() < 3;
-        for (CriterionType type : getMapCriterions().keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName().toLowerCase());
-            if (name.contains(filter)) {
-                setFilterPairCriterionType(type, limited);
-            } else {
-                searchInCriterions(type, filter);
-            }
-        }
-    }
-
-    private void searchInCriterions(CriterionType type, String filter) {
-        List<Criterion> list = getMapCriterions().get(type);
-        if (list == null) {
-            return;
-        }
-
-        for (Criterion criterion : list) {
-            String name = StringUtils.deleteWhitespace(criterion.getName().toLowerCase());
-
-            if (name.contains(filter)) {
-                addCriterion(type, criterion);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairCriterionType(CriterionType type, boolean limited) {
-        for (Criterion criterion : getMapCriterions().get(type)) {
-            addCriterion(type, criterion);
-            if ((limited) && (getListMatching().size() > 9)) {
-                return;
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotCriterionsMap(), databaseSnapshots.snapshotCriterionTypesIndex(),
+                databaseSnapshots.snapshotCriterionsIndex(), this::addCriterion);
     }
 
     private void searchInLabelTypes(String filter) {
-        Map<LabelType, List<Label>> mapLabels = getLabelsMap();
-        boolean limited = filter.length() < 3;
-
-        for (LabelType type : mapLabels.keySet()) {
-            String name = StringUtils.deleteWhitespace(type.getName().toLowerCase());
-
-            if (name.contains(filter)) {
-                setFilterPairLabelType(type, limited);
-            } else {
-                searchInLabels(type, filter);
-            }
-        }
+        searchInTypes(filter, databaseSnapshots.snapshotLabelsMap(), databaseSnapshots.snapshotLabelTypesIndex(),
+                databaseSnapshots.snapshotLabelsIndex(), (type, label) -> addLabel(label));
     }
 
     private Map<LabelType, List<Label>> getLabelsMap() {
         return databaseSnapshots.snapshotLabelsMap();
     }
 
-    private void searchInLabels(LabelType type, String filter) {
-        for (Label label : getLabelsMap().get(type)) {
-            String name = StringUtils.deleteWhitespace(label.getName().toLowerCase());
-
-            if (name.contains(filter)) {
-                addLabel(label);
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
-        }
-    }
-
-    private void setFilterPairLabelType(LabelType type, boolean limited) {
-        for (Label label : getLabelsMap().get(type)) {
-            addLabel(label);
-            if ((limited) && (getListMatching().size() > 9)) {
-                return;
-            }
-        }
-    }
-
     private void searchInExternalCompanies(String filter){
-        for (ExternalCompany externalCompany : databaseSnapshots.snapshotExternalCompanies()) {
-            String name = StringUtils.deleteWhitespace(externalCompany.getName().toLowerCase());
-            String nif = StringUtils.deleteWhitespace(externalCompany.getNif().toLowerCase());
-
-            if ((name.contains(filter)) || (nif.contains(filter))) {
-                addExternalCompany(externalCompany);
-
-                if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                    return;
-                }
-            }
+        for (ExternalCompany externalCompany : databaseSnapshots.snapshotExternalCompaniesIndex()
+                .find(filter, getMatchesLimit(filter))) {
+            addExternalCompany(externalCompany);
         }
     }
 
@@ -272,13 +198,9 @@ public class TaskGroupsMultipleFiltersFinder extends MultipleFiltersFinder {
         if (filter.indexOf("cod:") == 0) {
             String codeFilter = filter.replaceFirst("cod:", "");
 
-            for (String code : databaseSnapshots.snapshotOrdersCodes()) {
-                code = StringUtils.deleteWhitespace(code.toLowerCase());
-
-                if (code.equals(codeFilter)) {
-                    addCode(code);
-                    return;
-                }
+            for (String code : databaseSnapshots.snapshotOrdersCodesIndex().findExactly(codeFilter)) {
+                addCode(StringUtils.deleteWhitespace(code.toLowerCase()));
+                return;
             }
         }
     }
@@ -287,13 +209,9 @@ public class TaskGroupsMultipleFiltersFinder extends MultipleFiltersFinder {
         if (filter.indexOf("rc:") == 0) {
             String referenceFilter = filter.replaceFirst("rc:", "");
 
-            for (String reference : databaseSnapshots.snapshotCustomerReferences()) {
-                reference = StringUtils.deleteWhitespace(reference.toLowerCase());
-
-                if (reference.equals(referenceFilter)) {
-                    addCustomerReference(reference);
-                    return;
-                }
+            for (String reference : databaseSnapshots.snapshotCustomerReferencesIndex().findExactly(referenceFilter)) {
+                addCustomerReference(StringUtils.deleteWhitespace(reference.toLowerCase()));
+                return;
             }
         }
     }
@@ -342,20 +260,7 @@ public class TaskGroupsMultipleFiltersFinder extends MultipleFiltersFinder {
     }
 
     private void searchInResources(String filter) {
-        Map<Class<?>, List<Resource>> mapResources = databaseSnapshots.snapshotMapResources();
-        for (Class<?> className : mapResources.keySet()) {
-            for (Resource resource : mapResources.get(className)) {
-                String name = StringUtils.deleteWhitespace(resource.getName().toLowerCase());
-
-                if (name.contains(filter)) {
-                    addResource(className, resource);
-
-                    if ((filter.length() < 3) && (getListMatching().size() > 9)) {
-                        return;
-                    }
-                }
-            }
-        }
+        searchInGroups(filter, databaseSnapshots.snapshotResourcesIndex(), this::addResource);
     }
 
     private void addResource(Class className, Resource resource) {
@@ -20,6 +20,7 @@ package org.libreplan.web.planner.adaptplanning;
 
 import static org.libreplan.web.I18nHelper._;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -110,11 +111,14 @@ public class AdaptPlanningCommand implements IAdaptPlanningCommand {
                 removeTimesheetsProgressIfAny(orderElement);
             }
         }
+        List<org.zkoss.ganttz.data.Task> updated = new ArrayList<org.zkoss.ganttz.data.Task>();
         for (TaskElement taskElement : taskElements) {
             if (taskElement.isUpdatedFromTimesheets()) {
-                updateTask(context, taskElement);
+                updated.add(updateTask(context, taskElement));
             }
         }
+        // The dependencies are enforced from all the updated tasks at once
+        context.getGanttDiagramGraph().enforceRestrictions(updated);
 
         ((Planner) context.getRelativeTo()).invalidate();
         context.reloadCharts();
@@ -205,8 +209,8 @@ public class AdaptPlanningCommand implements IAdaptPlanningCommand {
         }
     }
 
-    private void updateTask(IContext<TaskElement> context,
-            TaskElement taskElement) {
+    private org.zkoss.ganttz.data.Task updateTask(
+            IContext<TaskElement> context, TaskElement taskElement) {
         taskElement.updateAdvancePercentageFromOrderElement();
 
         Planner planner = (Planner) context.getRelativeTo();
@@ -219,8 +223,7 @@ public class AdaptPlanningCommand implements IAdaptPlanningCommand {
             taskComponent.updateProperties();
             taskComponent.invalidate();
         }
-
-        context.recalculatePosition(taskElement);
+        return task;
     }
 
     @Override
@@ -117,6 +117,7 @@ public class CompanyPlanningController implements Composer {
             planner.setInitialZoomLevel(ZoomLevel.getFromString(zoomLevelParameter));
         }
         planner.setAreContainersExpandedByDefault(Planner.guessContainersExpandedByDefault(parameters));
+        planner.setRenderingAllRows(Planner.guessRenderingAllRows(parameters));
 
         initializeListboxProgressTypes();
 
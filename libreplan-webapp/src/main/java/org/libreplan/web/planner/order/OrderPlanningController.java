@@ -182,6 +182,7 @@ public class OrderPlanningController implements Composer {
             planner.setInitialZoomLevel(ZoomLevel.getFromString(zoomLevelParameter));
         }
         planner.setAreContainersExpandedByDefault(Planner.guessContainersExpandedByDefault(parameters));
+        planner.setRenderingAllRows(Planner.guessRenderingAllRows(parameters));
 
         planner.setAreShownAdvancesByDefault(Planner.guessShowAdvancesByDefault(parameters));
 
@@ -31,6 +31,8 @@ import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.Registry;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
+import org.libreplan.business.common.metrics.Metrics;
+import org.libreplan.business.common.metrics.Timer;
 import org.libreplan.business.orders.daos.IOrderDAO;
 import org.libreplan.business.orders.entities.HoursGroup;
 import org.libreplan.business.orders.entities.Order;
@@ -356,6 +358,7 @@ public class OrderPlanningModel implements IOrderPlanningModel {
 
         configuration.setChartComponent(chartComponent);
         configureModifiers(planningState.getOrder(), configuration);
+        addDependenciesEnforcementTimer(configuration);
         long setConfigurationTime = System.currentTimeMillis();
         planner.setConfiguration(configuration);
 
@@ -601,6 +604,25 @@ public class OrderPlanningModel implements IOrderPlanningModel {
 
     }
 
+    /**
+     * Times each change of the graph, from the first to the last task moved
+     * due to the dependencies. It must be added before the listeners reloading
+     * the charts, so they aren't included.
+     */
+    private void addDependenciesEnforcementTimer(PlannerConfiguration<TaskElement> configuration) {
+        final Timer timer = Metrics.timer("planner.dependenciesEnforcement");
+        final ThreadLocal<Timer.Context> current = new ThreadLocal<>();
+
+        configuration.addPreGraphChangeListener(() -> current.set(timer.start()));
+        configuration.addPostGraphChangeListener(() -> {
+            Timer.Context context = current.get();
+            if (context != null) {
+                context.stop();
+                current.remove();
+            }
+        });
+    }
+
     private void addPrintSupport(PlannerConfiguration<TaskElement> configuration, final Order order) {
         configuration.setPrintAction(new IPrintAction() {
             @Override
@@ -29,6 +29,7 @@ import java.util.Set;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.logging.Log;
 import org.hibernate.Hibernate;
 import org.joda.time.LocalDate;
 import org.libreplan.business.advance.entities.DirectAdvanceAssignment;
@@ -37,6 +38,7 @@ import org.libreplan.business.calendars.entities.BaseCalendar;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.daos.IEntitySequenceDAO;
 import org.libreplan.business.common.entities.EntityNameEnum;
+import org.libreplan.business.common.metrics.Metrics;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.orders.daos.IOrderDAO;
 import org.libreplan.business.orders.entities.HoursGroup;
@@ -46,6 +48,7 @@ import org.libreplan.business.orders.entities.OrderStatusEnum;
 import org.libreplan.business.orders.entities.TaskSource;
 import org.libreplan.business.orders.entities.TaskSource.IOptionalPersistence;
 import org.libreplan.business.orders.entities.TaskSource.TaskSourceSynchronization;
+import org.libreplan.business.planner.daos.IPlanningDataLoader;
 import org.libreplan.business.planner.daos.ITaskElementDAO;
 import org.libreplan.business.planner.daos.ITaskSourceDAO;
 import org.libreplan.business.planner.entities.AssignmentFunction;
@@ -92,6 +95,7 @@ import org.springframework.stereotype.Component;
 import org.zkoss.ganttz.adapters.IAdapterToTaskFundamentalProperties;
 import org.zkoss.ganttz.adapters.IStructureNavigator;
 import org.zkoss.ganttz.adapters.PlannerConfiguration;
+import org.zkoss.ganttz.util.ProfilingLogFactory;
 import org.zkoss.zk.ui.Desktop;
 
 /**
@@ -108,6 +112,8 @@ public class PlanningStateCreator {
 
     private static final String ATTRIBUTE_NAME = PlanningState.class.getName();
 
+    private static final Log PROFILING_LOG = ProfilingLogFactory.getLog(PlanningStateCreator.class);
+
     /**
      * When the scenario is not the owner, all the tasks are copied, creating new assignments.
      * But the previous assignments keep on being referenced by the resource and must be discarded.
@@ -178,6 +184,9 @@ public class PlanningStateCreator {
     @Autowired
     private IMoneyCostCalculator moneyCostCalculator;
 
+    @Autowired
+    private IPlanningDataLoader planningDataLoader;
+
     private ISaveCommand cachedCommand;
 
     void synchronizeWithSchedule(Order order, IOptionalPersistence persistence) {
@@ -238,7 +247,7 @@ public class PlanningStateCreator {
                 return result;
             }
         }
-        PlanningState result = createPlanning(reload(order));
+        PlanningState result = Metrics.timer("planning.open").time(() -> createPlanning(reload(order)));
 
         result.onRetrieval();
 
@@ -277,6 +286,11 @@ public class PlanningStateCreator {
         final List<Resource> allResources = resourceDAO.list(Resource.class);
         criterionDAO.list(Criterion.class);
 
+        long time = System.currentTimeMillis();
+        int queries = planningDataLoader.loadPlanningDataFor(orderReloaded);
+        PROFILING_LOG.debug("loading planning data took: " + (System.currentTimeMillis() - time) + " ms, " +
+                queries + " queries");
+
         forceLoadOfOrderAssociatedData(orderReloaded);
         TaskGroup rootTask = orderReloaded.getAssociatedTaskElement();
 
@@ -338,18 +352,22 @@ public class PlanningStateCreator {
         }
     }
 
+    /**
+     * The data has already been retrieved by {@link IPlanningDataLoader}, so traversing the tree doesn't hit the
+     * database anymore. It's kept to ensure that nothing the planning relies on remains uninitialized.
+     */
     private void forceLoadOf(TaskElement taskElement) {
         forceLoadOfDataAssociatedTo(taskElement);
 
-        if (taskElement instanceof TaskGroup) {
-            findChildrenWithQueryToAvoidProxies((TaskGroup) taskElement);
-
-            for (TaskElement each : taskElement.getChildren()) {
-                forceLoadOf(each);
-            }
+        for (TaskElement each : taskElement.getChildren()) {
+            forceLoadOf(each);
         }
     }
 
+    /**
+     * Tasks without their own calendar use the calendar of the order, which is loaded by
+     * {@link #createPlanning(Order)}.
+     */
     private void forceLoadOfDataAssociatedTo(TaskElement each) {
         forceLoadOfResourceAllocationsResourcesAndAssignmentFunction(each);
         forceLoadOfCriterions(each);
@@ -357,10 +375,6 @@ public class PlanningStateCreator {
 
         BaseCalendar calendar = each.getOwnCalendar();
 
-        if (calendar == null && each.getOrderElement() != null) {
-            calendar = orderDAO.loadOrderAvoidingProxyFor(each.getOrderElement()).getCalendar();
-        }
-
         if (calendar != null) {
             BaseCalendarModel.forceLoadBaseCalendar(calendar);
         }
@@ -423,13 +437,6 @@ public class PlanningStateCreator {
         }
     }
 
-    private void findChildrenWithQueryToAvoidProxies(TaskGroup group) {
-        for (TaskElement eachTask : taskDAO.findChildrenOf(group)) {
-            Hibernate.initialize(eachTask);
-            eachTask.getParent().getName();
-        }
-    }
-
     private IScenarioInfo buildScenarioInfo(Order orderReloaded) {
         Scenario currentScenario = scenarioManager.getCurrent();
 
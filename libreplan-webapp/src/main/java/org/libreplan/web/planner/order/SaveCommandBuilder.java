@@ -39,6 +39,7 @@ import org.libreplan.business.common.entities.EntityNameEnum;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.common.exceptions.ValidationException;
 import org.libreplan.business.common.exceptions.ValidationException.InvalidValue;
+import org.libreplan.business.common.metrics.Metrics;
 import org.libreplan.business.orders.daos.IOrderDAO;
 import org.libreplan.business.orders.daos.IOrderElementDAO;
 import org.libreplan.business.orders.entities.HoursGroup;
@@ -281,7 +282,7 @@ public class SaveCommandBuilder {
                         if (beforeSaveActions != null) {
                             beforeSaveActions.doActions();
                         }
-                        doTheSaving();
+                        Metrics.timer("planning.save").time(() -> doTheSaving());
 
                         return null;
                     });
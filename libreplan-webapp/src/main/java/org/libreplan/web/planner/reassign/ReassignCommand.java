@@ -30,6 +30,8 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.planner.daos.ITaskElementDAO;
@@ -75,6 +77,14 @@ import org.zkoss.zul.Messagebox;
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class ReassignCommand implements IReassignCommand {
 
+    private static final Log LOG = LogFactory.getLog(ReassignCommand.class);
+
+    /**
+     * The reassignments are done in transactions of this size, so the
+     * resources of the planning aren't reattached for each task.
+     */
+    private static final int REASSIGNMENTS_PER_TRANSACTION = 50;
+
     private PlanningState planningState;
 
     @Autowired
@@ -113,11 +123,12 @@ public class ReassignCommand implements IReassignCommand {
         return updater -> {
             updater.doUpdate(busyStart(reassignations.size()));
             GanttDiagramGraph<Task, Dependency>.DeferedNotifier notifications = null;
+            final List<WithAssociatedEntity> failed = new ArrayList<>();
             try {
                 GanttDiagramGraph<Task, Dependency> ganttDiagramGraph = context.getGanttDiagramGraph();
 
                 notifications = ganttDiagramGraph.manualNotificationOn(
-                        doReassignations(ganttDiagramGraph, reassignations, updater));
+                        doReassignations(ganttDiagramGraph, reassignations, failed, updater));
             } finally {
                 if (notifications != null) {
 
@@ -126,7 +137,7 @@ public class ReassignCommand implements IReassignCommand {
                             doNotifications(notifications),
                             reloadCharts(context),
                             busyEnd(),
-                            tellUserOnEnd(context, () -> _("{0} reassignations finished", reassignations.size()))));
+                            tellUserOnEnd(context, () -> finishedMessage(reassignations.size(), failed.size()))));
                 } else {
                     updater.doUpdate(and(
                             busyEnd(),
@@ -136,25 +147,25 @@ public class ReassignCommand implements IReassignCommand {
         };
     }
 
+    private String finishedMessage(int total, int failed) {
+        return failed == 0
+                ? _("{0} reassignations finished", total)
+                : _("{0} reassignations finished, {1} of them could not be done", total, failed);
+    }
+
     private IAction doReassignations(final GanttDiagramGraph<Task, Dependency> diagramGraph,
                                      final List<WithAssociatedEntity> reassignations,
+                                     final List<WithAssociatedEntity> failed,
                                      final IDesktopUpdatesEmitter<IDesktopUpdate> updater) {
         return () -> {
-            int i = 1;
             final int total = reassignations.size();
 
-            for (final WithAssociatedEntity each : reassignations) {
-                Task ganttTask = each.ganntTask;
-                GanttDate previousStart = ganttTask.getBeginDate();
-                GanttDate previousEnd = ganttTask.getEndDate();
-
-                transactionService.runOnReadOnlyTransaction(reassignmentTransaction(each));
-                diagramGraph.enforceRestrictions(each.ganntTask);
-                ganttTask.enforceDependenciesDueToPositionPotentiallyModified();
-                ganttTask.updateSizeDueToDateChanges(previousStart, previousEnd);
+            for (int done = 0; done < total; done += REASSIGNMENTS_PER_TRANSACTION) {
+                List<WithAssociatedEntity> batch =
+                        reassignations.subList(done, Math.min(total, done + REASSIGNMENTS_PER_TRANSACTION));
 
-                updater.doUpdate(showCompleted(i, total));
-                i++;
+                transactionService.runOnReadOnlyTransaction(
+                        reassignmentTransaction(diagramGraph, batch, done, total, failed, updater));
             }
         };
     }
@@ -264,18 +275,58 @@ public class ReassignCommand implements IReassignCommand {
         return result;
     }
 
-    private IOnTransaction<Void> reassignmentTransaction(final WithAssociatedEntity withAssociatedEntity) {
+    /**
+     * The resources and the criterion types are reattached once for all the
+     * tasks of the batch. The restrictions are enforced after each task is
+     * reassigned, since moving the tasks depending on it changes the load
+     * the next reassignments take into account.
+     *
+     * A task that cannot be reassigned is added to <code>failed</code>, so
+     * the rest of the batch is still reassigned.
+     */
+    private IOnTransaction<Void> reassignmentTransaction(final GanttDiagramGraph<Task, Dependency> diagramGraph,
+                                                         final List<WithAssociatedEntity> batch,
+                                                         final int alreadyDone,
+                                                         final int total,
+                                                         final List<WithAssociatedEntity> failed,
+                                                         final IDesktopUpdatesEmitter<IDesktopUpdate> updater) {
         return () -> {
-            reattach(withAssociatedEntity);
-            reassign(withAssociatedEntity.domainEntity);
+            planningState.reassociateResourcesWithSession();
+            Set<Long> idsOfTypesAlreadyAttached = new HashSet<>();
+            int i = alreadyDone + 1;
+
+            for (WithAssociatedEntity each : batch) {
+                try {
+                    reassign(diagramGraph, each, idsOfTypesAlreadyAttached);
+                } catch (RuntimeException e) {
+                    LOG.error("the task " + each.domainEntity.getName() + " could not be reassigned", e);
+                    failed.add(each);
+                }
+
+                updater.doUpdate(showCompleted(i, total));
+                i++;
+            }
 
             return null;
         };
     }
 
-    private void reattach(WithAssociatedEntity each) {
-        planningState.reassociateResourcesWithSession();
-        Set<Long> idsOfTypesAlreadyAttached = new HashSet<>();
+    private void reassign(GanttDiagramGraph<Task, Dependency> diagramGraph,
+                          WithAssociatedEntity reassignation,
+                          Set<Long> idsOfTypesAlreadyAttached) {
+
+        Task ganttTask = reassignation.ganntTask;
+        GanttDate previousStart = ganttTask.getBeginDate();
+        GanttDate previousEnd = ganttTask.getEndDate();
+
+        reattach(reassignation, idsOfTypesAlreadyAttached);
+        reassign(reassignation.domainEntity);
+        diagramGraph.enforceRestrictions(ganttTask);
+        ganttTask.enforceDependenciesDueToPositionPotentiallyModified();
+        ganttTask.updateSizeDueToDateChanges(previousStart, previousEnd);
+    }
+
+    private void reattach(WithAssociatedEntity each, Set<Long> idsOfTypesAlreadyAttached) {
         taskElementDAO.reattach(each.domainEntity);
         Set<ResourceAllocation<?>> resourceAllocations = each.domainEntity.getSatisfiedResourceAllocations();
 
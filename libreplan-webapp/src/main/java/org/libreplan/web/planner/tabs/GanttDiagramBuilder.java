@@ -56,10 +56,11 @@ public class GanttDiagramBuilder {
             return graph;
         }
         graph.addTopLevel(taskSource.getTask());
+        List<DependencyWithVisibility> dependencies = new ArrayList<DependencyWithVisibility>();
         for (Dependency each : getAllDependencies(order)) {
-            graph.addWithoutEnforcingConstraints(DependencyWithVisibility
-                    .existent(each));
+            dependencies.add(DependencyWithVisibility.existent(each));
         }
+        graph.addDependenciesWithoutEnforcingConstraints(dependencies);
         return graph;
     }
 
@@ -187,7 +187,8 @@ public class CutyPrint {
         private String createCaptureURL(String capturePath) {
             String hostName = resolveLocalHost();
             String uri = String.format("%s://%s:%s", request.getScheme(), hostName, request.getLocalPort());
-            UriBuilder result = UriBuilder.fromUri(uri).path(capturePath);
+            // The whole planner is captured, not only the rows around the viewport
+            UriBuilder result = UriBuilder.fromUri(uri).path(capturePath).queryParam("rows", "all");
 
             for (Entry<String, String> entry : printParameters.entrySet()) {
                 result = result.queryParam(entry.getKey(), entry.getValue());
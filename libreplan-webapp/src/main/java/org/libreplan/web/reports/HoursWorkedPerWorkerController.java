@@ -22,14 +22,22 @@
 package org.libreplan.web.reports;
 
 import net.sf.jasperreports.engine.JRDataSource;
+import org.libreplan.business.common.BaseEntity;
 import org.libreplan.business.labels.entities.Label;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.orders.entities.OrderLineGroup;
 import org.libreplan.business.reports.dtos.LabelFilterType;
 import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.CriterionSatisfaction;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.workreports.entities.WorkReport;
+import org.libreplan.business.workreports.entities.WorkReportLine;
 import org.libreplan.web.common.Util;
 import org.libreplan.web.common.components.Autocomplete;
 import org.libreplan.web.common.components.bandboxsearch.BandboxSearch;
+import org.libreplan.web.reports.IReportExecutionService.CacheKey;
 import org.zkoss.zk.ui.Component;
 import org.zkoss.zk.ui.WrongValueException;
 import org.zkoss.zk.ui.event.Events;
@@ -46,7 +54,9 @@ import org.zkoss.zul.ListitemRenderer;
 import org.zkoss.zul.Radio;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -121,6 +131,24 @@ public class HoursWorkedPerWorkerController extends LibrePlanReportController {
                 getEndingDate());
     }
 
+    @Override
+    protected CacheKey getCacheKey() {
+        return CacheKey.of(
+                Arrays.asList(idsOf(getSelectedResources()), idsOf(getSelectedLabels()),
+                        getSelectedFilterLabels(), idsOf(getSelectedCriterions()), getStartingDate(), getEndingDate()),
+                WorkReportLine.class, WorkReport.class, Worker.class, CriterionSatisfaction.class, Label.class,
+                OrderLine.class, OrderLineGroup.class, Order.class);
+    }
+
+    private static List<Long> idsOf(Collection<? extends BaseEntity> entities) {
+        List<Long> result = new ArrayList<>();
+        for (BaseEntity each : entities) {
+            result.add(each.getId());
+        }
+
+        return result;
+    }
+
     private LabelFilterType getSelectedFilterLabels() {
         if ( filterByWorkReports.isChecked() ) {
             return LabelFilterType.WORK_REPORT;
@@ -31,11 +31,9 @@ import java.util.Set;
 
 import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JREmptyDataSource;
-import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
 
 import org.libreplan.business.labels.daos.ILabelDAO;
 import org.libreplan.business.labels.entities.Label;
-import org.libreplan.business.reports.dtos.HoursWorkedPerResourceDTO;
 import org.libreplan.business.reports.dtos.LabelFilterType;
 import org.libreplan.business.resources.daos.ICriterionTypeDAO;
 import org.libreplan.business.resources.daos.IResourceDAO;
@@ -98,14 +96,18 @@ public class HoursWorkedPerWorkerModel implements IHoursWorkedPerWorkerModel {
                                                       Date startingDate,
                                                       Date endingDate) {
 
-        final List<HoursWorkedPerResourceDTO> workingHoursPerWorkerList = resourceDAO.getWorkingHoursPerWorker(
+        final List<Resource> resourcesWithWorkingHours = resourceDAO.getResourcesWithWorkingHours(
                 resources, labels, labelFilterType, criterions, startingDate, endingDate);
 
-        if ( workingHoursPerWorkerList != null && !workingHoursPerWorkerList.isEmpty() ) {
-            Collections.sort(workingHoursPerWorkerList);
+        if ( !resourcesWithWorkingHours.isEmpty() ) {
             setShowReportMessage(false);
 
-            return new JRBeanCollectionDataSource(workingHoursPerWorkerList);
+            /*
+             * The lines are read when the report is filled, one resource at a
+             * time, so they don't have to be in memory all at the same time.
+             */
+            return new StreamingBeanDataSource(() -> resourceDAO.iterateWorkingHoursPerWorker(
+                    resourcesWithWorkingHours, labels, labelFilterType, criterions, startingDate, endingDate));
         } else {
             setShowReportMessage(true);
 
@@ -0,0 +1,124 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.reports;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.jasperreports.engine.JRDataSource;
+
+/**
+ * Fills and exports the reports out of the request thread.
+ *
+ * The reports are filled inside a read only transaction, so the data sources
+ * can read lazily from the database, and the pages are swapped to disk while
+ * they are exported. The files produced can be reused for the same report,
+ * format, parameters and data until the data changes.
+ */
+public interface IReportExecutionService {
+
+    /**
+     * Starts to generate a report.
+     *
+     * @param reportName
+     *            the name of the compiled report, without extension
+     * @param format
+     *            one of pdf, odt or html
+     * @param cacheKey
+     *            the data of the report depends on. If <code>null</code> the
+     *            report is always generated again.
+     */
+    IReportExecution execute(String reportName,
+                             String format,
+                             Map<String, Object> parameters,
+                             JRDataSource dataSource,
+                             CacheKey cacheKey);
+
+    interface IReportExecution {
+
+        boolean isDone();
+
+        /**
+         * @return the number of records read from the data source so far
+         */
+        int getRecordsProcessed();
+
+        /**
+         * Stops generating the report. It does nothing if it is already done.
+         */
+        void cancel();
+
+        /**
+         * @return the file generated. It must be called once it is done.
+         * @throws IllegalStateException
+         *             if the report could not be generated or was cancelled
+         */
+        File getFile();
+
+        String getContentType();
+
+    }
+
+    /**
+     * Identifies the data of a report. The report is generated again if any
+     * entity of the classes it depends on is modified.
+     */
+    final class CacheKey {
+
+        public static CacheKey of(List<?> values, Class<?>... dependsOn) {
+            return new CacheKey(values, dependsOn);
+        }
+
+        private final List<?> values;
+
+        private final Set<Class<?>> dependsOn;
+
+        private CacheKey(List<?> values, Class<?>[] dependsOn) {
+            this.values = Collections.unmodifiableList(values);
+            this.dependsOn = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(dependsOn)));
+        }
+
+        public Set<Class<?>> getDependsOn() {
+            return dependsOn;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( !(obj instanceof CacheKey) ) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+
+            return values.equals(other.values) && dependsOn.equals(other.dependsOn);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode() * 31 + dependsOn.hashCode();
+        }
+
+    }
+
+}
@@ -21,6 +21,9 @@
 
 package org.libreplan.web.reports;
 
+import static org.libreplan.web.I18nHelper._;
+
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,16 +33,22 @@ import net.sf.jasperreports.engine.JRParameter;
 
 import org.apache.commons.lang3.StringUtils;
 import org.libreplan.business.common.Registry;
+import org.libreplan.web.reports.IReportExecutionService.CacheKey;
+import org.libreplan.web.reports.IReportExecutionService.IReportExecution;
 import org.springframework.web.context.ContextLoaderListener;
 import org.zkoss.util.Locales;
+import org.zkoss.util.media.AMedia;
 import org.zkoss.zk.au.out.AuDownload;
 import org.zkoss.zk.ui.Component;
 import org.zkoss.zk.ui.Executions;
+import org.zkoss.zk.ui.event.Events;
+import org.zkoss.zk.ui.util.Clients;
 import org.zkoss.zk.ui.util.GenericForwardComposer;
+import org.zkoss.zkplus.spring.SpringUtil;
 import org.zkoss.zul.A;
 import org.zkoss.zul.Hbox;
-
-import com.libreplan.java.zk.components.JasperreportComponent;
+import org.zkoss.zul.Messagebox;
+import org.zkoss.zul.Timer;
 
 /**
  *
@@ -50,6 +59,10 @@ import com.libreplan.java.zk.components.JasperreportComponent;
  * The method showReport takes care of this behaviour.
  * In addition, when a new report is shown, a link to the report shows up as well.
  *
+ * The reports are generated in background by {@link IReportExecutionService}
+ * while the number of records processed is shown, and they are delivered when
+ * they are done.
+ *
  * @author Diego Pino Garcia <dpino@igalia.com>
  * @author Manuel Rego Casasnovas <rego@igalia.com>
  * @author Vova Perebykivskyi <vova@libreplan-enterprise.com>
@@ -64,28 +77,95 @@ public abstract class LibrePlanReportController extends GenericForwardComposer<C
 
     protected A URIlink;
 
-    public void showReport(JasperreportComponent jasperreport) {
+    private static final int PROGRESS_INTERVAL_MILLIS = 1000;
+
+    private IReportExecution execution;
+
+    private Timer progressTimer;
+
+    public void showReport() {
         final String type = outputFormat.getOutputFormat();
 
-        jasperreport.setSrc(getReportName());
-        jasperreport.setDatasource(getDataSource());
-        jasperreport.setParameters(getParameters());
-        jasperreport.setType(type);
+        cancelExecution();
+        JRDataSource dataSource = getDataSource();
+        execution = getReportExecutionService()
+                .execute(getReportName(), type, getParameters(), dataSource, getCacheKey());
+
+        if ( execution.isDone() ) {
+            deliver(execution, type);
+        } else {
+            Clients.showBusy(_("Generating report..."));
+            progressTimer = new Timer(PROGRESS_INTERVAL_MILLIS);
+            progressTimer.setRepeats(true);
+            progressTimer.addEventListener(Events.ON_TIMER, event -> checkProgress(type));
+            self.appendChild(progressTimer);
+        }
+    }
+
+    private IReportExecutionService getReportExecutionService() {
+        return (IReportExecutionService) SpringUtil.getBean("reportExecutionService");
+    }
+
+    private void checkProgress(String type) {
+        if ( !execution.isDone() ) {
+            Clients.showBusy(_("Generating report: {0} records processed", execution.getRecordsProcessed()));
+            return;
+        }
+
+        stopProgressTimer();
+        Clients.clearBusy();
+        deliver(execution, type);
+    }
+
+    private void cancelExecution() {
+        stopProgressTimer();
+        if ( execution != null ) {
+            execution.cancel();
+            execution = null;
+        }
+    }
+
+    private void stopProgressTimer() {
+        if ( progressTimer != null ) {
+            progressTimer.stop();
+            progressTimer.detach();
+            progressTimer = null;
+        }
+    }
+
+    private void deliver(IReportExecution execution, String type) {
+        String uri;
+        try {
+            AMedia media = new AMedia(execution.getFile(), execution.getContentType(), null);
+            uri = self.getDesktop().getDownloadMediaURI(media, "/" + getReportName() + "." + type);
+        } catch (IllegalStateException | FileNotFoundException e) {
+            Messagebox.show(_("The report could not be generated"), _("Error"), Messagebox.OK, Messagebox.ERROR);
+            return;
+        }
 
         if ( type.equals(HTML) ) {
             URItext.setStyle("display: none");
-            Executions.getCurrent().sendRedirect(jasperreport.getReportUrl(), "_blank");
+            Executions.getCurrent().sendRedirect(uri, "_blank");
         } else {
             /*
              * We cant use FileDownload.save(<url>) as it creates a new url
              * where the resource can't be find so we have to create ourselves the download request
              */
-            Executions.getCurrent().addAuResponse(new AuDownload(jasperreport.getReportUrl()));
+            Executions.getCurrent().addAuResponse(new AuDownload(uri));
             URItext.setStyle("display: inline");
-            URIlink.setHref(jasperreport.getReportUrl());
+            URIlink.setHref(uri);
         }
     }
 
+    /**
+     * @return the key used to reuse a report previously generated with the
+     *         same data, or <code>null</code> if it must be always generated
+     *         again
+     */
+    protected CacheKey getCacheKey() {
+        return null;
+    }
+
     protected Map<String, Object> getParameters() {
         Map<String, Object> parameters = new HashMap<>();
 
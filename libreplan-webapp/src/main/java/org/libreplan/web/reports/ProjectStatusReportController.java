@@ -47,8 +47,6 @@ import org.zkoss.zk.ui.WrongValueException;
 import org.zkoss.zkplus.spring.SpringUtil;
 import org.zkoss.zul.Listbox;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
-
 /**
  * Controller for UI operations of Project Satus report.
  *
@@ -108,12 +106,12 @@ public class ProjectStatusReportController extends LibrePlanReportController {
     }
 
     @Override
-    public void showReport(JasperreportComponent jasperreport) {
+    public void showReport() {
         final Order order = getSelectedOrder();
         if (order == null && projectStatusReportModel.isNotFiltering()) {
             messagesForUser.showMessage(Level.ERROR, _("You should filter the report by project, labels or criteria"));
         } else {
-            super.showReport(jasperreport);
+            super.showReport();
         }
     }
 
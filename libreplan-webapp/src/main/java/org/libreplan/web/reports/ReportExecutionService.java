@@ -0,0 +1,444 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.reports;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.export.oasis.JROdtExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleHtmlReportConfiguration;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.metrics.Metrics;
+import org.libreplan.business.hibernate.notification.IAutoUpdatedSnapshot;
+import org.libreplan.business.hibernate.notification.ISnapshotRefresherService;
+import org.libreplan.business.hibernate.notification.ReloadOn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Service;
+
+/**
+ * Generates the reports with a bounded pool of workers.
+ *
+ * The files produced are kept for the last {@link #CACHE_SIZE} reports with a
+ * {@link CacheKey}. For every set of classes a report depends on there is a
+ * snapshot whose value is replaced when an entity of any of them is modified,
+ * so a file is only reused while the value it was generated with is current.
+ *
+ * A cached execution can be shared by several users, so it's only cancelled
+ * once all of them have cancelled it.
+ */
+@Service
+@Scope(BeanDefinition.SCOPE_SINGLETON)
+public class ReportExecutionService implements IReportExecutionService {
+
+    private static final Log LOG = LogFactory.getLog(ReportExecutionService.class);
+
+    private static final int POOL_SIZE = 2;
+
+    private static final int CACHE_SIZE = 20;
+
+    private static final int MAX_PAGES_IN_MEMORY = 50;
+
+    @Autowired
+    private IAdHocTransactionService adHocTransactionService;
+
+    @Autowired
+    private ISnapshotRefresherService snapshotRefresherService;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE, new ThreadFactory() {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread result = new Thread(runnable, "report-execution-" + count.incrementAndGet());
+            result.setDaemon(true);
+
+            return result;
+        }
+    });
+
+    private final ConcurrentMap<String, JasperReport> compiledReports = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Set<Class<?>>, IAutoUpdatedSnapshot<Object>> dataVersions =
+            new ConcurrentHashMap<>();
+
+    private final Map<List<Object>, CachedReport> cache = new LinkedHashMap<List<Object>, CachedReport>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedReport> eldest) {
+            if ( size() > CACHE_SIZE ) {
+                eldest.getValue().execution.deleteFile();
+                return true;
+            }
+
+            return false;
+        }
+    };
+
+    private static class CachedReport {
+
+        private final Object dataVersion;
+
+        private final Execution execution;
+
+        private CachedReport(Object dataVersion, Execution execution) {
+            this.dataVersion = dataVersion;
+            this.execution = execution;
+        }
+
+        private boolean isValidFor(Object currentDataVersion) {
+            return dataVersion == currentDataVersion && !execution.isFailedOrCancelled();
+        }
+
+    }
+
+    @Override
+    public IReportExecution execute(String reportName,
+                                    String format,
+                                    Map<String, Object> parameters,
+                                    JRDataSource dataSource,
+                                    CacheKey cacheKey) {
+
+        if ( cacheKey == null ) {
+            return start(reportName, format, parameters, dataSource);
+        }
+
+        List<Object> key = Arrays.asList(reportName, format, parameters, cacheKey);
+        Object dataVersion = getDataVersion(cacheKey.getDependsOn());
+
+        synchronized (cache) {
+            CachedReport cached = cache.get(key);
+            if ( cached != null && cached.isValidFor(dataVersion) && cached.execution.share() ) {
+                return cached.execution;
+            }
+            if ( cached != null ) {
+                cached.execution.deleteFile();
+            }
+
+            Execution result = start(reportName, format, parameters, dataSource);
+            cache.put(key, new CachedReport(dataVersion, result));
+
+            return result;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Object getDataVersion(Set<Class<?>> classes) {
+        return dataVersions.computeIfAbsent(classes, each -> snapshotRefresherService.takeSnapshot(
+                "report data version of " + each, Object::new, ReloadOn.onChangeOf(new ArrayList<>(each))))
+                .getValue();
+    }
+
+    private Execution start(String reportName, String format, Map<String, Object> parameters,
+                            JRDataSource dataSource) {
+
+        Execution result = new Execution(format, dataSource);
+        result.future = executor.submit(() -> adHocTransactionService.runOnReadOnlyTransaction(
+                () -> generate(reportName, format, new HashMap<>(parameters), result)));
+
+        return result;
+    }
+
+    private File generate(String reportName, String format, Map<String, Object> parameters, Execution execution) {
+        long start = System.currentTimeMillis();
+
+        JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(MAX_PAGES_IN_MEMORY,
+                new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 64), true);
+        parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+
+        File result = null;
+        boolean generated = false;
+        try {
+            result = File.createTempFile(reportName + "-", "." + format);
+            result.deleteOnExit();
+
+            JasperPrint print = JasperFillManager.fillReport(getCompiledReport(reportName), parameters, execution);
+            export(print, format, result);
+            generated = !execution.isCancelled();
+        } catch (JRException | IOException e) {
+            if ( execution.isCancelled() ) {
+                throw new CancellationException("Report " + reportName + " cancelled");
+            }
+            LOG.error("Error generating report " + reportName, e);
+            throw new RuntimeException(e);
+        } finally {
+            execution.closeDataSource();
+            virtualizer.cleanup();
+            if ( !generated && result != null && !result.delete() ) {
+                LOG.warn("Unable to delete report file " + result);
+            }
+        }
+
+        if ( !generated ) {
+            throw new CancellationException("Report " + reportName + " cancelled");
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        Metrics.timer("reports.generate." + reportName).update(elapsed, TimeUnit.MILLISECONDS);
+        Metrics.histogram("reports.records." + reportName).update(execution.getRecordsProcessed());
+        LOG.info("Report " + reportName + " with " + execution.getRecordsProcessed() + " records generated in "
+                + elapsed + " ms");
+
+        return result;
+    }
+
+    private JasperReport getCompiledReport(String reportName) throws JRException {
+        JasperReport result = compiledReports.get(reportName);
+        if ( result == null ) {
+            InputStream stream = getClass().getResourceAsStream("/" + reportName + ".jasper");
+            if ( stream == null ) {
+                throw new JRException("Compiled report " + reportName + " not found");
+            }
+            result = (JasperReport) JRLoader.loadObject(stream);
+            compiledReports.putIfAbsent(reportName, result);
+        }
+
+        return result;
+    }
+
+    private static void export(JasperPrint print, String format, File file) throws JRException {
+        switch (format) {
+            case "html":
+                HtmlExporter htmlExporter = new HtmlExporter();
+                SimpleHtmlReportConfiguration configuration = new SimpleHtmlReportConfiguration();
+                configuration.setEmbedImage(true);
+                htmlExporter.setConfiguration(configuration);
+                htmlExporter.setExporterInput(new SimpleExporterInput(print));
+                htmlExporter.setExporterOutput(new SimpleHtmlExporterOutput(file));
+                htmlExporter.exportReport();
+                break;
+
+            case "odt":
+                JROdtExporter odtExporter = new JROdtExporter();
+                odtExporter.setExporterInput(new SimpleExporterInput(print));
+                odtExporter.setExporterOutput(new SimpleOutputStreamExporterOutput(file));
+                odtExporter.exportReport();
+                break;
+
+            case "pdf":
+                JRPdfExporter pdfExporter = new JRPdfExporter();
+                pdfExporter.setExporterInput(new SimpleExporterInput(print));
+                pdfExporter.setExporterOutput(new SimpleOutputStreamExporterOutput(file));
+                pdfExporter.exportReport();
+                break;
+
+            default:
+                throw new IllegalArgumentException("can't handle format " + format);
+        }
+    }
+
+    private static String contentTypeOf(String format) {
+        switch (format) {
+            case "html":
+                return "text/html";
+
+            case "odt":
+                return "application/vnd.oasis.opendocument.text";
+
+            default:
+                return "application/" + format;
+        }
+    }
+
+    /**
+     * Counts the records read by the report and stops the filling once it is
+     * cancelled by all the users sharing it.
+     */
+    private static class Execution implements IReportExecution, JRDataSource {
+
+        private final String format;
+
+        private final JRDataSource dataSource;
+
+        private final AtomicInteger recordsProcessed = new AtomicInteger();
+
+        private volatile boolean cancelled = false;
+
+        private int users = 1;
+
+        private Future<File> future;
+
+        private Execution(String format, JRDataSource dataSource) {
+            this.format = format;
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public boolean next() throws JRException {
+            if ( cancelled ) {
+                throw new JRException("Report generation cancelled");
+            }
+            boolean result = dataSource.next();
+            if ( result ) {
+                recordsProcessed.incrementAndGet();
+            }
+
+            return result;
+        }
+
+        @Override
+        public Object getFieldValue(JRField field) throws JRException {
+            return dataSource.getFieldValue(field);
+        }
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public int getRecordsProcessed() {
+            return recordsProcessed.get();
+        }
+
+        /**
+         * @return <code>false</code> if it has already been cancelled, so it
+         *         can't be shared anymore
+         */
+        private synchronized boolean share() {
+            if ( cancelled ) {
+                return false;
+            }
+            users++;
+
+            return true;
+        }
+
+        @Override
+        public synchronized void cancel() {
+            if ( future.isDone() || cancelled ) {
+                return;
+            }
+            users--;
+            if ( users == 0 ) {
+                cancelled = true;
+                future.cancel(true);
+            }
+        }
+
+        private boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * The data source can be reading from an open cursor, like the
+         * {@link StreamingBeanDataSource}, so it's closed once the report is
+         * filled, cancelled or not.
+         */
+        private void closeDataSource() {
+            if ( dataSource instanceof AutoCloseable ) {
+                try {
+                    ((AutoCloseable) dataSource).close();
+                } catch (Exception e) {
+                    LOG.warn("Unable to close the data source", e);
+                }
+            }
+        }
+
+        @Override
+        public File getFile() {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException | CancellationException e) {
+                throw new IllegalStateException("The report could not be generated", e);
+            }
+        }
+
+        @Override
+        public String getContentType() {
+            return contentTypeOf(format);
+        }
+
+        private boolean isFailedOrCancelled() {
+            if ( cancelled ) {
+                return true;
+            }
+            if ( !future.isDone() ) {
+                return false;
+            }
+            try {
+                return !future.get().exists();
+            } catch (InterruptedException | ExecutionException | CancellationException e) {
+                return true;
+            }
+        }
+
+        private void deleteFile() {
+            if ( future.isDone() && !isFailedOrCancelled() ) {
+                try {
+                    if ( !future.get().delete() ) {
+                        LOG.warn("Unable to delete report file " + future.get());
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    LOG.warn("Unable to delete report file", e);
+                }
+            }
+        }
+
+    }
+
+}
@@ -21,7 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
 import net.sf.jasperreports.engine.JRDataSource;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.LocalDate;
@@ -215,9 +214,9 @@ public class SchedulingProgressPerOrderController extends LibrePlanReportControl
         }
     }
 
-    public void showReport(JasperreportComponent jasperreport){
+    public void showReport(){
         checkCannotBeHigher(startingDate, endingDate);
-        super.showReport(jasperreport);
+        super.showReport();
     }
 
     public static class AdvanceTypeDTO {
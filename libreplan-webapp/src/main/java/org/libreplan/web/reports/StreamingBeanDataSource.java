@@ -0,0 +1,87 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.reports;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.data.JRAbstractBeanDataSource;
+
+/**
+ * Data source that reads its beans from an {@link Iterator} instead of a
+ * collection, so they don't have to be in memory all at the same time.
+ *
+ * The iterator is only requested when the report starts to be filled, so it
+ * can be backed by a scrollable query that is run in the transaction the
+ * report is filled in by {@link IReportExecutionService}. If the iterator is
+ * {@link AutoCloseable} it's closed with the data source.
+ */
+public class StreamingBeanDataSource extends JRAbstractBeanDataSource implements AutoCloseable {
+
+    private final Supplier<? extends Iterator<?>> beans;
+
+    private Iterator<?> iterator = null;
+
+    private Object current = null;
+
+    public StreamingBeanDataSource(Supplier<? extends Iterator<?>> beans) {
+        super(true);
+        this.beans = beans;
+    }
+
+    @Override
+    public boolean next() {
+        if ( iterator == null ) {
+            iterator = beans.get();
+        }
+        current = iterator.hasNext() ? iterator.next() : null;
+
+        return current != null;
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        return getFieldValue(current, field);
+    }
+
+    /**
+     * The beans are read again from a new iterator.
+     */
+    @Override
+    public void moveFirst() {
+        close();
+    }
+
+    @Override
+    public void close() {
+        if ( iterator instanceof AutoCloseable ) {
+            try {
+                ((AutoCloseable) iterator).close();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        iterator = null;
+        current = null;
+    }
+
+}
@@ -21,7 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
 import net.sf.jasperreports.engine.JRDataSource;
 import org.libreplan.business.materials.entities.Material;
 import org.libreplan.business.materials.entities.MaterialCategory;
@@ -194,8 +193,8 @@ public class TimeLineRequiredMaterialController extends LibrePlanReportControlle
         return result;
     }
 
-    public void showReport(JasperreportComponent jasperreport) {
-        super.showReport(jasperreport);
+    public void showReport() {
+        super.showReport();
     }
 
     public List<String> getMaterialStatus() {
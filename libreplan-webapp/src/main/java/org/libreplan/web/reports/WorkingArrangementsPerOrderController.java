@@ -21,7 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
 import net.sf.jasperreports.engine.JRDataSource;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.orders.entities.Order;
@@ -142,11 +141,11 @@ public class WorkingArrangementsPerOrderController extends LibrePlanReportContro
         return result;
     }
 
-    public void showReport(JasperreportComponent jasperreport){
+    public void showReport(){
         if (getSelectedOrder() == null) {
             throw new WrongValueException(bdOrder, _("Please, select a project"));
         }
-        super.showReport(jasperreport);
+        super.showReport();
     }
 
     private List<TaskStatusEnum> getTasksStatus() {
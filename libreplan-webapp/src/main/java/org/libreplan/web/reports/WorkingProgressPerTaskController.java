@@ -21,7 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
 import net.sf.jasperreports.engine.JRDataSource;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.orders.entities.Order;
@@ -110,12 +109,12 @@ public class WorkingProgressPerTaskController extends LibrePlanReportController
         return result;
     }
 
-    public void showReport(JasperreportComponent jasperreport){
+    public void showReport(){
         final Order order = getSelectedOrder();
         if (order == null) {
             throw new WrongValueException(bandboxSelectOrder, _("Please, select a project"));
         }
-        super.showReport(jasperreport);
+        super.showReport();
     }
 
     public List<Label> getAllLabels() {
@@ -21,9 +21,6 @@
 
 package org.libreplan.web.resourceload;
 
-import static org.libreplan.business.workingday.IntraDayDate.max;
-import static org.libreplan.business.workingday.IntraDayDate.min;
-
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -95,8 +92,10 @@ abstract class LoadPeriodGenerator {
         }
 
         @Override
-        public LoadPeriodGenerator create(ResourceAllocation<?> allocation) {
-            return new LoadPeriodGeneratorOnResource(resource, allocation, criterion);
+        public LoadPeriodGenerator create(
+                IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval) {
+
+            return new LoadPeriodGeneratorOnResource(resource, start, end, allocationsOnInterval, criterion);
         }
 
     }
@@ -107,70 +106,14 @@ abstract class LoadPeriodGenerator {
         final List<Resource> potentialResources =
                 resourceSearch.searchBoth().byCriteria(Collections.singletonList(criterion)).execute();
 
-        return allocation -> new LoadPeriodGeneratorOnCriterion(criterion, allocation, potentialResources);
-    }
-
-    public List<LoadPeriodGenerator> join(LoadPeriodGenerator next) {
-        if (!overlaps(next)) {
-            return stripEmpty(this, next);
-        }
-
-        if (isIncluded(next)) {
-            return stripEmpty(this.until(next.start), intersect(next), this.from(next.end));
-        }
-        assert overlaps(next) && !isIncluded(next);
-        return stripEmpty(this.until(next.start), intersect(next), next.from(end));
+        return (start, end, allocationsOnInterval) ->
+                new LoadPeriodGeneratorOnCriterion(criterion, start, end, allocationsOnInterval, potentialResources);
     }
 
     protected List<ResourceAllocation<?>> getAllocationsOnInterval() {
         return allocationsOnInterval;
     }
 
-    private List<LoadPeriodGenerator> stripEmpty(LoadPeriodGenerator... generators) {
-        List<LoadPeriodGenerator> result = new ArrayList<>();
-        for (LoadPeriodGenerator loadPeriodGenerator : generators) {
-            if (!loadPeriodGenerator.isEmpty()) {
-                result.add(loadPeriodGenerator);
-            }
-        }
-        return result;
-    }
-
-    private boolean isEmpty() {
-        return start.equals(end);
-    }
-
-    protected abstract LoadPeriodGenerator create(
-            IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval);
-
-    private LoadPeriodGenerator intersect(LoadPeriodGenerator other) {
-        return create(max(this.start, other.start), min(this.end, other.end), plusAllocations(other));
-    }
-
-    private List<ResourceAllocation<?>> plusAllocations(LoadPeriodGenerator other) {
-        List<ResourceAllocation<?>> result = new ArrayList<>();
-        result.addAll(allocationsOnInterval);
-        result.addAll(other.allocationsOnInterval);
-
-        return result;
-    }
-
-    private LoadPeriodGenerator from(IntraDayDate newStart) {
-        return create(newStart, end, allocationsOnInterval);
-    }
-
-    private LoadPeriodGenerator until(IntraDayDate newEnd) {
-        return create(start, newEnd, allocationsOnInterval);
-    }
-
-    boolean overlaps(LoadPeriodGenerator other) {
-        return start.compareTo(other.end) < 0 && other.start.compareTo(this.end) < 0;
-    }
-
-    private boolean isIncluded(LoadPeriodGenerator other) {
-        return other.start.compareTo(start) >= 0 && other.end.compareTo(end) <= 0;
-    }
-
     /**
      * @return <code>null</code> if the data is invalid
      */
@@ -263,19 +206,6 @@ class LoadPeriodGeneratorOnResource extends LoadPeriodGenerator {
         this.criterion = criterion;
     }
 
-    LoadPeriodGeneratorOnResource(Resource resource, ResourceAllocation<?> initial, ICriterion criterion) {
-        super(initial.getIntraDayStartDate(), initial.getIntraDayEndDate(), Collections.singletonList(initial));
-        this.resource = resource;
-        this.criterion = criterion;
-    }
-
-    @Override
-    protected LoadPeriodGenerator create(
-            IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval) {
-
-        return new LoadPeriodGeneratorOnResource(resource, start, end, allocationsOnInterval, criterion);
-    }
-
     @Override
     protected EffortDuration getTotalAvailableEffort() {
         return resource.getTotalEffortFor(start, end, criterion);
@@ -299,18 +229,6 @@ class LoadPeriodGeneratorOnCriterion extends LoadPeriodGenerator {
 
     private final List<Resource> resourcesSatisfyingCriterionAtSomePoint;
 
-    public LoadPeriodGeneratorOnCriterion(Criterion criterion,
-                                          ResourceAllocation<?> allocation,
-                                          List<Resource> resourcesSatisfyingCriterionAtSomePoint) {
-
-        this(
-                criterion,
-                allocation.getIntraDayStartDate(),
-                allocation.getIntraDayEndDate(),
-                Collections.singletonList(allocation),
-                resourcesSatisfyingCriterionAtSomePoint);
-    }
-
     public LoadPeriodGeneratorOnCriterion(Criterion criterion,
                                           IntraDayDate startDate, IntraDayDate endDate,
                                           List<ResourceAllocation<?>> allocations,
@@ -321,14 +239,6 @@ class LoadPeriodGeneratorOnCriterion extends LoadPeriodGenerator {
         this.resourcesSatisfyingCriterionAtSomePoint = resourcesSatisfyingCriterionAtSomePoint;
     }
 
-    @Override
-    protected LoadPeriodGenerator create(
-            IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval) {
-
-        return new LoadPeriodGeneratorOnCriterion(
-                criterion, start, end, allocationsOnInterval, resourcesSatisfyingCriterionAtSomePoint);
-    }
-
     @Override
     protected EffortDuration getAssignedEffortFor(ResourceAllocation<?> resourceAllocation) {
         return resourceAllocation.getAssignedEffort(criterion, start, end);
@@ -348,5 +258,6 @@ class LoadPeriodGeneratorOnCriterion extends LoadPeriodGenerator {
 }
 
 interface LoadPeriodGeneratorFactory {
-    LoadPeriodGenerator create(ResourceAllocation<?> allocation);
+    LoadPeriodGenerator create(
+            IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval);
 }
@@ -42,6 +42,7 @@ import org.libreplan.business.planner.chart.ILoadChartData;
 import org.libreplan.business.planner.chart.ResourceLoadChartData;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.business.resources.daos.IResourcesSearcher;
+import org.libreplan.business.resources.daos.IResourcesSearcher.IResourcesQuery;
 import org.libreplan.business.resources.entities.Criterion;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.users.entities.User;
@@ -577,13 +578,17 @@ public class ResourceLoadController implements Composer {
                 parameters.clearResourcesToShow();
                 parameters.clearCriteriaToShow();
             } else if ( isFilteringByResource() ) {
-                parameters.setResourcesToShow(calculateResourcesToShow());
+                parameters.setResourcesToShow(calculateResourcesToShow(parameters));
             } else {
                 parameters.setCriteriaToShow(as(Criterion.class, entitiesSelected));
             }
         }
 
-        private List<Resource> calculateResourcesToShow() {
+        /**
+         * The resources of the criteria selected are the ones satisfying them
+         * in the period shown, if it's limited by {@link ByDatesFilter}.
+         */
+        private List<Resource> calculateResourcesToShow(ResourceLoadParameters parameters) {
             List<Resource> resources = new ArrayList<>();
             List<Criterion> criteria = new ArrayList<>();
 
@@ -596,7 +601,13 @@ public class ResourceLoadController implements Composer {
             }
 
             if ( !criteria.isEmpty()) {
-                resources.addAll(resourcesSearcher.searchBoth().byCriteria(criteria).execute());
+                IResourcesQuery<Resource> query = resourcesSearcher.searchBoth().byCriteria(criteria);
+                LocalDate start = parameters.getInitDateFilter();
+                LocalDate end = parameters.getEndDateFilter();
+                if ( start != null && end != null ) {
+                    query.satisfyingCriteriaBetween(start, end.plusDays(1));
+                }
+                resources.addAll(query.execute());
             }
 
             return resources;
@@ -33,17 +33,18 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.calendars.entities.ResourceCalendar;
 import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.orders.daos.IOrderDAO;
 import org.libreplan.business.orders.entities.Order;
@@ -68,6 +69,7 @@ import org.libreplan.business.users.entities.OrderAuthorization;
 import org.libreplan.business.users.entities.OrderAuthorizationType;
 import org.libreplan.business.users.entities.User;
 import org.libreplan.business.users.entities.UserRole;
+import org.libreplan.business.workingday.IntraDayDate;
 import org.libreplan.web.calendars.BaseCalendarModel;
 import org.libreplan.web.planner.order.PlanningStateCreator.IAllocationCriteria;
 import org.libreplan.web.planner.order.PlanningStateCreator.PlanningState;
@@ -85,6 +87,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.zkoss.ganttz.data.GanttDate;
 import org.zkoss.ganttz.data.resourceload.LoadPeriod;
 import org.zkoss.ganttz.data.resourceload.LoadTimeLine;
+import org.zkoss.ganttz.data.resourceload.LoadTimeLine.IChildrenLoader;
 import org.zkoss.ganttz.data.resourceload.TimeLineRole;
 
 @Component
@@ -117,16 +120,14 @@ public class ResourceLoadModel implements IResourceLoadModel {
     @Autowired
     private IScenarioManager scenarioManager;
 
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
     @Override
     @Transactional(readOnly = true)
     public ResourceLoadDisplayData calculateDataToDisplay(ResourceLoadParameters parameters) {
 
-        PlanningState planningState = parameters.getPlanningState();
-
-        if ( planningState != null ) {
-            planningState.reattach();
-            planningState.reassociateResourcesWithSession();
-        }
+        reattachPlanningState(parameters);
 
         ResourceAllocationsFinder<?> allocationsFinder = create(parameters);
         List<LoadTimeLine> loadTimeLines = allocationsFinder.buildTimeLines();
@@ -139,6 +140,15 @@ public class ResourceLoadModel implements IResourceLoadModel {
     }
 
 
+    private static void reattachPlanningState(ResourceLoadParameters parameters) {
+        PlanningState planningState = parameters.getPlanningState();
+
+        if ( planningState != null ) {
+            planningState.reattach();
+            planningState.reassociateResourcesWithSession();
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Order getOrderByTask(TaskElement task) {
@@ -251,6 +261,20 @@ public class ResourceLoadModel implements IResourceLoadModel {
             return new TaskOnInterval(parameters.getInitDateFilter(), parameters.getEndDateFilter());
         }
 
+        /**
+         * The second level lines are only built when their line is expanded.
+         * By then the transaction the entities shown were retrieved on is
+         * finished, so they're built on a new one retrieving again what they
+         * need.
+         */
+        IChildrenLoader lazily(final IOnTransaction<List<LoadTimeLine>> buildChildren) {
+            return () -> transactionService.runOnReadOnlyTransaction(() -> {
+                reattachPlanningState(parameters);
+
+                return buildChildren.execute();
+            });
+        }
+
     }
 
     private class ByResourceFinder extends ResourceAllocationsFinder<Resource> {
@@ -282,7 +306,20 @@ public class ResourceLoadModel implements IResourceLoadModel {
 
         @Override
         List<LoadTimeLine> buildTimeLines() {
-            return new ByResourceLoadTimesLinesBuilder(parameters).buildGroupsByResource(getFoundAllocations());
+            final ByResourceLoadTimesLinesBuilder builder = new ByResourceLoadTimesLinesBuilder(parameters);
+
+            List<LoadTimeLine> result = new ArrayList<>();
+            for (Entry<Resource, List<ResourceAllocation<?>>> each : getFoundAllocations().entrySet()) {
+                final Long resourceId = each.getKey().getId();
+
+                result.add(builder.buildGroupFor(each.getKey(), each.getValue(), lazily(() -> {
+                    Resource resource = resourcesDAO.findExistingEntity(resourceId);
+
+                    return builder.buildSecondLevel(resource, allocationsOf(resource));
+                })));
+            }
+
+            return result;
         }
 
         private Paginator<Resource> resourcesToShow() {
@@ -336,22 +373,24 @@ public class ResourceLoadModel implements IResourceLoadModel {
         private Map<Resource, List<ResourceAllocation<?>>> eachWithAllocations(List<Resource> allResources) {
             Map<Resource, List<ResourceAllocation<?>>> result = new LinkedHashMap<>();
             for (Resource resource : allResources) {
-                IAllocationCriteria criteria = and(onInterval(), relatedToResource(resource));
-
-                result.put(
-                        resource,
-                        ResourceAllocation.sortedByStartDate(doReplacementsIfNeeded(
-                                resourceAllocationDAO.findAllocationsRelatedTo(
-                                        getCurrentScenario(),
-                                        resource,
-                                        parameters.getInitDateFilter(),
-                                        parameters.getEndDateFilter()),
-                                criteria)));
+                result.put(resource, allocationsOf(resource));
             }
 
             return result;
         }
 
+        private List<ResourceAllocation<?>> allocationsOf(Resource resource) {
+            IAllocationCriteria criteria = and(onInterval(), relatedToResource(resource));
+
+            return ResourceAllocation.sortedByStartDate(doReplacementsIfNeeded(
+                    resourceAllocationDAO.findAllocationsRelatedTo(
+                            getCurrentScenario(),
+                            resource,
+                            parameters.getInitDateFilter(),
+                            parameters.getEndDateFilter()),
+                    criteria));
+        }
+
         private IAllocationCriteria relatedToResource(Resource resource) {
             return new RelatedWithResource(resource);
         }
@@ -394,7 +433,25 @@ public class ResourceLoadModel implements IResourceLoadModel {
 
         @Override
         List<LoadTimeLine> buildTimeLines() {
-            return new ByCriterionLoadTimesLinesBuilder(parameters).buildGroupsByCriterion(getFoundAllocations());
+            final ByCriterionLoadTimesLinesBuilder builder = new ByCriterionLoadTimesLinesBuilder(parameters);
+
+            List<LoadTimeLine> result = new ArrayList<>();
+            for (Entry<Criterion, List<ResourceAllocation<?>>> each : getFoundAllocations().entrySet()) {
+                final Long criterionId = each.getKey().getId();
+
+                LoadTimeLine group = builder.buildGroupFor(each.getKey(), each.getValue(), lazily(() -> {
+                    Criterion criterion = criterionDAO.findExistingEntity(criterionId);
+
+                    return builder.buildSecondaryLevels(
+                            criterion, ResourceAllocation.sortedByStartDate(allocationsOf(criterion)));
+                }));
+
+                if ( !group.isEmpty() ) {
+                    result.add(group);
+                }
+            }
+
+            return result;
         }
 
         private Paginator<Criterion> findCriterions() {
@@ -427,7 +484,10 @@ public class ResourceLoadModel implements IResourceLoadModel {
 
                         return getCriterionsOn(tasks);
                     } else {
-                        return findAllocationsGroupedByCriteria().keySet();
+                        return resourceAllocationDAO.findCriterionsWithGenericAllocations(
+                                getCurrentScenario(),
+                                asDate(parameters.getInitDateFilter()),
+                                asDate(parameters.getEndDateFilter()));
                     }
                 }
 
@@ -451,52 +511,67 @@ public class ResourceLoadModel implements IResourceLoadModel {
             };
         }
 
+        /**
+         * The allocations of all the criteria in the page are retrieved with
+         * one query for the generic ones and another one for the specific ones.
+         */
         private Map<Criterion, List<ResourceAllocation<?>>> allocationsByCriterion(List<Criterion> criterions) {
-            return withAssociatedSpecific(findAllocationsGroupedByCriteria(criterions));
-        }
-
-        private Map<Criterion, List<ResourceAllocation<?>>> findAllocationsGroupedByCriteria(
-                List<Criterion> relatedWith) {
+            Map<Criterion, List<GenericResourceAllocation>> generic =
+                    resourceAllocationDAO.findGenericAllocationsRelatedToCriterions(
+                            getCurrentScenario(),
+                            criterions,
+                            asDate(parameters.getInitDateFilter()),
+                            asDate(parameters.getEndDateFilter()));
+
+            Map<Criterion, List<SpecificResourceAllocation>> specific =
+                    resourceAllocationDAO.findSpecificAllocationsRelatedTo(
+                            getCurrentScenario(),
+                            criterions,
+                            asDate(parameters.getInitDateFilter()),
+                            asDate(parameters.getEndDateFilter()));
 
             Map<Criterion, List<ResourceAllocation<?>>> result = new LinkedHashMap<>();
-            for (Criterion criterion : relatedWith) {
-                IAllocationCriteria criteria = and(onInterval(), new RelatedWith(criterion));
-
-                result.put(
-                        criterion,
-                        ResourceAllocation.sortedByStartDate(doReplacementsIfNeeded(
-                                resourceAllocationDAO.findGenericAllocationsRelatedToCriterion(
-                                        getCurrentScenario(),
-                                        criterion,
-                                        asDate(parameters.getInitDateFilter()),
-                                        asDate(parameters.getEndDateFilter())),
-                                criteria)));
-
+            for (Criterion each : criterions) {
+                result.put(each, withAssociatedSpecific(
+                        each,
+                        valueOrEmpty(generic.get(each)),
+                        valueOrEmpty(specific.get(each))));
             }
 
             return result;
         }
 
-        private Map<Criterion, List<ResourceAllocation<?>>> withAssociatedSpecific(
-                Map<Criterion, List<ResourceAllocation<?>>> genericAllocationsByCriterion) {
+        private List<ResourceAllocation<?>> allocationsOf(Criterion criterion) {
+            return withAssociatedSpecific(
+                    criterion,
+                    resourceAllocationDAO.findGenericAllocationsRelatedToCriterion(
+                            getCurrentScenario(),
+                            criterion,
+                            asDate(parameters.getInitDateFilter()),
+                            asDate(parameters.getEndDateFilter())),
+                    resourceAllocationDAO.findSpecificAllocationsRelatedTo(
+                            getCurrentScenario(),
+                            criterion,
+                            asDate(parameters.getInitDateFilter()),
+                            asDate(parameters.getEndDateFilter())));
+        }
 
-            Map<Criterion, List<ResourceAllocation<?>>> result = new HashMap<>();
-            for (Entry<Criterion, List<ResourceAllocation<?>>> each : genericAllocationsByCriterion.entrySet()) {
-                List<ResourceAllocation<?>> both = new ArrayList<>();
-                both.addAll(each.getValue());
+        private List<ResourceAllocation<?>> withAssociatedSpecific(
+                Criterion criterion,
+                List<GenericResourceAllocation> generic,
+                List<SpecificResourceAllocation> specific) {
 
-                both.addAll(doReplacementsIfNeeded(
-                        resourceAllocationDAO.findSpecificAllocationsRelatedTo(
-                                getCurrentScenario(),
-                                each.getKey(),
-                                asDate(parameters.getInitDateFilter()),
-                                asDate(parameters.getEndDateFilter())),
-                        and(onInterval(), specificRelatedTo(each.getKey()))));
+            List<ResourceAllocation<?>> both = new ArrayList<>();
+            both.addAll(ResourceAllocation.sortedByStartDate(
+                    doReplacementsIfNeeded(generic, and(onInterval(), new RelatedWith(criterion)))));
 
-                result.put(each.getKey(), both);
-            }
+            both.addAll(doReplacementsIfNeeded(specific, and(onInterval(), specificRelatedTo(criterion))));
 
-            return result;
+            return both;
+        }
+
+        private <A extends ResourceAllocation<?>> List<A> valueOrEmpty(List<A> allocations) {
+            return allocations == null ? Collections.<A> emptyList() : allocations;
         }
 
         private IAllocationCriteria specificRelatedTo(Criterion key) {
@@ -504,35 +579,6 @@ public class ResourceLoadModel implements IResourceLoadModel {
                     key, parameters.getInitDateFilter(), parameters.getEndDateFilter());
         }
 
-        private Map<Criterion, List<GenericResourceAllocation>> findAllocationsGroupedByCriteria() {
-            return doReplacementsIfNeeded(resourceAllocationDAO.findGenericAllocationsByCriterion(
-                    getCurrentScenario(),
-                    asDate(parameters.getInitDateFilter()),
-                    asDate(parameters.getEndDateFilter())));
-        }
-
-        private Map<Criterion, List<GenericResourceAllocation>> doReplacementsIfNeeded(
-                Map<Criterion, List<GenericResourceAllocation>> map) {
-
-            if ( !parameters.thereIsCurrentOrder() ) {
-                return map;
-            }
-
-            Map<Criterion, List<GenericResourceAllocation>> result = new HashMap<>();
-            for (Entry<Criterion, List<GenericResourceAllocation>> each : map.entrySet()) {
-                IAllocationCriteria criteria = and(onInterval(), new RelatedWith(each.getKey()));
-
-                List<ResourceAllocation<?>> replaced =
-                        parameters.getPlanningState().replaceByCurrentOnes(each.getValue(), criteria);
-
-                if ( !replaced.isEmpty() ) {
-                    result.put(each.getKey(), ResourceAllocation.getOfType(GenericResourceAllocation.class, replaced));
-                }
-            }
-
-            return result;
-        }
-
     }
 
     class LoadTimeLinesBuilder {
@@ -561,7 +607,18 @@ public class ResourceLoadModel implements IResourceLoadModel {
                     buildSecondLevel(resource, sortedByStartDate));
         }
 
-        private List<LoadTimeLine> buildSecondLevel(
+        LoadTimeLine buildGroupFor(Resource resource,
+                                   List<? extends ResourceAllocation<?>> sortedByStartDate,
+                                   IChildrenLoader secondLevel) {
+
+            TimeLineRole<BaseEntity> role = getCurrentTimeLineRole(resource);
+
+            return new LoadTimeLine(
+                    buildTimeLine(resource, resource.getName(), sortedByStartDate, TYPE_RESOURCE, role),
+                    secondLevel);
+        }
+
+        List<LoadTimeLine> buildSecondLevel(
                 Resource resource, List<? extends ResourceAllocation<?>> sortedByStartDate) {
 
             List<LoadTimeLine> result = new ArrayList<>();
@@ -740,16 +797,6 @@ public class ResourceLoadModel implements IResourceLoadModel {
             super(parameters);
         }
 
-        List<LoadTimeLine> buildGroupsByResource(Map<Resource, List<ResourceAllocation<?>>> map) {
-            List<LoadTimeLine> result = new ArrayList<>();
-            for (Entry<Resource, List<ResourceAllocation<?>>> each : map.entrySet()) {
-                LoadTimeLine l = buildGroupFor(each.getKey(), each.getValue());
-                result.add(l);
-            }
-
-            return result;
-        }
-
     }
 
     class ByCriterionLoadTimesLinesBuilder extends LoadTimeLinesBuilder {
@@ -760,32 +807,15 @@ public class ResourceLoadModel implements IResourceLoadModel {
             super(parameters);
         }
 
-        List<LoadTimeLine> buildGroupsByCriterion(Map<Criterion, List<ResourceAllocation<?>>> map) {
-            return groupsFor(map);
-        }
-
-        private List<LoadTimeLine> groupsFor(Map<Criterion, List<ResourceAllocation<?>>> allocationsByCriterion) {
-            List<LoadTimeLine> result = new ArrayList<>();
-            for (Entry<Criterion, List<ResourceAllocation<?>>> each : allocationsByCriterion.entrySet()) {
-                Criterion criterion = each.getKey();
-                List<ResourceAllocation<?>> allocations = ResourceAllocation.sortedByStartDate(each.getValue());
-
-                if ( allocations == null ) {
-                    continue;
-                }
-
-                TimeLineRole<BaseEntity> role = getCurrentTimeLineRole(criterion);
+        LoadTimeLine buildGroupFor(Criterion criterion,
+                                   List<ResourceAllocation<?>> allocations,
+                                   IChildrenLoader secondaryLevels) {
 
-                LoadTimeLine group = new LoadTimeLine(
-                        createMain(criterion, allocations, role),
-                        buildSecondaryLevels(criterion, allocations));
+            TimeLineRole<BaseEntity> role = getCurrentTimeLineRole(criterion);
 
-                if ( !group.isEmpty() ) {
-                    result.add(group);
-                }
-            }
-
-            return result;
+            return new LoadTimeLine(
+                    createMain(criterion, ResourceAllocation.sortedByStartDate(allocations), role),
+                    secondaryLevels);
         }
 
         private LoadTimeLine createMain(Criterion criterion,
@@ -801,7 +831,7 @@ public class ResourceLoadModel implements IResourceLoadModel {
             return periodBuilderFactory.build(LoadPeriodGenerator.onCriterion(criterion, resourcesSearchModel), value);
         }
 
-        private List<LoadTimeLine> buildSecondaryLevels(
+        List<LoadTimeLine> buildSecondaryLevels(
                 Criterion criterion, List<? extends ResourceAllocation<?>> allocations) {
 
             List<LoadTimeLine> result = new ArrayList<>();
@@ -1115,8 +1145,6 @@ class PeriodsBuilder {
 
     private final List<? extends ResourceAllocation<?>> sortedByStartDate;
 
-    private final List<LoadPeriodGenerator> loadPeriodsGenerators = new LinkedList<>();
-
     private final LoadPeriodGeneratorFactory factory;
 
     private PeriodsBuilder(
@@ -1174,126 +1202,93 @@ class PeriodsBuilder {
     }
 
     private List<LoadPeriod> buildPeriods() {
-        for (ResourceAllocation<?> resourceAllocation : sortedByStartDate) {
-            loadPeriodsGenerators.add(factory.create(resourceAllocation));
-        }
-        joinPeriodGenerators();
-
-        return toGenerators(loadPeriodsGenerators);
+        return toGenerators(createGenerators());
     }
 
-    private List<LoadPeriod> toGenerators(List<LoadPeriodGenerator> generators) {
-        List<LoadPeriod> result = new ArrayList<>();
-        for (LoadPeriodGenerator loadPeriodGenerator : generators) {
-            LoadPeriod period = loadPeriodGenerator.build();
+    /**
+     * Sweeps once over the start and end points of the allocations. Between
+     * each two consecutive points there is a generator with the allocations
+     * spanning them, so each allocation is only visited when entering and
+     * leaving it.
+     *
+     * An allocation without duration has its own generator, unless it's in the
+     * middle of other allocations.
+     */
+    private List<LoadPeriodGenerator> createGenerators() {
+        List<LoadPeriodGenerator> result = new ArrayList<>();
+        TreeMap<IntraDayDate, PointChanges> points = new TreeMap<>();
 
-            if ( period != null ) {
-                result.add(period);
+        for (ResourceAllocation<?> each : sortedByStartDate) {
+            IntraDayDate start = each.getIntraDayStartDate();
+            IntraDayDate end = each.getIntraDayEndDate();
+
+            if ( start.compareTo(end) > 0 ) {
+                // It's discarded with a warning when building it
+                result.add(factory.create(start, end, Collections.singletonList(each)));
+            } else if ( start.equals(end) ) {
+                changesAt(points, start).withoutDuration.add(each);
+            } else {
+                changesAt(points, start).starting.add(each);
+                changesAt(points, end).ending.add(each);
             }
         }
 
-        return result;
-    }
-
-    private void joinPeriodGenerators() {
-        ListIterator<LoadPeriodGenerator> iterator = loadPeriodsGenerators.listIterator();
-
-        while (iterator.hasNext()) {
-            final LoadPeriodGenerator current = findNextOneOverlapping(iterator);
-
-            if ( current != null ) {
-                rewind(iterator, current);
-                iterator.remove();
-                LoadPeriodGenerator next = iterator.next();
-                iterator.remove();
-                List<LoadPeriodGenerator> generated = current.join(next);
-                final LoadPeriodGenerator positionToComeBack = generated.get(0);
-
-                final List<LoadPeriodGenerator> remaining =
-                        loadPeriodsGenerators.subList(iterator.nextIndex(), loadPeriodsGenerators.size());
+        Set<ResourceAllocation<?>> spanning = new LinkedHashSet<>();
+        IntraDayDate previous = null;
 
-                List<LoadPeriodGenerator> generatorsSortedByStartDate =
-                        mergeListsKeepingByStartSortOrder(generated, remaining);
+        for (Entry<IntraDayDate, PointChanges> each : points.entrySet()) {
+            IntraDayDate point = each.getKey();
+            PointChanges changes = each.getValue();
 
-                final int takenFromRemaining = generatorsSortedByStartDate.size() - generated.size();
-                removeNextElements(iterator, takenFromRemaining);
-                addAtCurrentPosition(iterator, generatorsSortedByStartDate);
-                rewind(iterator, positionToComeBack);
+            if ( previous != null && !spanning.isEmpty() ) {
+                result.add(factory.create(previous, point, new ArrayList<>(spanning)));
             }
-        }
-    }
 
-    private LoadPeriodGenerator findNextOneOverlapping(ListIterator<LoadPeriodGenerator> iterator) {
-        while (iterator.hasNext()) {
-            LoadPeriodGenerator current = iterator.next();
+            spanning.removeAll(changes.ending);
 
-            if ( !iterator.hasNext() ) {
-                return null;
+            if ( spanning.isEmpty() ) {
+                for (ResourceAllocation<?> withoutDuration : changes.withoutDuration) {
+                    result.add(factory.create(point, point, Collections.singletonList(withoutDuration)));
+                }
             }
 
-            LoadPeriodGenerator next = peekNext(iterator);
-            if ( current.overlaps(next) ) {
-                return current;
-            }
+            spanning.addAll(changes.starting);
+            previous = point;
         }
 
-        return null;
+        return result;
     }
 
-    private void addAtCurrentPosition(
-            ListIterator<LoadPeriodGenerator> iterator, List<LoadPeriodGenerator> sortedByStartDate) {
-
-        for (LoadPeriodGenerator l : sortedByStartDate) {
-            iterator.add(l);
-        }
-    }
+    private static PointChanges changesAt(Map<IntraDayDate, PointChanges> points, IntraDayDate point) {
+        PointChanges result = points.get(point);
 
-    private void removeNextElements(ListIterator<LoadPeriodGenerator> iterator, final int elementsNumber) {
-        for (int i = 0; i < elementsNumber; i++) {
-            iterator.next();
-            iterator.remove();
+        if ( result == null ) {
+            result = new PointChanges();
+            points.put(point, result);
         }
-    }
 
-    private void rewind(ListIterator<LoadPeriodGenerator> iterator, LoadPeriodGenerator nextOne) {
-        while (peekNext(iterator) != nextOne) {
-            iterator.previous();
-        }
+        return result;
     }
 
-    private List<LoadPeriodGenerator> mergeListsKeepingByStartSortOrder(
-            List<LoadPeriodGenerator> joined, List<LoadPeriodGenerator> remaining) {
+    private static class PointChanges {
 
-        List<LoadPeriodGenerator> result = new ArrayList<>();
-        ListIterator<LoadPeriodGenerator> joinedIterator = joined.listIterator();
-        ListIterator<LoadPeriodGenerator> remainingIterator = remaining.listIterator();
+        private final List<ResourceAllocation<?>> starting = new ArrayList<>();
 
-        while (joinedIterator.hasNext() && remainingIterator.hasNext()) {
-            LoadPeriodGenerator fromJoined = peekNext(joinedIterator);
-            LoadPeriodGenerator fromRemaining = peekNext(remainingIterator);
+        private final List<ResourceAllocation<?>> ending = new ArrayList<>();
 
-            if ( fromJoined.getStart().compareTo(fromRemaining.getStart()) <= 0 ) {
-                result.add(fromJoined);
-                joinedIterator.next();
-            } else {
-                result.add(fromRemaining);
-                remainingIterator.next();
-            }
-        }
-        if ( joinedIterator.hasNext() ) {
-            result.addAll(joined.subList(joinedIterator.nextIndex(), joined.size()));
-        }
+        private final List<ResourceAllocation<?>> withoutDuration = new ArrayList<>();
 
-        return result;
     }
 
-    private LoadPeriodGenerator peekNext(ListIterator<LoadPeriodGenerator> iterator) {
-        if ( !iterator.hasNext() ) {
-            return null;
-        }
+    private List<LoadPeriod> toGenerators(List<LoadPeriodGenerator> generators) {
+        List<LoadPeriod> result = new ArrayList<>();
+        for (LoadPeriodGenerator loadPeriodGenerator : generators) {
+            LoadPeriod period = loadPeriodGenerator.build();
 
-        LoadPeriodGenerator result = iterator.next();
-        iterator.previous();
+            if ( period != null ) {
+                result.add(period);
+            }
+        }
 
         return result;
     }
@@ -37,8 +37,10 @@ import org.libreplan.business.common.entities.EntityNameEnum;
 import org.libreplan.business.common.entities.PersonalTimesheetsPeriodicityEnum;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
+import org.libreplan.business.orders.daos.IDailyChargedEffortDAO;
 import org.libreplan.business.orders.daos.IOrderDAO;
 import org.libreplan.business.orders.daos.ISumChargedEffortDAO;
+import org.libreplan.business.orders.entities.DailyChargedEffort;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.planner.daos.IResourceAllocationDAO;
@@ -135,6 +137,9 @@ public class PersonalTimesheetModel implements IPersonalTimesheetModel {
     @Autowired
     private IWorkReportLineDAO workReportLineDAO;
 
+    @Autowired
+    private IDailyChargedEffortDAO dailyChargedEffortDAO;
+
     @Override
     @Transactional(readOnly = true)
     public void initCreateOrEdit(LocalDate date) {
@@ -277,34 +282,54 @@ public class PersonalTimesheetModel implements IPersonalTimesheetModel {
     }
 
     private void initOtherMaps() {
-        List<WorkReportLine> workReportLines = workReportLineDAO
-                .findByResourceFilteredByDateNotInWorkReport(
-                getWorker(), firstDay.toDateTimeAtStartOfDay().toDate(),
-                lastDay.toDateTimeAtStartOfDay().toDate(),
-                workReport.isNewObject() ? null : workReport);
-
-        otherReports = !workReportLines.isEmpty();
-
         otherEffortPerOrderElement = new HashMap<Long, EffortDuration>();
         otherEffortPerDay = new HashMap<LocalDate, EffortDuration>();
 
-        for (WorkReportLine line : workReportLines) {
-            OrderElement orderElement = line.getOrderElement();
-            EffortDuration effort = line.getEffort();
-            LocalDate date = LocalDate.fromDateFields(line.getDate());
+        // The daily charged efforts include the lines of this work report too
+        List<OrderElement> chargedOrderElements = new ArrayList<OrderElement>();
+        for (DailyChargedEffort each : dailyChargedEffortDAO
+                .findByResourceBetween(getWorker(), firstDay, lastDay)) {
+            OrderElement orderElement = each.getOrderElement();
 
             initMapKey(otherEffortPerOrderElement, orderElement.getId());
             increaseMap(otherEffortPerOrderElement, orderElement.getId(),
-                    effort);
+                    each.getEffort());
 
-            initMapKey(otherEffortPerDay, date);
-            increaseMap(otherEffortPerDay, date, effort);
+            initMapKey(otherEffortPerDay, each.getDate());
+            increaseMap(otherEffortPerDay, each.getDate(), each.getEffort());
 
-            if (isNotInOrderElements(orderElement)) {
-                forceLoad(orderElement);
-                orderElements.add(orderElement);
+            chargedOrderElements.add(orderElement);
+        }
+
+        if (!workReport.isNewObject()) {
+            for (WorkReportLine line : workReport.getWorkReportLines()) {
+                decreaseMap(otherEffortPerOrderElement,
+                        line.getOrderElement().getId(), line.getEffort());
+                decreaseMap(otherEffortPerDay, line.getLocalDate(),
+                        line.getEffort());
             }
         }
+
+        otherReports = false;
+        for (OrderElement orderElement : chargedOrderElements) {
+            if (!getOtherEffortDuration(orderElement).isZero()) {
+                otherReports = true;
+
+                if (isNotInOrderElements(orderElement)) {
+                    forceLoad(orderElement);
+                    orderElements.add(orderElement);
+                }
+            }
+        }
+    }
+
+    private <K> void decreaseMap(Map<K, EffortDuration> map, K key,
+            EffortDuration valueToDecrease) {
+        EffortDuration value = map.get(key);
+        if (value != null) {
+            map.put(key, value.compareTo(valueToDecrease) > 0 ? value
+                    .minus(valueToDecrease) : EffortDuration.zero());
+        }
     }
 
     private void initMapKey(Map<Long, EffortDuration> map, Long key) {
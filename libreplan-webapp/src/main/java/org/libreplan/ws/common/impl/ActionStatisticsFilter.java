@@ -0,0 +1,60 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.ws.common.impl;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+import org.libreplan.business.hibernate.statistics.ActionStatistics;
+import org.libreplan.business.hibernate.statistics.QueryBudget;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gathers the {@link ActionStatistics} of each call to the REST-based
+ * services, warning about the ones exceeding the default {@link QueryBudget}.
+ *
+ * The response filter isn't called if the call fails with an exception not
+ * mapped to a response, then the action is stopped by
+ * {@link org.libreplan.web.common.ActionStatisticsRequestListener}.
+ */
+@Provider
+@Component("actionStatisticsFilter")
+public class ActionStatisticsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String STATISTICS_PROPERTY = ActionStatisticsFilter.class.getName() + ".statistics";
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        String action = requestContext.getMethod() + " " + requestContext.getUriInfo().getPath();
+        requestContext.setProperty(STATISTICS_PROPERTY, ActionStatistics.start(action));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object statistics = requestContext.getProperty(STATISTICS_PROPERTY);
+        if (statistics instanceof ActionStatistics) {
+            ((ActionStatistics) statistics).stop();
+        }
+    }
+
+}
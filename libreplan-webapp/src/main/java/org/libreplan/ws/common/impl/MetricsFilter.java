@@ -0,0 +1,63 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.ws.common.impl;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+import org.libreplan.business.common.metrics.Metrics;
+import org.libreplan.business.common.metrics.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the requests to the REST-based services, one timer per service named
+ * <code>ws.rest.</code> followed by the class implementing it.
+ */
+@Provider
+@Component("metricsFilter")
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String TIMER_PROPERTY = MetricsFilter.class.getName() + ".timer";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        String service = resourceInfo.getResourceClass() != null
+                ? resourceInfo.getResourceClass().getSimpleName()
+                : "unknown";
+        requestContext.setProperty(TIMER_PROPERTY, Metrics.timer("ws.rest." + service).start());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object context = requestContext.getProperty(TIMER_PROPERTY);
+        if (context instanceof Timer.Context) {
+            ((Timer.Context) context).stop();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.ws.metrics.api;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.libreplan.business.common.metrics.MetricSummary;
+
+/**
+ * DTO for a {@link MetricSummary}. Timers are expressed in milliseconds.
+ */
+@XmlRootElement(name = "metric")
+public class MetricDTO {
+
+    @XmlAttribute
+    public String name;
+
+    @XmlAttribute
+    public String type;
+
+    @XmlAttribute
+    public long count;
+
+    @XmlAttribute
+    public double mean;
+
+    @XmlAttribute
+    public double min;
+
+    @XmlAttribute
+    public double max;
+
+    @XmlAttribute
+    public double median;
+
+    @XmlAttribute(name = "percentile-95")
+    public double percentile95;
+
+    @XmlAttribute(name = "percentile-99")
+    public double percentile99;
+
+    public MetricDTO() {}
+
+    public MetricDTO(String name, String type, long count, double mean, double min, double max, double median,
+                     double percentile95, double percentile99) {
+        this.name = name;
+        this.type = type;
+        this.count = count;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.median = median;
+        this.percentile95 = percentile95;
+        this.percentile99 = percentile99;
+    }
+
+}
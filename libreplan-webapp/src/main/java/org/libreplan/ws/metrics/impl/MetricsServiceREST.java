@@ -0,0 +1,61 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.ws.metrics.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.libreplan.business.common.metrics.MetricSummary;
+import org.libreplan.business.common.metrics.Metrics;
+import org.libreplan.ws.metrics.api.IMetricsService;
+import org.libreplan.ws.metrics.api.MetricDTO;
+import org.libreplan.ws.metrics.api.MetricListDTO;
+import org.springframework.stereotype.Service;
+
+/**
+ * REST-based implementation of {@link IMetricsService}.
+ */
+@Path("/metrics/")
+@Produces("application/xml")
+@Service("metricsServiceREST")
+public class MetricsServiceREST implements IMetricsService {
+
+    @Override
+    @GET
+    public MetricListDTO getMetrics() {
+        List<MetricDTO> result = new ArrayList<>();
+        for (MetricSummary each : Metrics.getSummaries()) {
+            result.add(toDTO(each));
+        }
+
+        return new MetricListDTO(result);
+    }
+
+    private static MetricDTO toDTO(MetricSummary summary) {
+        return new MetricDTO(summary.getName(), summary.getType(), summary.getCount(), summary.getMean(),
+                summary.getMin(), summary.getMax(), summary.getMedian(), summary.getPercentile95(),
+                summary.getPercentile99());
+    }
+
+}
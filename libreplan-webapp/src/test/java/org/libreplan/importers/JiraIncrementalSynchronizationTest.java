@@ -0,0 +1,238 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.importers;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.IOnTransaction;
+import org.libreplan.business.common.daos.IConnectorDAO;
+import org.libreplan.business.common.entities.Connector;
+import org.libreplan.business.common.entities.ConnectorException;
+import org.libreplan.business.common.entities.ConnectorProperty;
+import org.libreplan.business.common.entities.PredefinedConnectorProperties;
+import org.libreplan.business.common.entities.PredefinedConnectors;
+import org.libreplan.business.orders.daos.IOrderSyncInfoDAO;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderSyncInfo;
+import org.libreplan.importers.jira.IssueDTO;
+import org.libreplan.web.orders.IOrderModel;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests that the scheduled {@link JiraOrderElementSynchronizer} only requests
+ * the issues updated since the last successful synchronization.
+ */
+public class JiraIncrementalSynchronizationTest {
+
+    private static final String KEY = "label";
+
+    private static final String FAILED_REASON = "Order element not found";
+
+    private HttpServer server;
+
+    private final List<String> searches = Collections.synchronizedList(new ArrayList<String>());
+
+    private Date lastSyncDate = new DateTime(2016, 3, 1, 12, 0, DateTimeZone.UTC).toDate();
+
+    private OrderSyncInfo orderSyncInfo;
+
+    private IJiraTimesheetSynchronizer jiraTimesheetSynchronizer;
+
+    private JiraOrderElementSynchronizer jiraOrderElementSynchronizer;
+
+    private static class InlineTransactionService implements IAdHocTransactionService {
+
+        @Override
+        public <T> T runOnTransaction(IOnTransaction<T> onTransaction) {
+            return onTransaction.execute();
+        }
+
+        @Override
+        public <T> T runOnReadOnlyTransaction(IOnTransaction<T> onTransaction) {
+            return onTransaction.execute();
+        }
+
+        @Override
+        public <T> T runOnAnotherTransaction(IOnTransaction<T> onTransaction) {
+            return onTransaction.execute();
+        }
+
+        @Override
+        public <T> T runOnAnotherReadOnlyTransaction(IOnTransaction<T> onTransaction) {
+            return onTransaction.execute();
+        }
+
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/" + JiraRESTClient.PATH_AUTH_SESSION, exchange -> respond(exchange, "{}"));
+        server.createContext("/" + JiraRESTClient.PATH_SEARCH, exchange -> {
+            searches.add(getJql(exchange));
+            respond(exchange, "{\"startAt\":0,\"maxResults\":50,\"total\":1,\"issues\":[{\"key\":\"ISSUE-1\"}]}");
+        });
+        server.start();
+
+        Order order = Order.create();
+        order.setName("order");
+        orderSyncInfo = OrderSyncInfo.create(KEY, order, PredefinedConnectors.JIRA.getName());
+        orderSyncInfo.setLastSyncDate(lastSyncDate);
+
+        jiraOrderElementSynchronizer = new JiraOrderElementSynchronizer() {
+            @Override
+            public void syncOrderElementsWithJiraIssues(List<IssueDTO> issues, Order order) {
+                // The order elements are not checked by this test
+            }
+        };
+        ReflectionTestUtils.setField(jiraOrderElementSynchronizer, "adHocTransactionService",
+                new InlineTransactionService());
+        ReflectionTestUtils.setField(jiraOrderElementSynchronizer, "connectorDAO", givenConnectorDAO());
+        ReflectionTestUtils.setField(jiraOrderElementSynchronizer, "orderSyncInfoDAO", givenOrderSyncInfoDAO());
+        ReflectionTestUtils.setField(jiraOrderElementSynchronizer, "orderModel", givenOrderModel(order));
+
+        jiraTimesheetSynchronizer = createNiceMock(IJiraTimesheetSynchronizer.class);
+        ReflectionTestUtils.setField(jiraOrderElementSynchronizer, "jiraTimesheetSynchronizer",
+                jiraTimesheetSynchronizer);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private IConnectorDAO givenConnectorDAO() {
+        Connector connector = Connector.create(PredefinedConnectors.JIRA.getName());
+        connector.addProperty(ConnectorProperty.create(PredefinedConnectorProperties.SERVER_URL,
+                "http://localhost:" + server.getAddress().getPort() + "/"));
+        connector.addProperty(ConnectorProperty.create(PredefinedConnectorProperties.USERNAME, "username"));
+        connector.addProperty(ConnectorProperty.create(PredefinedConnectorProperties.PASSWORD, "password"));
+
+        IConnectorDAO result = createNiceMock(IConnectorDAO.class);
+        expect(result.findUniqueByName(PredefinedConnectors.JIRA.getName())).andReturn(connector).anyTimes();
+        replay(result);
+
+        return result;
+    }
+
+    private IOrderSyncInfoDAO givenOrderSyncInfoDAO() {
+        IOrderSyncInfoDAO result = createNiceMock(IOrderSyncInfoDAO.class);
+        expect(result.findByConnectorName(PredefinedConnectors.JIRA.getName()))
+                .andReturn(Collections.singletonList(orderSyncInfo)).anyTimes();
+        expect(result.findByKeyOrderAndConnectorName(
+                eq(KEY), anyObject(Order.class), eq(PredefinedConnectors.JIRA.getName())))
+                .andReturn(orderSyncInfo).anyTimes();
+        replay(result);
+
+        return result;
+    }
+
+    private IOrderModel givenOrderModel(Order order) {
+        IOrderModel result = createNiceMock(IOrderModel.class);
+        expect(result.getOrder()).andReturn(order).anyTimes();
+        replay(result);
+
+        return result;
+    }
+
+    private void givenTimesheetsSynchronization(boolean successful) {
+        SynchronizationInfo info = new SynchronizationInfo("Synchronization");
+        if ( !successful ) {
+            info.addFailedReason(FAILED_REASON);
+        }
+
+        expect(jiraTimesheetSynchronizer.getSynchronizationInfo()).andReturn(info).anyTimes();
+        replay(jiraTimesheetSynchronizer);
+    }
+
+    @Test
+    public void theIssuesAreRequestedAgainAfterTheTimesheetsSynchronizationFails() throws ConnectorException {
+        givenTimesheetsSynchronization(false);
+
+        List<SynchronizationInfo> result = jiraOrderElementSynchronizer.syncOrderElementsWithJiraIssues();
+        assertEquals(1, result.size());
+        assertEquals(Collections.singletonList(FAILED_REASON), result.get(0).getFailedReasons());
+        assertEquals(lastSyncDate, orderSyncInfo.getLastSyncDate());
+
+        jiraOrderElementSynchronizer.syncOrderElementsWithJiraIssues();
+
+        String expectedSearch = "labels=" + KEY + " AND updated >= \"2016-02-29\"";
+        assertEquals(Collections.nCopies(2, expectedSearch), searches);
+    }
+
+    @Test
+    public void theLastSynchronizationDateIsUpdatedAfterTheTimesheetsAreSynchronized() throws ConnectorException {
+        givenTimesheetsSynchronization(true);
+
+        assertTrue(jiraOrderElementSynchronizer.syncOrderElementsWithJiraIssues().isEmpty());
+        assertTrue(orderSyncInfo.getLastSyncDate().after(lastSyncDate));
+
+        jiraOrderElementSynchronizer.syncOrderElementsWithJiraIssues();
+
+        String since = new LocalDate(DateTimeZone.UTC).minusDays(1).toString("yyyy-MM-dd");
+        assertEquals("labels=" + KEY + " AND updated >= \"" + since + "\"", searches.get(1));
+    }
+
+    private static String getJql(HttpExchange exchange) throws IOException {
+        for (String each : exchange.getRequestURI().getRawQuery().split("&")) {
+            if ( each.startsWith("jql=") ) {
+                return URLDecoder.decode(each.substring("jql=".length()), StandardCharsets.UTF_8.name());
+            }
+        }
+
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}
@@ -19,10 +19,16 @@
 
 package org.libreplan.importers;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
@@ -35,6 +41,9 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.libreplan.importers.jira.IssueDTO;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
 /**
  * Test for {@link JiraRESTClient }
  *
@@ -92,6 +101,57 @@ public class JiraRESTClientTest {
                 getJiraLabel(properties.getProperty("label")));
     }
 
+    @Test
+    public void testGetIssuesRequestsAllThePages() throws IOException {
+        final int total = 5;
+        final int pageSize = 2;
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/" + JiraRESTClient.PATH_AUTH_SESSION, exchange -> respond(exchange, "{}"));
+        server.createContext("/" + JiraRESTClient.PATH_SEARCH, exchange -> {
+            int startAt = Integer.parseInt(getQueryParameter(exchange.getRequestURI(), "startAt"));
+
+            List<String> issues = new ArrayList<>();
+            for (int i = startAt; i < Math.min(startAt + pageSize, total); i++) {
+                issues.add("{\"key\":\"ISSUE-" + i + "\"}");
+            }
+            respond(exchange, "{\"startAt\":" + startAt + ",\"maxResults\":" + pageSize +
+                    ",\"total\":" + total + ",\"issues\":[" + StringUtils.join(issues, ",") + "]}");
+        });
+        server.start();
+
+        try {
+            List<IssueDTO> issues = JiraRESTClient.getIssues(
+                    "http://localhost:" + server.getAddress().getPort() + "/", "username", "password",
+                    JiraRESTClient.PATH_SEARCH, getJiraLabel("label"));
+
+            assertEquals(total, issues.size());
+            for (int i = 0; i < total; i++) {
+                assertEquals("ISSUE-" + i, issues.get(i).getKey());
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static String getQueryParameter(URI uri, String name) {
+        for (String each : uri.getQuery().split("&")) {
+            if (each.startsWith(name + "=")) {
+                return each.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
     @Test
     @Ignore("Only working if you have a JIRA server configured")
     public void testGetIssuesForEmptyLabel() {
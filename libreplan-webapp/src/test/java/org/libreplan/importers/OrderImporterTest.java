@@ -20,6 +20,7 @@
 package org.libreplan.importers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
 import static org.libreplan.web.WebappGlobalNames.WEBAPP_SPRING_CONFIG_FILE;
@@ -30,12 +31,32 @@ import static org.libreplan.web.test.WebappGlobalNames.WEBAPP_SPRING_SECURITY_CO
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import javax.annotation.Resource;
+
+import org.hibernate.SessionFactory;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.libreplan.business.IDataBootstrap;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.daos.IConfigurationDAO;
+import org.libreplan.business.common.entities.Configuration;
+import org.libreplan.business.common.entities.EntitySequence;
+import org.libreplan.business.orders.daos.IOrderDAO;
+import org.libreplan.business.orders.entities.HoursGroup;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.planner.entities.Dependency;
+import org.libreplan.business.planner.entities.TaskGroup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Tests for {@link OrderImport}. <br />
@@ -49,9 +70,85 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
         WEBAPP_SPRING_SECURITY_CONFIG_TEST_FILE })
 public class OrderImporterTest {
 
+    @Resource
+    private IDataBootstrap defaultAdvanceTypesBootstrapListener;
+
+    @Resource
+    private IDataBootstrap scenariosBootstrap;
+
+    @Resource
+    private IDataBootstrap configurationBootstrap;
+
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
+    @Autowired
+    private IConfigurationDAO configurationDAO;
+
+    @Autowired
+    private IOrderDAO orderDAO;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
     @Autowired
     private IOrderImporter orderImporter;
 
+    @Before
+    public void loadRequiredData() {
+        transactionService.runOnAnotherTransaction(() -> {
+            defaultAdvanceTypesBootstrapListener.loadRequiredData();
+            configurationBootstrap.loadRequiredData();
+            scenariosBootstrap.loadRequiredData();
+            return null;
+        });
+    }
+
+    private Order givenImportedOrder(String name) throws FileNotFoundException {
+        String filename = System.getProperty("user.dir") + "/../scripts/mpxj-import/" + name;
+
+        OrderDTO importData = orderImporter.getImportData(new FileInputStream(filename), filename);
+        Order order = orderImporter.convertImportDataToOrder(importData, false);
+        TaskGroup taskGroup = orderImporter.createTask(importData, false);
+        List<Dependency> dependencies = orderImporter.createDependencies(importData);
+
+        orderImporter.storeOrder(order, taskGroup, dependencies);
+
+        return order;
+    }
+
+    @Test
+    @Transactional
+    public void theCodesAreTakenFromTheSequenceOfTheOrder() throws FileNotFoundException {
+        Order order = givenImportedOrder("ContainerTaskMilestoneDependencies.planner");
+        assertTrue(order.isCodeAutogenerated());
+
+        Set<String> codes = new HashSet<>();
+        for (OrderElement each : order.getAllOrderElements()) {
+            assertTrue(each.getCode().startsWith(order.getCode() + EntitySequence.CODE_SEPARATOR_CHILDREN));
+            assertTrue(codes.add(each.getCode()));
+
+            if ( each instanceof OrderLine ) {
+                for (HoursGroup hoursGroup : each.getHoursGroups()) {
+                    assertTrue(hoursGroup.getCode().startsWith(each.getCode() + EntitySequence.CODE_SEPARATOR_CHILDREN));
+                }
+            }
+        }
+        assertEquals(order.getAllOrderElements().size(), order.getLastOrderElementSequenceCode().intValue());
+    }
+
+    @Test
+    @Transactional
+    public void storingTheOrderOnlyEvictsTheImportedEntities() throws FileNotFoundException {
+        Configuration configuration = configurationDAO.getConfiguration();
+
+        Order order = givenImportedOrder("ContainerTaskMilestoneDependencies.planner");
+
+        assertTrue(sessionFactory.getCurrentSession().contains(configuration));
+        assertFalse(sessionFactory.getCurrentSession().contains(order));
+        assertTrue(orderDAO.exists(order.getId()));
+    }
+
     @Test
     public void testCreatingImportDataFromMPPFile() {
 
@@ -0,0 +1,262 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.importers.notifications;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.NoSuchProviderException;
+import javax.mail.Provider;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.URLName;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.IOnTransaction;
+import org.libreplan.business.email.daos.IEmailNotificationDAO;
+import org.libreplan.business.email.entities.EmailNotification;
+import org.libreplan.business.email.entities.EmailTemplateEnum;
+import org.libreplan.importers.notifications.EmailDispatcher.TemplateStatistics;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+/**
+ * Tests for {@link EmailDispatcher} sending through a stub SMTP transport.
+ */
+public class EmailDispatcherTest {
+
+    private static final EmailTemplateEnum TYPE = EmailTemplateEnum.TEMPLATE_TASK_ASSIGNED_TO_RESOURCE;
+
+    private static final String REJECTED = "rejected@example.org";
+
+    private static final String BUSY = "busy@example.org";
+
+    private static final AtomicInteger busyAttempts = new AtomicInteger();
+
+    private static final List<String> sentTo = Collections.synchronizedList(new ArrayList<String>());
+
+    private static volatile boolean inTransaction = false;
+
+    private static volatile boolean sentInsideTransaction = false;
+
+    private EmailDispatcher emailDispatcher;
+
+    private IEmailNotificationDAO emailNotificationDAO;
+
+    /**
+     * Records the messages sent instead of sending them, rejecting the ones
+     * sent to {@link #REJECTED} and, the first time, the ones sent to
+     * {@link #BUSY} with a transient failure.
+     */
+    public static class StubTransport extends Transport {
+
+        public StubTransport(Session session, URLName urlName) {
+            super(session, urlName);
+        }
+
+        @Override
+        protected boolean protocolConnect(String host, int port, String user, String password) {
+            return true;
+        }
+
+        @Override
+        public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+            if ( inTransaction ) {
+                sentInsideTransaction = true;
+            }
+
+            String recipient = addresses[0].toString();
+            if ( REJECTED.equals(recipient) ) {
+                throw new SMTPSendFailedException("DATA", 554, "554 Recipient rejected", null,
+                        null, null, addresses);
+            }
+            if ( BUSY.equals(recipient) && busyAttempts.getAndIncrement() == 0 ) {
+                throw new SMTPSendFailedException("DATA", 451, "451 Local error in processing", null,
+                        null, null, addresses);
+            }
+
+            sentTo.add(recipient);
+        }
+
+    }
+
+    private static class InlineTransactionService implements IAdHocTransactionService {
+
+        private <T> T run(IOnTransaction<T> onTransaction) {
+            inTransaction = true;
+            try {
+                return onTransaction.execute();
+            } finally {
+                inTransaction = false;
+            }
+        }
+
+        @Override
+        public <T> T runOnTransaction(IOnTransaction<T> onTransaction) {
+            return run(onTransaction);
+        }
+
+        @Override
+        public <T> T runOnReadOnlyTransaction(IOnTransaction<T> onTransaction) {
+            return run(onTransaction);
+        }
+
+        @Override
+        public <T> T runOnAnotherTransaction(IOnTransaction<T> onTransaction) {
+            return run(onTransaction);
+        }
+
+        @Override
+        public <T> T runOnAnotherReadOnlyTransaction(IOnTransaction<T> onTransaction) {
+            return run(onTransaction);
+        }
+
+    }
+
+    @Before
+    public void setUp() {
+        sentTo.clear();
+        sentInsideTransaction = false;
+        busyAttempts.set(0);
+
+        emailDispatcher = new EmailDispatcher();
+        emailNotificationDAO = createMock(IEmailNotificationDAO.class);
+        ReflectionTestUtils.setField(emailDispatcher, "emailNotificationDAO", emailNotificationDAO);
+        ReflectionTestUtils.setField(emailDispatcher, "transactionService", new InlineTransactionService());
+    }
+
+    @After
+    public void tearDown() {
+        emailDispatcher.shutdown();
+    }
+
+    private Session createStubSession() throws NoSuchProviderException {
+        Session result = Session.getInstance(new Properties());
+        result.setProvider(new Provider(
+                Provider.Type.TRANSPORT, "smtp", StubTransport.class.getName(), "LibrePlan", "1"));
+
+        return result;
+    }
+
+    private EmailNotification createNotification(Long id) {
+        EmailNotification result = createNiceMock(EmailNotification.class);
+        expect(result.getId()).andReturn(id).anyTimes();
+        replay(result);
+
+        return result;
+    }
+
+    private ComposeMessage composingTo(Session session, List<EmailNotification> notifications, List<String> receivers)
+            throws MessagingException {
+
+        ComposeMessage result = createNiceMock(ComposeMessage.class);
+        expect(result.createMailSession()).andReturn(session).anyTimes();
+
+        for (int i = 0; i < notifications.size(); i++) {
+            MimeMessage message = new MimeMessage(session);
+            message.setRecipient(Message.RecipientType.TO, new InternetAddress(receivers.get(i)));
+            expect(result.composeMessage(eq(notifications.get(i)), anyObject(Session.class))).andReturn(message);
+        }
+        replay(result);
+
+        return result;
+    }
+
+    @Test
+    public void theSentNotificationsAreRemovedAndTheFailedOnesAreKept() throws MessagingException {
+        EmailNotification sent = createNotification(1L);
+        EmailNotification failed = createNotification(2L);
+        List<EmailNotification> notifications = Arrays.asList(sent, failed);
+
+        expect(emailNotificationDAO.getAllByType(TYPE)).andReturn(notifications);
+        expect(emailNotificationDAO.deleteByIds(Collections.singletonList(1L))).andReturn(1);
+        replay(emailNotificationDAO);
+
+        ComposeMessage composeMessage =
+                composingTo(createStubSession(), notifications, Arrays.asList("worker@example.org", REJECTED));
+
+        assertEquals(1, emailDispatcher.dispatch(TYPE, composeMessage));
+        verify(emailNotificationDAO);
+
+        assertEquals(Collections.singletonList("worker@example.org"), sentTo);
+        assertFalse(sentInsideTransaction);
+
+        TemplateStatistics statistics = emailDispatcher.getStatistics().get(TYPE);
+        assertEquals(1, statistics.getSent());
+        assertEquals(1, statistics.getFailed());
+    }
+
+    @Test
+    public void theTransientFailuresAreRetried() throws MessagingException {
+        EmailNotification notification = createNotification(1L);
+
+        expect(emailNotificationDAO.getAllByType(TYPE)).andReturn(Collections.singletonList(notification));
+        expect(emailNotificationDAO.deleteByIds(Collections.singletonList(1L))).andReturn(1);
+        replay(emailNotificationDAO);
+
+        ComposeMessage composeMessage =
+                composingTo(createStubSession(), Collections.singletonList(notification), Collections.singletonList(BUSY));
+
+        assertEquals(1, emailDispatcher.dispatch(TYPE, composeMessage));
+        verify(emailNotificationDAO);
+
+        assertEquals(2, busyAttempts.get());
+        assertEquals(Collections.singletonList(BUSY), sentTo);
+    }
+
+    @Test
+    public void nothingIsDeletedWhenNoMessageCouldBeSent() throws MessagingException {
+        EmailNotification failed = createNotification(1L);
+
+        expect(emailNotificationDAO.getAllByType(TYPE)).andReturn(Collections.singletonList(failed));
+        replay(emailNotificationDAO);
+
+        ComposeMessage composeMessage =
+                composingTo(createStubSession(), Collections.singletonList(failed), Collections.singletonList(REJECTED));
+
+        assertEquals(0, emailDispatcher.dispatch(TYPE, composeMessage));
+        verify(emailNotificationDAO);
+        assertEquals(0, emailDispatcher.getStatistics().get(TYPE).getSent());
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2016 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.resourceload;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.SameWorkHoursEveryDay;
+import org.libreplan.business.planner.entities.ResourceAllocation;
+import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate;
+import org.libreplan.web.planner.TaskElementAdapter;
+import org.zkoss.ganttz.data.resourceload.LoadPeriod;
+
+/**
+ * Tests the {@link LoadPeriod}s built by {@link PeriodsBuilder}.
+ *
+ * Each allocation is given a different power of two as assigned effort, so
+ * the assigned effort of a period tells which allocations it contains.
+ */
+public class PeriodsBuilderTest {
+
+    private static final LocalDate START = new LocalDate(2016, 3, 1);
+
+    private final Map<ResourceAllocation<?>, EffortDuration> effortOf = new HashMap<>();
+
+    private final List<ResourceAllocation<?>> allocations = new ArrayList<>();
+
+    private final LoadPeriodGeneratorFactory factory =
+            (start, end, allocationsOnInterval) -> new LoadPeriodGenerator(start, end, allocationsOnInterval) {
+
+                @Override
+                protected EffortDuration getTotalAvailableEffort() {
+                    return hours(8);
+                }
+
+                @Override
+                protected EffortDuration getEffortAssigned() {
+                    return sumAllocations();
+                }
+
+                @Override
+                protected EffortDuration getAssignedEffortFor(ResourceAllocation<?> resourceAllocation) {
+                    return effortOf.get(resourceAllocation);
+                }
+            };
+
+    private static IntraDayDate day(int day) {
+        return IntraDayDate.startOfDay(START.plusDays(day));
+    }
+
+    private ResourceAllocation<?> givenAllocation(IntraDayDate start, IntraDayDate end) {
+        ResourceAllocation<?> result = createNiceMock(SpecificResourceAllocation.class);
+        expect(result.isSatisfied()).andReturn(true).anyTimes();
+        expect(result.getIntraDayStartDate()).andReturn(start).anyTimes();
+        expect(result.getIntraDayEndDate()).andReturn(end).anyTimes();
+        expect(result.getAllocationCalendar()).andReturn(SameWorkHoursEveryDay.getDefaultWorkingDay()).anyTimes();
+        replay(result);
+
+        effortOf.put(result, hours(1 << allocations.size()));
+        allocations.add(result);
+
+        return result;
+    }
+
+    private ResourceAllocation<?> givenAllocation(int startDay, int endDay) {
+        return givenAllocation(day(startDay), day(endDay));
+    }
+
+    private List<LoadPeriod> buildPeriods() {
+        return PeriodsBuilder.build(factory, allocations);
+    }
+
+    private void assertPeriod(LoadPeriod period, IntraDayDate start, IntraDayDate end,
+                              ResourceAllocation<?>... allocationsOnPeriod) {
+
+        assertEquals(start, TaskElementAdapter.toIntraDay(period.getStart()));
+        assertEquals(end, TaskElementAdapter.toIntraDay(period.getEnd()));
+
+        EffortDuration expectedEffort = EffortDuration.sum(Arrays.asList(allocationsOnPeriod), effortOf::get);
+        assertEquals(expectedEffort.toFormattedString(), period.getAssignedEffort());
+    }
+
+    private void assertPeriod(LoadPeriod period, int startDay, int endDay,
+                              ResourceAllocation<?>... allocationsOnPeriod) {
+
+        assertPeriod(period, day(startDay), day(endDay), allocationsOnPeriod);
+    }
+
+    @Test
+    public void overlappingAllocationsAreSplitAtTheirBounds() {
+        ResourceAllocation<?> first = givenAllocation(0, 5);
+        ResourceAllocation<?> second = givenAllocation(3, 8);
+
+        List<LoadPeriod> periods = buildPeriods();
+
+        assertEquals(3, periods.size());
+        assertPeriod(periods.get(0), 0, 3, first);
+        assertPeriod(periods.get(1), 3, 5, first, second);
+        assertPeriod(periods.get(2), 5, 8, second);
+    }
+
+    @Test
+    public void aNestedAllocationSplitsTheOneContainingIt() {
+        ResourceAllocation<?> outer = givenAllocation(0, 10);
+        ResourceAllocation<?> inner = givenAllocation(3, 5);
+        ResourceAllocation<?> sameEnd = givenAllocation(7, 10);
+
+        List<LoadPeriod> periods = buildPeriods();
+
+        assertEquals(4, periods.size());
+        assertPeriod(periods.get(0), 0, 3, outer);
+        assertPeriod(periods.get(1), 3, 5, outer, inner);
+        assertPeriod(periods.get(2), 5, 7, outer);
+        assertPeriod(periods.get(3), 7, 10, outer, sameEnd);
+    }
+
+    @Test
+    public void adjacentAllocationsKeepTheirOwnPeriods() {
+        ResourceAllocation<?> first = givenAllocation(0, 3);
+        ResourceAllocation<?> second = givenAllocation(3, 6);
+        ResourceAllocation<?> third = givenAllocation(day(6), IntraDayDate.create(START.plusDays(6), hours(4)));
+
+        List<LoadPeriod> periods = buildPeriods();
+
+        assertEquals(3, periods.size());
+        assertPeriod(periods.get(0), 0, 3, first);
+        assertPeriod(periods.get(1), 3, 6, second);
+        assertPeriod(periods.get(2), day(6), IntraDayDate.create(START.plusDays(6), hours(4)), third);
+    }
+
+    @Test
+    public void thereIsNoPeriodBetweenSeparatedAllocations() {
+        ResourceAllocation<?> first = givenAllocation(0, 2);
+        ResourceAllocation<?> second = givenAllocation(5, 6);
+
+        List<LoadPeriod> periods = buildPeriods();
+
+        assertEquals(2, periods.size());
+        assertPeriod(periods.get(0), 0, 2, first);
+        assertPeriod(periods.get(1), 5, 6, second);
+    }
+
+    @Test
+    public void anAllocationWithoutDurationHasItsOwnPeriodWhenNoOtherSpansIt() {
+        ResourceAllocation<?> alone = givenAllocation(1, 1);
+        ResourceAllocation<?> atTheStart = givenAllocation(3, 3);
+        ResourceAllocation<?> allocation = givenAllocation(3, 5);
+        ResourceAllocation<?> atTheEnd = givenAllocation(5, 5);
+        ResourceAllocation<?> sharingThePoint = givenAllocation(5, 5);
+
+        List<LoadPeriod> periods = buildPeriods();
+
+        assertEquals(5, periods.size());
+        assertPeriod(periods.get(0), 1, 1, alone);
+        assertPeriod(periods.get(1), 3, 3, atTheStart);
+        assertPeriod(periods.get(2), 3, 5, allocation);
+        assertPeriod(periods.get(3), 5, 5, atTheEnd);
+        assertPeriod(periods.get(4), 5, 5, sharingThePoint);
+    }
+
+    @Test
+    public void anAllocationWithoutDurationInsideAnotherOneOnlySplitsIt() {
+        ResourceAllocation<?> outer = givenAllocation(0, 6);
+        givenAllocation(2, 2);
+        ResourceAllocation<?> overlapping = givenAllocation(4, 8);
+        givenAllocation(5, 5);
+
+        List<LoadPeriod> periods = buildPeriods();
+
+        assertEquals(5, periods.size());
+        assertPeriod(periods.get(0), 0, 2, outer);
+        assertPeriod(periods.get(1), 2, 4, outer);
+        assertPeriod(periods.get(2), 4, 5, outer, overlapping);
+        assertPeriod(periods.get(3), 5, 6, outer, overlapping);
+        assertPeriod(periods.get(4), 6, 8, overlapping);
+    }
+
+}